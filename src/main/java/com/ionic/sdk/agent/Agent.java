@@ -1,10 +1,16 @@
 package com.ionic.sdk.agent;
 
+import com.ionic.sdk.agent.cache.ExternalIdCache;
+import com.ionic.sdk.agent.cache.KeyCache;
+import com.ionic.sdk.agent.cache.KeyCacheFactory;
+import com.ionic.sdk.agent.cache.KeyDenialCache;
 import com.ionic.sdk.agent.config.AgentConfig;
 import com.ionic.sdk.agent.data.MetadataHolder;
 import com.ionic.sdk.agent.data.MetadataMap;
 import com.ionic.sdk.agent.hfp.Fingerprint;
 import com.ionic.sdk.agent.key.KeyAttributesMap;
+import com.ionic.sdk.agent.key.merge.KeyAttributesMapMerger;
+import com.ionic.sdk.agent.request.base.AgentTransactionBase;
 import com.ionic.sdk.agent.request.createdevice.CreateDeviceRequest;
 import com.ionic.sdk.agent.request.createdevice.CreateDeviceResponse;
 import com.ionic.sdk.agent.request.createdevice.CreateDeviceTransaction;
@@ -21,6 +27,11 @@ import com.ionic.sdk.agent.request.updatekey.UpdateKeysRequest;
 import com.ionic.sdk.agent.request.updatekey.UpdateKeysResponse;
 import com.ionic.sdk.agent.request.updatekey.UpdateKeysTransaction;
 import com.ionic.sdk.agent.service.IDC;
+import com.ionic.sdk.agent.transaction.AgentTransactionListener;
+import com.ionic.sdk.agent.transaction.AgentTransactionListeners;
+import com.ionic.sdk.core.log.Diagnostics;
+import com.ionic.sdk.core.log.LogSampler;
+import com.ionic.sdk.core.value.Value;
 import com.ionic.sdk.device.profile.DeviceProfile;
 import com.ionic.sdk.device.profile.persistor.DeviceProfilePersistorBase;
 import com.ionic.sdk.error.IonicException;
@@ -28,8 +39,16 @@ import com.ionic.sdk.error.IonicServerException;
 import com.ionic.sdk.error.SdkError;
 import com.ionic.sdk.key.KeyServices;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * The main point of interaction with the Ionic SDK. This class performs all client/server communications with
@@ -37,6 +56,11 @@ import java.util.List;
  */
 public class Agent extends MetadataHolder implements KeyServices {
 
+    /**
+     * Class scoped logger.
+     */
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
     /**
      * Flag indicating initialization state of this object.
      */
@@ -62,6 +86,33 @@ public class Agent extends MetadataHolder implements KeyServices {
      */
     private Fingerprint fingerprint;
 
+    /**
+     * The listeners to be notified of server transactions made by this agent instance.
+     */
+    private final AgentTransactionListeners transactionListeners;
+
+    /**
+     * The selector of server transactions made by this agent instance, for which diagnostic logging is produced.
+     */
+    private LogSampler logSampler;
+
+    /**
+     * The cache of server mappings of external ids to key ids, consulted on {@link #getKeys(GetKeysRequest)}.
+     */
+    private ExternalIdCache externalIdCache;
+
+    /**
+     * The cache of server errors for specific key ids, consulted on {@link #getKeys(GetKeysRequest)}.
+     */
+    private KeyDenialCache keyDenialCache;
+
+    /**
+     * The persistent cache of keys received from the server (if configured), with the id of the device profile for
+     * which it was resolved.  Replaced (never modified) when the active profile changes, so that it may be read
+     * without locking.
+     */
+    private volatile KeyCacheBinding keyCacheBinding;
+
     /**
      * Default constructor.
      */
@@ -69,6 +120,10 @@ public class Agent extends MetadataHolder implements KeyServices {
         initialized = false;
         deviceProfiles = new ArrayList<DeviceProfile>();
         agentConfig = new AgentConfig();
+        transactionListeners = new AgentTransactionListeners();
+        logSampler = createLogSampler(agentConfig);
+        externalIdCache = createExternalIdCache(agentConfig);
+        keyDenialCache = createKeyDenialCache(agentConfig);
     }
 
     /**
@@ -98,6 +153,160 @@ public class Agent extends MetadataHolder implements KeyServices {
         this.fingerprint = new Fingerprint(hfp);
     }
 
+    /**
+     * Register a listener to be notified of the server transactions made by this agent instance.
+     *
+     * @param listener the listener to be notified
+     */
+    public final void addTransactionListener(final AgentTransactionListener listener) {
+        transactionListeners.add(listener);
+    }
+
+    /**
+     * Unregister a listener previously registered with this agent instance.
+     *
+     * @param listener the listener to be removed
+     * @return true iff the listener was registered
+     */
+    public final boolean removeTransactionListener(final AgentTransactionListener listener) {
+        return transactionListeners.remove(listener);
+    }
+
+    /**
+     * @return the listeners to be notified of the server transactions made by this agent instance
+     */
+    public final AgentTransactionListeners getTransactionListeners() {
+        return transactionListeners;
+    }
+
+    /**
+     * @return the selector of server transactions made by this agent instance, for which diagnostic logging is
+     * produced
+     */
+    public final LogSampler getLogSampler() {
+        return logSampler;
+    }
+
+    /**
+     * Create the diagnostic log sampler for an agent instance.  The sampling interval is read from the agent
+     * configuration (if present), or from the system properties.
+     *
+     * @param agentConfig the configuration container object for the agent
+     * @return the selector of server transactions for which diagnostic logging is produced
+     */
+    private static LogSampler createLogSampler(final AgentConfig agentConfig) {
+        final String rate = agentConfig.getProperty(
+                Diagnostics.SAMPLE_RATE, System.getProperty(Diagnostics.SAMPLE_RATE));
+        return new LogSampler(Value.toInt(rate, 1));
+    }
+
+    /**
+     * @return the cache of server mappings of external ids to key ids, consulted on {@link #getKeys(GetKeysRequest)}
+     */
+    public final ExternalIdCache getExternalIdCache() {
+        return externalIdCache;
+    }
+
+    /**
+     * Create the external id cache for an agent instance.  The cache settings are read from the agent
+     * configuration (if present), or from the system properties.
+     *
+     * @param agentConfig the configuration container object for the agent
+     * @return the cache of server mappings of external ids to key ids
+     */
+    private static ExternalIdCache createExternalIdCache(final AgentConfig agentConfig) {
+        final String ttlSecs = agentConfig.getProperty(
+                ExternalIdCache.TTL_SECS, System.getProperty(ExternalIdCache.TTL_SECS));
+        final String maxEntries = agentConfig.getProperty(
+                ExternalIdCache.MAX_ENTRIES, System.getProperty(ExternalIdCache.MAX_ENTRIES));
+        return new ExternalIdCache(Value.toInt(ttlSecs, 0),
+                Value.toInt(maxEntries, ExternalIdCache.MAX_ENTRIES_DEFAULT));
+    }
+
+    /**
+     * @return the cache of server errors for specific key ids, consulted on {@link #getKeys(GetKeysRequest)}
+     */
+    public final KeyDenialCache getKeyDenialCache() {
+        return keyDenialCache;
+    }
+
+    /**
+     * Create the key error cache for an agent instance.  The cache settings are read from the agent
+     * configuration (if present), or from the system properties.
+     *
+     * @param agentConfig the configuration container object for the agent
+     * @return the cache of server errors for specific key ids
+     */
+    private static KeyDenialCache createKeyDenialCache(final AgentConfig agentConfig) {
+        final String ttlSecs = agentConfig.getProperty(
+                KeyDenialCache.TTL_SECS, System.getProperty(KeyDenialCache.TTL_SECS));
+        final String maxEntries = agentConfig.getProperty(
+                KeyDenialCache.MAX_ENTRIES, System.getProperty(KeyDenialCache.MAX_ENTRIES));
+        return new KeyDenialCache(Value.toInt(ttlSecs, 0),
+                Value.toInt(maxEntries, KeyDenialCache.MAX_ENTRIES_DEFAULT));
+    }
+
+    /**
+     * Get the persistent cache of keys received from the server, opening it if necessary.  The cache is opened when
+     * it is configured, and when a profile is active; it is reopened if the active profile has changed.  The cache
+     * is resolved once per active profile; subsequent calls do not lock.
+     * <p>
+     * A cache returned by this method may be closed by a subsequent change of the active profile; operations on a
+     * closed cache behave as cache misses.
+     *
+     * @return the persistent key cache for the active profile; or null if no key cache is available
+     */
+    public final KeyCache getKeyCache() {
+        final DeviceProfile profile = activeProfile;
+        final String deviceId = (profile == null) ? null : profile.getDeviceId();
+        final KeyCacheBinding binding = keyCacheBinding;
+        return ((binding != null) && binding.isBoundTo(deviceId))
+                ? binding.keyCache : bindKeyCache(profile, deviceId);
+    }
+
+    /**
+     * Resolve the persistent key cache for a device profile, closing any cache bound to a different profile.  A
+     * failure to open the cache is logged, and is not retried until the active profile changes.
+     *
+     * @param profile  the active device profile (may be null)
+     * @param deviceId the id of the active device profile (may be null)
+     * @return the persistent key cache for the profile; or null if no key cache is available
+     */
+    private synchronized KeyCache bindKeyCache(final DeviceProfile profile, final String deviceId) {
+        KeyCacheBinding binding = keyCacheBinding;
+        if ((binding == null) || !binding.isBoundTo(deviceId)) {
+            closeKeyCache();
+            KeyCache cache = null;
+            if ((deviceId != null) && KeyCacheFactory.isConfigured(agentConfig)) {
+                try {
+                    cache = KeyCacheFactory.open(agentConfig, profile);
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, deviceId, e);
+                } catch (IonicException e) {
+                    logger.log(Level.WARNING, deviceId, e);
+                }
+            }
+            binding = new KeyCacheBinding(deviceId, cache);
+            keyCacheBinding = binding;
+        }
+        return binding.keyCache;
+    }
+
+    /**
+     * Close the persistent cache of keys received from the server (if open).
+     */
+    private synchronized void closeKeyCache() {
+        final KeyCacheBinding binding = keyCacheBinding;
+        keyCacheBinding = null;
+        if ((binding != null) && (binding.keyCache != null)) {
+            try {
+                binding.keyCache.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, binding.deviceId, e);
+            }
+        }
+    }
+
     /**
      * Get the current configuration of the agent. Configuration cannot be changed directly through this object.
      * Configuration is done through the initialization functions and cannot be changed after the agent is initialized.
@@ -157,12 +366,18 @@ public class Agent extends MetadataHolder implements KeyServices {
      */
     private boolean setActiveProfileInternal(final String deviceId) {
         boolean found = false;
+        final DeviceProfile activeProfilePrevious = this.activeProfile;
         for (DeviceProfile deviceProfile : this.deviceProfiles) {
             if (deviceProfile.getDeviceId().equals(deviceId)) {
                 found = true;
                 this.activeProfile = deviceProfile;
             }
         }
+        // cached server responses are specific to the key tenant of the active profile
+        if (this.activeProfile != activeProfilePrevious) {
+            externalIdCache.invalidateAll();
+            keyDenialCache.purgeAll();
+        }
         return found;
     }
 
@@ -521,6 +736,93 @@ public class Agent extends MetadataHolder implements KeyServices {
      * @throws IonicException if an error occurs
      */
     private GetKeysResponse getKeysInternal(final GetKeysRequest request) throws IonicException {
+        final ExternalIdCache idCache = externalIdCache;
+        final KeyDenialCache denialCache = keyDenialCache;
+        final KeyCache cache = getKeyCache();
+        if (!idCache.isEnabled() && !denialCache.isEnabled() && (cache == null)) {
+            return getKeysServer(request);
+        }
+        // external ids with cached mappings are resolved locally; their mapped key ids are fetched directly
+        final Map<String, List<String>> resolved = new LinkedHashMap<String, List<String>>();
+        final Set<String> keyIds = new LinkedHashSet<String>(request.getKeyIds());
+        final GetKeysRequest requestServer = new GetKeysRequest();
+        requestServer.setMetadata(request.getMetadata());
+        for (final String externalId : request.getExternalIds()) {
+            final List<String> mappedIds = resolved.containsKey(externalId)
+                    ? resolved.get(externalId) : idCache.resolve(externalId);
+            if (mappedIds == null) {
+                requestServer.addExternalId(externalId);
+            } else {
+                resolved.put(externalId, mappedIds);
+                keyIds.addAll(mappedIds);
+            }
+        }
+        // key ids with cached keys or cached server errors are answered locally
+        final List<GetKeysResponse.Key> cached = new ArrayList<GetKeysResponse.Key>();
+        final List<GetKeysResponse.IonicError> denied = new ArrayList<GetKeysResponse.IonicError>();
+        for (final String keyId : keyIds) {
+            final GetKeysResponse.IonicError error = denialCache.get(keyId);
+            final GetKeysResponse.Key key = ((error != null) || (cache == null)) ? null : cache.get(keyId);
+            if (error != null) {
+                denied.add(error);
+            } else if (key != null) {
+                cached.add(key);
+            } else {
+                requestServer.add(keyId);
+            }
+        }
+        final boolean isEmpty = requestServer.getKeyIds().isEmpty() && requestServer.getExternalIds().isEmpty();
+        final GetKeysResponse response = isEmpty ? new GetKeysResponse() : getKeysServer(requestServer);
+        cacheGetKeysResponse(response, cache);
+        for (final GetKeysResponse.Key key : cached) {
+            response.add(key);
+        }
+        for (final Map.Entry<String, List<String>> entry : resolved.entrySet()) {
+            response.add(new GetKeysResponse.QueryResult(entry.getKey(), entry.getValue()));
+        }
+        for (final GetKeysResponse.IonicError error : denied) {
+            response.add(error);
+        }
+        return response;
+    }
+
+    /**
+     * Record the cacheable content of a server response (external id mappings, keys, and key errors).
+     *
+     * @param response The protection key response output data object.
+     * @param cache    The persistent key cache (or null, if no key cache is available).
+     */
+    private void cacheGetKeysResponse(final GetKeysResponse response, final KeyCache cache) {
+        final Set<String> externalIdsError = new HashSet<String>();
+        for (final GetKeysResponse.QueryResult queryResult : response.getQueryResults()) {
+            if (queryResult.getErrorCode() != 0) {
+                externalIdsError.add(queryResult.getKeyId());
+            }
+        }
+        for (final GetKeysResponse.QueryResult queryResult : response.getQueryResults()) {
+            if (!externalIdsError.contains(queryResult.getKeyId())) {
+                externalIdCache.put(queryResult.getKeyId(), queryResult.getMappedIds());
+            }
+        }
+        // only key denials and unknown key ids are cached; transient server errors are not
+        for (final GetKeysResponse.IonicError error : response.getErrors()) {
+            keyDenialCache.put(error);
+        }
+        if (cache != null) {
+            for (final GetKeysResponse.Key key : response.getKeys()) {
+                cache.put(key);
+            }
+        }
+    }
+
+    /**
+     * Gets protection keys from Ionic.com.
+     *
+     * @param request The protection key request input data object.
+     * @return The protection key response output data object.
+     * @throws IonicException if an error occurs
+     */
+    private GetKeysResponse getKeysServer(final GetKeysRequest request) throws IonicException {
         final GetKeysResponse response = new GetKeysResponse();
         final GetKeysTransaction transaction = new GetKeysTransaction(this, request, response);
         transaction.run();
@@ -565,9 +867,149 @@ public class Agent extends MetadataHolder implements KeyServices {
      * @throws IonicException if an error occurs
      */
     private UpdateKeysResponse updateKeysInternal(final UpdateKeysRequest request) throws IonicException {
+        final KeyAttributesMapMerger merger = request.getAttributesMerger();
+        if (merger == null) {
+            return updateKeysServer(request, new UpdateKeysResponse());
+        }
         final UpdateKeysResponse response = new UpdateKeysResponse();
+        final IonicException exception = updateKeysServerNoThrow(request, response);
+        UpdateKeysRequest requestRound = request;
+        UpdateKeysResponse responseRound = response;
+        for (int round = 0; (round < request.getMergeRounds()); ++round) {
+            final UpdateKeysRequest requestMerge = mergeStaleKeys(requestRound, responseRound, merger);
+            if (requestMerge.getKeys().isEmpty()) {
+                break;
+            }
+            final UpdateKeysResponse responseMerge = new UpdateKeysResponse();
+            try {
+                updateKeysServerNoThrow(requestMerge, responseMerge);
+            } catch (IonicException e) {
+                // keys not resubmitted keep their stale attributes error
+                logger.log(Level.WARNING, e.getMessage(), e);
+                break;
+            }
+            // outcome of follow-up request replaces outcome of previous request for the affected keys
+            final Set<String> keyIdsMerge = new HashSet<String>();
+            for (final UpdateKeysResponse.Key key : responseMerge.getKeys()) {
+                keyIdsMerge.add(key.getId());
+            }
+            for (final UpdateKeysResponse.IonicError error : responseMerge.getErrors()) {
+                keyIdsMerge.add(error.getKeyId());
+            }
+            final Set<UpdateKeysResponse.IonicError> errorsReplaced = new HashSet<UpdateKeysResponse.IonicError>();
+            for (final UpdateKeysResponse.IonicError error : response.getErrors()) {
+                if (keyIdsMerge.contains(error.getKeyId())) {
+                    errorsReplaced.add(error);
+                }
+            }
+            response.getErrors().removeAll(errorsReplaced);
+            response.getKeys().addAll(responseMerge.getKeys());
+            response.getErrors().addAll(responseMerge.getErrors());
+            requestRound = requestMerge;
+            responseRound = responseMerge;
+        }
+        if ((exception != null) && response.getKeys().isEmpty()) {
+            throw exception;
+        }
+        return response;
+    }
+
+    /**
+     * Prepare a follow-up update request for the keys rejected in an update response due to stale attributes.  The
+     * current state of the rejected keys is fetched from the server, and the changes requested by the client are
+     * merged into it.  A key is left out of the follow-up request (keeping its stale attributes error in the
+     * response) if its current state cannot be fetched, or if the merge of its attributes fails.
+     *
+     * @param request  the update request
+     * @param response the server response to the update request
+     * @param merger   the merge logic to be applied to the mutable attributes of the rejected keys
+     * @return the follow-up update request (empty, if no keys are to be resubmitted)
+     */
+    private UpdateKeysRequest mergeStaleKeys(final UpdateKeysRequest request, final UpdateKeysResponse response,
+                                             final KeyAttributesMapMerger merger) {
+        final UpdateKeysRequest requestMerge = new UpdateKeysRequest();
+        requestMerge.setMetadata(request.getMetadata());
+        final GetKeysRequest getKeysRequest = new GetKeysRequest();
+        getKeysRequest.setMetadata(request.getMetadata());
+        for (final UpdateKeysResponse.IonicError error : response.getErrors()) {
+            if (error.getServerError() == AgentTransactionBase.POLICY_SERVER_ERROR_STALE_ATTRIBUTES) {
+                getKeysRequest.add(error.getKeyId());
+            }
+        }
+        if (getKeysRequest.getKeyIds().isEmpty()) {
+            return requestMerge;
+        }
+        final GetKeysResponse getKeysResponse = new GetKeysResponse();
+        try {
+            new GetKeysTransaction(this, getKeysRequest, getKeysResponse).run();
+        } catch (IonicException e) {
+            // keys not fetched keep their stale attributes error
+            logger.log(Level.WARNING, e.getMessage(), e);
+        }
+        for (final String keyId : getKeysRequest.getKeyIds()) {
+            final UpdateKeysRequest.Key keyClient = request.getKey(keyId);
+            final GetKeysResponse.Key keyServer = getKeysResponse.getKey(keyId);
+            if ((keyClient != null) && (keyServer != null)) {
+                final KeyAttributesMap mergedAttributes = new KeyAttributesMap();
+                final int rc = merger.mergeKeyAttributeMaps(true, keyClient.getMutableAttributesMapFromServer(),
+                        keyServer.getMutableAttributesMap(), keyClient.getMutableAttributesMap(), mergedAttributes);
+                if (rc == SdkError.ISAGENT_OK) {
+                    final UpdateKeysRequest.Key keyMerge = new UpdateKeysRequest.Key(
+                            keyServer, keyClient.getForceUpdate());
+                    keyMerge.setMutableAttributesMap(mergedAttributes);
+                    requestMerge.addKey(keyMerge);
+                } else {
+                    Diagnostics.log(logger, Level.WARNING, "key %s: attribute merge failed, %d", keyId, rc);
+                }
+            }
+        }
+        return requestMerge;
+    }
+
+    /**
+     * Updates one or more protection keys through Ionic.com.  A failure of the request due to the rejection of all
+     * of its keys is returned rather than thrown, so that the rejections may be inspected in the response.
+     *
+     * @param request  The protection key request input data object.
+     * @param response The protection key response output data object.
+     * @return the failure of the request, if all of its keys were rejected; otherwise null
+     * @throws IonicException if an error occurs
+     */
+    private IonicException updateKeysServerNoThrow(final UpdateKeysRequest request,
+                                                   final UpdateKeysResponse response) throws IonicException {
+        try {
+            updateKeysServer(request, response);
+            return null;
+        } catch (IonicException e) {
+            if (response.getKeys().isEmpty() && !response.getErrors().isEmpty()) {
+                return e;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Updates one or more protection keys through Ionic.com.
+     *
+     * @param request  The protection key request input data object.
+     * @param response The protection key response output data object.
+     * @return The protection key response output data object.
+     * @throws IonicException if an error occurs
+     */
+    private UpdateKeysResponse updateKeysServer(final UpdateKeysRequest request,
+                                                final UpdateKeysResponse response) throws IonicException {
         final UpdateKeysTransaction transaction = new UpdateKeysTransaction(this, request, response);
-        transaction.run();
+        try {
+            transaction.run();
+        } finally {
+            // cached copies of the keys no longer reflect the server key attributes
+            final KeyCache cache = getKeyCache();
+            if (cache != null) {
+                for (final UpdateKeysRequest.Key key : request.getKeys()) {
+                    cache.remove(key.getId());
+                }
+            }
+        }
         return response;
     }
 
@@ -755,6 +1197,10 @@ public class Agent extends MetadataHolder implements KeyServices {
         loadProfilesInternal(persistor);
         this.initialized = true;
         this.agentConfig = agentConfig;
+        this.logSampler = createLogSampler(agentConfig);
+        this.externalIdCache = createExternalIdCache(agentConfig);
+        this.keyDenialCache = createKeyDenialCache(agentConfig);
+        closeKeyCache();
         setMetadata(metadata);
         setMetadata(IDC.Metadata.IONIC_AGENT, SdkVersion.getAgentString());
         this.fingerprint = fingerprint;
@@ -775,4 +1221,39 @@ public class Agent extends MetadataHolder implements KeyServices {
      * the only key origin string that will ever be used.
      */
     public static final String KEYORIGIN_IONIC_KEYSERVER = IDC.Metadata.KEYORIGIN_IONIC;
+
+    /**
+     * The persistent key cache resolved for a device profile.
+     */
+    private static final class KeyCacheBinding {
+
+        /**
+         * The id of the device profile for which the cache was resolved (null if no profile was active).
+         */
+        private final String deviceId;
+
+        /**
+         * The persistent key cache for the profile; or null if no key cache is available.
+         */
+        private final KeyCache keyCache;
+
+        /**
+         * Constructor.
+         *
+         * @param deviceId the id of the device profile for which the cache was resolved
+         * @param keyCache the persistent key cache for the profile
+         */
+        private KeyCacheBinding(final String deviceId, final KeyCache keyCache) {
+            this.deviceId = deviceId;
+            this.keyCache = keyCache;
+        }
+
+        /**
+         * @param deviceIdActive the id of the active device profile (may be null)
+         * @return true iff this binding was resolved for the specified profile
+         */
+        private boolean isBoundTo(final String deviceIdActive) {
+            return (deviceId == null) ? (deviceIdActive == null) : deviceId.equals(deviceIdActive);
+        }
+    }
 }
@@ -0,0 +1,223 @@
+package com.ionic.sdk.agent.bulk;
+
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherAbstract;
+import com.ionic.sdk.agent.request.getkey.GetKeysRequest;
+import com.ionic.sdk.agent.request.getkey.GetKeysResponse;
+import com.ionic.sdk.core.exec.TaskExecutors;
+import com.ionic.sdk.error.IonicException;
+import com.ionic.sdk.error.SdkData;
+import com.ionic.sdk.error.SdkError;
+import com.ionic.sdk.key.KeyServices;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Run bulk SDK operations (multi-key fetch, chunk cipher encrypt / decrypt of many values, dispatch of work to
+ * several device profiles) as concurrent tasks.
+ * <p>
+ * Tasks are run using an executor obtained from {@link TaskExecutors}.  On JRE 21+ (when the SDK is packaged as a
+ * multi-release jar), each task is run in its own virtual thread, so that many concurrent server transactions may be
+ * in flight without a corresponding number of platform threads.  On earlier JREs, a bounded pool of platform threads
+ * is used.
+ * <p>
+ * Instances should be closed after use, in order to release the executor.
+ */
+public final class BulkOperations implements AutoCloseable {
+
+    /**
+     * The executor used to run concurrent tasks.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Constructor.
+     *
+     * @param parallelism the maximum number of concurrent tasks, when a platform thread pool is used
+     */
+    public BulkOperations(final int parallelism) {
+        this.executor = TaskExecutors.newExecutor(parallelism);
+    }
+
+    /**
+     * Constructor.  Use the default parallelism for platform thread pools.
+     */
+    public BulkOperations() {
+        this(PARALLELISM_DEFAULT);
+    }
+
+    /**
+     * Release the executor used by this object.  Tasks already submitted are allowed to complete.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Fetch the specified keys, using concurrent server transactions of (up to) <code>batchSize</code> keys each.
+     *
+     * @param keyServices the KeyServices implementation used to fetch the keys
+     * @param keyIds      the ids of the keys to fetch
+     * @param batchSize   the maximum number of keys to request in each server transaction
+     * @return a response aggregating the keys, errors, and query results of each of the server transactions
+     * @throws IonicException on failure of any of the server transactions
+     */
+    public GetKeysResponse getKeys(final KeyServices keyServices, final List<String> keyIds, final int batchSize)
+            throws IonicException {
+        SdkData.checkNotNull(keyServices, KeyServices.class.getName());
+        SdkData.checkNotNull(keyIds, GetKeysRequest.class.getName());
+        final int batch = Math.max(1, batchSize);
+        final List<Callable<GetKeysResponse>> tasks = new ArrayList<Callable<GetKeysResponse>>();
+        for (int i = 0; (i < keyIds.size()); i += batch) {
+            final GetKeysRequest request = new GetKeysRequest();
+            for (final String keyId : keyIds.subList(i, Math.min(keyIds.size(), i + batch))) {
+                request.add(keyId);
+            }
+            tasks.add(new Callable<GetKeysResponse>() {
+                @Override
+                public GetKeysResponse call() throws IonicException {
+                    return keyServices.getKeys(request);
+                }
+            });
+        }
+        final GetKeysResponse response = new GetKeysResponse();
+        for (final GetKeysResponse responseIt : invokeAll(tasks)) {
+            for (final GetKeysResponse.Key key : responseIt.getKeys()) {
+                response.add(key);
+            }
+            for (final GetKeysResponse.IonicError error : responseIt.getErrors()) {
+                response.add(error);
+            }
+            for (final GetKeysResponse.QueryResult queryResult : responseIt.getQueryResults()) {
+                response.add(queryResult);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Encrypt each of the specified values, using concurrent tasks.
+     *
+     * @param chunkCipher the chunk cipher used to encrypt the values
+     * @param plainTexts  the values to encrypt
+     * @return the protected representations of the input values, in the order of the input values
+     * @throws IonicException on failure of any of the encrypt operations
+     */
+    public List<String> encrypt(final ChunkCipherAbstract chunkCipher, final List<String> plainTexts)
+            throws IonicException {
+        SdkData.checkNotNull(chunkCipher, ChunkCipherAbstract.class.getName());
+        final List<Callable<String>> tasks = new ArrayList<Callable<String>>();
+        for (final String plainText : plainTexts) {
+            tasks.add(new Callable<String>() {
+                @Override
+                public String call() throws IonicException {
+                    return chunkCipher.encrypt(plainText);
+                }
+            });
+        }
+        return invokeAll(tasks);
+    }
+
+    /**
+     * Decrypt each of the specified values, using concurrent tasks.
+     *
+     * @param chunkCipher the chunk cipher used to decrypt the values
+     * @param cipherTexts the protected values to decrypt
+     * @return the plain text representations of the input values, in the order of the input values
+     * @throws IonicException on failure of any of the decrypt operations
+     */
+    public List<String> decrypt(final ChunkCipherAbstract chunkCipher, final List<String> cipherTexts)
+            throws IonicException {
+        SdkData.checkNotNull(chunkCipher, ChunkCipherAbstract.class.getName());
+        final List<Callable<String>> tasks = new ArrayList<Callable<String>>();
+        for (final String cipherText : cipherTexts) {
+            tasks.add(new Callable<String>() {
+                @Override
+                public String call() throws IonicException {
+                    return chunkCipher.decrypt(cipherText);
+                }
+            });
+        }
+        return invokeAll(tasks);
+    }
+
+    /**
+     * Perform a unit of work against each of the specified KeyServices implementations (for example, agents
+     * initialized with different device profiles), using concurrent tasks.
+     *
+     * @param keyServicesList the KeyServices implementations against which the work should be performed
+     * @param task            the work to perform
+     * @param <T>             the type of the result of the work
+     * @return the results of the work, in the order of the input KeyServices implementations
+     * @throws IonicException on failure of any of the units of work
+     */
+    public <T> List<T> dispatch(final List<? extends KeyServices> keyServicesList, final KeyServicesTask<T> task)
+            throws IonicException {
+        SdkData.checkNotNull(task, KeyServicesTask.class.getName());
+        final List<Callable<T>> tasks = new ArrayList<Callable<T>>();
+        for (final KeyServices keyServices : keyServicesList) {
+            tasks.add(new Callable<T>() {
+                @Override
+                public T call() throws IonicException {
+                    return task.run(keyServices);
+                }
+            });
+        }
+        return invokeAll(tasks);
+    }
+
+    /**
+     * Perform a unit of work against each of the specified KeyServices implementations, using concurrent tasks.
+     *
+     * @param keyServicesMap the KeyServices implementations (keyed by a caller-supplied label)
+     * @param task           the work to perform
+     * @param <T>            the type of the result of the work
+     * @return the results of the work, in the iteration order of the input map
+     * @throws IonicException on failure of any of the units of work
+     */
+    public <T> List<T> dispatch(final Map<String, ? extends KeyServices> keyServicesMap,
+                                final KeyServicesTask<T> task) throws IonicException {
+        return dispatch(new ArrayList<KeyServices>(keyServicesMap.values()), task);
+    }
+
+    /**
+     * Run the specified tasks concurrently, and wait for all of them to complete.
+     *
+     * @param tasks the tasks to run
+     * @param <T>   the type of the result of the tasks
+     * @return the results of the tasks, in the order of the input tasks
+     * @throws IonicException on failure of any of the tasks (the first failure in task order is reported)
+     */
+    public <T> List<T> invokeAll(final List<Callable<T>> tasks) throws IonicException {
+        final List<T> results = new ArrayList<T>(tasks.size());
+        try {
+            for (final Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IonicException(SdkError.ISAGENT_ERROR, e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IonicException) {
+                throw (IonicException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IonicException(SdkError.ISAGENT_ERROR, cause);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The default maximum number of concurrent tasks, when a platform thread pool is used.
+     */
+    private static final int PARALLELISM_DEFAULT = 16;
+}
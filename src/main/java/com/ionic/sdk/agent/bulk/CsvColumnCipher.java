@@ -0,0 +1,509 @@
+package com.ionic.sdk.agent.bulk;
+
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherAbstract;
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherAuto;
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherKeySession;
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherV3;
+import com.ionic.sdk.agent.cipher.chunk.data.ChunkCryptoEncryptAttributes;
+import com.ionic.sdk.agent.key.KeyAttributesMap;
+import com.ionic.sdk.core.exec.TaskExecutors;
+import com.ionic.sdk.core.value.Value;
+import com.ionic.sdk.error.IonicException;
+import com.ionic.sdk.error.SdkData;
+import com.ionic.sdk.error.SdkError;
+import com.ionic.sdk.key.KeyServices;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Encrypt (or decrypt) selected columns of delimited text (for example, CSV exports), using concurrent tasks.
+ * <p>
+ * The input is read in blocks of records.  Each block is transformed by a task run using an executor obtained from
+ * {@link TaskExecutors}, and the transformed blocks are written to the output in input order.  At most
+ * <code>2 * parallelism</code> blocks are in memory at once, so that memory use does not depend on the size of the
+ * input.
+ * <p>
+ * When encrypting, each block is encrypted with its own key (using {@link ChunkCipherV3}), so that key creation for
+ * a block proceeds concurrently with the encryption of other blocks.  When decrypting, the key of each protected value
+ * is fetched by its own request, so that the key policy is checked for each decrypt.
+ * <p>
+ * Records are parsed as described in RFC 4180; quoted fields may contain delimiters, quotes, and line breaks.  Fields
+ * outside the selected columns (and any header record) are copied unchanged.  Empty values are not encrypted.
+ * <p>
+ * Instances should be closed after use, in order to release the executor.
+ */
+public final class CsvColumnCipher implements AutoCloseable {
+
+    /**
+     * Key services implementation; used to broker key transactions.
+     */
+    private final KeyServices agent;
+
+    /**
+     * The (zero-based) indexes of the columns to be transformed.
+     */
+    private final int[] columns;
+
+    /**
+     * The field delimiter.
+     */
+    private final char delimiter;
+
+    /**
+     * True iff the first record of the input is a header, to be copied unchanged.
+     */
+    private final boolean header;
+
+    /**
+     * The number of records in each block.
+     */
+    private final int blockSize;
+
+    /**
+     * The maximum number of blocks being transformed at once.
+     */
+    private final int parallelism;
+
+    /**
+     * The attributes of the keys created to encrypt blocks.
+     */
+    private final KeyAttributesMap attributes;
+
+    /**
+     * The executor used to run concurrent tasks.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Constructor.
+     *
+     * @param agent       the key services implementation
+     * @param columns     the (zero-based) indexes of the columns to be transformed
+     * @param delimiter   the field delimiter
+     * @param header      true iff the first record of the input is a header, to be copied unchanged
+     * @param blockSize   the number of records in each block
+     * @param parallelism the maximum number of blocks being transformed at once
+     * @param attributes  the attributes of the keys created to encrypt blocks
+     */
+    public CsvColumnCipher(final KeyServices agent, final int[] columns, final char delimiter, final boolean header,
+                           final int blockSize, final int parallelism, final KeyAttributesMap attributes) {
+        SdkData.checkNotNullNPE(agent, KeyServices.class.getName());
+        this.agent = agent;
+        this.columns = columns.clone();
+        Arrays.sort(this.columns);
+        this.delimiter = delimiter;
+        this.header = header;
+        this.blockSize = Math.max(1, blockSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.attributes = new KeyAttributesMap(attributes);
+        this.executor = TaskExecutors.newExecutor(this.parallelism);
+    }
+
+    /**
+     * Constructor.  Use comma delimited records with a header, and the default block size and parallelism.
+     *
+     * @param agent   the key services implementation
+     * @param columns the (zero-based) indexes of the columns to be transformed
+     */
+    public CsvColumnCipher(final KeyServices agent, final int[] columns) {
+        this(agent, columns, ',', true, BLOCK_SIZE_DEFAULT, Runtime.getRuntime().availableProcessors(),
+                new KeyAttributesMap());
+    }
+
+    /**
+     * Release the executor used by this object.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Encrypt the selected columns of the input records.
+     *
+     * @param input  the source of the delimited records
+     * @param output the destination of the transformed records
+     * @throws IonicException on I/O or cryptography errors
+     */
+    public void encrypt(final Reader input, final Writer output) throws IonicException {
+        transform(input, output, true);
+    }
+
+    /**
+     * Decrypt the selected columns of the input records.  Values which are not Ionic chunk ciphertext are copied
+     * unchanged.
+     *
+     * @param input  the source of the delimited records
+     * @param output the destination of the transformed records
+     * @throws IonicException on I/O or cryptography errors
+     */
+    public void decrypt(final Reader input, final Writer output) throws IonicException {
+        transform(input, output, false);
+    }
+
+    /**
+     * Read the input in blocks, transform the blocks concurrently, and write the transformed blocks in input order.
+     *
+     * @param input   the source of the delimited records
+     * @param output  the destination of the transformed records
+     * @param encrypt true to encrypt the selected columns; false to decrypt them
+     * @throws IonicException on I/O or cryptography errors
+     */
+    private void transform(final Reader input, final Writer output, final boolean encrypt) throws IonicException {
+        final RecordReader reader = new RecordReader(input, delimiter);
+        final Deque<Future<String>> pending = new ArrayDeque<Future<String>>();
+        try {
+            if (header) {
+                final List<String> record = reader.read();
+                if (record != null) {
+                    output.write(toString(record, reader.getTerminator()));
+                }
+            }
+            boolean eof = false;
+            while (!eof || !pending.isEmpty()) {
+                if (!eof && (pending.size() < (2 * parallelism))) {
+                    final Block block = new Block();
+                    for (List<String> record = reader.read(); (record != null); record = reader.read()) {
+                        block.add(record, reader.getTerminator());
+                        if (block.records.size() == blockSize) {
+                            break;
+                        }
+                    }
+                    eof = (block.records.size() < blockSize);
+                    if (!block.records.isEmpty()) {
+                        pending.add(executor.submit(new BlockTask(block, encrypt)));
+                    }
+                } else {
+                    output.write(pending.remove().get());
+                }
+            }
+            output.flush();
+        } catch (IOException e) {
+            throw new IonicException(SdkError.ISAGENT_ERROR, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IonicException(SdkError.ISAGENT_ERROR, e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IonicException) {
+                throw (IonicException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IonicException(SdkError.ISAGENT_ERROR, cause);
+            }
+        } finally {
+            for (final Future<String> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Serialize a record.
+     *
+     * @param record     the (raw) fields of the record
+     * @param terminator the line break which ended the record in the input
+     * @return the serialized record
+     */
+    private String toString(final List<String> record, final String terminator) {
+        final StringBuilder buffer = new StringBuilder();
+        append(buffer, record, terminator);
+        return buffer.toString();
+    }
+
+    /**
+     * Serialize a record.
+     *
+     * @param buffer     the destination of the serialized record
+     * @param record     the (raw) fields of the record
+     * @param terminator the line break which ended the record in the input
+     */
+    private void append(final StringBuilder buffer, final List<String> record, final String terminator) {
+        for (int i = 0; (i < record.size()); ++i) {
+            if (i > 0) {
+                buffer.append(delimiter);
+            }
+            buffer.append(record.get(i));
+        }
+        buffer.append(terminator);
+    }
+
+    /**
+     * Remove the quotes (if any) from a raw field.
+     *
+     * @param raw the field, as found in the input
+     * @return the field value
+     */
+    private static String unquote(final String raw) {
+        if ((raw.length() >= 2) && (raw.charAt(0) == QUOTE) && (raw.charAt(raw.length() - 1) == QUOTE)) {
+            return raw.substring(1, raw.length() - 1).replace(QUOTE_ESCAPED, QUOTE_STRING);
+        } else {
+            return raw;
+        }
+    }
+
+    /**
+     * Quote a field value, if needed.
+     *
+     * @param value the field value
+     * @return the field, as it should be written to the output
+     */
+    private String quote(final String value) {
+        for (int i = 0; (i < value.length()); ++i) {
+            final char c = value.charAt(i);
+            if ((c == delimiter) || (c == QUOTE) || (c == '\r') || (c == '\n')) {
+                return QUOTE + value.replace(QUOTE_STRING, QUOTE_ESCAPED) + QUOTE;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * A block of records read from the input.
+     */
+    private static final class Block {
+
+        /**
+         * The (raw) fields of each record.
+         */
+        private final List<List<String>> records = new ArrayList<List<String>>();
+
+        /**
+         * The line break which ended each record in the input.
+         */
+        private final List<String> terminators = new ArrayList<String>();
+
+        /**
+         * Add a record to the block.
+         *
+         * @param record     the (raw) fields of the record
+         * @param terminator the line break which ended the record in the input
+         */
+        private void add(final List<String> record, final String terminator) {
+            records.add(record);
+            terminators.add(terminator);
+        }
+    }
+
+    /**
+     * Task which transforms the selected columns of a block of records.
+     */
+    private final class BlockTask implements Callable<String> {
+
+        /**
+         * The records to be transformed.
+         */
+        private final Block block;
+
+        /**
+         * True to encrypt the selected columns; false to decrypt them.
+         */
+        private final boolean encrypt;
+
+        /**
+         * Constructor.
+         *
+         * @param block   the records to be transformed
+         * @param encrypt true to encrypt the selected columns; false to decrypt them
+         */
+        private BlockTask(final Block block, final boolean encrypt) {
+            this.block = block;
+            this.encrypt = encrypt;
+        }
+
+        @Override
+        public String call() throws IonicException {
+            // a cipher (and, when encrypting, a key session) per block; the session keeps a single key for the block
+            final ChunkCipherAbstract cipher = encrypt ? new ChunkCipherV3(agent) : new ChunkCipherAuto(agent);
+            if (encrypt) {
+                cipher.setKeySession(new ChunkCipherKeySession(
+                        ChunkCipherKeySession.MAX_USES_GCM, Long.MAX_VALUE, Long.MAX_VALUE));
+            }
+            final ChunkCryptoEncryptAttributes encryptAttributes = new ChunkCryptoEncryptAttributes(attributes);
+            final StringBuilder buffer = new StringBuilder();
+            for (int i = 0; (i < block.records.size()); ++i) {
+                final List<String> record = block.records.get(i);
+                for (final int column : columns) {
+                    if (column >= record.size()) {
+                        break;
+                    }
+                    final String value = unquote(record.get(column));
+                    if (Value.isEmpty(value)) {
+                        continue;
+                    } else if (encrypt) {
+                        record.set(column, quote(cipher.encrypt(value, encryptAttributes)));
+                    } else if (cipher.getChunkInfo(value).isEncrypted()) {
+                        record.set(column, quote(cipher.decrypt(value)));
+                    }
+                }
+                append(buffer, record, block.terminators.get(i));
+            }
+            return buffer.toString();
+        }
+    }
+
+    /**
+     * Reader of delimited records.  Fields are returned as found in the input (including any quotes), so that
+     * fields which are not transformed may be copied unchanged.
+     */
+    private static final class RecordReader {
+
+        /**
+         * The source of the delimited records.
+         */
+        private final Reader reader;
+
+        /**
+         * The field delimiter.
+         */
+        private final char delimiter;
+
+        /**
+         * Buffered input.
+         */
+        private final char[] buffer = new char[BUFFER_SIZE];
+
+        /**
+         * The position of the next character in the buffer.
+         */
+        private int position = 0;
+
+        /**
+         * The number of characters in the buffer.
+         */
+        private int limit = 0;
+
+        /**
+         * The line break which ended the most recently read record.
+         */
+        private String terminator = "";
+
+        /**
+         * Constructor.
+         *
+         * @param reader    the source of the delimited records
+         * @param delimiter the field delimiter
+         */
+        private RecordReader(final Reader reader, final char delimiter) {
+            this.reader = reader;
+            this.delimiter = delimiter;
+        }
+
+        /**
+         * @return the line break which ended the most recently read record ("" at the end of the input)
+         */
+        private String getTerminator() {
+            return terminator;
+        }
+
+        /**
+         * Read the next record.
+         *
+         * @return the (raw) fields of the record; or null at the end of the input
+         * @throws IOException on failure reading the input
+         */
+        private List<String> read() throws IOException {
+            int c = next();
+            if (c < 0) {
+                return null;
+            }
+            final List<String> record = new ArrayList<String>();
+            final StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        throw new IOException("unterminated quoted field");
+                    }
+                    field.append((char) c);
+                    if (c == QUOTE) {
+                        final int peek = peek();
+                        if (peek == QUOTE) {
+                            field.append((char) next());
+                        } else {
+                            quoted = false;
+                        }
+                    }
+                } else if ((c < 0) || (c == '\r') || (c == '\n')) {
+                    record.add(field.toString());
+                    if (c < 0) {
+                        terminator = "";
+                    } else if ((c == '\r') && (peek() == '\n')) {
+                        terminator = "\r" + (char) next();
+                    } else {
+                        terminator = String.valueOf((char) c);
+                    }
+                    return record;
+                } else if (c == delimiter) {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append((char) c);
+                    quoted = ((c == QUOTE) && (field.length() == 1));
+                }
+                c = next();
+            }
+        }
+
+        /**
+         * @return the next character of the input, which is consumed; or -1 at the end of the input
+         * @throws IOException on failure reading the input
+         */
+        private int next() throws IOException {
+            final int c = peek();
+            if (c >= 0) {
+                ++position;
+            }
+            return c;
+        }
+
+        /**
+         * @return the next character of the input, which is not consumed; or -1 at the end of the input
+         * @throws IOException on failure reading the input
+         */
+        private int peek() throws IOException {
+            if (position == limit) {
+                limit = Math.max(0, reader.read(buffer));
+                position = 0;
+            }
+            return (position < limit) ? buffer[position] : -1;
+        }
+    }
+
+    /**
+     * The default number of records in each block.
+     */
+    public static final int BLOCK_SIZE_DEFAULT = 4096;
+
+    /**
+     * The size of the input buffer, in characters.
+     */
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * The quote character.
+     */
+    private static final char QUOTE = '"';
+
+    /**
+     * The quote character, as a string.
+     */
+    private static final String QUOTE_STRING = "\"";
+
+    /**
+     * An escaped quote character, within a quoted field.
+     */
+    private static final String QUOTE_ESCAPED = "\"\"";
+}
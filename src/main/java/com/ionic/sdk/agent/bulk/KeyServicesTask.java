@@ -0,0 +1,21 @@
+package com.ionic.sdk.agent.bulk;
+
+import com.ionic.sdk.error.IonicException;
+import com.ionic.sdk.key.KeyServices;
+
+/**
+ * A unit of work to be performed against a {@link KeyServices} implementation, as part of a bulk operation.
+ *
+ * @param <T> the type of the result of the work
+ */
+public interface KeyServicesTask<T> {
+
+    /**
+     * Perform the work.
+     *
+     * @param keyServices the KeyServices implementation against which the work should be performed
+     * @return the result of the work
+     * @throws IonicException on failure of the work
+     */
+    T run(KeyServices keyServices) throws IonicException;
+}
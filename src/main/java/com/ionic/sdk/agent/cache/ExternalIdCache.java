@@ -0,0 +1,203 @@
+package com.ionic.sdk.agent.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Time bounded cache of the key ids mapped by the server to an external id (see
+ * {@link com.ionic.sdk.agent.request.getkey.GetKeysRequest#addExternalId(String)}).
+ * <p>
+ * A cached mapping may be used in place of a server external id query until it expires.  Once a mapping has been
+ * cached for {@link #REFRESH_AHEAD_PERCENT} of its lifetime, the next lookup is reported as a miss, so that the caller
+ * requeries the server and refreshes the mapping; concurrent lookups continue to use the cached mapping in the
+ * meantime.  When the cache is full, the least recently used mapping is discarded.
+ */
+public final class ExternalIdCache {
+
+    /**
+     * Configuration property name (agent configuration or system property) for the lifetime of a cached mapping,
+     * in seconds.  The cache is disabled when this value is zero (the default).
+     */
+    public static final String TTL_SECS = "ionic-external-id-cache-ttl-secs";
+
+    /**
+     * Configuration property name (agent configuration or system property) for the maximum number of cached mappings.
+     */
+    public static final String MAX_ENTRIES = "ionic-external-id-cache-max-entries";
+
+    /**
+     * Default maximum number of cached mappings.
+     */
+    public static final int MAX_ENTRIES_DEFAULT = 10000;
+
+    /**
+     * Point in the lifetime of a cached mapping after which it is refreshed on next use.
+     */
+    public static final int REFRESH_AHEAD_PERCENT = 80;
+
+    /**
+     * Lifetime of a cached mapping, in nanoseconds.
+     */
+    private final long ttlNanos;
+
+    /**
+     * Age after which a cached mapping is refreshed on next use, in nanoseconds.
+     */
+    private final long refreshNanos;
+
+    /**
+     * The maximum number of cached mappings.
+     */
+    private final int maxEntries;
+
+    /**
+     * The cached mappings, in access order (guarded by this).
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * Constructor.
+     *
+     * @param ttlSecs    the lifetime of a cached mapping, in seconds (zero or less disables the cache)
+     * @param maxEntries the maximum number of cached mappings
+     */
+    public ExternalIdCache(final long ttlSecs, final int maxEntries) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0L, ttlSecs));
+        this.refreshNanos = (ttlNanos / 100) * REFRESH_AHEAD_PERCENT;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return size() > ExternalIdCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return true iff mappings are cached
+     */
+    public boolean isEnabled() {
+        return (ttlNanos > 0);
+    }
+
+    /**
+     * Look up the key ids mapped to an external id.
+     *
+     * @param externalId the external id
+     * @return the cached key ids; or null if the server should be queried (no mapping is cached, the mapping has
+     * expired, or this caller has been selected to refresh the mapping)
+     */
+    public List<String> resolve(final String externalId) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final long now = System.nanoTime();
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.get(externalId);
+            if ((entry != null) && ((now - entry.nanosCreated) >= ttlNanos)) {
+                entries.remove(externalId);
+                return null;
+            }
+        }
+        if (entry == null) {
+            return null;
+        } else if (((now - entry.nanosCreated) >= refreshNanos) && entry.refreshing.compareAndSet(false, true)) {
+            return null;
+        } else {
+            return entry.keyIds;
+        }
+    }
+
+    /**
+     * Cache the key ids mapped by the server to an external id.
+     *
+     * @param externalId the external id
+     * @param keyIds     the key ids mapped to the external id
+     */
+    public void put(final String externalId, final List<String> keyIds) {
+        if (isEnabled()) {
+            final Entry entry = new Entry(Collections.unmodifiableList(new ArrayList<String>(keyIds)));
+            synchronized (this) {
+                entries.put(externalId, entry);
+            }
+        }
+    }
+
+    /**
+     * Discard the cached mapping for an external id (for example, after the keys associated with it change).
+     *
+     * @param externalId the external id
+     * @return true iff a mapping was discarded
+     */
+    public synchronized boolean invalidate(final String externalId) {
+        return (entries.remove(externalId) != null);
+    }
+
+    /**
+     * Discard all cached mappings.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Discard all expired mappings.
+     */
+    public synchronized void expunge() {
+        final long now = System.nanoTime();
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if ((now - iterator.next().nanosCreated) >= ttlNanos) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of cached mappings (including any expired mappings not yet discarded)
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * A cached external id mapping.
+     */
+    private static final class Entry {
+
+        /**
+         * The key ids mapped to the external id.
+         */
+        private final List<String> keyIds;
+
+        /**
+         * The time at which the mapping was cached.
+         */
+        private final long nanosCreated;
+
+        /**
+         * Flag indicating that a caller has been selected to refresh the mapping.
+         */
+        private final AtomicBoolean refreshing;
+
+        /**
+         * Constructor.
+         *
+         * @param keyIds the key ids mapped to the external id
+         */
+        private Entry(final List<String> keyIds) {
+            this.keyIds = keyIds;
+            this.nanosCreated = System.nanoTime();
+            this.refreshing = new AtomicBoolean(false);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ionic.sdk.agent.cache;
+
+import com.ionic.sdk.agent.request.getkey.GetKeysResponse;
+
+import java.io.Closeable;
+
+/**
+ * Store of keys previously received from the server in response to {@link com.ionic.sdk.key.KeyServices#getKeys},
+ * consulted before requesting keys from the server.
+ * <p>
+ * A key cache is bound to a single device profile; entries are protected with a key derived from the profile.
+ * Failures of the underlying storage are not reported to the caller; they are treated as cache misses.
+ * <p>
+ * Implementations are safe for concurrent use.  A cache may be closed while other threads still hold it; operations
+ * on a closed cache behave as cache misses, and have no effect.
+ */
+public interface KeyCache extends Closeable {
+
+    /**
+     * @return the id of the device profile to which this cache is bound
+     */
+    String getDeviceId();
+
+    /**
+     * Look up a cached key.
+     *
+     * @param keyId the key id
+     * @return a new instance of the cached key; or null if the key is not cached, or its cache entry has expired
+     */
+    GetKeysResponse.Key get(String keyId);
+
+    /**
+     * Cache a key received from the server.
+     *
+     * @param key the key
+     */
+    void put(GetKeysResponse.Key key);
+
+    /**
+     * Discard the cache entry for a key (for example, after its attributes are updated).
+     *
+     * @param keyId the key id
+     */
+    void remove(String keyId);
+}
@@ -0,0 +1,244 @@
+package com.ionic.sdk.agent.cache;
+
+import com.ionic.sdk.agent.key.KeyAttributesMap;
+import com.ionic.sdk.agent.key.KeyObligationsMap;
+import com.ionic.sdk.agent.request.getkey.GetKeysResponse;
+import com.ionic.sdk.cipher.aes.AesGcmCipher;
+import com.ionic.sdk.core.codec.Transcoder;
+import com.ionic.sdk.crypto.CryptoUtils;
+import com.ionic.sdk.device.profile.DeviceProfile;
+import com.ionic.sdk.error.IonicException;
+import com.ionic.sdk.error.SdkError;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialization and AES-GCM protection of cached keys.
+ * <p>
+ * The protection key is derived (HMAC-SHA256) from the profile key used to authenticate server key responses, so
+ * that only SDK instances holding the device profile can read the cache.  The key id and entry expiry are bound to
+ * each sealed entry as additional authenticated data.
+ */
+final class KeyCacheCodec {
+
+    /**
+     * Label used to derive the cache protection key from the device profile.
+     */
+    private static final String DERIVATION_LABEL = "ionic-key-cache:";
+
+    /**
+     * The id of the device profile from which the protection key is derived.
+     */
+    private final String deviceId;
+
+    /**
+     * The cache protection key.
+     */
+    private final byte[] key;
+
+    /**
+     * Constructor.
+     *
+     * @param deviceProfile the device profile from which the protection key is derived
+     * @throws IonicException on cryptography errors
+     */
+    KeyCacheCodec(final DeviceProfile deviceProfile) throws IonicException {
+        this.deviceId = deviceProfile.getDeviceId();
+        final byte[] profileKey = deviceProfile.getAesCdEiProfileKey();
+        try {
+            this.key = CryptoUtils.hmacSHA256(Transcoder.utf8().decode(DERIVATION_LABEL + deviceId), profileKey);
+        } finally {
+            Arrays.fill(profileKey, (byte) 0);
+        }
+    }
+
+    /**
+     * @return the id of the device profile from which the protection key is derived
+     */
+    String getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * Serialize and encrypt a key.
+     *
+     * @param key           the key to protect
+     * @param expiresMillis the time (epoch millis) at which the cache entry expires
+     * @return the protected key
+     * @throws IonicException on cryptography errors
+     */
+    byte[] seal(final GetKeysResponse.Key key, final long expiresMillis) throws IonicException {
+        final byte[] keyBytes = key.getKey();
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try {
+            final DataOutputStream dos = new DataOutputStream(bos);
+            writeBytes(dos, keyBytes);
+            writeString(dos, key.getDeviceId());
+            writeString(dos, key.getOrigin());
+            writeString(dos, key.getAttributesSigBase64FromServer());
+            writeString(dos, key.getMutableAttributesSigBase64FromServer());
+            writeMap(dos, key.getAttributesMap());
+            writeMap(dos, key.getMutableAttributesMap());
+            writeMap(dos, key.getObligationsMap());
+            dos.flush();
+            return newCipher(key.getId(), expiresMillis).encrypt(bos.toByteArray());
+        } catch (IOException e) {
+            throw new IonicException(SdkError.ISAGENT_ERROR, e);
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Decrypt and deserialize a key.
+     *
+     * @param keyId         the id of the protected key
+     * @param expiresMillis the time (epoch millis) at which the cache entry expires
+     * @param sealed        the protected key
+     * @return the key
+     * @throws IonicException on cryptography errors (including authentication failures), or on malformed input
+     */
+    GetKeysResponse.Key open(final String keyId, final long expiresMillis, final byte[] sealed)
+            throws IonicException {
+        final byte[] plainText = newCipher(keyId, expiresMillis).decrypt(sealed);
+        byte[] keyBytes = new byte[0];
+        try {
+            final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(plainText));
+            keyBytes = readBytes(dis);
+            final String deviceIdKey = readString(dis);
+            final String origin = readString(dis);
+            final String attributesSig = readString(dis);
+            final String mutableAttributesSig = readString(dis);
+            final KeyAttributesMap attributes = readMap(dis, new KeyAttributesMap());
+            final KeyAttributesMap mutableAttributes = readMap(dis, new KeyAttributesMap());
+            final KeyObligationsMap obligations = readMap(dis, new KeyObligationsMap());
+            return new GetKeysResponse.Key(keyId, keyBytes, deviceIdKey, attributes, mutableAttributes,
+                    obligations, origin, attributesSig, mutableAttributesSig);
+        } catch (IOException e) {
+            throw new IonicException(SdkError.ISAGENT_PARSEFAILED, e);
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+            Arrays.fill(plainText, (byte) 0);
+        }
+    }
+
+    /**
+     * Create a cipher instance for the protection of a cache entry.
+     *
+     * @param keyId         the id of the protected key
+     * @param expiresMillis the time (epoch millis) at which the cache entry expires
+     * @return a cipher, initialized with the protection key and the entry authenticated data
+     * @throws IonicException on cryptography errors
+     */
+    private AesGcmCipher newCipher(final String keyId, final long expiresMillis) throws IonicException {
+        final AesGcmCipher cipher = new AesGcmCipher();
+        cipher.setKey(key);
+        cipher.setAuthData(Transcoder.utf8().decode(keyId + ":" + expiresMillis));
+        return cipher;
+    }
+
+    /**
+     * Write a length-prefixed byte array.
+     *
+     * @param dos   the output
+     * @param bytes the data
+     * @throws IOException on failure writing to the output
+     */
+    private static void writeBytes(final DataOutputStream dos, final byte[] bytes) throws IOException {
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    /**
+     * Read a length-prefixed byte array.
+     *
+     * @param dis the input
+     * @return the data
+     * @throws IOException on failure reading from the input
+     */
+    private static byte[] readBytes(final DataInputStream dis) throws IOException {
+        final int length = dis.readInt();
+        if ((length < 0) || (length > dis.available())) {
+            throw new IOException(Integer.toString(length));
+        }
+        final byte[] bytes = new byte[length];
+        dis.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Write a length-prefixed (UTF-8) string.
+     *
+     * @param dos   the output
+     * @param value the data (null is written as empty)
+     * @throws IOException on failure writing to the output
+     */
+    private static void writeString(final DataOutputStream dos, final String value) throws IOException {
+        writeBytes(dos, Transcoder.utf8().decode((value == null) ? "" : value));
+    }
+
+    /**
+     * Read a length-prefixed (UTF-8) string.
+     *
+     * @param dis the input
+     * @return the data
+     * @throws IOException on failure reading from the input
+     */
+    private static String readString(final DataInputStream dis) throws IOException {
+        return Transcoder.utf8().encode(readBytes(dis));
+    }
+
+    /**
+     * Write a multi-valued map.
+     *
+     * @param dos the output
+     * @param map the data
+     * @throws IOException on failure writing to the output
+     */
+    private static void writeMap(final DataOutputStream dos, final Map<String, List<String>> map)
+            throws IOException {
+        dos.writeInt(map.size());
+        for (final Map.Entry<String, List<String>> entry : map.entrySet()) {
+            writeString(dos, entry.getKey());
+            dos.writeInt(entry.getValue().size());
+            for (final String value : entry.getValue()) {
+                writeString(dos, value);
+            }
+        }
+    }
+
+    /**
+     * Read a multi-valued map.
+     *
+     * @param dis the input
+     * @param map the container to be populated
+     * @param <M> the type of the container
+     * @return the populated container
+     * @throws IOException on failure reading from the input
+     */
+    private static <M extends Map<String, List<String>>> M readMap(final DataInputStream dis, final M map)
+            throws IOException {
+        final int size = dis.readInt();
+        for (int i = 0; (i < size); ++i) {
+            final String name = readString(dis);
+            final int count = dis.readInt();
+            if ((count < 0) || (count > dis.available())) {
+                throw new IOException(Integer.toString(count));
+            }
+            final List<String> values = new ArrayList<String>(count);
+            for (int j = 0; (j < count); ++j) {
+                values.add(readString(dis));
+            }
+            map.put(name, values);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ionic.sdk.agent.cache;
+
+import com.ionic.sdk.agent.config.AgentConfig;
+import com.ionic.sdk.core.value.Value;
+import com.ionic.sdk.device.profile.DeviceProfile;
+import com.ionic.sdk.error.IonicException;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Factory for the {@link KeyCache} configured for an agent instance.  Settings are read from the agent configuration
+ * (if present), or from the system properties.
+ * <p>
+ * If a shared key cache is configured ({@link KeyCacheShared#FILE}), it is used; otherwise, if a private key cache
+ * is configured ({@link KeyCacheFile#FILE}), it is used.
+ */
+public final class KeyCacheFactory {
+
+    /**
+     * Configuration property name (agent configuration or system property) for the lifetime of a key cache entry,
+     * in seconds.
+     */
+    public static final String TTL_SECS = KeyCacheFile.TTL_SECS;
+
+    /**
+     * Default lifetime of a key cache entry, in seconds.
+     */
+    public static final int TTL_SECS_DEFAULT = KeyCacheFile.TTL_SECS_DEFAULT;
+
+    /**
+     * Constructor.
+     * http://checkstyle.sourceforge.net/config_design.html#FinalClass
+     */
+    private KeyCacheFactory() {
+    }
+
+    /**
+     * Determine whether a key cache is configured.
+     *
+     * @param agentConfig the configuration container object for the agent
+     * @return true iff a key cache is configured
+     */
+    public static boolean isConfigured(final AgentConfig agentConfig) {
+        return !Value.isEmpty(getProperty(agentConfig, KeyCacheShared.FILE))
+                || !Value.isEmpty(getProperty(agentConfig, KeyCacheFile.FILE));
+    }
+
+    /**
+     * Open the key cache configured for an agent instance.
+     *
+     * @param agentConfig   the configuration container object for the agent
+     * @param deviceProfile the device profile to which the key cache is bound
+     * @return the configured key cache; or null if no key cache is configured
+     * @throws IonicException on cryptography errors
+     * @throws IOException    on failure opening the key cache
+     */
+    public static KeyCache open(final AgentConfig agentConfig, final DeviceProfile deviceProfile)
+            throws IonicException, IOException {
+        final int ttlSecs = Value.toInt(getProperty(agentConfig, TTL_SECS), TTL_SECS_DEFAULT);
+        final String pathShared = getProperty(agentConfig, KeyCacheShared.FILE);
+        final String path = getProperty(agentConfig, KeyCacheFile.FILE);
+        if (!Value.isEmpty(pathShared)) {
+            return new KeyCacheShared(new File(pathShared), deviceProfile, ttlSecs,
+                    Value.toInt(getProperty(agentConfig, KeyCacheShared.SLOTS), KeyCacheShared.SLOTS_DEFAULT),
+                    Value.toInt(getProperty(agentConfig, KeyCacheShared.SLOT_BYTES),
+                            KeyCacheShared.SLOT_BYTES_DEFAULT));
+        } else if (!Value.isEmpty(path)) {
+            return new KeyCacheFile(new File(path), deviceProfile, ttlSecs,
+                    Value.toInt(getProperty(agentConfig, KeyCacheFile.MAX_BYTES), KeyCacheFile.MAX_BYTES_DEFAULT));
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Read a setting from the agent configuration, falling back to the system properties.
+     *
+     * @param agentConfig the configuration container object for the agent
+     * @param name        the setting name
+     * @return the setting value; or null if not set
+     */
+    private static String getProperty(final AgentConfig agentConfig, final String name) {
+        return agentConfig.getProperty(name, System.getProperty(name));
+    }
+}
@@ -0,0 +1,574 @@
+package com.ionic.sdk.agent.cache;
+
+import com.ionic.sdk.agent.request.getkey.GetKeysResponse;
+import com.ionic.sdk.core.codec.Transcoder;
+import com.ionic.sdk.core.log.Diagnostics;
+import com.ionic.sdk.device.profile.DeviceProfile;
+import com.ionic.sdk.error.IonicException;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * {@link KeyCache} implementation persisted to a local file, allowing an SDK instance to start with the key working
+ * set of a previous run.
+ * <p>
+ * The file is an append-only log of cache entries, each sealed with AES-GCM (see {@link KeyCacheCodec}).  Entries
+ * are read with positional reads of the file, located by an in-memory index of key id to file offset, which is
+ * built when the file is opened.  Each entry is framed with its length and a CRC32 checksum.  When the file is
+ * opened, an unreadable entry is skipped, and indexing resumes at the next readable entry; an incomplete entry at
+ * the end of the file (for example, following a crash during an append) is discarded.  When an append would grow
+ * the file past its size limit, the file is compacted: expired and superseded entries are dropped, and (if still
+ * necessary) the entries closest to expiry.
+ * <p>
+ * File access is serialized by a {@link ReentrantLock} (rather than a monitor, so that a virtual thread blocked on
+ * file I/O does not pin its carrier thread); entries are sealed and opened outside of the lock.  A cache file should
+ * be used by only one SDK instance at a time.
+ */
+public final class KeyCacheFile implements KeyCache {
+
+    /**
+     * Configuration property name (agent configuration or system property) for the filesystem location of the key
+     * cache.  The key cache is disabled when this value is not set (the default).
+     */
+    public static final String FILE = "ionic-key-cache-file";
+
+    /**
+     * Configuration property name (agent configuration or system property) for the lifetime of a cache entry, in
+     * seconds.
+     */
+    public static final String TTL_SECS = "ionic-key-cache-ttl-secs";
+
+    /**
+     * Configuration property name (agent configuration or system property) for the size limit of the cache file.
+     */
+    public static final String MAX_BYTES = "ionic-key-cache-max-bytes";
+
+    /**
+     * Default lifetime of a cache entry, in seconds.
+     */
+    public static final int TTL_SECS_DEFAULT = 3600;
+
+    /**
+     * Default size limit of the cache file.
+     */
+    public static final int MAX_BYTES_DEFAULT = 16 * 1024 * 1024;
+
+    /**
+     * Class scoped logger.
+     */
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    /**
+     * The filesystem location of the cache.
+     */
+    private final File file;
+
+    /**
+     * The protection applied to cache entries.
+     */
+    private final KeyCacheCodec codec;
+
+    /**
+     * The lifetime of a cache entry, in milliseconds.
+     */
+    private final long ttlMillis;
+
+    /**
+     * The size limit of the cache file.
+     */
+    private final long maxBytes;
+
+    /**
+     * The lock guarding {@link #index}, {@link #channel}, and {@link #end}.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * The index of key id to the file offset of the most recent cache entry for the key.
+     */
+    private final Map<String, Long> index;
+
+    /**
+     * The open cache file (null once the cache is closed).
+     */
+    private FileChannel channel;
+
+    /**
+     * The file offset at which the next cache entry will be appended.
+     */
+    private long end;
+
+    /**
+     * Constructor.  The cache file is created if it does not exist.
+     *
+     * @param file          the filesystem location of the cache
+     * @param deviceProfile the device profile to which the cache is bound
+     * @param ttlSecs       the lifetime of a cache entry, in seconds
+     * @param maxBytes      the size limit of the cache file
+     * @throws IonicException on cryptography errors
+     * @throws IOException    on failure opening the cache file
+     */
+    public KeyCacheFile(final File file, final DeviceProfile deviceProfile,
+                        final long ttlSecs, final long maxBytes) throws IonicException, IOException {
+        this.file = file;
+        this.codec = new KeyCacheCodec(deviceProfile);
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0L, ttlSecs));
+        this.maxBytes = Math.max(0L, maxBytes);
+        this.lock = new ReentrantLock();
+        this.index = new HashMap<String, Long>();
+        open();
+    }
+
+    @Override
+    public String getDeviceId() {
+        return codec.getDeviceId();
+    }
+
+    @Override
+    public GetKeysResponse.Key get(final String keyId) {
+        final Long offset;
+        final Record record;
+        lock.lock();
+        try {
+            offset = index.get(keyId);
+            record = ((offset == null) || (channel == null)) ? null : readEntry(keyId, offset);
+        } finally {
+            lock.unlock();
+        }
+        GetKeysResponse.Key key = null;
+        if (record != null) {
+            try {
+                key = codec.open(keyId, record.expiresMillis, record.sealed);
+            } catch (IonicException e) {
+                // entry written under a different device profile, or tampered
+                logger.log(Level.FINE, file.getPath(), e);
+                discard(keyId, offset);
+            }
+        }
+        return key;
+    }
+
+    @Override
+    public void put(final GetKeysResponse.Key key) {
+        try {
+            final long expiresMillis = System.currentTimeMillis() + ttlMillis;
+            final ByteBuffer frame = frame(key.getId(), expiresMillis, codec.seal(key, expiresMillis));
+            lock.lock();
+            try {
+                if (channel != null) {
+                    final long offset = append(frame);
+                    if (offset >= 0) {
+                        index.put(key.getId(), offset);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, file.getPath(), e);
+        } catch (IonicException e) {
+            logger.log(Level.WARNING, file.getPath(), e);
+        }
+    }
+
+    /**
+     * Discard the cache entry for a key.  An expired entry is appended to the cache file, so that the discarded
+     * entry is not restored when the file is next opened.
+     *
+     * @param keyId the key id
+     */
+    @Override
+    public void remove(final String keyId) {
+        lock.lock();
+        try {
+            if ((index.remove(keyId) != null) && (channel != null)) {
+                append(frame(keyId, 0L, new byte[0]));
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, file.getPath(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of (possibly expired) keys in the cache
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            index.clear();
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read the indexed cache entry for a key, dropping the key from the index if the entry is unreadable or
+     * expired.  The caller must hold {@link #lock}.
+     *
+     * @param keyId  the key id
+     * @param offset the file offset of the cache entry
+     * @return the cache entry; or null if no current entry is available
+     */
+    private Record readEntry(final String keyId, final long offset) {
+        Record record = null;
+        try {
+            record = read(offset, channel.size());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, file.getPath(), e);
+        }
+        if ((record == null) || !keyId.equals(record.keyId)
+                || (record.expiresMillis <= System.currentTimeMillis())) {
+            index.remove(keyId);
+            record = null;
+        }
+        return record;
+    }
+
+    /**
+     * Drop a key from the index, unless it has been cached again since the specified entry was read.
+     *
+     * @param keyId  the key id
+     * @param offset the file offset of the rejected cache entry
+     */
+    private void discard(final String keyId, final Long offset) {
+        lock.lock();
+        try {
+            if (offset.equals(index.get(keyId))) {
+                index.remove(keyId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Open the cache file, and index its content.  Unreadable entries are skipped; any incomplete entry at the end
+     * of the file is discarded.  The caller must hold {@link #lock} (or be the constructor).
+     *
+     * @throws IOException on failure reading the cache file
+     */
+    private void open() throws IOException {
+        final File folder = file.getAbsoluteFile().getParentFile();
+        if ((folder != null) && !folder.exists() && !folder.mkdirs()) {
+            throw new IOException(folder.getPath());
+        }
+        channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        end = 0L;
+        index.clear();
+        final long size = channel.size();
+        final long now = System.currentTimeMillis();
+        long offset = 0L;
+        long skipped = 0L;
+        while (offset < size) {
+            final Record record = read(offset, size);
+            if (record == null) {
+                final long next = seek(offset + 1, size);
+                skipped += (next - offset);
+                offset = next;
+            } else {
+                if (record.expiresMillis > now) {
+                    index.put(record.keyId, offset);
+                } else {
+                    index.remove(record.keyId);
+                }
+                offset += record.frameLength;
+                end = offset;
+            }
+        }
+        final long trailing = size - end;
+        if (skipped > trailing) {
+            Diagnostics.log(logger, Level.WARNING, "%s: skipped %d unreadable bytes",
+                    file.getPath(), skipped - trailing);
+        }
+        if (trailing > 0) {
+            Diagnostics.log(logger, Level.FINE, "%s: discarding %d trailing bytes", file.getPath(), trailing);
+            channel.truncate(end);
+        }
+    }
+
+    /**
+     * Append a cache entry to the cache file, compacting the file first if necessary.
+     *
+     * @param frame the file representation of the cache entry
+     * @return the file offset of the appended entry; or -1 if the entry could not be accommodated
+     * @throws IOException on failure writing the cache file
+     */
+    private long append(final ByteBuffer frame) throws IOException {
+        if ((end + frame.remaining()) > maxBytes) {
+            compact(maxBytes - frame.remaining());
+        }
+        long offset = -1L;
+        if ((end + frame.remaining()) <= maxBytes) {
+            offset = end;
+            while (frame.hasRemaining()) {
+                end += channel.write(frame, end);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Rewrite the cache file, retaining only the current entries.  If the current entries exceed the size limit,
+     * the entries closest to expiry are also dropped.
+     *
+     * @param limit the size limit of the rewritten file
+     * @throws IOException on failure writing the cache file
+     */
+    private void compact(final long limit) throws IOException {
+        final long now = System.currentTimeMillis();
+        final List<Record> records = new ArrayList<Record>();
+        final long sizeCurrent = channel.size();
+        for (final Long offset : index.values()) {
+            final Record record = read(offset, sizeCurrent);
+            if ((record != null) && (record.expiresMillis > now)) {
+                records.add(record);
+            }
+        }
+        Collections.sort(records, new Comparator<Record>() {
+            @Override
+            public int compare(final Record left, final Record right) {
+                return Long.compare(right.expiresMillis, left.expiresMillis);
+            }
+        });
+        final File fileCompact = new File(file.getPath() + ".compact");
+        long size = 0L;
+        try (FileChannel channelCompact = FileChannel.open(fileCompact.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (final Record record : records) {
+                if ((size + record.frameLength) > limit) {
+                    break;
+                }
+                final ByteBuffer frame = frame(record.keyId, record.expiresMillis, record.sealed);
+                while (frame.hasRemaining()) {
+                    size += channelCompact.write(frame, size);
+                }
+            }
+            channelCompact.force(true);
+        }
+        // no mapping of the file is held, so it may be replaced (on all platforms) once the channel is closed
+        channel.close();
+        try {
+            Files.move(fileCompact.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            open();
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine(String.format("%s: compacted to %d entries, %d bytes", file.getPath(), index.size(), end));
+        }
+    }
+
+    /**
+     * Read the cache entry at the specified file offset.
+     *
+     * @param offset the file offset
+     * @param size   the current size of the cache file
+     * @return the cache entry; or null if no complete, valid entry is present at the offset
+     * @throws IOException on failure reading the cache file
+     */
+    private Record read(final long offset, final long size) throws IOException {
+        if ((offset + HEADER_LENGTH) > size) {
+            return null;
+        }
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        readFully(header, offset);
+        final int magic = header.getInt(0);
+        final int bodyLength = header.getInt(Integer.SIZE / Byte.SIZE);
+        final long crc = header.getInt(2 * Integer.SIZE / Byte.SIZE) & MASK_UINT;
+        if ((magic != MAGIC) || (bodyLength < BODY_MIN_LENGTH) || ((offset + HEADER_LENGTH + bodyLength) > size)) {
+            return null;
+        }
+        final byte[] body = new byte[bodyLength];
+        readFully(ByteBuffer.wrap(body), offset + HEADER_LENGTH);
+        final CRC32 crc32 = new CRC32();
+        crc32.update(body);
+        if (crc32.getValue() != crc) {
+            return null;
+        }
+        final ByteBuffer bodyBuffer = ByteBuffer.wrap(body);
+        final long expiresMillis = bodyBuffer.getLong();
+        final byte[] keyId = new byte[bodyBuffer.getShort() & MASK_USHORT];
+        if (keyId.length > bodyBuffer.remaining()) {
+            return null;
+        }
+        bodyBuffer.get(keyId);
+        final byte[] sealed = new byte[bodyBuffer.remaining()];
+        bodyBuffer.get(sealed);
+        return new Record(Transcoder.utf8().encode(keyId), expiresMillis, sealed, HEADER_LENGTH + bodyLength);
+    }
+
+    /**
+     * Find the next candidate cache entry (the next occurrence of the entry marker) in the cache file.
+     *
+     * @param from the file offset at which to start searching
+     * @param size the current size of the cache file
+     * @return the file offset of the next entry marker; or the file size, if there is no further complete entry
+     * @throws IOException on failure reading the cache file
+     */
+    private long seek(final long from, final long size) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SEEK_BUFFER_LENGTH);
+        long position = from;
+        while ((position + HEADER_LENGTH) <= size) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), size - position));
+            readFully(buffer, position);
+            for (int i = 0; ((i + HEADER_LENGTH) <= buffer.limit()); ++i) {
+                if (buffer.getInt(i) == MAGIC) {
+                    return position + i;
+                }
+            }
+            position += buffer.limit() - HEADER_LENGTH + 1;
+        }
+        return size;
+    }
+
+    /**
+     * Fill a buffer from the cache file, using positional reads.
+     *
+     * @param buffer the buffer to fill (from its position to its limit)
+     * @param offset the file offset of the content
+     * @throws IOException on failure reading the cache file, or if the file ends before the buffer is filled
+     */
+    private void readFully(final ByteBuffer buffer, final long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            final int count = channel.read(buffer, position);
+            if (count < 0) {
+                throw new EOFException(file.getPath());
+            }
+            position += count;
+        }
+    }
+
+    /**
+     * Assemble the file representation of a cache entry.
+     *
+     * @param keyId         the key id
+     * @param expiresMillis the time (epoch millis) at which the cache entry expires
+     * @param sealed        the protected key
+     * @return the file representation of the cache entry
+     * @throws IOException if the key id is too long to be cached
+     */
+    private static ByteBuffer frame(final String keyId, final long expiresMillis, final byte[] sealed)
+            throws IOException {
+        final byte[] keyIdBytes = Transcoder.utf8().decode(keyId);
+        if (keyIdBytes.length > MASK_USHORT) {
+            throw new IOException(keyId);
+        }
+        final int bodyLength = BODY_MIN_LENGTH + keyIdBytes.length + sealed.length;
+        final ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        body.putLong(expiresMillis).putShort((short) keyIdBytes.length).put(keyIdBytes).put(sealed);
+        final CRC32 crc32 = new CRC32();
+        crc32.update(body.array());
+        final ByteBuffer frame = ByteBuffer.allocate(HEADER_LENGTH + bodyLength);
+        frame.putInt(MAGIC).putInt(bodyLength).putInt((int) crc32.getValue()).put(body.array());
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * A cache entry, as read from the cache file.
+     */
+    private static final class Record {
+
+        /**
+         * The key id.
+         */
+        private final String keyId;
+
+        /**
+         * The time (epoch millis) at which the cache entry expires.
+         */
+        private final long expiresMillis;
+
+        /**
+         * The protected key.
+         */
+        private final byte[] sealed;
+
+        /**
+         * The length of the cache entry in the file.
+         */
+        private final int frameLength;
+
+        /**
+         * Constructor.
+         *
+         * @param keyId         the key id
+         * @param expiresMillis the time (epoch millis) at which the cache entry expires
+         * @param sealed        the protected key
+         * @param frameLength   the length of the cache entry in the file
+         */
+        private Record(final String keyId, final long expiresMillis, final byte[] sealed, final int frameLength) {
+            this.keyId = keyId;
+            this.expiresMillis = expiresMillis;
+            this.sealed = sealed;
+            this.frameLength = frameLength;
+        }
+    }
+
+    /**
+     * Marker at the start of each cache entry ("IKC1").
+     */
+    private static final int MAGIC = 0x494b4331;
+
+    /**
+     * Length of the framing of each cache entry (marker, length, checksum).
+     */
+    private static final int HEADER_LENGTH = 12;
+
+    /**
+     * Length of the buffer used to search for the next entry marker, when an unreadable entry is skipped.
+     */
+    private static final int SEEK_BUFFER_LENGTH = 64 * 1024;
+
+    /**
+     * Length of the fixed fields of each cache entry (expiry, key id length).
+     */
+    private static final int BODY_MIN_LENGTH = 10;
+
+    /**
+     * Mask used to read an unsigned 32 bit value.
+     */
+    private static final long MASK_UINT = 0xffffffffL;
+
+    /**
+     * Mask used to read an unsigned 16 bit value.
+     */
+    private static final int MASK_USHORT = 0xffff;
+}
@@ -0,0 +1,583 @@
+package com.ionic.sdk.agent.cache;
+
+import com.ionic.sdk.agent.request.getkey.GetKeysResponse;
+import com.ionic.sdk.core.codec.Transcoder;
+import com.ionic.sdk.core.log.Diagnostics;
+import com.ionic.sdk.device.profile.DeviceProfile;
+import com.ionic.sdk.error.IonicException;
+import com.ionic.sdk.error.SdkData;
+import com.ionic.sdk.error.SdkError;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link KeyCache} implementation backed by a file, which may be shared by all SDK processes on a host that use the
+ * same device profile.  A key fetched by any of the processes is then available to all of them.
+ * <p>
+ * The file holds a fixed size hash table of fixed size slots, located by open addressing (linear probing) on the
+ * hash of the key id.  Each slot holds one cache entry, sealed with AES-GCM (see {@link KeyCacheCodec}).  Slots are
+ * accessed using positional reads and writes on the file (no memory mapping is held), so that closing the cache
+ * releases all of its resources.
+ * <p>
+ * Readers do not lock.  Each slot carries a sequence number, which is odd while the slot is being written; a reader
+ * retries if the sequence number is odd or changes while the slot is being read.  Each read and write is a separate
+ * call to the operating system, so the reads of a slot are ordered with respect to the reads of its sequence number,
+ * but a single read is not atomic with respect to a concurrent write, and a slot may still be observed part written
+ * (for example, by a writer which terminated mid-write).  The authentication of the sealed entry, whose associated
+ * data binds the key id and expiry, is the final check of its integrity; an entry which fails authentication
+ * (including a torn read) is treated as a cache miss.
+ * <p>
+ * Writers hold an in-process {@link ReentrantLock} (rather than a monitor, so that a virtual thread blocked on the
+ * file lock does not pin its carrier thread), and then a lease on the file (an exclusive lock on the file header),
+ * which is released by the operating system if the holding process terminates.  When the probe sequence for a key
+ * is full, the entry closest to expiry is replaced.
+ * <p>
+ * The cache file is initialized only if it is new (empty).  An existing file which is not a cache file, or whose
+ * geometry (slot count and slot size) is not valid, is rejected without being modified.  The cache file is limited
+ * to 2 GiB.
+ */
+public final class KeyCacheShared implements KeyCache {
+
+    /**
+     * Configuration property name (agent configuration or system property) for the filesystem location of the shared
+     * key cache.  The shared key cache is disabled when this value is not set (the default).
+     */
+    public static final String FILE = "ionic-key-cache-shared-file";
+
+    /**
+     * Configuration property name (agent configuration or system property) for the number of slots in a newly
+     * created shared key cache.
+     */
+    public static final String SLOTS = "ionic-key-cache-shared-slots";
+
+    /**
+     * Configuration property name (agent configuration or system property) for the size of each slot in a newly
+     * created shared key cache.  Entries which do not fit in a slot are not cached.
+     */
+    public static final String SLOT_BYTES = "ionic-key-cache-shared-slot-bytes";
+
+    /**
+     * Default number of slots in a newly created shared key cache.
+     */
+    public static final int SLOTS_DEFAULT = 8192;
+
+    /**
+     * Default size of each slot in a newly created shared key cache.
+     */
+    public static final int SLOT_BYTES_DEFAULT = 1024;
+
+    /**
+     * Class scoped logger.
+     */
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    /**
+     * The filesystem location of the cache.
+     */
+    private final File file;
+
+    /**
+     * The protection applied to cache entries.
+     */
+    private final KeyCacheCodec codec;
+
+    /**
+     * The lifetime of a cache entry, in milliseconds.
+     */
+    private final long ttlMillis;
+
+    /**
+     * The in-process lock guarding the writer lease on the cache file (shared by all instances using the file).
+     */
+    private final ReentrantLock writeLock;
+
+    /**
+     * The open cache file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The number of slots in the cache file (a power of two).
+     */
+    private final int slots;
+
+    /**
+     * The size of each slot in the cache file.
+     */
+    private final int slotBytes;
+
+    /**
+     * Constructor.  The cache file is created if it does not exist (or is empty); otherwise, its existing geometry is
+     * used.
+     *
+     * @param file          the filesystem location of the cache
+     * @param deviceProfile the device profile to which the cache is bound
+     * @param ttlSecs       the lifetime of a cache entry, in seconds
+     * @param slots         the number of slots, if the cache file is created (rounded up to a power of two)
+     * @param slotBytes     the size of each slot, if the cache file is created
+     * @throws IonicException on cryptography errors, if the file is not a cache file, or if the geometry of the
+     *                        cache file is not valid
+     * @throws IOException    on failure opening the cache file
+     */
+    public KeyCacheShared(final File file, final DeviceProfile deviceProfile, final long ttlSecs,
+                          final int slots, final int slotBytes) throws IonicException, IOException {
+        this.file = file;
+        this.codec = new KeyCacheCodec(deviceProfile);
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0L, ttlSecs));
+        this.writeLock = getWriteLock(file);
+        final File folder = file.getAbsoluteFile().getParentFile();
+        if ((folder != null) && !folder.exists() && !folder.mkdirs()) {
+            throw new IOException(folder.getPath());
+        }
+        this.channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final int[] geometry = initialize(slots, slotBytes);
+            this.slots = geometry[0];
+            this.slotBytes = geometry[1];
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        } catch (IonicException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the geometry of the cache file, writing it first if the file is new (empty).
+     *
+     * @param slotsNew     the number of slots, if the cache file is created
+     * @param slotBytesNew the size of each slot, if the cache file is created
+     * @return the number of slots, and the size of each slot
+     * @throws IOException    on failure reading the cache file
+     * @throws IonicException if an existing file is not a cache file, or if the geometry of the cache file (or of the
+     *                        cache file to be created) is not valid
+     */
+    private int[] initialize(final int slotsNew, final int slotBytesNew) throws IOException, IonicException {
+        writeLock.lock();
+        try {
+            final FileLock lease = channel.lock(0L, HEADER_BYTES, false);
+            try {
+                final long size = channel.size();
+                if (size > 0L) {
+                    // never overwrite an existing file, which may not be a cache file (a misconfigured location)
+                    final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                    final boolean isRead = readFully(header, 0L);
+                    SdkData.checkTrue(isRead && (header.getInt(0) == MAGIC),
+                            SdkError.ISAGENT_BADCONFIG, file.getPath());
+                    final int slotsFile = header.getInt(Integer.SIZE / Byte.SIZE);
+                    final int slotBytesFile = header.getInt(2 * Integer.SIZE / Byte.SIZE);
+                    checkGeometry(slotsFile, slotBytesFile);
+                    SdkData.checkTrue(size >= (HEADER_BYTES + (long) slotsFile * slotBytesFile),
+                            SdkError.ISAGENT_BADCONFIG, file.getPath());
+                    return new int[] {slotsFile, slotBytesFile};
+                }
+                final long slotsInit = Long.highestOneBit(Math.max(2L, slotsNew) * 2L - 1L);
+                final long slotBytesInit = Math.max(SLOT_MIN_BYTES, slotBytesNew);
+                checkGeometry(slotsInit, slotBytesInit);
+                final long length = HEADER_BYTES + slotsInit * slotBytesInit;
+                channel.write(ByteBuffer.wrap(new byte[1]), length - 1);
+                final ByteBuffer headerInit = ByteBuffer.allocate(HEADER_BYTES);
+                headerInit.putInt(MAGIC).putInt((int) slotsInit).putInt((int) slotBytesInit).rewind();
+                channel.write(headerInit, 0L);
+                channel.force(true);
+                return new int[] {(int) slotsInit, (int) slotBytesInit};
+            } finally {
+                lease.release();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Check that a cache file geometry is valid: the slot count must be a power of two, each slot must hold at least
+     * the fixed slot fields, and the file must not exceed 2 GiB.
+     *
+     * @param slotsCheck     the number of slots
+     * @param slotBytesCheck the size of each slot
+     * @throws IonicException if the geometry is not valid
+     */
+    private void checkGeometry(final long slotsCheck, final long slotBytesCheck) throws IonicException {
+        final boolean isValid = (Long.bitCount(slotsCheck) == 1) && (slotsCheck > 0L)
+                && (slotBytesCheck >= SLOT_MIN_BYTES)
+                && ((HEADER_BYTES + slotsCheck * slotBytesCheck) <= Integer.MAX_VALUE);
+        SdkData.checkTrue(isValid, SdkError.ISAGENT_BADCONFIG, file.getPath());
+    }
+
+    @Override
+    public String getDeviceId() {
+        return codec.getDeviceId();
+    }
+
+    @Override
+    public GetKeysResponse.Key get(final String keyId) {
+        if (!channel.isOpen()) {
+            return null;
+        }
+        final byte[] keyIdBytes = Transcoder.utf8().decode(keyId);
+        final int hash = hash(keyIdBytes);
+        final long now = System.currentTimeMillis();
+        final ByteBuffer buffer = ByteBuffer.allocate(slotBytes);
+        for (int probe = 0; (probe < MAX_PROBE); ++probe) {
+            final Slot slot;
+            try {
+                slot = readSlot(buffer, slotOffset(hash, probe));
+            } catch (IOException e) {
+                logger.log(Level.WARNING, file.getPath(), e);
+                return null;
+            }
+            if (slot == null) {
+                return null;
+            } else if (slot.matches(hash, keyIdBytes)) {
+                if (slot.expiresMillis <= now) {
+                    return null;
+                }
+                try {
+                    return codec.open(keyId, slot.expiresMillis, slot.sealed);
+                } catch (IonicException e) {
+                    // entry written under a different device profile, or torn by a concurrent write
+                    logger.log(Level.FINE, file.getPath(), e);
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void put(final GetKeysResponse.Key key) {
+        try {
+            final long expiresMillis = System.currentTimeMillis() + ttlMillis;
+            write(key.getId(), expiresMillis, codec.seal(key, expiresMillis));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, file.getPath(), e);
+        } catch (IonicException e) {
+            logger.log(Level.WARNING, file.getPath(), e);
+        }
+    }
+
+    @Override
+    public void remove(final String keyId) {
+        try {
+            write(keyId, 0L, new byte[0]);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, file.getPath(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Write a cache entry into the slot for its key id.  An entry with an expiry of zero marks the key as removed.
+     *
+     * @param keyId         the key id
+     * @param expiresMillis the time (epoch millis) at which the cache entry expires
+     * @param sealed        the protected key
+     * @throws IOException on failure acquiring the writer lease, or accessing the cache file
+     */
+    private void write(final String keyId, final long expiresMillis, final byte[] sealed) throws IOException {
+        final byte[] keyIdBytes = Transcoder.utf8().decode(keyId);
+        if (!channel.isOpen()) {
+            return;
+        } else if ((SLOT_MIN_BYTES + (long) keyIdBytes.length + sealed.length) > slotBytes) {
+            Diagnostics.log(logger, Level.FINE, "%s: entry too large for slot, %s", file.getPath(), keyId);
+            return;
+        }
+        final int hash = hash(keyIdBytes);
+        writeLock.lock();
+        try {
+            final FileLock lease = channel.lock(0L, HEADER_BYTES, false);
+            try {
+                final ByteBuffer buffer = ByteBuffer.allocate(slotBytes);
+                long target = -1L;
+                long targetExpires = Long.MAX_VALUE;
+                boolean isFound = false;
+                for (int probe = 0; (probe < MAX_PROBE); ++probe) {
+                    final long offset = slotOffset(hash, probe);
+                    final Slot slot = readSlot(buffer, offset);
+                    if ((slot == null) || slot.matches(hash, keyIdBytes)) {
+                        target = offset;
+                        isFound = (slot != null);
+                        break;
+                    } else if (slot.expiresMillis < targetExpires) {
+                        // otherwise, replace the entry closest to expiry
+                        target = offset;
+                        targetExpires = slot.expiresMillis;
+                    }
+                }
+                // a removal need only be recorded if the key is present
+                if ((expiresMillis > 0L) || isFound) {
+                    writeSlot(buffer, target, hash, keyIdBytes, expiresMillis, sealed);
+                }
+            } finally {
+                lease.release();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Read the content of a slot, retrying if the slot is concurrently being written.  The result may still be torn
+     * (see the class documentation); lengths are bounds checked, and the sealed entry is authenticated when opened.
+     *
+     * @param buffer a buffer (of the slot size) to receive the slot
+     * @param offset the file offset of the slot
+     * @return the content of the slot; or null if the slot has never been written
+     * @throws IOException on failure reading the cache file
+     */
+    private Slot readSlot(final ByteBuffer buffer, final long offset) throws IOException {
+        final ByteBuffer sequenceBuffer = ByteBuffer.allocate(Long.SIZE / Byte.SIZE);
+        for (int attempt = 0; (attempt < MAX_READ_ATTEMPTS); ++attempt) {
+            buffer.clear();
+            if (!readFully(buffer, offset)) {
+                break;
+            }
+            final long sequence = buffer.getLong(0);
+            if (sequence == 0L) {
+                return null;
+            } else if ((sequence & 1L) == 1L) {
+                Thread.yield();
+                continue;
+            }
+            final int hash = buffer.getInt(OFFSET_HASH);
+            final long expiresMillis = buffer.getLong(OFFSET_EXPIRES);
+            final int keyIdLength = buffer.getShort(OFFSET_KEY_ID_LENGTH) & MASK_USHORT;
+            final int sealedLength = buffer.getInt(OFFSET_SEALED_LENGTH);
+            if ((sealedLength < 0) || ((SLOT_MIN_BYTES + (long) keyIdLength + sealedLength) > slotBytes)) {
+                continue;
+            }
+            sequenceBuffer.clear();
+            if (readFully(sequenceBuffer, offset) && (sequenceBuffer.getLong(0) == sequence)) {
+                final byte[] keyId = new byte[keyIdLength];
+                final byte[] sealed = new byte[sealedLength];
+                buffer.position(SLOT_MIN_BYTES);
+                buffer.get(keyId).get(sealed);
+                return new Slot(hash, expiresMillis, keyId, sealed);
+            }
+        }
+        // persistently inconsistent (for example, a writer terminated mid-write); treat as an unusable entry
+        return new Slot(0, 0L, new byte[0], new byte[0]);
+    }
+
+    /**
+     * Write the content of a slot.  The caller must hold the writer lease.
+     *
+     * @param buffer        a buffer (of the slot size) used to assemble the slot
+     * @param offset        the file offset of the slot
+     * @param hash          the hash of the key id
+     * @param keyId         the key id
+     * @param expiresMillis the time (epoch millis) at which the cache entry expires
+     * @param sealed        the protected key
+     * @throws IOException on failure writing the cache file
+     */
+    private void writeSlot(final ByteBuffer buffer, final long offset, final int hash, final byte[] keyId,
+                           final long expiresMillis, final byte[] sealed) throws IOException {
+        final ByteBuffer sequenceBuffer = ByteBuffer.allocate(Long.SIZE / Byte.SIZE);
+        readFully(sequenceBuffer, offset);
+        final long sequence = sequenceBuffer.getLong(0) | 1L;
+        sequenceBuffer.clear();
+        sequenceBuffer.putLong(0, sequence);
+        writeFully(sequenceBuffer, offset);
+        buffer.clear();
+        buffer.putLong(sequence).putInt(hash).putLong(expiresMillis).putShort((short) keyId.length)
+                .putInt(sealed.length).put(keyId).put(sealed).flip();
+        buffer.position(OFFSET_HASH);
+        writeFully(buffer, offset + OFFSET_HASH);
+        sequenceBuffer.clear();
+        sequenceBuffer.putLong(0, sequence + 1L);
+        writeFully(sequenceBuffer, offset);
+    }
+
+    /**
+     * Read from the cache file until the buffer is full.
+     *
+     * @param buffer   the buffer to receive the data (from its position)
+     * @param position the file position of the buffer position
+     * @return true if the buffer was filled; false if the end of the file was reached
+     * @throws IOException on failure reading the cache file
+     */
+    private boolean readFully(final ByteBuffer buffer, final long position) throws IOException {
+        final long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write to the cache file until the buffer is empty.
+     *
+     * @param buffer   the buffer holding the data (from its position)
+     * @param position the file position of the buffer position
+     * @throws IOException on failure writing the cache file
+     */
+    private void writeFully(final ByteBuffer buffer, final long position) throws IOException {
+        final long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+    }
+
+    /**
+     * Find the file offset of a slot in the probe sequence of a key id.
+     *
+     * @param hash  the hash of the key id
+     * @param probe the position in the probe sequence
+     * @return the file offset of the slot
+     */
+    private long slotOffset(final int hash, final int probe) {
+        return HEADER_BYTES + (long) ((hash + probe) & (slots - 1)) * slotBytes;
+    }
+
+    /**
+     * Calculate the hash of a key id.  The hash must be stable across processes.
+     *
+     * @param keyId the (UTF-8) key id
+     * @return the hash of the key id
+     */
+    private static int hash(final byte[] keyId) {
+        final int hash = Arrays.hashCode(keyId);
+        return hash ^ (hash >>> (Integer.SIZE / 2));
+    }
+
+    /**
+     * Get the in-process lock guarding the writer lease on a cache file.  A file lock may be held only once per
+     * process, so instances using the same file must also coordinate in-process.
+     *
+     * @param file the filesystem location of the cache
+     * @return the lock associated with the file
+     * @throws IOException on failure resolving the file location
+     */
+    private static ReentrantLock getWriteLock(final File file) throws IOException {
+        final String path = file.getCanonicalPath();
+        final ReentrantLock lock = new ReentrantLock();
+        final ReentrantLock lockPrevious = WRITE_LOCKS.putIfAbsent(path, lock);
+        return (lockPrevious == null) ? lock : lockPrevious;
+    }
+
+    /**
+     * The content of a slot.
+     */
+    private static final class Slot {
+
+        /**
+         * The hash of the key id.
+         */
+        private final int hash;
+
+        /**
+         * The time (epoch millis) at which the cache entry expires.
+         */
+        private final long expiresMillis;
+
+        /**
+         * The (UTF-8) key id.
+         */
+        private final byte[] keyId;
+
+        /**
+         * The protected key.
+         */
+        private final byte[] sealed;
+
+        /**
+         * Constructor.
+         *
+         * @param hash          the hash of the key id
+         * @param expiresMillis the time (epoch millis) at which the cache entry expires
+         * @param keyId         the (UTF-8) key id
+         * @param sealed        the protected key
+         */
+        private Slot(final int hash, final long expiresMillis, final byte[] keyId, final byte[] sealed) {
+            this.hash = hash;
+            this.expiresMillis = expiresMillis;
+            this.keyId = keyId;
+            this.sealed = sealed;
+        }
+
+        /**
+         * @param hashQ  the hash of the requested key id
+         * @param keyIdQ the requested (UTF-8) key id
+         * @return true iff this slot holds the entry for the requested key id
+         */
+        private boolean matches(final int hashQ, final byte[] keyIdQ) {
+            return (hash == hashQ) && Arrays.equals(keyId, keyIdQ);
+        }
+    }
+
+    /**
+     * The in-process locks guarding the writer lease on each cache file in use.
+     */
+    private static final ConcurrentMap<String, ReentrantLock> WRITE_LOCKS =
+            new ConcurrentHashMap<String, ReentrantLock>();
+
+    /**
+     * Marker at the start of the cache file ("IKS1").
+     */
+    private static final int MAGIC = 0x494b5331;
+
+    /**
+     * Length of the cache file header.
+     */
+    private static final int HEADER_BYTES = 64;
+
+    /**
+     * Slot field offset: hash of the key id.
+     */
+    private static final int OFFSET_HASH = 8;
+
+    /**
+     * Slot field offset: expiry of the cache entry.
+     */
+    private static final int OFFSET_EXPIRES = 12;
+
+    /**
+     * Slot field offset: length of the key id.
+     */
+    private static final int OFFSET_KEY_ID_LENGTH = 20;
+
+    /**
+     * Slot field offset: length of the protected key.
+     */
+    private static final int OFFSET_SEALED_LENGTH = 22;
+
+    /**
+     * Length of the fixed fields of a slot (sequence, hash, expiry, key id length, protected key length).
+     */
+    private static final int SLOT_MIN_BYTES = 26;
+
+    /**
+     * The maximum number of slots examined for a key id.
+     */
+    private static final int MAX_PROBE = 8;
+
+    /**
+     * The maximum number of attempts to read a slot which is concurrently being written.
+     */
+    private static final int MAX_READ_ATTEMPTS = 16;
+
+    /**
+     * Mask used to read an unsigned 16 bit value.
+     */
+    private static final int MASK_USHORT = 0xffff;
+}
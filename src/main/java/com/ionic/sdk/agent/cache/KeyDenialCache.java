@@ -0,0 +1,238 @@
+package com.ionic.sdk.agent.cache;
+
+import com.ionic.sdk.agent.request.getkey.GetKeysResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short lived cache of the server errors returned in response to requests for specific key ids.
+ * <p>
+ * Only errors which refuse the key itself are cached: a denial by the key policy
+ * ({@link #SERVER_ERROR_KEY_DENIED}), or an unknown key id ({@link #SERVER_ERROR_KEY_NOT_FOUND}).  Other errors (for
+ * example, a busy, failing, or throttling server) are transient, and are never cached.
+ * <p>
+ * While an error is cached, repeat requests for the key id are answered locally with the cached error, instead of
+ * being sent to the server.  Cached errors are matched on key id alone; a denial which depends on the request
+ * metadata is reused for other requests for the same key until it expires, so the lifetime should be kept short.
+ * When the cache is full, the least recently used entry is discarded.
+ */
+public final class KeyDenialCache {
+
+    /**
+     * Configuration property name (agent configuration or system property) for the lifetime of a cached error, in
+     * seconds.  The cache is disabled when this value is zero (the default).
+     */
+    public static final String TTL_SECS = "ionic-key-denial-cache-ttl-secs";
+
+    /**
+     * Configuration property name (agent configuration or system property) for the maximum number of cached errors.
+     */
+    public static final String MAX_ENTRIES = "ionic-key-denial-cache-max-entries";
+
+    /**
+     * Default maximum number of cached errors.
+     */
+    public static final int MAX_ENTRIES_DEFAULT = 10000;
+
+    /**
+     * Server error code: the request for the key was denied by the key policy.
+     */
+    public static final int SERVER_ERROR_KEY_DENIED = 4201;
+
+    /**
+     * Server error code: the key id is not known to the server.
+     */
+    public static final int SERVER_ERROR_KEY_NOT_FOUND = 4100;
+
+    /**
+     * Lifetime of a cached error, in nanoseconds.
+     */
+    private final long ttlNanos;
+
+    /**
+     * The maximum number of cached errors.
+     */
+    private final int maxEntries;
+
+    /**
+     * The cached errors, in access order (guarded by this).
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * The number of lookups answered from the cache.
+     */
+    private final AtomicLong hitCount;
+
+    /**
+     * The number of lookups not answered from the cache.
+     */
+    private final AtomicLong missCount;
+
+    /**
+     * The number of server errors added to the cache.
+     */
+    private final AtomicLong putCount;
+
+    /**
+     * Constructor.
+     *
+     * @param ttlSecs    the lifetime of a cached error, in seconds (zero or less disables the cache)
+     * @param maxEntries the maximum number of cached errors
+     */
+    public KeyDenialCache(final long ttlSecs, final int maxEntries) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0L, ttlSecs));
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return size() > KeyDenialCache.this.maxEntries;
+            }
+        };
+        this.hitCount = new AtomicLong();
+        this.missCount = new AtomicLong();
+        this.putCount = new AtomicLong();
+    }
+
+    /**
+     * @return true iff server errors are cached
+     */
+    public boolean isEnabled() {
+        return (ttlNanos > 0);
+    }
+
+    /**
+     * @param serverError a server error code returned in response to a request for a key id
+     * @return true iff the error refuses the key itself (denied or not found), and may therefore be cached
+     */
+    public static boolean isCacheable(final int serverError) {
+        return (serverError == SERVER_ERROR_KEY_DENIED) || (serverError == SERVER_ERROR_KEY_NOT_FOUND);
+    }
+
+    /**
+     * Look up the cached server error for a key id.
+     *
+     * @param keyId the key id
+     * @return a copy of the cached server error; or null if no unexpired error is cached for the key id
+     */
+    public GetKeysResponse.IonicError get(final String keyId) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final long now = System.nanoTime();
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(keyId);
+            if ((entry != null) && ((now - entry.nanosCreated) >= ttlNanos)) {
+                entries.remove(keyId);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        } else {
+            hitCount.incrementAndGet();
+            return new GetKeysResponse.IonicError(keyId, 0, entry.serverError, entry.serverMessage);
+        }
+    }
+
+    /**
+     * Cache a server error returned in response to a request for a key id.  Errors which are not
+     * {@link #isCacheable(int) cacheable} are ignored.
+     *
+     * @param error the server error
+     */
+    public void put(final GetKeysResponse.IonicError error) {
+        if (isEnabled() && isCacheable(error.getServerError())) {
+            final Entry entry = new Entry(error.getServerError(), error.getServerMessage());
+            synchronized (this) {
+                entries.put(error.getKeyId(), entry);
+            }
+            putCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Discard the cached server error for a key id (for example, after the key policy is changed).
+     *
+     * @param keyId the key id
+     * @return true iff a cached error was discarded
+     */
+    public synchronized boolean purge(final String keyId) {
+        return (entries.remove(keyId) != null);
+    }
+
+    /**
+     * Discard all cached server errors.
+     */
+    public synchronized void purgeAll() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of cached server errors (including any expired errors not yet discarded)
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of lookups not answered from the cache
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of server errors added to the cache
+     */
+    public long getPutCount() {
+        return putCount.get();
+    }
+
+    /**
+     * A cached server error.
+     */
+    private static final class Entry {
+
+        /**
+         * The server error code.
+         */
+        private final int serverError;
+
+        /**
+         * The server error message.
+         */
+        private final String serverMessage;
+
+        /**
+         * The time at which the error was cached.
+         */
+        private final long nanosCreated;
+
+        /**
+         * Constructor.
+         *
+         * @param serverError   the server error code
+         * @param serverMessage the server error message
+         */
+        private Entry(final int serverError, final String serverMessage) {
+            this.serverError = serverError;
+            this.serverMessage = serverMessage;
+            this.nanosCreated = System.nanoTime();
+        }
+    }
+}
@@ -9,6 +9,8 @@ import com.ionic.sdk.agent.request.createkey.CreateKeysResponse;
 import com.ionic.sdk.agent.request.getkey.GetKeysRequest;
 import com.ionic.sdk.agent.request.getkey.GetKeysResponse;
 import com.ionic.sdk.core.codec.Transcoder;
+import com.ionic.sdk.core.jfr.CipherEvent;
+import com.ionic.sdk.core.jfr.SdkEvents;
 import com.ionic.sdk.core.value.Value;
 import com.ionic.sdk.error.IonicException;
 import com.ionic.sdk.error.SdkError;
@@ -28,6 +30,11 @@ public abstract class ChunkCipherAbstract {
      */
     private final KeyServices agent;
 
+    /**
+     * Optional key reuse session; when null, a new key is created for each encrypt operation.
+     */
+    private volatile ChunkCipherKeySession keySession;
+
     /**
      * @return the key services implementation; used to broker key transactions and crypto operations
      */
@@ -42,6 +49,25 @@ public abstract class ChunkCipherAbstract {
      */
     public ChunkCipherAbstract(final KeyServices agent) {
         this.agent = agent;
+        this.keySession = null;
+    }
+
+    /**
+     * @return the key reuse session used by encrypt operations; or null if each operation creates a new key
+     */
+    public final ChunkCipherKeySession getKeySession() {
+        return keySession;
+    }
+
+    /**
+     * Attach a key reuse session to this cipher.  While attached, encrypt operations reuse keys created by earlier
+     * operations requesting the same attributes, within the rotation limits of the session.  Decrypt operations are
+     * not affected.
+     *
+     * @param keySession the key reuse session; or null to create a new key for each encrypt operation
+     */
+    public void setKeySession(final ChunkCipherKeySession keySession) {
+        this.keySession = keySession;
     }
 
     /**
@@ -57,6 +83,56 @@ public abstract class ChunkCipherAbstract {
         if (Value.isEmpty(plainText)) {
             throw new IonicException(SdkError.ISCHUNKCRYPTO_BAD_INPUT);
         }
+        final CipherEvent event = SdkEvents.chunkCipher();
+        event.begin();
+        try {
+            return encryptCreateKey(plainText, encryptAttributes);
+        } finally {
+            event.commit(getId(), true, plainText.length);
+        }
+    }
+
+    /**
+     * Encrypt some text, using a newly created Ionic key.
+     *
+     * @param plainText         some text to be encrypted
+     * @param encryptAttributes the attributes to pass along to the key created by the operation
+     * @return the Ionic encoded encrypted representation of the input
+     * @throws IonicException on cryptography errors
+     */
+    private String encryptCreateKey(
+            final byte[] plainText, final ChunkCryptoEncryptAttributes encryptAttributes) throws IonicException {
+        final ChunkCipherKeySession session = keySession;
+        CreateKeysResponse.Key createKey = (session == null)
+                ? null : session.acquire(encryptAttributes, plainText.length);
+        if (createKey == null) {
+            createKey = createKey(encryptAttributes);
+            if (session != null) {
+                session.release(encryptAttributes, createKey, plainText.length);
+            }
+        } else {
+            encryptAttributes.setCipherId(getId());
+        }
+        encryptAttributes.setKey(createKey);
+        final String keyId = createKey.getId();
+        // perform crypto operation
+        final String cipherText = normalize(encryptInternal(createKey, plainText));
+        // format output
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append(getDelimiterKeyTagStart()).append(keyId)
+                .append(getDelimiterCiphertextStart()).append(cipherText).append(getDelimiterCiphertextEnd());
+        return buffer.toString();
+    }
+
+    /**
+     * Create a new Ionic key for an encrypt operation.
+     *
+     * @param encryptAttributes the attributes to pass along to the key created by the operation
+     * @return the newly created key
+     * @throws IonicException on key creation errors, or if the key request is denied
+     */
+    private CreateKeysResponse.Key createKey(
+            final ChunkCryptoEncryptAttributes encryptAttributes) throws IonicException {
         // create request
         final CreateKeysRequest createKeysRequest = new CreateKeysRequest();
         final String refId = getClass().getSimpleName();
@@ -76,16 +152,7 @@ public abstract class ChunkCipherAbstract {
                     SdkError.getErrorString(SdkError.ISAGENT_KEY_DENIED));
         }
         // capture response key
-        final CreateKeysResponse.Key createKey = createKeys.iterator().next();
-        encryptAttributes.setKey(createKey);
-        final String keyId = createKey.getId();
-        // perform crypto operation
-        final String cipherText = normalize(encryptInternal(createKey, plainText));
-        // format output
-        final StringBuilder buffer = new StringBuilder();
-        buffer.append(getDelimiterKeyTagStart()).append(keyId)
-                .append(getDelimiterCiphertextStart()).append(cipherText).append(getDelimiterCiphertextEnd());
-        return buffer.toString();
+        return createKeys.iterator().next();
     }
 
     /**
@@ -110,7 +177,13 @@ public abstract class ChunkCipherAbstract {
         if (keyTagDelimStart >= 0 && cipherTextDelimStart > 0 && cipherTextDelimEnd > 0) {
             final String keyId = cipherText.substring(keyTagDelimEnd, cipherTextDelimStart);
             final String cipherTextBase64 = denormalize(cipherText.substring(cipherTextStart, cipherTextEnd));
-            return decryptInternal(keyId, cipherTextBase64, decryptAttributes);
+            final CipherEvent event = SdkEvents.chunkCipher();
+            event.begin();
+            try {
+                return decryptInternal(keyId, cipherTextBase64, decryptAttributes);
+            } finally {
+                event.commit(getId(), false, cipherText.length());
+            }
         } else {
             throw new IonicException(SdkError.ISAGENT_INVALIDVALUE, new IOException(cipherText));
         }
@@ -127,6 +200,28 @@ public abstract class ChunkCipherAbstract {
      */
     private byte[] decryptInternal(final String keyIdQ, final String cipherTextBase64,
                                    final ChunkCryptoDecryptAttributes decryptAttributes) throws IonicException {
+        final GetKeysResponse.Key getKey = getKey(keyIdQ, cipherTextBase64, decryptAttributes);
+        decryptAttributes.setKey(getKey);
+        decryptAttributes.setKeyAttributes(getKey.getAttributesMap());
+        decryptAttributes.setMutableAttributes(getKey.getMutableAttributesMap());
+        final String keyId = getKey.getId();
+        if (!keyIdQ.equals(keyId)) {
+            throw new IonicException(SdkError.ISAGENT_BADRESPONSE, new IOException(cipherTextBase64));
+        }
+        return decryptInternal(getKey, cipherTextBase64);
+    }
+
+    /**
+     * Fetch the Ionic key needed to decrypt some text.
+     *
+     * @param keyIdQ            the Ionic keyId associated with the crypto key to be used to decrypt
+     * @param cipherTextBase64  some text (previously encrypted with an instance of this agent) to be decrypted
+     * @param decryptAttributes the attributes to pass along from the key fetched by the operation
+     * @return the fetched key
+     * @throws IonicException on key fetch errors, or if the key request is denied
+     */
+    private GetKeysResponse.Key getKey(final String keyIdQ, final String cipherTextBase64,
+                                       final ChunkCryptoDecryptAttributes decryptAttributes) throws IonicException {
         // create request
         final GetKeysRequest getKeysRequest = new GetKeysRequest();
         getKeysRequest.add(keyIdQ);
@@ -143,15 +238,27 @@ public abstract class ChunkCipherAbstract {
             throw new IonicException(SdkError.ISAGENT_KEY_DENIED, new IOException(cipherTextBase64));
         }
         // capture response key
-        final GetKeysResponse.Key getKey = getKeys.iterator().next();
-        decryptAttributes.setKey(getKey);
-        decryptAttributes.setKeyAttributes(getKey.getAttributesMap());
-        decryptAttributes.setMutableAttributes(getKey.getMutableAttributesMap());
-        final String keyId = getKey.getId();
-        if (!keyIdQ.equals(keyId)) {
-            throw new IonicException(SdkError.ISAGENT_BADRESPONSE, new IOException(cipherTextBase64));
+        return getKeys.iterator().next();
+    }
+
+    /**
+     * Check whether the parameter data is formatted as a chunk encrypted by this cipher, without allocating.
+     *
+     * @param data the text data to be inspected
+     * @return true iff the parameter data is formatted as a chunk encrypted by this cipher
+     */
+    final boolean isChunkInternal(final String data) {
+        if (data == null) {
+            return false;
         }
-        return decryptInternal(getKey, cipherTextBase64);
+        final String delimKeyTagStart = getDelimiterKeyTagStart();
+        final String delimCiphertextStart = getDelimiterCiphertextStart();
+        final String delimCiphertextEnd = getDelimiterCiphertextEnd();
+        final int lengthDelims = delimKeyTagStart.length() + delimCiphertextStart.length() + delimCiphertextEnd.length();
+        return (data.length() >= lengthDelims)
+                && data.startsWith(delimKeyTagStart)
+                && data.endsWith(delimCiphertextEnd)
+                && (data.indexOf(delimCiphertextStart, delimKeyTagStart.length()) >= 0);
     }
 
     /**
@@ -161,24 +268,13 @@ public abstract class ChunkCipherAbstract {
      * @return an info object which may be used to decrypt the parameter data; or null if the data is not understood
      */
     final ChunkCryptoChunkInfo getChunkInfoInternal(final String data) {
+        if (!isChunkInternal(data)) {
+            return null;
+        }
         final String delimKeyTagStart = getDelimiterKeyTagStart();
         final String delimCiphertextStart = getDelimiterCiphertextStart();
         final String delimCiphertextEnd = getDelimiterCiphertextEnd();
-        final String delimAll = delimKeyTagStart + delimCiphertextStart + delimCiphertextEnd;
-        if (data == null) {
-            return null;
-        } else if (data.length() < delimAll.length()) {
-            return null;
-        }
-        if (!data.startsWith(delimKeyTagStart)) {
-            return null;
-        } else if (!data.endsWith(delimCiphertextEnd)) {
-            return null;
-        }
         final int indexOf = data.indexOf(delimCiphertextStart, delimKeyTagStart.length());
-        if (indexOf < 0) {
-            return null;
-        }
         final int cipherTextStart = indexOf + delimCiphertextStart.length();
         final int cipherTextEnd = data.indexOf(delimCiphertextEnd, cipherTextStart);
         final int keyIdLength = indexOf - delimKeyTagStart.length();
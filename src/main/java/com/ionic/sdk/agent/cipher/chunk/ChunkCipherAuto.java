@@ -10,6 +10,13 @@ import com.ionic.sdk.error.SdkError;
 import com.ionic.sdk.key.KeyServices;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Logger;
 
 /**
  * Wrapper object used to abstract Ionic cryptography operations.
@@ -26,6 +33,11 @@ public class ChunkCipherAuto extends ChunkCipherAbstract {
      */
     private final ChunkCipherAbstract chunkCipherDefault;
 
+    /**
+     * The prefix trie used to identify the chunk cipher able to decrypt a chunk.
+     */
+    private final ChunkCipherClassifier classifier;
+
     /**
      * Constructor.
      *
@@ -36,10 +48,81 @@ public class ChunkCipherAuto extends ChunkCipherAbstract {
         final ChunkCipherV1 chunkCipherV1 = new ChunkCipherV1(agent);
         final ChunkCipherV2 chunkCipherV2 = new ChunkCipherV2(agent);
         final ChunkCipherV3 chunkCipherV3 = new ChunkCipherV3(agent);
-        this.chunkCiphers = new ChunkCipherAbstract[]{
-                chunkCipherV1, chunkCipherV2, chunkCipherV3,
-        };
+        final List<ChunkCipherAbstract> ciphers = new ArrayList<ChunkCipherAbstract>();
+        Collections.addAll(ciphers, chunkCipherV1, chunkCipherV2, chunkCipherV3);
+        for (final ChunkCipherProvider provider : Providers.PROVIDERS) {
+            addProvided(ciphers, provider.create(agent));
+        }
+        this.chunkCiphers = ciphers.toArray(new ChunkCipherAbstract[ciphers.size()]);
         this.chunkCipherDefault = chunkCipherV2;
+        this.classifier = new ChunkCipherClassifier(chunkCiphers);
+    }
+
+    /**
+     * Add a chunk cipher created by a {@link ChunkCipherProvider} to the recognized chunk ciphers, unless a chunk
+     * cipher with the same id is already recognized.
+     *
+     * @param ciphers     the recognized chunk ciphers
+     * @param chunkCipher the chunk cipher created by the provider
+     */
+    private static void addProvided(final List<ChunkCipherAbstract> ciphers, final ChunkCipherAbstract chunkCipher) {
+        if (chunkCipher == null) {
+            return;
+        }
+        for (final ChunkCipherAbstract cipher : ciphers) {
+            if (cipher.getId().equals(chunkCipher.getId())) {
+                return;
+            }
+        }
+        ciphers.add(chunkCipher);
+    }
+
+    /**
+     * The {@link ChunkCipherProvider} implementations available to the SDK, loaded once on first use.
+     */
+    private static final class Providers {
+
+        /**
+         * The available providers.
+         */
+        private static final List<ChunkCipherProvider> PROVIDERS = load();
+
+        /**
+         * Constructor.
+         * http://checkstyle.sourceforge.net/config_design.html#FinalClass
+         */
+        private Providers() {
+        }
+
+        /**
+         * @return the providers listed in the service configuration files visible to the SDK class loader
+         */
+        private static List<ChunkCipherProvider> load() {
+            final List<ChunkCipherProvider> providers = new ArrayList<ChunkCipherProvider>();
+            final Iterator<ChunkCipherProvider> iterator = ServiceLoader.load(
+                    ChunkCipherProvider.class, ChunkCipherAuto.class.getClassLoader()).iterator();
+            while (iterator.hasNext()) {
+                try {
+                    providers.add(iterator.next());
+                } catch (ServiceConfigurationError e) {
+                    Logger.getLogger(Providers.class.getName()).warning(e.getMessage());
+                }
+            }
+            return Collections.unmodifiableList(providers);
+        }
+    }
+
+    /**
+     * Attach a key reuse session to this cipher, and to the versioned chunk ciphers to which it delegates.
+     *
+     * @param keySession the key reuse session; or null to create a new key for each encrypt operation
+     */
+    @Override
+    public final void setKeySession(final ChunkCipherKeySession keySession) {
+        super.setKeySession(keySession);
+        for (final ChunkCipherAbstract chunkCipher : chunkCiphers) {
+            chunkCipher.setKeySession(keySession);
+        }
     }
 
     /**
@@ -221,15 +304,13 @@ public class ChunkCipherAuto extends ChunkCipherAbstract {
      */
     private byte[] decryptAuto(
             final String cipherText, final ChunkCryptoDecryptAttributes decryptAttributes) throws IonicException {
-        final ChunkCryptoChunkInfo chunkInfo = getChunkInfoAuto(cipherText);
         // decrypt using the correct cipher out of those that are available
-        for (ChunkCipherAbstract chunkCipher : chunkCiphers) {
-            if (chunkInfo.getCipherId().equals(chunkCipher.getId())) {
-                return chunkCipher.decryptToBytes(cipherText, decryptAttributes);
-            }
+        final ChunkCipherAbstract chunkCipher = classifier.classify(cipherText);
+        if (chunkCipher == null) {
+            // no cipher found that understands this data
+            throw new IonicException(SdkError.ISAGENT_INVALIDVALUE, new IOException(cipherText));
         }
-        // no cipher found that understands this data
-        throw new IonicException(SdkError.ISAGENT_INVALIDVALUE, new IOException(cipherText));
+        return chunkCipher.decryptToBytes(cipherText, decryptAttributes);
     }
 
     /**
@@ -265,15 +346,21 @@ public class ChunkCipherAuto extends ChunkCipherAbstract {
      * @return an info object which may be used to decrypt the parameter data; or null if the data is not understood
      */
     private ChunkCryptoChunkInfo getChunkInfoAuto(final String data) {
-        ChunkCryptoChunkInfo chunkInfo = new ChunkCryptoChunkInfo();
-        for (final ChunkCipherAbstract chunkCipher : chunkCiphers) {
-            final ChunkCryptoChunkInfo chunkInfoIt = chunkCipher.getChunkInfoInternal(data);
-            if (chunkInfoIt != null) {
-                chunkInfo = chunkInfoIt;
-                break;
-            }
-        }
-        return chunkInfo;
+        final ChunkCipherAbstract chunkCipher = classifier.classify(data);
+        return (chunkCipher == null) ? new ChunkCryptoChunkInfo() : chunkCipher.getChunkInfoInternal(data);
+    }
+
+    /**
+     * Inspect the parameter data to determine whether it was encrypted by a recognized Ionic chunk cipher.
+     * <p>
+     * Unlike {@link #getChunkInfo(String)}, this check does not allocate, and is suitable for high-volume detection of
+     * encrypted text.
+     *
+     * @param data the text data to be inspected
+     * @return true iff the data is recognized as a chunk encrypted by a recognized Ionic chunk cipher
+     */
+    public final boolean isEncrypted(final String data) {
+        return classifier.classify(data) != null;
     }
 
     /**
@@ -0,0 +1,195 @@
+package com.ionic.sdk.agent.cipher.chunk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Identify the chunk cipher able to decrypt a chunk, in a single pass over the leading characters of the chunk.
+ * <p>
+ * The key tag delimiters of the chunk ciphers (for example, "~!" for V1, "~!2!" for V2) are arranged in a prefix
+ * trie.  Each trie node holds the ciphers whose delimiter is a prefix of the path to the node, in registration order,
+ * so that the candidates for a chunk are the ciphers held by the deepest node reached while walking the chunk.  Only
+ * those candidates check the remaining structure of the chunk.  Lookups do not allocate.
+ */
+final class ChunkCipherClassifier {
+
+    /**
+     * The root of the prefix trie.
+     */
+    private final Node root;
+
+    /**
+     * Constructor.
+     *
+     * @param chunkCiphers the chunk ciphers to be recognized, in priority order
+     */
+    ChunkCipherClassifier(final ChunkCipherAbstract[] chunkCiphers) {
+        final Builder builder = new Builder();
+        for (final ChunkCipherAbstract chunkCipher : chunkCiphers) {
+            builder.add(chunkCipher.getDelimiterKeyTagStart(), chunkCipher);
+        }
+        this.root = builder.build(new ChunkCipherAbstract[0]);
+    }
+
+    /**
+     * Identify the chunk cipher able to decrypt a chunk.
+     *
+     * @param data the text data to be inspected
+     * @return the first (in priority order) chunk cipher recognizing the data; or null if the data is not understood
+     */
+    ChunkCipherAbstract classify(final String data) {
+        if (data == null) {
+            return null;
+        }
+        Node node = root;
+        Node deepest = root;
+        for (int i = 0; (i < data.length()) && (node != null); ++i) {
+            node = node.child(data.charAt(i));
+            if ((node != null) && (node.candidates.length > 0)) {
+                deepest = node;
+            }
+        }
+        for (final ChunkCipherAbstract chunkCipher : deepest.candidates) {
+            if (chunkCipher.isChunkInternal(data)) {
+                return chunkCipher;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A node of the prefix trie.
+     */
+    private static final class Node {
+
+        /**
+         * The characters labelling the edges to the children of this node (sorted).
+         */
+        private final char[] labels;
+
+        /**
+         * The children of this node, in the order of their labels.
+         */
+        private final Node[] children;
+
+        /**
+         * The ciphers whose delimiter is a prefix of the path to this node, in priority order.
+         */
+        private final ChunkCipherAbstract[] candidates;
+
+        /**
+         * Constructor.
+         *
+         * @param labels     the characters labelling the edges to the children of this node (sorted)
+         * @param children   the children of this node, in the order of their labels
+         * @param candidates the ciphers whose delimiter is a prefix of the path to this node, in priority order
+         */
+        private Node(final char[] labels, final Node[] children, final ChunkCipherAbstract[] candidates) {
+            this.labels = labels;
+            this.children = children;
+            this.candidates = candidates;
+        }
+
+        /**
+         * @param c the next character of the inspected data
+         * @return the child reached by the character; or null if there is none
+         */
+        private Node child(final char c) {
+            final int index = Arrays.binarySearch(labels, c);
+            return (index < 0) ? null : children[index];
+        }
+    }
+
+    /**
+     * Mutable form of a trie node, used while the trie is built.
+     */
+    private static final class Builder {
+
+        /**
+         * The characters labelling the edges to the children of this node.
+         */
+        private final List<Character> labels = new ArrayList<Character>();
+
+        /**
+         * The children of this node, in the order of their labels.
+         */
+        private final List<Builder> children = new ArrayList<Builder>();
+
+        /**
+         * The ciphers whose delimiter ends at this node, in priority order.
+         */
+        private final List<ChunkCipherAbstract> terminal = new ArrayList<ChunkCipherAbstract>();
+
+        /**
+         * The priority of each cipher in the trie.
+         */
+        private final List<ChunkCipherAbstract> priority;
+
+        /**
+         * Constructor (root node).
+         */
+        private Builder() {
+            this(new ArrayList<ChunkCipherAbstract>());
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param priority the priority of each cipher in the trie
+         */
+        private Builder(final List<ChunkCipherAbstract> priority) {
+            this.priority = priority;
+        }
+
+        /**
+         * Add a cipher to the trie.
+         *
+         * @param delimiter the key tag delimiter of the cipher
+         * @param cipher    the cipher
+         */
+        private void add(final String delimiter, final ChunkCipherAbstract cipher) {
+            priority.add(cipher);
+            Builder node = this;
+            for (int i = 0; (i < delimiter.length()); ++i) {
+                final Character c = delimiter.charAt(i);
+                int index = node.labels.indexOf(c);
+                if (index < 0) {
+                    index = node.labels.size();
+                    node.labels.add(c);
+                    node.children.add(new Builder(priority));
+                }
+                node = node.children.get(index);
+            }
+            node.terminal.add(cipher);
+        }
+
+        /**
+         * Create the immutable form of this node (and its descendants).
+         *
+         * @param inherited the ciphers whose delimiter is a proper prefix of the path to this node
+         * @return the immutable node
+         */
+        private Node build(final ChunkCipherAbstract[] inherited) {
+            final List<ChunkCipherAbstract> candidates = new ArrayList<ChunkCipherAbstract>(Arrays.asList(inherited));
+            candidates.addAll(terminal);
+            final ChunkCipherAbstract[] candidatesSorted = candidates.toArray(new ChunkCipherAbstract[0]);
+            Arrays.sort(candidatesSorted, new Comparator<ChunkCipherAbstract>() {
+                @Override
+                public int compare(final ChunkCipherAbstract o1, final ChunkCipherAbstract o2) {
+                    return priority.indexOf(o1) - priority.indexOf(o2);
+                }
+            });
+            final Character[] labelsSorted = labels.toArray(new Character[0]);
+            Arrays.sort(labelsSorted);
+            final char[] labelsNode = new char[labelsSorted.length];
+            final Node[] childrenNode = new Node[labelsSorted.length];
+            for (int i = 0; (i < labelsSorted.length); ++i) {
+                labelsNode[i] = labelsSorted[i];
+                childrenNode[i] = children.get(labels.indexOf(labelsSorted[i])).build(candidatesSorted);
+            }
+            return new Node(labelsNode, childrenNode, candidatesSorted);
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.ionic.sdk.agent.cipher.chunk;
+
+import com.ionic.sdk.agent.cipher.chunk.data.ChunkCryptoEncryptAttributes;
+import com.ionic.sdk.agent.key.KeyAttributesMap;
+import com.ionic.sdk.agent.key.intern.EncodedKeyAttributes;
+import com.ionic.sdk.agent.request.createkey.CreateKeysResponse;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in key reuse for {@link ChunkCipherAbstract} encryption.  While a session is attached to a chunk cipher, a key
+ * created for one encrypt operation is reused by subsequent encrypt operations requesting the same key attributes,
+ * mutable attributes, and request metadata.  Each chunk still carries the id of the key used to encrypt it.
+ * <p>
+ * A key is retired (and a new key created) once it has been used for the configured number of chunks or bytes, or
+ * once the configured age is reached.  The chunk count is also capped at {@link #MAX_USES_GCM}, the NIST SP 800-38D
+ * bound on invocations of AES-GCM with random 96-bit IVs under a single key.
+ * <p>
+ * Decrypt operations are not affected by a session; each fetches its key from the key services implementation, so
+ * that the key policy is checked (and the access audited) for every decrypt request.
+ * <p>
+ * A session may be shared by several chunk ciphers and threads.  When concurrent encryptors find no usable key, each
+ * may create one; the last key created is kept for reuse.  The session holds its own copy of each key, and each
+ * operation reusing a key receives a separate copy, so that changes made by a caller to a key object do not affect
+ * other operations.
+ */
+public final class ChunkCipherKeySession {
+
+    /**
+     * The maximum number of AES-GCM encryptions permitted under a single key, when random IVs are used.
+     */
+    public static final long MAX_USES_GCM = 1L << 32;
+
+    /**
+     * Default maximum number of chunks encrypted with a single key.
+     */
+    public static final long MAX_USES_DEFAULT = 1000L;
+
+    /**
+     * Default maximum number of plaintext bytes encrypted with a single key.
+     */
+    public static final long MAX_BYTES_DEFAULT = 64L * 1024 * 1024;
+
+    /**
+     * Default maximum age of a reused key, in milliseconds.
+     */
+    public static final long MAX_AGE_MILLIS_DEFAULT = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * The maximum number of distinct attribute sets for which a key is held.
+     */
+    private static final int MAX_ENTRIES = 64;
+
+    /**
+     * Multiplier used in combining hash codes.
+     */
+    private static final int HASH_MULTIPLIER = 31;
+
+    /**
+     * The maximum number of chunks encrypted with a single key.
+     */
+    private final long maxUses;
+
+    /**
+     * The maximum number of plaintext bytes encrypted with a single key.
+     */
+    private final long maxBytes;
+
+    /**
+     * The maximum age of a reused key, in nanoseconds.
+     */
+    private final long maxAgeNanos;
+
+    /**
+     * The keys available for reuse, by the attributes with which they were created (guarded by this).
+     */
+    private final Map<Id, Entry> entries;
+
+    /**
+     * The number of keys created in this session.
+     */
+    private long keyCount;
+
+    /**
+     * The number of encrypt operations which reused a key.
+     */
+    private long reuseCount;
+
+    /**
+     * Constructor, using the default rotation limits.
+     */
+    public ChunkCipherKeySession() {
+        this(MAX_USES_DEFAULT, MAX_BYTES_DEFAULT, MAX_AGE_MILLIS_DEFAULT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxUses      the maximum number of chunks encrypted with a single key (capped at {@link #MAX_USES_GCM})
+     * @param maxBytes     the maximum number of plaintext bytes encrypted with a single key
+     * @param maxAgeMillis the maximum age of a reused key, in milliseconds
+     */
+    public ChunkCipherKeySession(final long maxUses, final long maxBytes, final long maxAgeMillis) {
+        this.maxUses = Math.min(Math.max(1L, maxUses), MAX_USES_GCM);
+        this.maxBytes = Math.max(1L, maxBytes);
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, maxAgeMillis));
+        this.entries = new LinkedHashMap<Id, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Id, Entry> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    }
+
+    /**
+     * @return the maximum number of chunks encrypted with a single key
+     */
+    public long getMaxUses() {
+        return maxUses;
+    }
+
+    /**
+     * @return the maximum number of plaintext bytes encrypted with a single key
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the maximum age of a reused key, in milliseconds
+     */
+    public long getMaxAgeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxAgeNanos);
+    }
+
+    /**
+     * Reserve use of a previously created key for an encrypt operation.
+     *
+     * @param encryptAttributes the attributes of the encrypt operation
+     * @param length            the number of plaintext bytes to be encrypted
+     * @return a copy of a key created with the requested attributes, which may be used for this operation; or null
+     * if a new key should be created
+     */
+    CreateKeysResponse.Key acquire(final ChunkCryptoEncryptAttributes encryptAttributes, final int length) {
+        final Id id = new Id(encryptAttributes);
+        final CreateKeysResponse.Key key;
+        synchronized (this) {
+            final Entry entry = entries.get(id);
+            if (entry == null) {
+                key = null;
+            } else if ((entry.uses >= maxUses) || (entry.bytes + length > maxBytes)
+                    || ((System.nanoTime() - entry.nanosCreated) >= maxAgeNanos)) {
+                entries.remove(id);
+                key = null;
+            } else {
+                ++entry.uses;
+                entry.bytes += length;
+                ++reuseCount;
+                key = entry.key;
+            }
+        }
+        return (key == null) ? null : new CreateKeysResponse.Key(key);
+    }
+
+    /**
+     * Make a newly created key available for reuse by subsequent encrypt operations.
+     *
+     * @param encryptAttributes the attributes with which the key was created
+     * @param key               the new key
+     * @param length            the number of plaintext bytes encrypted by the operation which created the key
+     */
+    void release(final ChunkCryptoEncryptAttributes encryptAttributes,
+                 final CreateKeysResponse.Key key, final int length) {
+        final Id id = Id.snapshot(encryptAttributes);
+        final Entry entry = new Entry(new CreateKeysResponse.Key(key), length);
+        synchronized (this) {
+            entries.put(id, entry);
+            ++keyCount;
+        }
+    }
+
+    /**
+     * Retire all keys held by the session; subsequent encrypt operations will create new keys.
+     */
+    public synchronized void rotate() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of keys created in this session
+     */
+    public synchronized long getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * @return the number of encrypt operations which reused a key
+     */
+    public synchronized long getReuseCount() {
+        return reuseCount;
+    }
+
+    /**
+     * The identity of the attributes of an encrypt operation, used to look up the keys created with them.
+     * <p>
+     * A lookup identity refers to the attributes of the operation (without copying them); the identity stored with a
+     * key holds a snapshot of the attributes, with the key attributes in their compact encoded form (which also
+     * isolates the entry from later changes made by the caller).  Both forms carry the same hash code, computed once
+     * from the content of the attributes, and a lookup identity is compared with a stored identity in place.
+     */
+    private static final class Id {
+
+        /**
+         * The attributes of the encrypt operation (lookup identity only).
+         */
+        private final ChunkCryptoEncryptAttributes encryptAttributes;
+
+        /**
+         * The encoded key attributes (stored identity only).
+         */
+        private final EncodedKeyAttributes keyAttributes;
+
+        /**
+         * The encoded mutable key attributes (stored identity only).
+         */
+        private final EncodedKeyAttributes mutableAttributes;
+
+        /**
+         * The request metadata (stored identity only).
+         */
+        private final Map<String, String> metadata;
+
+        /**
+         * The hash code of the attributes.
+         */
+        private final int hash;
+
+        /**
+         * Constructor (lookup identity).
+         *
+         * @param encryptAttributes the attributes of the encrypt operation
+         */
+        private Id(final ChunkCryptoEncryptAttributes encryptAttributes) {
+            this.encryptAttributes = encryptAttributes;
+            this.keyAttributes = null;
+            this.mutableAttributes = null;
+            this.metadata = null;
+            this.hash = hash(encryptAttributes);
+        }
+
+        /**
+         * Constructor (stored identity).
+         *
+         * @param keyAttributes     the encoded key attributes
+         * @param mutableAttributes the encoded mutable key attributes
+         * @param metadata          the request metadata
+         * @param hash              the hash code of the attributes
+         */
+        private Id(final EncodedKeyAttributes keyAttributes, final EncodedKeyAttributes mutableAttributes,
+                   final Map<String, String> metadata, final int hash) {
+            this.encryptAttributes = null;
+            this.keyAttributes = keyAttributes;
+            this.mutableAttributes = mutableAttributes;
+            this.metadata = metadata;
+            this.hash = hash;
+        }
+
+        /**
+         * Capture the attributes of an encrypt operation, to be stored with the key created for it.
+         *
+         * @param encryptAttributes the attributes of the encrypt operation
+         * @return the stored identity of the attributes
+         */
+        private static Id snapshot(final ChunkCryptoEncryptAttributes encryptAttributes) {
+            return new Id(EncodedKeyAttributes.encode(encryptAttributes.getKeyAttributes()),
+                    EncodedKeyAttributes.encode(encryptAttributes.getMutableKeyAttributes()),
+                    new HashMap<String, String>(encryptAttributes.getMetadata()), hash(encryptAttributes));
+        }
+
+        /**
+         * Calculate the hash code of the attributes of an encrypt operation, from their content.  Like the comparisons
+         * in {@link #equals(Object)}, the hash code does not depend on the iteration order of the maps.
+         *
+         * @param encryptAttributes the attributes of the encrypt operation
+         * @return the hash code of the attributes
+         */
+        private static int hash(final ChunkCryptoEncryptAttributes encryptAttributes) {
+            int hash = encryptAttributes.getKeyAttributes().hashCode();
+            hash = (hash * HASH_MULTIPLIER) + encryptAttributes.getMutableKeyAttributes().hashCode();
+            return (hash * HASH_MULTIPLIER) + encryptAttributes.getMetadata().hashCode();
+        }
+
+        /**
+         * @param stored a stored identity
+         * @return true iff this (lookup) identity refers to the attributes captured by the stored identity
+         */
+        private boolean matches(final Id stored) {
+            final KeyAttributesMap keyAttributesQ = encryptAttributes.getKeyAttributes();
+            final KeyAttributesMap mutableAttributesQ = encryptAttributes.getMutableKeyAttributes();
+            return stored.keyAttributes.matches(keyAttributesQ) && stored.mutableAttributes.matches(mutableAttributesQ)
+                    && stored.metadata.equals(encryptAttributes.getMetadata());
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (this == object) {
+                return true;
+            } else if (!(object instanceof Id) || (hash != ((Id) object).hash)) {
+                return false;
+            }
+            final Id id = (Id) object;
+            if ((encryptAttributes != null) && (id.encryptAttributes != null)) {
+                return encryptAttributes.getKeyAttributes().equals(id.encryptAttributes.getKeyAttributes())
+                        && encryptAttributes.getMutableKeyAttributes().equals(
+                        id.encryptAttributes.getMutableKeyAttributes())
+                        && encryptAttributes.getMetadata().equals(id.encryptAttributes.getMetadata());
+            } else if (encryptAttributes != null) {
+                return matches(id);
+            } else if (id.encryptAttributes != null) {
+                return id.matches(this);
+            } else {
+                return keyAttributes.equals(id.keyAttributes) && mutableAttributes.equals(id.mutableAttributes)
+                        && metadata.equals(id.metadata);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A key available for reuse, and its usage so far.
+     */
+    private static final class Entry {
+
+        /**
+         * The key.
+         */
+        private final CreateKeysResponse.Key key;
+
+        /**
+         * The time at which the key was created.
+         */
+        private final long nanosCreated;
+
+        /**
+         * The number of chunks encrypted with the key.
+         */
+        private long uses;
+
+        /**
+         * The number of plaintext bytes encrypted with the key.
+         */
+        private long bytes;
+
+        /**
+         * Constructor.
+         *
+         * @param key    the key
+         * @param length the number of plaintext bytes encrypted by the operation which created the key
+         */
+        private Entry(final CreateKeysResponse.Key key, final int length) {
+            this.key = key;
+            this.nanosCreated = System.nanoTime();
+            this.uses = 1L;
+            this.bytes = length;
+        }
+    }
+}
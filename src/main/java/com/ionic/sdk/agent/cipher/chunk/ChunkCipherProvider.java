@@ -0,0 +1,22 @@
+package com.ionic.sdk.agent.cipher.chunk;
+
+import com.ionic.sdk.key.KeyServices;
+
+/**
+ * Service provider interface for additional chunk cipher formats.
+ * <p>
+ * Implementations listed in <code>META-INF/services/com.ionic.sdk.agent.cipher.chunk.ChunkCipherProvider</code>
+ * are loaded (using {@link java.util.ServiceLoader}) when {@link ChunkCipherAuto} is first used, and the chunk ciphers
+ * they create are recognized by {@link ChunkCipherAuto}, after the built-in chunk ciphers.  A provider whose cipher id
+ * duplicates that of an earlier cipher is ignored.
+ */
+public interface ChunkCipherProvider {
+
+    /**
+     * Create an instance of the chunk cipher.
+     *
+     * @param agent the key services implementation
+     * @return a new chunk cipher
+     */
+    ChunkCipherAbstract create(KeyServices agent);
+}
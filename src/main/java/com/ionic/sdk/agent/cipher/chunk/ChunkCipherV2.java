@@ -158,7 +158,7 @@ public class ChunkCipherV2 extends ChunkCipherAbstract {
     @Override
     protected final String encryptInternal(final AgentKey key, final byte[] plainText) throws IonicException {
         final AesCtrCipher cipher = new AesCtrCipher();
-        cipher.setKey(key.getKey());
+        cipher.setKeyMaterial(key.getKeyMaterial());
         return cipher.encryptToBase64(plainText);
     }
 
@@ -252,7 +252,7 @@ public class ChunkCipherV2 extends ChunkCipherAbstract {
     @Override
     protected final byte[] decryptInternal(final AgentKey key, final String cipherTextBase64) throws IonicException {
         final AesCtrCipher cipher = new AesCtrCipher();
-        cipher.setKey(key.getKey());
+        cipher.setKeyMaterial(key.getKeyMaterial());
         return cipher.decryptBase64(cipherTextBase64);
     }
 }
@@ -157,7 +157,7 @@ public class ChunkCipherV3 extends ChunkCipherAbstract {
     @Override
     protected final String encryptInternal(final AgentKey key, final byte[] plainText) throws IonicException {
         final AesGcmCipher cipher = new AesGcmCipher();
-        cipher.setKey(key.getKey());
+        cipher.setKeyMaterial(key.getKeyMaterial());
         cipher.setAuthData(Transcoder.utf8().decode(key.getId()));
         return cipher.encryptToBase64(plainText);
     }
@@ -252,7 +252,7 @@ public class ChunkCipherV3 extends ChunkCipherAbstract {
     @Override
     protected final byte[] decryptInternal(final AgentKey key, final String cipherTextBase64) throws IonicException {
         final AesGcmCipher cipher = new AesGcmCipher();
-        cipher.setKey(key.getKey());
+        cipher.setKeyMaterial(key.getKeyMaterial());
         cipher.setAuthData(Transcoder.utf8().decode(key.getId()));
         return cipher.decryptBase64(cipherTextBase64);
     }
@@ -0,0 +1,384 @@
+package com.ionic.sdk.agent.cipher.chunk.json;
+
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherAbstract;
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherAuto;
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherKeySession;
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherV3;
+import com.ionic.sdk.agent.cipher.chunk.data.ChunkCryptoEncryptAttributes;
+import com.ionic.sdk.agent.key.KeyAttributesMap;
+import com.ionic.sdk.core.value.Value;
+import com.ionic.sdk.error.IonicException;
+import com.ionic.sdk.error.SdkError;
+import com.ionic.sdk.json.JsonFactories;
+import com.ionic.sdk.key.KeyServices;
+
+import javax.json.JsonException;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonParser;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Streaming encryption of selected string values in a JSON document.
+ * <p>
+ * The values to be protected are selected by JSON pointer (RFC 6901), for example <code>/customer/ssn</code>.  The
+ * pointer segment <code>*</code> matches any object member or array element, so that <code>/accounts/&#42;/number</code>
+ * selects the <code>number</code> member of each element of the <code>accounts</code> array.  Selected string values
+ * are replaced by their Ionic chunk ciphertext; other values are copied unchanged.
+ * <p>
+ * The document is transformed in a single pass using the {@link javax.json.stream} API, so that memory use does not
+ * depend on the size of the document.  Each document is encrypted with a single key (created on first use).  When
+ * decrypting, the key of each protected value is fetched by its own request.
+ */
+public final class ChunkCipherJsonStream {
+
+    /**
+     * Pointer segment matching any object member or array element.
+     */
+    public static final String WILDCARD = "*";
+
+    /**
+     * Key services implementation; used to broker key transactions and crypto operations.
+     */
+    private final KeyServices agent;
+
+    /**
+     * The attributes of the keys created to encrypt documents.
+     */
+    private final KeyAttributesMap attributes;
+
+    /**
+     * The parsed JSON pointers selecting the values to be protected.
+     */
+    private final List<String[]> pointers;
+
+    /**
+     * Constructor.
+     *
+     * @param agent    the key services implementation
+     * @param pointers the JSON pointers selecting the values to be protected
+     * @throws IonicException on an invalid JSON pointer
+     */
+    public ChunkCipherJsonStream(final KeyServices agent, final Collection<String> pointers) throws IonicException {
+        this(agent, pointers, new KeyAttributesMap());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param agent      the key services implementation
+     * @param pointers   the JSON pointers selecting the values to be protected
+     * @param attributes the attributes of the keys created to encrypt documents
+     * @throws IonicException on an invalid JSON pointer
+     */
+    public ChunkCipherJsonStream(final KeyServices agent, final Collection<String> pointers,
+                                 final KeyAttributesMap attributes) throws IonicException {
+        this.agent = agent;
+        this.attributes = new KeyAttributesMap(attributes);
+        this.pointers = new ArrayList<String[]>();
+        for (final String pointer : pointers) {
+            this.pointers.add(toSegments(pointer));
+        }
+    }
+
+    /**
+     * Encrypt the selected values of a JSON document.
+     *
+     * @param input  the source document (the character encoding is detected as described in RFC 7159)
+     * @param output the destination for the transformed document (UTF-8 encoded)
+     * @throws IonicException on failure parsing the document, or on cryptography errors
+     */
+    public void encrypt(final InputStream input, final OutputStream output) throws IonicException {
+        transform(JsonFactories.createParser(input), JsonFactories.createGenerator(output), true);
+    }
+
+    /**
+     * Encrypt the selected values of a JSON document.
+     *
+     * @param input  the source document
+     * @param output the destination for the transformed document
+     * @throws IonicException on failure parsing the document, or on cryptography errors
+     */
+    public void encrypt(final Reader input, final Writer output) throws IonicException {
+        transform(JsonFactories.createParser(input), JsonFactories.createGenerator(output), true);
+    }
+
+    /**
+     * Decrypt the selected values of a JSON document.  Selected values which are not Ionic chunk ciphertext are
+     * copied unchanged.
+     *
+     * @param input  the source document (the character encoding is detected as described in RFC 7159)
+     * @param output the destination for the transformed document (UTF-8 encoded)
+     * @throws IonicException on failure parsing the document, or on cryptography errors
+     */
+    public void decrypt(final InputStream input, final OutputStream output) throws IonicException {
+        transform(JsonFactories.createParser(input), JsonFactories.createGenerator(output), false);
+    }
+
+    /**
+     * Decrypt the selected values of a JSON document.  Selected values which are not Ionic chunk ciphertext are
+     * copied unchanged.
+     *
+     * @param input  the source document
+     * @param output the destination for the transformed document
+     * @throws IonicException on failure parsing the document, or on cryptography errors
+     */
+    public void decrypt(final Reader input, final Writer output) throws IonicException {
+        transform(JsonFactories.createParser(input), JsonFactories.createGenerator(output), false);
+    }
+
+    /**
+     * Copy a JSON document from the parser to the generator, transforming the selected string values.
+     *
+     * @param parser    the source of the document
+     * @param generator the destination of the document
+     * @param encrypt   true to encrypt the selected values; false to decrypt them
+     * @throws IonicException on failure parsing the document, or on cryptography errors
+     */
+    private void transform(final JsonParser parser, final JsonGenerator generator,
+                           final boolean encrypt) throws IonicException {
+        // a cipher (and, when encrypting, a key session) per document; the session keeps a single key for the document
+        final ChunkCipherAbstract cipher = encrypt ? new ChunkCipherV3(agent) : new ChunkCipherAuto(agent);
+        if (encrypt) {
+            cipher.setKeySession(new ChunkCipherKeySession(
+                    ChunkCipherKeySession.MAX_USES_GCM, Long.MAX_VALUE, Long.MAX_VALUE));
+        }
+        final ChunkCryptoEncryptAttributes encryptAttributes = new ChunkCryptoEncryptAttributes(attributes);
+        final Path path = new Path();
+        try {
+            while (parser.hasNext()) {
+                final JsonParser.Event event = parser.next();
+                switch (event) {
+                    case KEY_NAME:
+                        path.setName(parser.getString());
+                        break;
+                    case START_OBJECT:
+                        if (path.isObject()) {
+                            generator.writeStartObject(path.getName());
+                        } else {
+                            generator.writeStartObject();
+                        }
+                        path.push(true);
+                        break;
+                    case START_ARRAY:
+                        if (path.isObject()) {
+                            generator.writeStartArray(path.getName());
+                        } else {
+                            generator.writeStartArray();
+                        }
+                        path.push(false);
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        generator.writeEnd();
+                        path.pop();
+                        break;
+                    case VALUE_STRING:
+                        final String value = parser.getString();
+                        if (!isSelected(path) || Value.isEmpty(value)) {
+                            path.write(generator, value);
+                        } else if (encrypt) {
+                            path.write(generator, cipher.encrypt(value, encryptAttributes));
+                        } else if (cipher.getChunkInfo(value).isEncrypted()) {
+                            path.write(generator, cipher.decrypt(value));
+                        } else {
+                            path.write(generator, value);
+                        }
+                        path.next();
+                        break;
+                    case VALUE_NUMBER:
+                        if (path.isObject()) {
+                            generator.write(path.getName(), parser.getBigDecimal());
+                        } else {
+                            generator.write(parser.getBigDecimal());
+                        }
+                        path.next();
+                        break;
+                    case VALUE_TRUE:
+                    case VALUE_FALSE:
+                        if (path.isObject()) {
+                            generator.write(path.getName(), event == JsonParser.Event.VALUE_TRUE);
+                        } else {
+                            generator.write(event == JsonParser.Event.VALUE_TRUE);
+                        }
+                        path.next();
+                        break;
+                    case VALUE_NULL:
+                        if (path.isObject()) {
+                            generator.writeNull(path.getName());
+                        } else {
+                            generator.writeNull();
+                        }
+                        path.next();
+                        break;
+                    default:
+                        throw new IonicException(SdkError.ISAGENT_PARSEFAILED, event.name());
+                }
+            }
+            generator.flush();
+        } catch (JsonException e) {
+            throw new IonicException(SdkError.ISAGENT_PARSEFAILED, e);
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * @param path the location of the current value in the document
+     * @return true iff the current value is selected by one of the configured JSON pointers
+     */
+    private boolean isSelected(final Path path) {
+        for (final String[] pointer : pointers) {
+            if (path.matches(pointer)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Split a JSON pointer into its (unescaped) segments.
+     *
+     * @param pointer a JSON pointer, such as <code>/a/b/0</code>
+     * @return the segments of the pointer
+     * @throws IonicException if the pointer is not valid
+     */
+    private static String[] toSegments(final String pointer) throws IonicException {
+        if (Value.isEmpty(pointer)) {
+            return new String[0];
+        } else if (!pointer.startsWith("/")) {
+            throw new IonicException(SdkError.ISAGENT_INVALIDVALUE, pointer);
+        }
+        final String[] segments = pointer.substring(1).split("/", -1);
+        for (int i = 0; (i < segments.length); ++i) {
+            segments[i] = segments[i].replace("~1", "/").replace("~0", "~");
+        }
+        return segments;
+    }
+
+    /**
+     * The location of the current value in the document being transformed.  Only the chain of enclosing containers
+     * is held, so memory use depends on the nesting depth of the document, and not on its size.
+     */
+    private static final class Path {
+
+        /**
+         * True for each enclosing object; false for each enclosing array.
+         */
+        private boolean[] objects = new boolean[INITIAL_DEPTH];
+
+        /**
+         * The current member name in each enclosing object.
+         */
+        private String[] names = new String[INITIAL_DEPTH];
+
+        /**
+         * The current element index in each enclosing array.
+         */
+        private int[] indexes = new int[INITIAL_DEPTH];
+
+        /**
+         * The number of enclosing containers.
+         */
+        private int depth = 0;
+
+        /**
+         * @return true iff the innermost enclosing container is an object
+         */
+        private boolean isObject() {
+            return (depth > 0) && objects[depth - 1];
+        }
+
+        /**
+         * @return the current member name in the innermost enclosing object
+         */
+        private String getName() {
+            return names[depth - 1];
+        }
+
+        /**
+         * @param name the current member name in the innermost enclosing object
+         */
+        private void setName(final String name) {
+            names[depth - 1] = name;
+        }
+
+        /**
+         * Enter a container.
+         *
+         * @param object true for an object; false for an array
+         */
+        private void push(final boolean object) {
+            if (depth == objects.length) {
+                objects = Arrays.copyOf(objects, depth * 2);
+                names = Arrays.copyOf(names, depth * 2);
+                indexes = Arrays.copyOf(indexes, depth * 2);
+            }
+            objects[depth] = object;
+            names[depth] = null;
+            indexes[depth] = 0;
+            ++depth;
+        }
+
+        /**
+         * Leave a container, which is itself a value of the enclosing container.
+         */
+        private void pop() {
+            --depth;
+            next();
+        }
+
+        /**
+         * Advance past the current value of the innermost enclosing container.
+         */
+        private void next() {
+            if ((depth > 0) && !objects[depth - 1]) {
+                ++indexes[depth - 1];
+            }
+        }
+
+        /**
+         * Write a string value at the current location.
+         *
+         * @param generator the destination of the document
+         * @param value     the value
+         */
+        private void write(final JsonGenerator generator, final String value) {
+            if (isObject()) {
+                generator.write(getName(), value);
+            } else {
+                generator.write(value);
+            }
+        }
+
+        /**
+         * @param pointer the segments of a JSON pointer
+         * @return true iff the pointer selects the current location
+         */
+        private boolean matches(final String[] pointer) {
+            if (pointer.length != depth) {
+                return false;
+            }
+            for (int i = 0; (i < depth); ++i) {
+                final String segment = pointer[i];
+                if (WILDCARD.equals(segment)) {
+                    continue;
+                } else if (objects[i] ? !segment.equals(names[i]) : !segment.equals(Integer.toString(indexes[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Initial capacity of the container chain.
+         */
+        private static final int INITIAL_DEPTH = 16;
+    }
+}
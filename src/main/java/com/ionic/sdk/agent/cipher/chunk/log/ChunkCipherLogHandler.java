@@ -0,0 +1,462 @@
+package com.ionic.sdk.agent.cipher.chunk.log;
+
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherAbstract;
+import com.ionic.sdk.agent.cipher.chunk.ChunkCipherKeySession;
+import com.ionic.sdk.agent.cipher.chunk.data.ChunkCryptoEncryptAttributes;
+import com.ionic.sdk.agent.key.KeyAttributesMap;
+import com.ionic.sdk.core.value.Value;
+import com.ionic.sdk.error.IonicException;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * A {@link java.util.logging} handler which encrypts selected fields of each log record with an Ionic chunk cipher,
+ * before passing the record along to a target handler.
+ * <p>
+ * Published records are copied into a bounded ring buffer, and encrypted on a background (daemon) thread, so that the
+ * cost of the encryption (and of any key creation) is not borne by the logging thread.  When the buffer is full,
+ * records are either discarded or the logging thread waits for space, as specified by the {@link OverflowPolicy}.
+ * <p>
+ * Records are drained from the buffer in batches.  If the cipher has no {@link ChunkCipherKeySession}, a session
+ * with the default rotation limits is attached to it, so that records share keys instead of each creating a new key.
+ * The handler should therefore be given a cipher instance dedicated to its use.
+ * <p>
+ * Records which cannot be encrypted are reported to the {@link ErrorManager} of this handler, and are not passed
+ * along to the target handler.  Records published by the background thread itself (for example, SDK log output
+ * emitted while a record is encrypted or passed to the target handler) are discarded, as they would otherwise loop
+ * back into the buffer.
+ */
+public final class ChunkCipherLogHandler extends Handler {
+
+    /**
+     * The fields of a log record which may be encrypted.
+     */
+    public enum Field {
+
+        /**
+         * The log message, formatted with its parameters, and followed by the stack trace of any throwable (the
+         * parameters and the throwable are then discarded).
+         */
+        MESSAGE,
+
+        /**
+         * The log message parameters (each parameter is replaced by the encrypted form of its string value).  Any
+         * throwable is passed along unencrypted.
+         */
+        PARAMETERS
+    }
+
+    /**
+     * The behavior of {@link #publish(LogRecord)} when the buffer is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * Discard the record.
+         */
+        DROP,
+
+        /**
+         * Wait for space in the buffer.
+         */
+        BLOCK
+    }
+
+    /**
+     * Default capacity of the record buffer.
+     */
+    public static final int CAPACITY_DEFAULT = 8192;
+
+    /**
+     * Default maximum number of records drained from the buffer at once.
+     */
+    public static final int BATCH_DEFAULT = 256;
+
+    /**
+     * The handler to which encrypted records are passed.
+     */
+    private final Handler target;
+
+    /**
+     * The cipher used to encrypt the record fields.
+     */
+    private final ChunkCipherAbstract cipher;
+
+    /**
+     * The attributes of the keys used to encrypt the record fields.
+     */
+    private final KeyAttributesMap attributes;
+
+    /**
+     * The record fields to be encrypted.
+     */
+    private final Set<Field> fields;
+
+    /**
+     * The behavior of {@link #publish(LogRecord)} when the buffer is full.
+     */
+    private final OverflowPolicy policy;
+
+    /**
+     * True iff the source class and method of a record should be determined on the logging thread.
+     */
+    private final boolean inferCaller;
+
+    /**
+     * The maximum number of records drained from the buffer at once.
+     */
+    private final int batchSize;
+
+    /**
+     * Formatter used to apply the parameters of a record to its message.
+     */
+    private final Formatter formatter;
+
+    /**
+     * The buffer of records waiting to be encrypted.
+     */
+    private final BlockingQueue<LogRecord> queue;
+
+    /**
+     * The background thread which encrypts buffered records.
+     */
+    private final Thread drainer;
+
+    /**
+     * The number of records added to the buffer.
+     */
+    private final AtomicLong enqueuedCount;
+
+    /**
+     * The number of records discarded because the buffer was full.
+     */
+    private final AtomicLong droppedCount;
+
+    /**
+     * The number of records discarded because they could not be encrypted.
+     */
+    private final AtomicLong failedCount;
+
+    /**
+     * The number of buffered records processed by the background thread (guarded by this handler's progress monitor).
+     */
+    private long processedCount;
+
+    /**
+     * Monitor used to signal progress of the background thread to {@link #flush()}.
+     */
+    private final Object progress;
+
+    /**
+     * True once the handler has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructor, using the default buffer capacity and batch size.
+     *
+     * @param target the handler to which encrypted records are passed
+     * @param cipher the cipher used to encrypt the record fields
+     * @param fields the record fields to be encrypted
+     * @param policy the behavior of {@link #publish(LogRecord)} when the buffer is full
+     */
+    public ChunkCipherLogHandler(final Handler target, final ChunkCipherAbstract cipher,
+                                 final Collection<Field> fields, final OverflowPolicy policy) {
+        this(target, cipher, new KeyAttributesMap(), fields, policy, CAPACITY_DEFAULT, BATCH_DEFAULT, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param target      the handler to which encrypted records are passed
+     * @param cipher      the cipher used to encrypt the record fields
+     * @param attributes  the attributes of the keys used to encrypt the record fields
+     * @param fields      the record fields to be encrypted
+     * @param policy      the behavior of {@link #publish(LogRecord)} when the buffer is full
+     * @param capacity    the capacity of the record buffer
+     * @param batchSize   the maximum number of records drained from the buffer at once
+     * @param inferCaller true to determine the source class and method of each record on the logging thread (at some
+     *                    cost in latency); false to omit them from the records passed to the target handler
+     */
+    public ChunkCipherLogHandler(final Handler target, final ChunkCipherAbstract cipher,
+                                 final KeyAttributesMap attributes, final Collection<Field> fields,
+                                 final OverflowPolicy policy, final int capacity, final int batchSize,
+                                 final boolean inferCaller) {
+        this.target = target;
+        this.cipher = cipher;
+        this.attributes = new KeyAttributesMap(attributes);
+        this.fields = fields.isEmpty() ? EnumSet.noneOf(Field.class) : EnumSet.copyOf(fields);
+        this.policy = policy;
+        this.inferCaller = inferCaller;
+        this.batchSize = Math.max(1, batchSize);
+        this.formatter = new SimpleFormatter();
+        this.queue = new ArrayBlockingQueue<LogRecord>(Math.max(1, capacity));
+        this.enqueuedCount = new AtomicLong();
+        this.droppedCount = new AtomicLong();
+        this.failedCount = new AtomicLong();
+        this.processedCount = 0L;
+        this.progress = new Object();
+        this.closed = false;
+        if (cipher.getKeySession() == null) {
+            cipher.setKeySession(new ChunkCipherKeySession());
+        }
+        this.drainer = new Thread(new Drainer(), THREAD_NAME + COUNT.incrementAndGet());
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    /**
+     * @return the number of records discarded because the buffer was full
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return the number of records discarded because they could not be encrypted
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return the number of records waiting to be encrypted
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Add a copy of the record to the buffer, to be encrypted and passed to the target handler.
+     *
+     * @param record the log record
+     */
+    @Override
+    public void publish(final LogRecord record) {
+        // a record published by the background thread would wait on (or fill) the buffer that thread drains
+        if (closed || (record == null) || (Thread.currentThread() == drainer) || !isLoggable(record)) {
+            return;
+        }
+        final LogRecord copy = copyOf(record);
+        if (policy == OverflowPolicy.BLOCK) {
+            try {
+                queue.put(copy);
+                enqueuedCount.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedCount.incrementAndGet();
+            }
+        } else if (queue.offer(copy)) {
+            enqueuedCount.incrementAndGet();
+        } else {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Wait for the records published so far to be passed to the target handler, then flush the target handler.
+     */
+    @Override
+    public void flush() {
+        final long enqueued = enqueuedCount.get();
+        try {
+            synchronized (progress) {
+                while ((processedCount < enqueued) && drainer.isAlive()) {
+                    progress.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        target.flush();
+    }
+
+    /**
+     * Pass any buffered records to the target handler, stop the background thread, and close the target handler.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            boolean interrupted = false;
+            while (drainer.isAlive()) {
+                try {
+                    queue.put(END);
+                    drainer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        target.close();
+    }
+
+    /**
+     * Copy the log record, so that the fields of the copy may be encrypted without affecting other handlers.
+     *
+     * @param record the log record
+     * @return a copy of the log record
+     */
+    private LogRecord copyOf(final LogRecord record) {
+        final LogRecord copy = new LogRecord(record.getLevel(), record.getMessage());
+        copy.setLoggerName(record.getLoggerName());
+        copyStamp(record, copy);
+        copy.setSequenceNumber(record.getSequenceNumber());
+        // the throwable is rendered into the message (and discarded) on the background thread, when so configured
+        copy.setThrown(record.getThrown());
+        copy.setResourceBundle(record.getResourceBundle());
+        copy.setResourceBundleName(record.getResourceBundleName());
+        final Object[] parameters = record.getParameters();
+        copy.setParameters((parameters == null) ? null : parameters.clone());
+        // the source of a record is otherwise determined lazily, which would identify the wrong thread
+        copy.setSourceClassName(inferCaller ? record.getSourceClassName() : null);
+        copy.setSourceMethodName(inferCaller ? record.getSourceMethodName() : null);
+        return copy;
+    }
+
+    /**
+     * Copy the timestamp and thread id of a log record.  The replacement accessors ({@code setInstant()},
+     * {@code setLongThreadID()}) are not available at the source level of this library.
+     *
+     * @param record the log record
+     * @param copy   the copy of the log record
+     */
+    @SuppressWarnings("deprecation")
+    private static void copyStamp(final LogRecord record, final LogRecord copy) {
+        copy.setMillis(record.getMillis());
+        copy.setThreadID(record.getThreadID());
+    }
+
+    /**
+     * Encrypt the configured fields of a (copied) log record.
+     *
+     * @param record the log record
+     * @throws IonicException on cryptography errors
+     */
+    private void encrypt(final LogRecord record) throws IonicException {
+        if (fields.contains(Field.MESSAGE)) {
+            final String message = withThrown(formatter.formatMessage(record), record.getThrown());
+            record.setMessage(Value.isEmpty(message) ? message : encrypt(message));
+            record.setParameters(null);
+            record.setResourceBundle(null);
+            record.setThrown(null);
+        } else if (fields.contains(Field.PARAMETERS) && (record.getParameters() != null)) {
+            final Object[] parameters = record.getParameters();
+            for (int i = 0; (i < parameters.length); ++i) {
+                final String parameter = (parameters[i] == null) ? null : parameters[i].toString();
+                parameters[i] = Value.isEmpty(parameter) ? parameter : encrypt(parameter);
+            }
+        }
+    }
+
+    /**
+     * Append the stack trace of a throwable to a formatted log message, as {@link SimpleFormatter} would render it.
+     *
+     * @param message the formatted log message
+     * @param thrown  the throwable associated with the log record, or null
+     * @return the log message, followed by the stack trace of the throwable
+     */
+    private static String withThrown(final String message, final Throwable thrown) {
+        if (thrown == null) {
+            return message;
+        }
+        final StringWriter writer = new StringWriter();
+        final PrintWriter printWriter = new PrintWriter(writer);
+        printWriter.println((message == null) ? "" : message);
+        thrown.printStackTrace(printWriter);
+        printWriter.close();
+        return writer.toString();
+    }
+
+    /**
+     * Encrypt a record field.
+     *
+     * @param text the field value
+     * @return the encrypted field value
+     * @throws IonicException on cryptography errors
+     */
+    private String encrypt(final String text) throws IonicException {
+        return cipher.encrypt(text, new ChunkCryptoEncryptAttributes(attributes));
+    }
+
+    /**
+     * Background task which encrypts buffered records, and passes them to the target handler.
+     */
+    private final class Drainer implements Runnable {
+
+        @Override
+        public void run() {
+            final List<LogRecord> batch = new ArrayList<LogRecord>(batchSize);
+            boolean running = true;
+            try {
+                while (running) {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, batchSize - 1);
+                    int processed = 0;
+                    for (final LogRecord record : batch) {
+                        if (record == END) {
+                            running = false;
+                            continue;
+                        }
+                        try {
+                            encrypt(record);
+                            target.publish(record);
+                        } catch (IonicException e) {
+                            failedCount.incrementAndGet();
+                            reportError(e.getMessage(), e, ErrorManager.FORMAT_FAILURE);
+                        } catch (RuntimeException e) {
+                            failedCount.incrementAndGet();
+                            reportError(e.getMessage(), e, ErrorManager.WRITE_FAILURE);
+                        }
+                        ++processed;
+                    }
+                    batch.clear();
+                    synchronized (progress) {
+                        processedCount += processed;
+                        progress.notifyAll();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                synchronized (progress) {
+                    progress.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Marker record, added to the buffer to stop the background thread.
+     */
+    private static final LogRecord END = new LogRecord(Level.OFF, null);
+
+    /**
+     * The count of background threads created by this class.
+     */
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    /**
+     * The name prefix of background threads created by this class.
+     */
+    private static final String THREAD_NAME = "ionic-sdk-log-";
+}
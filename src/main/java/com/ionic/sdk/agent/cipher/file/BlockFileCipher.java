@@ -0,0 +1,551 @@
+package com.ionic.sdk.agent.cipher.file;
+
+import com.ionic.sdk.agent.bulk.BulkOperations;
+import com.ionic.sdk.agent.key.AgentKey;
+import com.ionic.sdk.agent.key.KeyAttributesMap;
+import com.ionic.sdk.agent.request.createkey.CreateKeysResponse;
+import com.ionic.sdk.agent.request.getkey.GetKeysResponse;
+import com.ionic.sdk.cipher.aes.AesCipher;
+import com.ionic.sdk.cipher.aes.AesGcmCipher;
+import com.ionic.sdk.core.codec.Transcoder;
+import com.ionic.sdk.error.IonicException;
+import com.ionic.sdk.error.SdkData;
+import com.ionic.sdk.error.SdkError;
+import com.ionic.sdk.key.KeyServices;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Encrypt (or decrypt) files in fixed-size blocks, using concurrent tasks.
+ * <p>
+ * Each file is protected by a single Ionic key.  The plaintext is divided into blocks of <code>blockSize</code>
+ * bytes (the last block may be shorter), and each block is sealed independently with AES-GCM, so that blocks may be
+ * encrypted and decrypted in parallel, and so that memory use does not depend on the size of the file.  File
+ * contents are accessed using positional reads and writes, through one pair of buffers per task.
+ * <p>
+ * If an operation fails, the destination file is deleted, so that a partially decrypted file (which would hold
+ * plaintext, possibly unauthenticated) is not left behind.
+ * <p>
+ * Container format (integers are big-endian):
+ * <pre>
+ * header:
+ *   int32   magic (0x49424631, "IBF1")
+ *   int32   blockSize (plaintext bytes per block)
+ *   int64   plainLength (plaintext bytes in file)
+ *   uint16  keyIdLength
+ *   byte[]  keyId (UTF-8)
+ * block[i], for i in [0, max(1, ceil(plainLength / blockSize))):
+ *   byte[16] IV (random)
+ *   byte[]   ciphertext (blockSize bytes; the last block holds the remaining plaintext bytes)
+ *   byte[16] GCM authentication tag
+ * </pre>
+ * Block <code>i</code> starts at offset <code>headerLength + i * (blockSize + 32)</code>.  The additional
+ * authenticated data of block <code>i</code> is the header, followed by <code>i</code> as an int64, so that blocks
+ * cannot be reordered, moved between files, or truncated (a file always has at least one block) without detection.
+ * <p>
+ * Instances should be closed after use, in order to release the executor.
+ */
+public final class BlockFileCipher implements AutoCloseable {
+
+    /**
+     * Class scoped logger.
+     */
+    private final Logger logger;
+
+    /**
+     * Key services implementation; used to broker key transactions.
+     */
+    private final KeyServices agent;
+
+    /**
+     * The number of plaintext bytes in each block (of files written by this object).
+     */
+    private final int blockSize;
+
+    /**
+     * The maximum number of concurrent tasks.
+     */
+    private final int parallelism;
+
+    /**
+     * Runner for concurrent tasks.
+     */
+    private final BulkOperations bulkOperations;
+
+    /**
+     * Constructor.
+     *
+     * @param agent       the key services implementation
+     * @param blockSize   the number of plaintext bytes in each block (of files written by this object)
+     * @param parallelism the maximum number of concurrent tasks
+     */
+    public BlockFileCipher(final KeyServices agent, final int blockSize, final int parallelism) {
+        this.logger = Logger.getLogger(getClass().getName());
+        SdkData.checkNotNullNPE(agent, KeyServices.class.getName());
+        this.agent = agent;
+        this.blockSize = Math.min(Math.max(1, blockSize), BLOCK_SIZE_MAX);
+        this.parallelism = Math.max(1, parallelism);
+        this.bulkOperations = new BulkOperations(this.parallelism);
+    }
+
+    /**
+     * Constructor.  Use the default block size, and one task per available processor.
+     *
+     * @param agent the key services implementation
+     */
+    public BlockFileCipher(final KeyServices agent) {
+        this(agent, BLOCK_SIZE_DEFAULT, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Release the executor used by this object.
+     */
+    @Override
+    public void close() {
+        bulkOperations.close();
+    }
+
+    /**
+     * Encrypt a file, using a new Ionic key.
+     *
+     * @param source the plaintext file
+     * @param target the destination of the encrypted file (overwritten if present); must not be the source file
+     * @return the id of the key protecting the encrypted file
+     * @throws IonicException on I/O or cryptography errors, if the source and destination are the same file, or if
+     *                        the key request is denied
+     */
+    public String encrypt(final File source, final File target) throws IonicException {
+        return encrypt(source, target, new KeyAttributesMap());
+    }
+
+    /**
+     * Encrypt a file, using a new Ionic key.
+     *
+     * @param source     the plaintext file
+     * @param target     the destination of the encrypted file (overwritten if present); must not be the source file
+     * @param attributes the attributes of the key to be created
+     * @return the id of the key protecting the encrypted file
+     * @throws IonicException on I/O or cryptography errors, if the source and destination are the same file, or if
+     *                        the key request is denied
+     */
+    public String encrypt(final File source, final File target,
+                          final KeyAttributesMap attributes) throws IonicException {
+        checkDistinct(source, target);
+        final List<CreateKeysResponse.Key> keys = agent.createKey(attributes).getKeys();
+        if (keys.isEmpty()) {
+            throw new IonicException(SdkError.ISAGENT_KEY_DENIED, SdkError.getErrorString(SdkError.ISAGENT_KEY_DENIED));
+        }
+        final AgentKey key = keys.iterator().next();
+        try (FileChannel input = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            final Header header = new Header(blockSize, input.size(), key.getId());
+            write(target, header, header.toBytes(), key, input, true);
+            return key.getId();
+        } catch (IOException e) {
+            throw new IonicException(SdkError.ISAGENT_OPENFILE, e);
+        }
+    }
+
+    /**
+     * Decrypt a file.
+     *
+     * @param source the encrypted file
+     * @param target the destination of the plaintext file (overwritten if present, and deleted on failure); must not
+     *               be the source file
+     * @return the id of the key protecting the encrypted file
+     * @throws IonicException on I/O or cryptography errors (including authentication failure of any block), on an
+     *                        unrecognized file format, if the source and destination are the same file, or if the key
+     *                        request is denied
+     */
+    public String decrypt(final File source, final File target) throws IonicException {
+        checkDistinct(source, target);
+        try (FileChannel input = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            final Header header = Header.read(input);
+            final byte[] headerBytes = header.toBytes();
+            if (input.size() != header.getFileLength(headerBytes.length)) {
+                throw new IonicException(SdkError.ISAGENT_PARSEFAILED, source.getPath());
+            }
+            final List<GetKeysResponse.Key> keys = agent.getKey(header.keyId).getKeys();
+            if (keys.isEmpty()) {
+                throw new IonicException(SdkError.ISAGENT_KEY_DENIED, header.keyId);
+            }
+            write(target, header, headerBytes, keys.iterator().next(), input, false);
+            return header.keyId;
+        } catch (IOException e) {
+            throw new IonicException(SdkError.ISAGENT_OPENFILE, e);
+        }
+    }
+
+    /**
+     * Check that the source and destination of an operation are not the same file, as the destination is truncated
+     * before the source is read.
+     *
+     * @param source the source file
+     * @param target the destination file
+     * @throws IonicException if the files are the same, or on failure comparing the files
+     */
+    private static void checkDistinct(final File source, final File target) throws IonicException {
+        try {
+            SdkData.checkTrue(!target.exists() || !Files.isSameFile(source.toPath(), target.toPath()),
+                    SdkError.ISAGENT_INVALIDVALUE, target.getPath());
+        } catch (IOException e) {
+            throw new IonicException(SdkError.ISAGENT_OPENFILE, e);
+        }
+    }
+
+    /**
+     * Write the destination file of an operation.  On failure, the destination file is deleted.
+     *
+     * @param target      the destination file
+     * @param header      the header of the encrypted file
+     * @param headerBytes the serialized header of the encrypted file
+     * @param key         the key protecting the file
+     * @param input       the source file
+     * @param encrypt     true to encrypt; false to decrypt
+     * @throws IonicException on cryptography errors (including authentication failure of any block)
+     * @throws IOException    on failure reading the source file, or writing the destination file
+     */
+    private void write(final File target, final Header header, final byte[] headerBytes, final AgentKey key,
+                       final FileChannel input, final boolean encrypt) throws IonicException, IOException {
+        boolean complete = false;
+        try {
+            try (FileChannel output = FileChannel.open(target.toPath(), StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (encrypt) {
+                    writeFully(output, ByteBuffer.wrap(headerBytes), 0L);
+                }
+                run(new BlockTaskFactory(header, headerBytes, key, input, output, encrypt));
+            }
+            complete = true;
+        } finally {
+            if (!complete) {
+                delete(target);
+            }
+        }
+    }
+
+    /**
+     * Delete the destination file of a failed operation.
+     *
+     * @param target the destination file
+     */
+    private void delete(final File target) {
+        try {
+            Files.deleteIfExists(target.toPath());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, target.getPath(), e);
+        }
+    }
+
+    /**
+     * Divide the blocks of a file into contiguous ranges, and process the ranges concurrently.
+     *
+     * @param factory the source of the tasks
+     * @throws IonicException on failure of any of the tasks
+     */
+    private void run(final BlockTaskFactory factory) throws IonicException {
+        final long blockCount = factory.header.getBlockCount();
+        final long taskCount = Math.min(blockCount, parallelism * TASKS_PER_THREAD);
+        final List<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+        for (long i = 0; (i < taskCount); ++i) {
+            tasks.add(factory.create((blockCount * i) / taskCount, (blockCount * (i + 1)) / taskCount));
+        }
+        bulkOperations.invokeAll(tasks);
+    }
+
+    /**
+     * The header of an encrypted file.
+     */
+    private static final class Header {
+
+        /**
+         * The number of plaintext bytes in each block.
+         */
+        private final int blockSize;
+
+        /**
+         * The number of plaintext bytes in the file.
+         */
+        private final long plainLength;
+
+        /**
+         * The id of the key protecting the file.
+         */
+        private final String keyId;
+
+        /**
+         * Constructor.
+         *
+         * @param blockSize   the number of plaintext bytes in each block
+         * @param plainLength the number of plaintext bytes in the file
+         * @param keyId       the id of the key protecting the file
+         */
+        private Header(final int blockSize, final long plainLength, final String keyId) {
+            this.blockSize = blockSize;
+            this.plainLength = plainLength;
+            this.keyId = keyId;
+        }
+
+        /**
+         * @return the number of blocks in the file
+         */
+        private long getBlockCount() {
+            return Math.max(1L, (plainLength + blockSize - 1) / blockSize);
+        }
+
+        /**
+         * @param index the index of a block
+         * @return the number of plaintext bytes in the block
+         */
+        private int getPlainLength(final long index) {
+            return (int) Math.min(blockSize, plainLength - (index * blockSize));
+        }
+
+        /**
+         * @param headerLength the length of the serialized header
+         * @param index        the index of a block
+         * @return the offset of the block in the encrypted file
+         */
+        private long getOffset(final int headerLength, final long index) {
+            return headerLength + (index * (blockSize + BLOCK_OVERHEAD));
+        }
+
+        /**
+         * @param headerLength the length of the serialized header
+         * @return the expected length of the encrypted file
+         */
+        private long getFileLength(final int headerLength) {
+            final long blockCount = getBlockCount();
+            return getOffset(headerLength, blockCount - 1) + getPlainLength(blockCount - 1) + BLOCK_OVERHEAD;
+        }
+
+        /**
+         * @return the serialized header
+         * @throws IonicException if the key id is too long to be serialized
+         */
+        private byte[] toBytes() throws IonicException {
+            final byte[] keyIdBytes = Transcoder.utf8().decode(keyId);
+            SdkData.checkTrue(keyIdBytes.length <= Short.MAX_VALUE, SdkError.ISAGENT_INVALIDVALUE, KEY_ID);
+            final ByteBuffer buffer = ByteBuffer.allocate(HEADER_FIXED_LENGTH + keyIdBytes.length);
+            buffer.putInt(MAGIC).putInt(blockSize).putLong(plainLength).putShort((short) keyIdBytes.length);
+            buffer.put(keyIdBytes);
+            return buffer.array();
+        }
+
+        /**
+         * Read the header of an encrypted file.
+         *
+         * @param channel the encrypted file
+         * @return the header
+         * @throws IOException on failure reading the file
+         * @throws IonicException if the file is not in the expected format
+         */
+        private static Header read(final FileChannel channel) throws IOException, IonicException {
+            final ByteBuffer fixed = ByteBuffer.allocate(HEADER_FIXED_LENGTH);
+            readFully(channel, fixed, 0L);
+            final int magic = fixed.getInt();
+            final int blockSize = fixed.getInt();
+            final long plainLength = fixed.getLong();
+            final int keyIdLength = fixed.getShort() & 0xffff;
+            if ((magic != MAGIC) || (blockSize <= 0) || (blockSize > BLOCK_SIZE_MAX) || (plainLength < 0)) {
+                throw new IonicException(SdkError.ISAGENT_PARSEFAILED, Integer.toHexString(magic));
+            }
+            final ByteBuffer keyIdBytes = ByteBuffer.allocate(keyIdLength);
+            readFully(channel, keyIdBytes, HEADER_FIXED_LENGTH);
+            return new Header(blockSize, plainLength, Transcoder.utf8().encode(keyIdBytes.array()));
+        }
+    }
+
+    /**
+     * Read from the channel until the buffer is full.
+     *
+     * @param channel  the source of the data
+     * @param buffer   the destination of the data (from its start); flipped on return
+     * @param position the file position at which to start reading
+     * @throws IOException on failure reading the file, or if the file is too short
+     */
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer,
+                                  final long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Write to the channel until the buffer is empty.
+     *
+     * @param channel  the destination of the data
+     * @param buffer   the source of the data (from its start)
+     * @param position the file position at which to start writing
+     * @throws IOException on failure writing the file
+     */
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer,
+                                   final long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Source of tasks which encrypt (or decrypt) a range of the blocks of a file.
+     */
+    private static final class BlockTaskFactory {
+
+        /**
+         * The header of the encrypted file.
+         */
+        private final Header header;
+
+        /**
+         * The serialized header of the encrypted file.
+         */
+        private final byte[] headerBytes;
+
+        /**
+         * The key protecting the file.
+         */
+        private final AgentKey key;
+
+        /**
+         * The source file.
+         */
+        private final FileChannel input;
+
+        /**
+         * The destination file.
+         */
+        private final FileChannel output;
+
+        /**
+         * True to encrypt; false to decrypt.
+         */
+        private final boolean encrypt;
+
+        /**
+         * Constructor.
+         *
+         * @param header      the header of the encrypted file
+         * @param headerBytes the serialized header of the encrypted file
+         * @param key         the key protecting the file
+         * @param input       the source file
+         * @param output      the destination file
+         * @param encrypt     true to encrypt; false to decrypt
+         */
+        private BlockTaskFactory(final Header header, final byte[] headerBytes, final AgentKey key,
+                                 final FileChannel input, final FileChannel output, final boolean encrypt) {
+            this.header = header;
+            this.headerBytes = headerBytes;
+            this.key = key;
+            this.input = input;
+            this.output = output;
+            this.encrypt = encrypt;
+        }
+
+        /**
+         * @param first the index of the first block to be processed
+         * @param end   the index after the last block to be processed
+         * @return a task processing the blocks; the result of the task is the number of blocks processed
+         */
+        private Callable<Long> create(final long first, final long end) {
+            return new Callable<Long>() {
+                @Override
+                public Long call() throws IonicException, IOException {
+                    final AesGcmCipher cipher = new AesGcmCipher();
+                    cipher.setKeyMaterial(key.getKeyMaterial());
+                    final ByteBuffer aad = ByteBuffer.allocate(headerBytes.length + Long.SIZE / Byte.SIZE);
+                    aad.put(headerBytes);
+                    // the buffers are sized for the largest block in the range
+                    final int capacity = header.getPlainLength(first) + BLOCK_OVERHEAD;
+                    final ByteBuffer source = ByteBuffer.allocate(capacity);
+                    final ByteBuffer target = ByteBuffer.allocate(capacity);
+                    for (long index = first; (index < end); ++index) {
+                        aad.putLong(headerBytes.length, index);
+                        cipher.setAuthData(aad.array());
+                        process(cipher, index, source, target);
+                    }
+                    return end - first;
+                }
+            };
+        }
+
+        /**
+         * Encrypt (or decrypt) one block.
+         *
+         * @param cipher the cipher, configured for the block
+         * @param index  the index of the block
+         * @param source buffer to receive the input of the block
+         * @param target buffer to receive the output of the block
+         * @throws IonicException on cryptography errors
+         * @throws IOException    on failure reading or writing the files
+         */
+        private void process(final AesGcmCipher cipher, final long index, final ByteBuffer source,
+                             final ByteBuffer target) throws IonicException, IOException {
+            final int plainLength = header.getPlainLength(index);
+            final long plainOffset = index * header.blockSize;
+            final long cipherOffset = header.getOffset(headerBytes.length, index);
+            final int cipherLength = plainLength + BLOCK_OVERHEAD;
+            source.clear();
+            target.clear();
+            if (encrypt) {
+                source.limit(plainLength);
+                readFully(input, source, plainOffset);
+                cipher.encrypt(source, target);
+                target.flip();
+                writeFully(output, target, cipherOffset);
+            } else {
+                source.limit(cipherLength);
+                readFully(input, source, cipherOffset);
+                cipher.decrypt(source, target);
+                target.flip();
+                writeFully(output, target, plainOffset);
+            }
+        }
+    }
+
+    /**
+     * The default number of plaintext bytes in each block.
+     */
+    public static final int BLOCK_SIZE_DEFAULT = 1024 * 1024;
+
+    /**
+     * The maximum number of plaintext bytes in each block.
+     */
+    public static final int BLOCK_SIZE_MAX = 64 * 1024 * 1024;
+
+    /**
+     * The number of bytes added to each block by encryption (the IV and the authentication tag).
+     */
+    public static final int BLOCK_OVERHEAD = AesCipher.SIZE_IV + AesGcmCipher.SIZE_AUTH_TAG;
+
+    /**
+     * Label for the key id field of the header.
+     */
+    private static final String KEY_ID = "keyId";
+
+    /**
+     * Marker identifying the format of an encrypted file ("IBF1").
+     */
+    private static final int MAGIC = 0x49424631;
+
+    /**
+     * The length of the fixed size fields of the header.
+     */
+    private static final int HEADER_FIXED_LENGTH = 18;
+
+    /**
+     * The number of tasks per thread, so that work is balanced when some tasks take longer than others.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+}
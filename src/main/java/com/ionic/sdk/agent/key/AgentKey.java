@@ -1,12 +1,20 @@
 package com.ionic.sdk.agent.key;
 
+import com.ionic.sdk.crypto.material.KeyMaterial;
+import com.ionic.sdk.crypto.material.KeyMaterialStore;
+
+import javax.security.auth.Destroyable;
 import java.util.Objects;
 
 /**
  * Class that defines an abstract basic key container object used by Ionic.
  * Other classes may subclass AgentKey.
+ * <p>
+ * The key bytes are held off-heap in the default {@link KeyMaterialStore}.  They are zeroed when the key is
+ * destroyed (or, failing that, after the key becomes unreachable).  Key bytes replaced using
+ * {@link #setKey(byte[])} are zeroed once no longer in use.
  */
-public class AgentKey implements KeyBase, KeyMetadata {
+public class AgentKey implements KeyBase, KeyMetadata, Destroyable {
 
     /**
      * A String denoting the id of the key.
@@ -14,9 +22,9 @@ public class AgentKey implements KeyBase, KeyMetadata {
     private String keyId;
 
     /**
-     * The key byte array.
+     * The (off-heap) key bytes.
      */
-    private byte[] keyBytes;
+    private volatile KeyMaterial keyMaterial;
 
     /**
      * The key attributes.
@@ -62,7 +70,9 @@ public class AgentKey implements KeyBase, KeyMetadata {
      *      The key from which to copy attributes.
      */
     public AgentKey(final AgentKey key) {
-        this(key.keyId, key.keyBytes, key.keyAttributes, key.mutableAttributes, key.keyObligations);
+        this(key.keyId, new byte[0], key.keyAttributes, key.mutableAttributes, key.keyObligations);
+        this.keyMaterial = KeyMaterialStore.getDefault().allocate(key.keyMaterial);
+        this.mutableAttributesFromServer = new KeyAttributesMap(key.mutableAttributesFromServer);
         this.attributesSigBase64FromServer = key.attributesSigBase64FromServer;
         this.mutableAttributesSigBase64FromServer = key.mutableAttributesSigBase64FromServer;
     }
@@ -125,10 +135,10 @@ public class AgentKey implements KeyBase, KeyMetadata {
             throw new NullPointerException("cannot have null keyBytes");
         }
         this.keyId = Objects.requireNonNull(keyId, "keyId must not be null");
-        this.keyBytes = Objects.requireNonNull(keyBytes.clone(), "keyBytes must not be null");
+        this.keyMaterial = KeyMaterialStore.getDefault().allocate(keyBytes);
         this.keyAttributes = new KeyAttributesMap(keyAttributes);
         this.mutableAttributes = new KeyAttributesMap(mutableAttributes);
-        this.mutableAttributesFromServer = new KeyAttributesMap(mutableAttributes);
+        this.mutableAttributesFromServer = new KeyAttributesMap(this.mutableAttributes);
         this.keyObligations = new KeyObligationsMap(keyObligations);
         this.attributesSigBase64FromServer = "";
         this.mutableAttributesSigBase64FromServer = "";
@@ -164,7 +174,7 @@ public class AgentKey implements KeyBase, KeyMetadata {
      */
     @Override
     public final byte[] getKey() {
-        return this.keyBytes.clone();
+        return this.keyMaterial.toBytes();
     }
 
     /**
@@ -177,7 +187,35 @@ public class AgentKey implements KeyBase, KeyMetadata {
      */
     @Override
     public final void setKey(final byte[] keyBytes) throws NullPointerException {
-        this.keyBytes = Objects.requireNonNull(keyBytes.clone(), "keyBytes must not be null");
+        // the previous key bytes may still be in use by a concurrent reader; they are reclaimed once unreachable
+        this.keyMaterial = KeyMaterialStore.getDefault().allocate(
+                Objects.requireNonNull(keyBytes, "keyBytes must not be null"));
+    }
+
+    /**
+     * Borrow the (off-heap) key bytes, avoiding a heap copy.  The returned handle remains readable after the key
+     * bytes of this key are replaced; it becomes unreadable when this key is destroyed.
+     *
+     * @return a handle to the key bytes
+     */
+    public final KeyMaterial getKeyMaterial() {
+        return this.keyMaterial;
+    }
+
+    /**
+     * Zero the key bytes, and release their storage.
+     */
+    @Override
+    public final void destroy() {
+        this.keyMaterial.destroy();
+    }
+
+    /**
+     * @return true iff the key bytes have been zeroed and released
+     */
+    @Override
+    public final boolean isDestroyed() {
+        return this.keyMaterial.isDestroyed();
     }
 
     /**
@@ -0,0 +1,174 @@
+package com.ionic.sdk.agent.key;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The list of values associated with a single key attribute, in a {@link KeyAttributesMap}.
+ * <p>
+ * Copies of a KeyAttributesMap share the value arrays of the original, and only copy an array when one of the
+ * sharing lists is first modified (copy-on-write).  This avoids repeated deep copies of the same attribute values, as
+ * attribute maps are passed between requests, responses, and key objects.
+ * <p>
+ * Ownership model: each list writes to its backing array in place only while it holds the array exclusively.
+ * Copying a list marks the array of the source as shared, so that the source and the copy each copy the array on
+ * their first subsequent write; an array, once shared, is never modified.  Marking the source is the only write made
+ * by {@link #copyOf(List)}; it is idempotent and volatile, so copies may be taken concurrently with other reads of the
+ * source.  As with other {@link List} implementations, a list must not be modified concurrently with any other access
+ * to it (including copying).
+ */
+public final class KeyAttributeValues extends AbstractList<String> implements RandomAccess, Serializable {
+
+    /**
+     * The backing array of attribute values (possibly shared with other lists).
+     */
+    private String[] values;
+
+    /**
+     * The number of attribute values in this list.
+     */
+    private int size;
+
+    /**
+     * Flag indicating that the backing array may be shared with another list, and must be copied before it is
+     * modified.  Once set, it is cleared only by this list, on replacing its backing array.
+     */
+    private volatile boolean shared;
+
+    /**
+     * Constructs an empty list.
+     */
+    public KeyAttributeValues() {
+        this(EMPTY, 0, false);
+    }
+
+    /**
+     * Constructs a list containing the specified attribute values.
+     *
+     * @param values the attribute values
+     */
+    public KeyAttributeValues(final Collection<String> values) {
+        this(values.toArray(new String[values.size()]), values.size(), false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param values the backing array of attribute values
+     * @param size   the number of attribute values in the backing array
+     * @param shared true iff the backing array is shared with another list
+     */
+    private KeyAttributeValues(final String[] values, final int size, final boolean shared) {
+        this.values = values;
+        this.size = size;
+        this.shared = shared;
+    }
+
+    /**
+     * Copy the specified attribute values.  If the source is a KeyAttributeValues, its backing array is shared with
+     * the copy (until either list is modified).
+     *
+     * @param source the attribute values to copy
+     * @return a new list, containing the source attribute values
+     */
+    public static KeyAttributeValues copyOf(final List<String> source) {
+        if (source instanceof KeyAttributeValues) {
+            final KeyAttributeValues sourceValues = (KeyAttributeValues) source;
+            final String[] values = sourceValues.values;
+            final int size = sourceValues.size;
+            if (!sourceValues.shared) {
+                sourceValues.shared = true;
+            }
+            return new KeyAttributeValues(values, size, true);
+        } else {
+            return new KeyAttributeValues(source);
+        }
+    }
+
+    @Override
+    public String get(final int index) {
+        checkIndex(index, size);
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String set(final int index, final String value) {
+        checkIndex(index, size);
+        prepareWrite(size);
+        final String previous = values[index];
+        values[index] = value;
+        return previous;
+    }
+
+    @Override
+    public void add(final int index, final String value) {
+        checkIndex(index, size + 1);
+        prepareWrite(size + 1);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        ++size;
+        ++modCount;
+    }
+
+    @Override
+    public String remove(final int index) {
+        checkIndex(index, size);
+        prepareWrite(size);
+        final String previous = values[index];
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        values[--size] = null;
+        ++modCount;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        values = EMPTY;
+        size = 0;
+        shared = false;
+        ++modCount;
+    }
+
+    /**
+     * Ensure that the backing array is private to this list, and has room for the specified number of values.
+     *
+     * @param capacity the number of values which the backing array must be able to hold
+     */
+    private void prepareWrite(final int capacity) {
+        if (shared || (capacity > values.length)) {
+            values = Arrays.copyOf(values, Math.max(capacity, size + (size >> 1) + 1));
+            shared = false;
+        }
+    }
+
+    /**
+     * Verify that the specified index is in bounds.
+     *
+     * @param index the index to check
+     * @param bound the (exclusive) upper bound of the index
+     */
+    private static void checkIndex(final int index, final int bound) {
+        if ((index < 0) || (index >= bound)) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+    }
+
+    /**
+     * Shared backing array for empty lists.
+     */
+    private static final String[] EMPTY = new String[0];
+
+    /**
+     * Class version, for serialization.
+     */
+    private static final long serialVersionUID = 1L;
+}
@@ -10,6 +10,8 @@ import java.util.TreeMap;
 
 /**
  * Contains map of attributes used when a key was created.
+ * <p>
+ * Copies of a map share their attribute value arrays with the original map; see {@link KeyAttributeValues}.
  */
 public final class KeyAttributesMap extends TreeMap<String, List<String>> {
 
@@ -21,7 +23,8 @@ public final class KeyAttributesMap extends TreeMap<String, List<String>> {
     }
 
     /**
-     * Constructs a new HashMap with the same mappings as the specified map.
+     * Constructs a new map with the same mappings as the specified map.  The value lists of the new map are
+     * independent of those of the specified map, but share storage with them until either is modified.
      *
      * @param keyMap
      *      The specified map to initialize with.
@@ -30,7 +33,7 @@ public final class KeyAttributesMap extends TreeMap<String, List<String>> {
         super();
         if (keyMap != null) {
             for (final Entry<String, List<String>> entry : keyMap.entrySet()) {
-                put(entry.getKey(), new ArrayList<String>(entry.getValue()));
+                put(entry.getKey(), KeyAttributeValues.copyOf(entry.getValue()));
             }
         }
     }
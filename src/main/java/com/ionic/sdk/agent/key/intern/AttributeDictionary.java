@@ -0,0 +1,188 @@
+package com.ionic.sdk.agent.key.intern;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared dictionary of key attribute names and values, each of which is assigned a compact integer code.
+ * <p>
+ * Large key populations typically repeat a small vocabulary of attribute names and values.  Storing each distinct
+ * string once (here), and referring to it by code (in {@link EncodedKeyAttributes}), reduces the memory needed to
+ * hold the attributes of many keys.
+ * <p>
+ * Lookups are lock free; the assignment of a code to a new string is serialized.  Codes are never reclaimed, so the
+ * dictionary is bounded: once it holds its maximum number of strings, new strings are not assigned codes, and are
+ * instead carried verbatim by the encodings which use them.
+ */
+public final class AttributeDictionary {
+
+    /**
+     * The default maximum number of strings in a dictionary.
+     */
+    public static final int MAX_SIZE_DEFAULT = 65536;
+
+    /**
+     * The value returned by {@link #intern(String)} for a string which cannot be added to a full dictionary.
+     */
+    public static final int NO_CODE = -1;
+
+    /**
+     * The maximum number of strings in this dictionary.
+     */
+    private final int maxSize;
+
+    /**
+     * Map of strings to their assigned codes.
+     */
+    private final ConcurrentMap<String, Integer> codes;
+
+    /**
+     * Table of strings, indexed by code.  This array is replaced (never shrunk) as the dictionary grows.
+     */
+    private volatile String[] strings;
+
+    /**
+     * The number of strings in the dictionary.
+     */
+    private volatile int size;
+
+    /**
+     * The total number of characters of the strings in the dictionary.
+     */
+    private long chars;
+
+    /**
+     * Constructor.
+     */
+    public AttributeDictionary() {
+        this(MAX_SIZE_DEFAULT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize the maximum number of strings in the dictionary
+     */
+    public AttributeDictionary(final int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.codes = new ConcurrentHashMap<String, Integer>();
+        this.strings = new String[Math.min(CAPACITY_INITIAL, this.maxSize)];
+        this.size = 0;
+        this.chars = 0L;
+    }
+
+    /**
+     * @return the dictionary shared by default among encoded key attributes
+     */
+    public static AttributeDictionary getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get the code assigned to the specified string, assigning a new code if the string is not yet in the dictionary
+     * (and the dictionary is not full).
+     *
+     * @param string the attribute name or value
+     * @return the code assigned to the string; or {@link #NO_CODE}, if the string is not in the dictionary, and the
+     * dictionary is full
+     */
+    public int intern(final String string) {
+        final Integer code = codes.get(string);
+        return (code == null) ? add(string) : code;
+    }
+
+    /**
+     * Get the string assigned to the specified code.
+     *
+     * @param code a code previously returned by {@link #intern(String)}
+     * @return the string assigned to the code
+     */
+    public String get(final int code) {
+        if ((code < 0) || (code >= size)) {
+            throw new IndexOutOfBoundsException(Integer.toString(code));
+        }
+        return strings[code];
+    }
+
+    /**
+     * @return the number of distinct strings in the dictionary
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimate the heap memory used by this dictionary.  The estimate assumes a 64-bit JVM with compressed object
+     * pointers, and UTF-16 string storage.
+     *
+     * @return the approximate number of bytes of heap memory used by this dictionary
+     */
+    public synchronized long getFootprintBytes() {
+        final long bytesStrings = (size * BYTES_STRING) + (chars * 2);
+        final long bytesTable = BYTES_ARRAY + (strings.length * BYTES_REFERENCE);
+        final long bytesMap = size * BYTES_MAP_ENTRY;
+        return bytesStrings + bytesTable + bytesMap;
+    }
+
+    /**
+     * @return the maximum number of strings in this dictionary
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Assign a code to a string not found in the dictionary.
+     *
+     * @param string the attribute name or value
+     * @return the code assigned to the string; or {@link #NO_CODE}, if the dictionary is full
+     */
+    private synchronized int add(final String string) {
+        final Integer codeExisting = codes.get(string);
+        if (codeExisting != null) {
+            return codeExisting;
+        } else if (size == maxSize) {
+            return NO_CODE;
+        }
+        final int code = size;
+        if (code == strings.length) {
+            strings = Arrays.copyOf(strings, Math.min(code * 2, maxSize));
+        }
+        strings[code] = string;
+        chars += string.length();
+        size = code + 1;
+        codes.put(string, code);
+        return code;
+    }
+
+    /**
+     * The initial capacity of the string table.
+     */
+    private static final int CAPACITY_INITIAL = 64;
+
+    /**
+     * Approximate heap size of a String object (excluding character data), in bytes.
+     */
+    private static final long BYTES_STRING = 40L;
+
+    /**
+     * Approximate heap size of an array object header, in bytes.
+     */
+    private static final long BYTES_ARRAY = 16L;
+
+    /**
+     * Approximate heap size of an object reference, in bytes.
+     */
+    private static final long BYTES_REFERENCE = 4L;
+
+    /**
+     * Approximate heap size of a map entry (including the boxed code), in bytes.
+     */
+    private static final long BYTES_MAP_ENTRY = 48L;
+
+    /**
+     * The dictionary shared by default among encoded key attributes.
+     */
+    private static final AttributeDictionary DEFAULT = new AttributeDictionary();
+}
@@ -0,0 +1,273 @@
+package com.ionic.sdk.agent.key.intern;
+
+import com.ionic.sdk.agent.key.KeyAttributeValues;
+import com.ionic.sdk.agent.key.KeyAttributesMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact, immutable representation of the content of a {@link KeyAttributesMap}, suitable for long-lived storage
+ * of the attributes of many keys (for example, in a key cache).
+ * <p>
+ * Attribute names and values are replaced by their codes in a shared {@link AttributeDictionary}.  The encoded form
+ * is a single int array, laid out as a sequence of <code>[name, count, value_1, ..., value_count]</code> records.
+ * Records are ordered by attribute name, so that equal maps have equal encodings whatever their iteration order.
+ * The original map is reconstructed on demand by {@link #decode()}.
+ * <p>
+ * Strings which the (bounded) dictionary cannot hold are kept by the encoding itself, in a table of literals; they
+ * are referenced in the records by negative codes (<code>-1</code> for the first literal, and so on).  A null value
+ * is recorded as <code>NULL_CODE</code>, and a null value list as a record whose count is <code>NULL_COUNT</code>.
+ */
+public final class EncodedKeyAttributes {
+
+    /**
+     * The dictionary used to encode the attribute names and values.
+     */
+    private final AttributeDictionary dictionary;
+
+    /**
+     * The encoded attribute records.
+     */
+    private final int[] data;
+
+    /**
+     * The strings not held by the dictionary, referenced by negative codes.
+     */
+    private final String[] literals;
+
+    /**
+     * Constructor.
+     *
+     * @param dictionary the dictionary used to encode the attribute names and values
+     * @param data       the encoded attribute records
+     * @param literals   the strings not held by the dictionary
+     */
+    private EncodedKeyAttributes(final AttributeDictionary dictionary, final int[] data, final String[] literals) {
+        this.dictionary = dictionary;
+        this.data = data;
+        this.literals = literals;
+    }
+
+    /**
+     * Encode the specified attributes, using the default dictionary.
+     *
+     * @param keyAttributes the attributes to encode
+     * @return the encoded representation of the attributes
+     */
+    public static EncodedKeyAttributes encode(final KeyAttributesMap keyAttributes) {
+        return encode(keyAttributes, AttributeDictionary.getDefault());
+    }
+
+    /**
+     * Encode the specified attributes.
+     *
+     * @param keyAttributes the attributes to encode
+     * @param dictionary    the dictionary used to encode the attribute names and values
+     * @return the encoded representation of the attributes
+     */
+    public static EncodedKeyAttributes encode(final KeyAttributesMap keyAttributes,
+                                              final AttributeDictionary dictionary) {
+        final String[] names = keyAttributes.keySet().toArray(new String[keyAttributes.size()]);
+        Arrays.sort(names);
+        int length = 0;
+        for (final List<String> values : keyAttributes.values()) {
+            length += (2 + ((values == null) ? 0 : values.size()));
+        }
+        final int[] data = new int[length];
+        final List<String> literals = new ArrayList<String>(0);
+        int i = 0;
+        for (final String name : names) {
+            final List<String> values = keyAttributes.get(name);
+            data[i++] = encode(name, dictionary, literals);
+            if (values == null) {
+                data[i++] = NULL_COUNT;
+                continue;
+            }
+            data[i++] = values.size();
+            for (final String value : values) {
+                data[i++] = encode(value, dictionary, literals);
+            }
+        }
+        return new EncodedKeyAttributes(dictionary, data,
+                literals.isEmpty() ? NO_LITERALS : literals.toArray(new String[literals.size()]));
+    }
+
+    /**
+     * Encode a single attribute name or value.
+     *
+     * @param string     the attribute name or value (may be null)
+     * @param dictionary the dictionary used to encode the string
+     * @param literals   the strings of the encoding not held by the dictionary, to which the string is added if the
+     *                   dictionary cannot hold it
+     * @return the code of the string
+     */
+    private static int encode(final String string, final AttributeDictionary dictionary,
+                              final List<String> literals) {
+        if (string == null) {
+            return NULL_CODE;
+        }
+        final int code = dictionary.intern(string);
+        if (code != AttributeDictionary.NO_CODE) {
+            return code;
+        }
+        literals.add(string);
+        return -literals.size();
+    }
+
+    /**
+     * Decode a single attribute name or value.
+     *
+     * @param code the code of the string
+     * @return the attribute name or value (null for {@link #NULL_CODE})
+     */
+    private String decode(final int code) {
+        if (code == NULL_CODE) {
+            return null;
+        }
+        return (code < 0) ? literals[-code - 1] : dictionary.get(code);
+    }
+
+    /**
+     * Reconstruct the attributes.
+     *
+     * @return a new (mutable) map containing the encoded attributes
+     */
+    public KeyAttributesMap decode() {
+        final KeyAttributesMap keyAttributes = new KeyAttributesMap();
+        int i = 0;
+        while (i < data.length) {
+            final String name = decode(data[i++]);
+            final int count = data[i++];
+            if (count == NULL_COUNT) {
+                keyAttributes.put(name, null);
+                continue;
+            }
+            final KeyAttributeValues values = new KeyAttributeValues();
+            for (int j = 0; (j < count); ++j) {
+                values.add(decode(data[i++]));
+            }
+            keyAttributes.put(name, values);
+        }
+        return keyAttributes;
+    }
+
+    /**
+     * Compare the encoded attributes with the content of a map, without encoding (or copying) the map.
+     *
+     * @param keyAttributes the attributes to compare
+     * @return true iff the map holds the same attribute names, each with the same values in the same order
+     */
+    public boolean matches(final KeyAttributesMap keyAttributes) {
+        int records = 0;
+        int i = 0;
+        while (i < data.length) {
+            final String name = decode(data[i]);
+            final List<String> values = keyAttributes.get(name);
+            final int count = data[i + 1];
+            i += 2;
+            if (count == NULL_COUNT) {
+                if ((values != null) || !keyAttributes.containsKey(name)) {
+                    return false;
+                }
+            } else if ((values == null) || (values.size() != count)) {
+                return false;
+            } else {
+                for (final String value : values) {
+                    final String valueEncoded = decode(data[i++]);
+                    if ((valueEncoded == null) ? (value != null) : !valueEncoded.equals(value)) {
+                        return false;
+                    }
+                }
+            }
+            ++records;
+        }
+        return (records == keyAttributes.size());
+    }
+
+    /**
+     * @return the dictionary used to encode the attribute names and values
+     */
+    public AttributeDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Estimate the heap memory used by this object, excluding the (shared) dictionary.  The estimate assumes a 64-bit
+     * JVM with compressed object pointers.
+     *
+     * @return the approximate number of bytes of heap memory used by this object
+     */
+    public long getFootprintBytes() {
+        long bytesLiterals = 0L;
+        for (final String literal : literals) {
+            bytesLiterals += BYTES_REFERENCE + BYTES_STRING + (literal.length() * 2);
+        }
+        return BYTES_OBJECT + BYTES_ARRAY + (data.length * BYTES_INT) + bytesLiterals;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        } else if (object instanceof EncodedKeyAttributes) {
+            final EncodedKeyAttributes encoded = (EncodedKeyAttributes) object;
+            return (dictionary == encoded.dictionary) && Arrays.equals(data, encoded.data)
+                    && Arrays.equals(literals, encoded.literals);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return (Arrays.hashCode(data) * HASH_MULTIPLIER) + Arrays.hashCode(literals);
+    }
+
+    /**
+     * Approximate heap size of this object (header and fields), in bytes.
+     */
+    private static final long BYTES_OBJECT = 16L;
+
+    /**
+     * Approximate heap size of an array object header, in bytes.
+     */
+    private static final long BYTES_ARRAY = 16L;
+
+    /**
+     * Size of an int array element, in bytes.
+     */
+    private static final long BYTES_INT = 4L;
+
+    /**
+     * Approximate heap size of an object reference, in bytes.
+     */
+    private static final long BYTES_REFERENCE = 4L;
+
+    /**
+     * Approximate heap size of a String object (excluding character data), in bytes.
+     */
+    private static final long BYTES_STRING = 40L;
+
+    /**
+     * Multiplier used in combining hash codes.
+     */
+    private static final int HASH_MULTIPLIER = 31;
+
+    /**
+     * The code recorded for a null attribute value; distinct from the dictionary codes (which are not negative), and
+     * from the literal codes (which are no smaller than <code>-Integer.MAX_VALUE</code>).
+     */
+    private static final int NULL_CODE = Integer.MIN_VALUE;
+
+    /**
+     * The count recorded for an attribute whose value list is null.
+     */
+    private static final int NULL_COUNT = -1;
+
+    /**
+     * Shared literal table for encodings whose strings are all held by the dictionary.
+     */
+    private static final String[] NO_LITERALS = new String[0];
+}
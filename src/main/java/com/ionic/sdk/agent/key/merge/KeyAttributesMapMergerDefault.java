@@ -1,11 +1,13 @@
 package com.ionic.sdk.agent.key.merge;
 
 import com.ionic.sdk.agent.key.KeyAttributesMap;
+import com.ionic.sdk.core.log.Diagnostics;
 import com.ionic.sdk.error.SdkError;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -140,7 +142,7 @@ public class KeyAttributesMapMergerDefault implements KeyAttributesMapMerger {
         }
         mergedAttributes.clear();
         mergedAttributes.putAll(finalAttributes);
-        logger.finest(String.format("mergedAttributes = %s", mergedAttributes.toString()));
+        Diagnostics.log(logger, Level.FINEST, "mergedAttributes = %s", mergedAttributes);
         return SdkError.ISAGENT_OK;
     }
 
@@ -179,6 +181,6 @@ public class KeyAttributesMapMergerDefault implements KeyAttributesMapMerger {
         }
         mergedValues.clear();
         mergedValues.addAll(finalValues);
-        logger.finest(String.format("mergedValues = %s", mergedValues.toString()));
+        Diagnostics.log(logger, Level.FINEST, "mergedValues = %s", mergedValues);
     }
 }
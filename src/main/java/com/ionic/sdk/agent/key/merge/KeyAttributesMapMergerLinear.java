@@ -0,0 +1,153 @@
+package com.ionic.sdk.agent.key.merge;
+
+import com.ionic.sdk.agent.key.KeyAttributesMap;
+import com.ionic.sdk.core.log.Diagnostics;
+import com.ionic.sdk.error.SdkError;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of key attribute merging logic with the same results as {@link KeyAttributesMapMergerDefault}, for
+ * use with keys carrying large attribute maps, or attributes with many values.
+ * <p>
+ * The attribute names of the original server attributes and the client attributes are compared in a single pass
+ * over the two (sorted) maps, and attribute values are compared using hash sets, so that the cost of a merge is
+ * linear in the size of its inputs.
+ */
+public class KeyAttributesMapMergerLinear implements KeyAttributesMapMerger {
+
+    /**
+     * Class scoped logger.
+     */
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    /**
+     * Perform key attribute merge operation.
+     *
+     * @param attributesAreMutable     Specifies if the attributes being merged are mutable or not.
+     * @param originalServerAttributes The attributes originally received from the server during a past
+     *                                 key create, fetch, or update operation.
+     * @param currentServerAttributes  The attributes as they are currently known to the server.
+     * @param clientAttributes         The attributes known to the client.
+     * @return The output attributes resulting from the merge operation.
+     */
+    public final KeyAttributesMap mergeKeyAttributeMaps(final boolean attributesAreMutable,
+                                                        final KeyAttributesMap originalServerAttributes,
+                                                        final KeyAttributesMap currentServerAttributes,
+                                                        final KeyAttributesMap clientAttributes) {
+        final KeyAttributesMap mergedAttributes = new KeyAttributesMap();
+        mergeKeyAttributeMaps(attributesAreMutable, originalServerAttributes,
+                currentServerAttributes, clientAttributes, mergedAttributes);
+        return mergedAttributes;
+    }
+
+    /**
+     * Perform key attribute merge operation.
+     *
+     * @param attributesAreMutable     Specifies if the attributes being merged are mutable or not.
+     * @param originalServerAttributes The attributes originally received from the server during a past
+     *                                 key create, fetch, or update operation.
+     * @param currentServerAttributes  The attributes as they are currently known to the server.
+     * @param clientAttributes         The attributes known to the client.
+     * @param mergedAttributes         The output attributes resulting from the merge operation.
+     * @return An error code indicating the status of the operation.
+     */
+    @Override
+    public final int mergeKeyAttributeMaps(final boolean attributesAreMutable,
+                                           final KeyAttributesMap originalServerAttributes,
+                                           final KeyAttributesMap currentServerAttributes,
+                                           final KeyAttributesMap clientAttributes,
+                                           final KeyAttributesMap mergedAttributes) {
+        final KeyAttributesMap finalAttributes = new KeyAttributesMap(currentServerAttributes);
+        final Iterator<Map.Entry<String, List<String>>> origIter = originalServerAttributes.entrySet().iterator();
+        final Iterator<Map.Entry<String, List<String>>> clientIter = clientAttributes.entrySet().iterator();
+        Map.Entry<String, List<String>> orig = origIter.hasNext() ? origIter.next() : null;
+        Map.Entry<String, List<String>> client = clientIter.hasNext() ? clientIter.next() : null;
+        while ((orig != null) || (client != null)) {
+            final int compare = (orig == null) ? 1 : ((client == null) ? -1 : orig.getKey().compareTo(client.getKey()));
+            if (compare > 0) {
+                // client attribute not present in the original server attributes; merge client values into
+                // current server values
+                final String name = client.getKey();
+                finalAttributes.put(name, mergeKeyAttributeValues(
+                        Collections.<String>emptyList(), finalAttributes.get(name), client.getValue()));
+                client = clientIter.hasNext() ? clientIter.next() : null;
+            } else if (compare < 0) {
+                // original server attribute not present in the client attributes; client has deleted it
+                finalAttributes.remove(orig.getKey());
+                orig = origIter.hasNext() ? origIter.next() : null;
+            } else {
+                // attribute present in both; merge client changes into current server values (unless the
+                // attribute has since been deleted on the server; a name mapped to null is still present)
+                final String name = client.getKey();
+                if (finalAttributes.containsKey(name)) {
+                    finalAttributes.put(name, mergeKeyAttributeValues(
+                            orig.getValue(), finalAttributes.get(name), client.getValue()));
+                }
+                orig = origIter.hasNext() ? origIter.next() : null;
+                client = clientIter.hasNext() ? clientIter.next() : null;
+            }
+        }
+        mergedAttributes.clear();
+        mergedAttributes.putAll(finalAttributes);
+        Diagnostics.log(logger, Level.FINEST, "mergedAttributes = %s", mergedAttributes);
+        return SdkError.ISAGENT_OK;
+    }
+
+    /**
+     * Merge sets of values for a (mutable) attribute key.
+     * <p>
+     * Each original server value which the client has removed is removed from the current server values (once for
+     * each occurrence in the original server values).  Each client value which is not an original server value is
+     * then added to the current server values, if not already present.
+     *
+     * @param originalServerValues The attribute values originally received from the server during a past
+     *                             key create, fetch, or update operation.
+     * @param currentServerValues  The attribute values as they are currently known to the server.
+     * @param currentClientValues  The attribute values known to the client.
+     * @return The output attribute values resulting from the merge operation.
+     */
+    private List<String> mergeKeyAttributeValues(final List<String> originalServerValues,
+                                                 final List<String> currentServerValues,
+                                                 final List<String> currentClientValues) {
+        final Set<String> clientValues = new HashSet<String>(currentClientValues);
+        final Set<String> originalValues = new HashSet<String>(originalServerValues);
+        // values removed by the client, with the number of occurrences to be removed
+        final Map<String, Integer> removals = new HashMap<String, Integer>();
+        for (final String originalServerValue : originalServerValues) {
+            if (!clientValues.contains(originalServerValue)) {
+                final Integer count = removals.get(originalServerValue);
+                removals.put(originalServerValue, (count == null) ? 1 : (count + 1));
+            }
+        }
+        final List<String> finalValues = new ArrayList<String>();
+        if (currentServerValues != null) {
+            for (final String currentServerValue : currentServerValues) {
+                final Integer count = removals.get(currentServerValue);
+                if ((count == null) || (count == 0)) {
+                    finalValues.add(currentServerValue);
+                } else {
+                    removals.put(currentServerValue, count - 1);
+                }
+            }
+        }
+        // values added by the client
+        final Set<String> finalValuesSet = new HashSet<String>(finalValues);
+        for (final String currentClientValue : currentClientValues) {
+            if (!originalValues.contains(currentClientValue) && finalValuesSet.add(currentClientValue)) {
+                finalValues.add(currentClientValue);
+            }
+        }
+        Diagnostics.log(logger, Level.FINEST, "mergedValues = %s", finalValues);
+        return finalValues;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ionic.sdk.agent.request.base;
 
+import com.ionic.sdk.agent.transaction.AgentTransactionPhase;
 import com.ionic.sdk.core.value.Value;
 
 import javax.json.JsonObject;
@@ -41,11 +42,32 @@ public class AgentResponseBase {
      */
     private String cid;
 
+    /**
+     * The elapsed time of each phase of the transaction, in nanoseconds (indexed by {@link AgentTransactionPhase}).
+     */
+    private final long[] phaseNanos;
+
+    /**
+     * The number of attempts made to complete the transaction.
+     */
+    private int attemptCount;
+
+    /**
+     * The number of request entity bytes sent to the server (across all attempts).
+     */
+    private long requestBytes;
+
+    /**
+     * The number of response entity bytes received from the server (across all attempts).
+     */
+    private long responseBytes;
+
     /**
      * Constructor.
      */
     public AgentResponseBase() {
         this.cid = "";
+        this.phaseNanos = new long[AgentTransactionPhase.values().length];
     }
 
     /**
@@ -143,4 +165,74 @@ public class AgentResponseBase {
     public final void setConversationId(final String cid) {
         this.cid = Value.defaultOnEmpty(cid, "");
     }
+
+    /**
+     * @param phase the transaction phase of interest
+     * @return the elapsed time of the transaction phase (across all attempts), in nanoseconds
+     */
+    public final long getPhaseNanos(final AgentTransactionPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Record elapsed time associated with a transaction phase.  For internal use only.
+     *
+     * @param phase the transaction phase
+     * @param nanos the elapsed time of the phase, in nanoseconds
+     */
+    public final void addPhaseNanos(final AgentTransactionPhase phase, final long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    /**
+     * @return the elapsed time of all recorded transaction phases, in nanoseconds
+     */
+    public final long getTotalNanos() {
+        long totalNanos = 0L;
+        for (final long nanos : phaseNanos) {
+            totalNanos += nanos;
+        }
+        return totalNanos;
+    }
+
+    /**
+     * @return the number of attempts made to complete the transaction
+     */
+    public final int getAttemptCount() {
+        return attemptCount;
+    }
+
+    /**
+     * Set the number of attempts made to complete the transaction.  For internal use only.
+     *
+     * @param attemptCount the number of attempts
+     */
+    public final void setAttemptCount(final int attemptCount) {
+        this.attemptCount = attemptCount;
+    }
+
+    /**
+     * @return the number of request entity bytes sent to the server (across all attempts)
+     */
+    public final long getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * @return the number of response entity bytes received from the server (across all attempts)
+     */
+    public final long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * Record the size of an http exchange made in the context of the transaction.  For internal use only.
+     *
+     * @param requestBytesIn  the number of request entity bytes sent to the server
+     * @param responseBytesIn the number of response entity bytes received from the server
+     */
+    public final void addEntityBytes(final long requestBytesIn, final long responseBytesIn) {
+        this.requestBytes += requestBytesIn;
+        this.responseBytes += responseBytesIn;
+    }
 }
@@ -3,9 +3,16 @@ package com.ionic.sdk.agent.request.base;
 import com.ionic.sdk.agent.Agent;
 import com.ionic.sdk.agent.config.AgentConfig;
 import com.ionic.sdk.agent.service.IDC;
+import com.ionic.sdk.agent.transaction.AgentTransactionListeners;
+import com.ionic.sdk.agent.transaction.AgentTransactionPhase;
 import com.ionic.sdk.agent.transaction.AgentTransactionUtil;
 import com.ionic.sdk.cipher.aes.AesGcmCipher;
+import com.ionic.sdk.core.codec.Base64OutputStream;
 import com.ionic.sdk.core.codec.Transcoder;
+import com.ionic.sdk.core.io.ByteArrayBuffer;
+import com.ionic.sdk.core.jfr.SdkEvents;
+import com.ionic.sdk.core.jfr.TransactionEvent;
+import com.ionic.sdk.core.log.Diagnostics;
 import com.ionic.sdk.error.IonicException;
 import com.ionic.sdk.error.IonicServerException;
 import com.ionic.sdk.error.SdkError;
@@ -16,15 +23,21 @@ import com.ionic.sdk.httpclient.HttpHeader;
 import com.ionic.sdk.httpclient.HttpHeaders;
 import com.ionic.sdk.httpclient.HttpRequest;
 import com.ionic.sdk.httpclient.HttpResponse;
+import com.ionic.sdk.httpclient.HttpTimings;
+import com.ionic.sdk.json.JsonFactories;
 import com.ionic.sdk.json.JsonIO;
 import com.ionic.sdk.json.JsonSource;
 
+import javax.json.JsonException;
 import javax.json.JsonObject;
 import javax.json.JsonValue;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -53,6 +66,21 @@ public abstract class AgentTransactionBase {
      */
     private final AgentResponseBase responseBase;
 
+    /**
+     * The listeners to be notified of transaction events (registered with the agent).
+     */
+    private final AgentTransactionListeners listeners;
+
+    /**
+     * The monotonic timestamp marking the start of the transaction phase currently in progress.
+     */
+    private long nanosPhaseStart;
+
+    /**
+     * True iff this transaction has been selected (by the agent log sampler) for diagnostic logging.
+     */
+    private boolean logSampled;
+
     /**
      * Constructor.
      *
@@ -65,6 +93,7 @@ public abstract class AgentTransactionBase {
         this.agent = agent;
         this.requestBase = requestBase;
         this.responseBase = responseBase;
+        this.listeners = agent.getTransactionListeners();
     }
 
     /**
@@ -91,6 +120,9 @@ public abstract class AgentTransactionBase {
     /**
      * Request data from the server.  This encapsulates inclusion of fingerprint data in the request, and auto-recovery
      * from server errors encountered in the context of the request.
+     * <p>
+     * Registered {@link com.ionic.sdk.agent.transaction.AgentTransactionListener} objects are notified of the start
+     * and end of the transaction.
      *
      * @throws IonicException on errors assembling the request or processing the response
      */
@@ -98,6 +130,50 @@ public abstract class AgentTransactionBase {
         if (!agent.isInitialized()) {
             throw new IonicException(SdkError.ISAGENT_NOINIT);
         }
+        logSampled = logger.isLoggable(Level.FINE) && agent.getLogSampler().sample();
+        final TransactionEvent event = SdkEvents.transaction();
+        event.begin();
+        try {
+            if (listeners.isEmpty()) {
+                runInternal();
+            } else {
+                runNotify();
+            }
+        } finally {
+            event.commit(getClass(), responseBase.getConversationId(), getKeyCount(),
+                    responseBase.getRequestBytes(), responseBase.getResponseBytes(),
+                    responseBase.getServerErrorCode());
+        }
+    }
+
+    /**
+     * Request data from the server, notifying registered listeners of the start and end of the transaction.
+     *
+     * @throws IonicException on errors assembling the request or processing the response
+     */
+    private void runNotify() throws IonicException {
+        listeners.fireStart(requestBase, responseBase);
+        Exception exception = null;
+        try {
+            runInternal();
+        } catch (IonicException e) {
+            exception = e;
+            throw e;
+        } catch (RuntimeException e) {
+            exception = e;
+            throw e;
+        } finally {
+            listeners.fireEnd(requestBase, responseBase, exception);
+        }
+    }
+
+    /**
+     * Request data from the server.  This encapsulates inclusion of fingerprint data in the request, and auto-recovery
+     * from server errors encountered in the context of the request.
+     *
+     * @throws IonicException on errors assembling the request or processing the response
+     */
+    private void runInternal() throws IonicException {
         // set up the fingerprint field (hashed + hexed)
         final Properties fingerprint = new Properties();
         fingerprint.setProperty(IDC.Payload.HFPHASH, agent.getFingerprint().getHfpHash());
@@ -106,6 +182,7 @@ public abstract class AgentTransactionBase {
         final Set<Integer> autoRecoverErrorsHandled = new TreeSet<Integer>();
         // issue the request and auto-recover on error when possible
         for (int attempt = 1; (attempt <= MAX_RECOVERY_ATTEMPTS); ++attempt) {
+            responseBase.setAttemptCount(attempt);
             try {
                 runWithFingerprint(fingerprint);
                 break;
@@ -125,14 +202,75 @@ public abstract class AgentTransactionBase {
      * @throws IonicException on errors assembling the request or processing the response
      */
     private void runWithFingerprint(final Properties fingerprint) throws IonicException {
+        nanosPhaseStart = System.nanoTime();
         final HttpRequest httpRequest = buildHttpRequest(fingerprint);
+        endPhase(AgentTransactionPhase.SEAL_ENVELOPE);
+        final long requestBytes = (httpRequest.getEntity() == null) ? 0 : httpRequest.getEntity().available();
         final AgentConfig config = agent.getConfig();
         final HttpClient httpClientIDC = HttpClientFactory.create(config, httpRequest.getUrl().getProtocol());
+        // client construction is not part of the http exchange; the exchange phases begin here
+        nanosPhaseStart = System.nanoTime();
+        boolean httpPending = true;
         try {
             final HttpResponse httpResponse = httpClientIDC.execute(httpRequest);
+            httpPending = false;
+            endPhaseHttp(httpRequest.getTimings());
+            final long responseBytes = (httpResponse.getEntity() == null) ? 0 : httpResponse.getEntity().available();
+            responseBase.addEntityBytes(requestBytes, responseBytes);
             parseHttpResponse(httpResponse);
         } catch (IOException e) {
             throw new IonicException(SdkError.ISAGENT_REQUESTFAILED, e);
+        } finally {
+            // record the phase in progress, so that failed attempts are also reflected in the phase timings
+            if (httpPending) {
+                endPhaseHttp(httpRequest.getTimings());
+            } else {
+                endPhase(AgentTransactionPhase.PARSE_RESPONSE);
+            }
+        }
+    }
+
+    /**
+     * Mark the end of a transaction phase.  The elapsed time since the end of the previous phase is attributed to the
+     * specified phase, and the next phase begins.
+     * <p>
+     * Subclasses may use this to subdivide the phases of their request assembly and response processing.
+     *
+     * @param phase the transaction phase which has completed
+     */
+    protected final void endPhase(final AgentTransactionPhase phase) {
+        final long nanosNow = System.nanoTime();
+        recordPhase(phase, nanosNow - nanosPhaseStart);
+        nanosPhaseStart = nanosNow;
+    }
+
+    /**
+     * Mark the end of the http exchange phase of the transaction.  Any phase timings reported by the http client are
+     * recorded, and the remaining time is attributed to the wait for the server.
+     *
+     * @param timings the elapsed time measurements reported by the http client
+     */
+    private void endPhaseHttp(final HttpTimings timings) {
+        final long nanosNow = System.nanoTime();
+        final long nanosHttp = nanosNow - nanosPhaseStart;
+        final long nanosClient = timings.getConnectNanos() + timings.getSendNanos() + timings.getReceiveNanos();
+        recordPhase(AgentTransactionPhase.HTTP_CONNECT, timings.getConnectNanos());
+        recordPhase(AgentTransactionPhase.HTTP_SEND, timings.getSendNanos());
+        recordPhase(AgentTransactionPhase.HTTP_SERVER, Math.max(0L, nanosHttp - nanosClient));
+        recordPhase(AgentTransactionPhase.HTTP_RECEIVE, timings.getReceiveNanos());
+        nanosPhaseStart = nanosNow;
+    }
+
+    /**
+     * Record the elapsed time of a transaction phase in the response, and notify any registered listeners.
+     *
+     * @param phase the transaction phase which has completed
+     * @param nanos the elapsed time of the phase, in nanoseconds
+     */
+    private void recordPhase(final AgentTransactionPhase phase, final long nanos) {
+        responseBase.addPhaseNanos(phase, nanos);
+        if (!listeners.isEmpty()) {
+            listeners.firePhase(requestBase, responseBase, phase, nanos);
         }
     }
 
@@ -173,6 +311,58 @@ public abstract class AgentTransactionBase {
         fingerprint.setProperty(IDC.Payload.HFPHASH, agent.getFingerprint().getHfpHash());
     }
 
+    /**
+     * Log a json message associated with this transaction.  The message is serialized (and redacted) only if the
+     * logger is enabled for the specified level, and this transaction has been sampled for diagnostic logging.
+     *
+     * @param level      the level of the message
+     * @param jsonObject the json message to be logged
+     * @param pretty     true, iff the message should be formatted for readability
+     */
+    protected final void logJson(final Level level, final JsonObject jsonObject, final boolean pretty) {
+        if (logSampled && logger.isLoggable(level)) {
+            logger.log(level, Diagnostics.redact(JsonIO.write(jsonObject, pretty)));
+        }
+    }
+
+    /**
+     * Assemble the secured (outer) http entity of a client request.  The request message is serialized, encrypted, and
+     * base64-encoded in a single pass into one buffer, which backs the returned stream.
+     *
+     * @param cid         the cid of the client request
+     * @param jsonMessage the (inner) request message
+     * @return the http entity, containing the cid and the envelope protecting the request message
+     * @throws IonicException on cryptography errors, or failure to serialize the request message
+     */
+    protected final ByteArrayInputStream sealEnvelope(
+            final String cid, final JsonObject jsonMessage) throws IonicException {
+        final AesGcmCipher cipher = new AesGcmCipher();
+        cipher.setKeyMaterial(agent.getActiveProfile().getAesCdIdcProfileKeyMaterial());
+        cipher.setAuthData(Transcoder.utf8().decode(cid));
+        // the serialized payload, with an empty envelope, is split around the (future) envelope value
+        final String payload = JsonIO.write(JsonFactories.createObjectBuilder()
+                .add(IDC.Payload.CID, cid)
+                .add(IDC.Payload.ENVELOPE, "")
+                .build(), false);
+        final int split = payload.lastIndexOf(ENVELOPE_VALUE_END);
+        final ByteArrayBuffer buffer = new ByteArrayBuffer(SIZE_ENTITY_INITIAL);
+        try {
+            buffer.write(Transcoder.utf8().decode(payload.substring(0, split + 1)));
+            // closing the json writer completes the encryption and encoding; the buffer remains open
+            final OutputStream os = cipher.encryptStream(new Base64OutputStream(buffer));
+            JsonIO.write(jsonMessage, os);
+            buffer.write(Transcoder.utf8().decode(payload.substring(split + 1)));
+        } catch (IOException e) {
+            throw new IonicException(SdkError.ISAGENT_ERROR, e);
+        } catch (JsonException e) {
+            throw new IonicException(SdkError.ISAGENT_ERROR, e);
+        }
+        if (logSampled && logger.isLoggable(Level.FINE)) {
+            logJson(Level.FINE, JsonIO.readObject(buffer.toInputStream()), true);
+        }
+        return buffer.toInputStream();
+    }
+
     @SuppressWarnings({"checkstyle:javadocmethod"})
     /**
      * Common handling of server responses to client requests.  This includes logging error codes, deserialization of
@@ -188,13 +378,13 @@ public abstract class AgentTransactionBase {
         responseBase.setHttpResponseCode(httpResponse.getStatusCode());
         // log an error if we got an unexpected HTTP response code
         if (AgentTransactionUtil.isHttpErrorCode(httpResponse.getStatusCode())) {
-            logger.severe(String.format("Received unexpected response code from server.  "
-                    + "Expected 200-299, got %d, CID=%s.", httpResponse.getStatusCode(), cidQ));
+            Diagnostics.log(logger, Level.SEVERE, "Received unexpected response code from server.  "
+                    + "Expected 200-299, got %d, CID=%s.", httpResponse.getStatusCode(), cidQ);
         }
         if (cidQ != null) {
             // deserialize server response entity
             final JsonObject jsonSecure = JsonIO.readObject(httpResponse.getEntity());
-            logger.fine(JsonIO.write(jsonSecure, true));
+            logJson(Level.FINE, jsonSecure, true);
             final String cid = JsonSource.getString(jsonSecure, IDC.Payload.CID);
             final String envelope = JsonSource.getString(jsonSecure, IDC.Payload.ENVELOPE);
             try {
@@ -220,9 +410,10 @@ public abstract class AgentTransactionBase {
     private void parseHttpResponseBase2(final String cid, final String envelope) throws IonicException {
         // unwrap content of secure envelope
         final AesGcmCipher cipher = new AesGcmCipher();
-        cipher.setKey(agent.getActiveProfile().getAesCdIdcProfileKey());
+        cipher.setKeyMaterial(agent.getActiveProfile().getAesCdIdcProfileKeyMaterial());
         cipher.setAuthData(Transcoder.utf8().decode(cid));
         final byte[] entityClear = cipher.decryptBase64(envelope);
+        endPhase(AgentTransactionPhase.OPEN_ENVELOPE);
         //logger.finest(Transcoder.utf8().encode(entityClear));  // plaintext json; IDC http entity (for debugging)
         // decompose cleartext content of server response
         final JsonObject jsonPayload = JsonIO.readObject(entityClear);
@@ -348,6 +539,21 @@ public abstract class AgentTransactionBase {
      */
     protected abstract void parseHttpResponse(final HttpResponse httpResponse) throws IonicException;
 
+    /**
+     * @return the number of keys in the server response to the client request (zero for non-key transactions)
+     */
+    protected abstract int getKeyCount();
+
+    /**
+     * The serialized form of the (empty) envelope value, followed by the end of the payload object.
+     */
+    private static final String ENVELOPE_VALUE_END = "\"\"}";
+
+    /**
+     * The initial capacity of the buffer holding the secured http entity of a client request.
+     */
+    private static final int SIZE_ENTITY_INITIAL = 4096;
+
     /**
      * Automatic error recovery options.
      */
@@ -0,0 +1,367 @@
+package com.ionic.sdk.agent.request.base;
+
+import com.ionic.sdk.agent.key.KeyAttributeValues;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Specialized json serialization for the key attribute content of IDC protocol messages.
+ * <p>
+ * Key attributes are carried in IDC messages as json strings (the "cattrs" and "mattrs" fields), each holding an
+ * object whose members are arrays of strings.  This codec writes and reads that shape directly, without building
+ * javax.json object trees.  Its output is identical to that of the compact javax.json writer.
+ * <p>
+ * Reading is limited to the expected shape.  When input does not have that shape (including input which is not
+ * valid json), the read methods return null, and the caller falls back to javax.json, which reports any error.
+ * <p>
+ * The codec is used by {@link MessageBase} when enabled by the configuration property {@link #ENABLED} (in the
+ * agent configuration, or in the system properties).
+ */
+public final class IdcJsonCodec {
+
+    /**
+     * Constructor.
+     * http://checkstyle.sourceforge.net/config_design.html#FinalClass
+     */
+    private IdcJsonCodec() {
+    }
+
+    /**
+     * Configuration property name (agent configuration or system property) which enables this codec, when set to
+     * "true".  The codec is disabled by default.
+     */
+    public static final String ENABLED = "ionic-idc-json-codec";
+
+    /**
+     * Serialize a list of strings as a json array.  Null list entries are omitted.
+     *
+     * @param values the strings to serialize
+     * @return the json representation of the strings
+     */
+    public static String writeStringArray(final List<String> values) {
+        return appendStringArray(new StringBuilder(), values).toString();
+    }
+
+    /**
+     * Append the json array representation of a list of strings to a buffer.  Null list entries are omitted.
+     *
+     * @param buffer the buffer to receive the json
+     * @param values the strings to serialize
+     * @return the buffer
+     */
+    public static StringBuilder appendStringArray(final StringBuilder buffer, final List<String> values) {
+        buffer.append('[');
+        boolean first = true;
+        for (final String value : values) {
+            if (value != null) {
+                if (!first) {
+                    buffer.append(',');
+                }
+                appendString(buffer, value);
+                first = false;
+            }
+        }
+        return buffer.append(']');
+    }
+
+    /**
+     * Append the json string representation of a string to a buffer, escaped as by the javax.json writer.
+     *
+     * @param buffer the buffer to receive the json
+     * @param value  the string to serialize
+     * @return the buffer
+     */
+    public static StringBuilder appendString(final StringBuilder buffer, final String value) {
+        buffer.append('"');
+        final int length = value.length();
+        int start = 0;
+        for (int i = 0; (i < length); ++i) {
+            final char c = value.charAt(i);
+            if ((c >= ' ') && (c != '"') && (c != '\\')) {
+                continue;
+            }
+            buffer.append(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                case '\\':
+                    buffer.append('\\').append(c);
+                    break;
+                case '\b':
+                    buffer.append("\\b");
+                    break;
+                case '\f':
+                    buffer.append("\\f");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                default:
+                    buffer.append("\\u00").append(HEX[c >> SHIFT_NIBBLE]).append(HEX[c & MASK_NIBBLE]);
+                    break;
+            }
+        }
+        return buffer.append(value, start, length).append('"');
+    }
+
+    /**
+     * Deserialize a json object whose members are arrays of strings.
+     *
+     * @param json the json representation of the object
+     * @return the members of the object, in document order (a repeated member name takes the last value); or null,
+     * if the input does not have the expected shape
+     */
+    public static Map<String, List<String>> readAttributes(final String json) {
+        final Cursor cursor = new Cursor(json);
+        final Map<String, List<String>> attributes = new LinkedHashMap<String, List<String>>();
+        boolean valid = cursor.skip('{');
+        if (valid && !cursor.skip('}')) {
+            do {
+                final String name = cursor.readString();
+                final List<String> values = ((name != null) && cursor.skip(':')) ? cursor.readStringArray() : null;
+                valid = (values != null);
+                if (valid) {
+                    attributes.put(name, values);
+                }
+            } while (valid && cursor.skip(','));
+            valid = valid && cursor.skip('}');
+        }
+        return (valid && cursor.isEnd()) ? attributes : null;
+    }
+
+    /**
+     * Deserialize a json array of strings.
+     *
+     * @param json the json representation of the array
+     * @return the strings in the array; or null, if the input does not have the expected shape
+     */
+    public static List<String> readStringArray(final String json) {
+        final Cursor cursor = new Cursor(json);
+        final List<String> values = cursor.readStringArray();
+        return ((values != null) && cursor.isEnd()) ? values : null;
+    }
+
+    /**
+     * Position within json text being read.
+     */
+    private static final class Cursor {
+
+        /**
+         * The json text.
+         */
+        private final String json;
+
+        /**
+         * The position of the next character to be read.
+         */
+        private int index;
+
+        /**
+         * Constructor.
+         *
+         * @param json the json text
+         */
+        private Cursor(final String json) {
+            this.json = json;
+            this.index = 0;
+        }
+
+        /**
+         * @return true iff only whitespace remains
+         */
+        private boolean isEnd() {
+            skipWhitespace();
+            return (index == json.length());
+        }
+
+        /**
+         * Consume the expected character (after any whitespace), if it is present.
+         *
+         * @param c the expected character
+         * @return true iff the character was present
+         */
+        private boolean skip(final char c) {
+            skipWhitespace();
+            final boolean found = (index < json.length()) && (json.charAt(index) == c);
+            if (found) {
+                ++index;
+            }
+            return found;
+        }
+
+        /**
+         * Consume any whitespace.
+         */
+        private void skipWhitespace() {
+            while (index < json.length()) {
+                final char c = json.charAt(index);
+                if ((c == ' ') || (c == '\t') || (c == '\n') || (c == '\r')) {
+                    ++index;
+                } else {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Read a json array of strings.
+         *
+         * @return the strings; or null, if the array is not present, or contains a value other than a string
+         */
+        private List<String> readStringArray() {
+            final List<String> values = new KeyAttributeValues();
+            boolean valid = skip('[');
+            if (valid && !skip(']')) {
+                do {
+                    final String value = readString();
+                    valid = (value != null);
+                    if (valid) {
+                        values.add(value);
+                    }
+                } while (valid && skip(','));
+                valid = valid && skip(']');
+            }
+            return valid ? values : null;
+        }
+
+        /**
+         * Read a json string.
+         *
+         * @return the string value; or null, if a valid json string is not present
+         */
+        private String readString() {
+            if (!skip('"')) {
+                return null;
+            }
+            // fast path: no escapes
+            final int start = index;
+            final int length = json.length();
+            while (index < length) {
+                final char c = json.charAt(index);
+                if (c == '"') {
+                    return json.substring(start, index++);
+                } else if ((c == '\\') || (c < ' ')) {
+                    break;
+                }
+                ++index;
+            }
+            return readStringEscaped(start);
+        }
+
+        /**
+         * Read the remainder of a json string containing escape sequences.
+         *
+         * @param start the position of the first character of the string
+         * @return the string value; or null, if a valid json string is not present
+         */
+        private String readStringEscaped(final int start) {
+            final StringBuilder buffer = new StringBuilder(json.length() - start).append(json, start, index);
+            final int length = json.length();
+            while (index < length) {
+                final char c = json.charAt(index++);
+                if (c == '"') {
+                    return buffer.toString();
+                } else if (c < ' ') {
+                    return null;
+                } else if (c != '\\') {
+                    buffer.append(c);
+                } else if (index < length) {
+                    final char e = json.charAt(index++);
+                    final int u = (e == 'u') ? readHex4() : 0;
+                    if (u < 0) {
+                        return null;
+                    }
+                    final int unescaped = unescape(e, u);
+                    if (unescaped < 0) {
+                        return null;
+                    }
+                    buffer.append((char) unescaped);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Read the four hexadecimal digits of a json unicode escape sequence.
+         *
+         * @return the value of the digits; or -1, if four hexadecimal digits are not present
+         */
+        private int readHex4() {
+            if (index + SIZE_HEX4 > json.length()) {
+                return -1;
+            }
+            int value = 0;
+            for (int i = 0; (i < SIZE_HEX4); ++i) {
+                final int digit = Character.digit(json.charAt(index++), RADIX_HEX);
+                if (digit < 0) {
+                    return -1;
+                }
+                value = (value << SHIFT_NIBBLE) | digit;
+            }
+            return value;
+        }
+
+        /**
+         * Resolve a json escape sequence.
+         *
+         * @param e the character following the backslash
+         * @param u the value of the hexadecimal digits (for a unicode escape sequence)
+         * @return the escaped character; or -1, if the escape sequence is not valid
+         */
+        private static int unescape(final char e, final int u) {
+            switch (e) {
+                case '"':
+                case '\\':
+                case '/':
+                    return e;
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'u':
+                    return u;
+                default:
+                    return -1;
+            }
+        }
+    }
+
+    /**
+     * The hexadecimal digits used in json unicode escape sequences.
+     */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * The number of hexadecimal digits in a json unicode escape sequence.
+     */
+    private static final int SIZE_HEX4 = 4;
+
+    /**
+     * The radix of hexadecimal digits.
+     */
+    private static final int RADIX_HEX = 16;
+
+    /**
+     * The number of bits in a hexadecimal digit.
+     */
+    private static final int SHIFT_NIBBLE = 4;
+
+    /**
+     * Mask for the bits of a hexadecimal digit.
+     */
+    private static final int MASK_NIBBLE = 0xf;
+}
@@ -1,6 +1,7 @@
 package com.ionic.sdk.agent.request.base;
 
 import com.ionic.sdk.agent.Agent;
+import com.ionic.sdk.agent.key.KeyAttributeValues;
 import com.ionic.sdk.agent.key.KeyAttributesMap;
 import com.ionic.sdk.agent.service.IDC;
 import com.ionic.sdk.agent.transaction.AgentTransactionUtil;
@@ -12,11 +13,11 @@ import com.ionic.sdk.crypto.CryptoUtils;
 import com.ionic.sdk.error.IonicException;
 import com.ionic.sdk.error.SdkData;
 import com.ionic.sdk.error.SdkError;
+import com.ionic.sdk.json.JsonFactories;
 import com.ionic.sdk.json.JsonIO;
 import com.ionic.sdk.json.JsonSource;
 import com.ionic.sdk.json.JsonTarget;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
@@ -43,6 +44,11 @@ public abstract class MessageBase {
      */
     private final String cid;
 
+    /**
+     * True iff key attribute json is to be serialized / deserialized using {@link IdcJsonCodec}.
+     */
+    private final boolean idcJsonCodec;
+
     /**
      * Constructor.
      *
@@ -52,6 +58,8 @@ public abstract class MessageBase {
     public MessageBase(final Agent agent, final String cid) {
         this.agent = agent;
         this.cid = cid;
+        this.idcJsonCodec = Boolean.parseBoolean(agent.getConfig().getProperty(
+                IdcJsonCodec.ENABLED, System.getProperty(IdcJsonCodec.ENABLED)));
     }
 
     /**
@@ -79,12 +87,47 @@ public abstract class MessageBase {
      */
     public final JsonObject getJsonMessage(
             final AgentRequestBase requestBase, final Properties fingerprint) throws IonicException {
-        return Json.createObjectBuilder()
+        return JsonFactories.createObjectBuilder()
                 .add(IDC.Payload.DATA, getJsonData(requestBase))
                 .add(IDC.Payload.META, AgentTransactionUtil.buildStandardJsonMeta(agent, requestBase, fingerprint))
                 .build();
     }
 
+    /**
+     * @return true iff key attribute json is to be serialized / deserialized using {@link IdcJsonCodec}
+     */
+    protected final boolean isIdcJsonCodec() {
+        return idcJsonCodec;
+    }
+
+    /**
+     * Assemble the serialized attributes json associated with the request.
+     *
+     * @param keyAttributes the key attributes to be associated with
+     * @return the json string to be incorporated into the request payload
+     * @throws IonicException on cryptography errors (used by protected attributes feature)
+     */
+    protected final String generateJsonAttrsString(final KeyAttributesMap keyAttributes) throws IonicException {
+        if (!idcJsonCodec) {
+            return JsonIO.write(generateJsonAttrs(keyAttributes), false);
+        }
+        final StringBuilder buffer = new StringBuilder().append('{');
+        for (Map.Entry<String, List<String>> entry : keyAttributes.entrySet()) {
+            final String key = entry.getKey();
+            if (buffer.length() > 1) {
+                buffer.append(',');
+            }
+            IdcJsonCodec.appendString(buffer, key).append(':');
+            if (isIonicProtect(key)) {
+                final String value = encryptIonicAttrs(key, IdcJsonCodec.writeStringArray(entry.getValue()));
+                IdcJsonCodec.appendString(buffer.append('['), value).append(']');
+            } else {
+                IdcJsonCodec.appendStringArray(buffer, entry.getValue());
+            }
+        }
+        return buffer.append('}').toString();
+    }
+
     /**
      * Assemble the attributes json associated with the request.
      *
@@ -93,10 +136,10 @@ public abstract class MessageBase {
      * @throws IonicException on cryptography errors (used by protected attributes feature)
      */
     protected final JsonObject generateJsonAttrs(final KeyAttributesMap keyAttributes) throws IonicException {
-        final JsonObjectBuilder objectBuilder = Json.createObjectBuilder();
+        final JsonObjectBuilder objectBuilder = JsonFactories.createObjectBuilder();
         for (Map.Entry<String, List<String>> entry : keyAttributes.entrySet()) {
             final String key = entry.getKey();
-            final JsonArrayBuilder arrayBuilder = Json.createArrayBuilder();
+            final JsonArrayBuilder arrayBuilder = JsonFactories.createArrayBuilder();
             for (final String value : entry.getValue()) {
                 JsonTarget.addNotNull(arrayBuilder, value);
             }
@@ -125,7 +168,7 @@ public abstract class MessageBase {
     protected final String buildSignedAttributes(final String keyId, final String extra,
                                                  final String attrs, final boolean areMutable) throws IonicException {
         final AesGcmCipher cipher = new AesGcmCipher();
-        cipher.setKey(agent.getActiveProfile().getAesCdEiProfileKey());
+        cipher.setKeyMaterial(agent.getActiveProfile().getAesCdEiProfileKeyMaterial());
         final String authData = areMutable
                 ? Value.join(IDC.Signature.DELIMITER, cid, IDC.Signature.MUTABLE, keyId, extra)
                 : Value.join(IDC.Signature.DELIMITER, cid, keyId, extra);
@@ -157,15 +200,27 @@ public abstract class MessageBase {
      */
     protected final JsonArray encryptIonicAttrs(final String name, final JsonArray jsonArray) throws IonicException {
         final String value = JsonSource.toString(jsonArray);
-        final AesGcmCipher cipher = new AesGcmCipher();
-        cipher.setKey(agent.getActiveProfile().getAesCdEiProfileKey());
-        cipher.setAuthData(Transcoder.utf8().decode(name));
-        final JsonArrayBuilder arrayBuilder = Json.createArrayBuilder();
-        final String encryptedJsonString = cipher.encryptToBase64(value);
+        final JsonArrayBuilder arrayBuilder = JsonFactories.createArrayBuilder();
+        final String encryptedJsonString = encryptIonicAttrs(name, value);
         JsonTarget.addNotNull(arrayBuilder, encryptedJsonString);
         return arrayBuilder.build();
     }
 
+    /**
+     * Encrypt the serialized attribute values described by the input parameters.
+     *
+     * @param name  the name of the attribute to encrypt
+     * @param value the json array serialization of the values of the attribute
+     * @return the base64, Ionic-protected representation of the attribute values
+     * @throws IonicException on cryptography initialization / execution failures
+     */
+    private String encryptIonicAttrs(final String name, final String value) throws IonicException {
+        final AesGcmCipher cipher = new AesGcmCipher();
+        cipher.setKeyMaterial(agent.getActiveProfile().getAesCdEiProfileKeyMaterial());
+        cipher.setAuthData(Transcoder.utf8().decode(name));
+        return cipher.encryptToBase64(value);
+    }
+
     /**
      * Decrypt the attributes described by the input parameters.
      *
@@ -182,11 +237,49 @@ public abstract class MessageBase {
         SdkData.checkTrue(JsonSource.isSize(jsonArray, 1), SdkError.ISAGENT_INVALIDVALUE, JsonArray.class.getName());
         final JsonValue jsonValueIt = JsonSource.getIterator(jsonArray).next();  // grab the first and only entry
         final String value = JsonSource.toString(jsonValueIt);
+        return JsonIO.readArray(decryptIonicAttrs(value, keyId, key));
+    }
+
+    /**
+     * Decrypt the attributes described by the input parameters (deserialized using {@link IdcJsonCodec}).
+     *
+     * @param values the encrypted attribute values
+     * @param keyId  the key id used as AAD
+     * @param key    the key to decrypt with
+     * @return the plaintext values, decrypted
+     * @throws IonicException on cryptography initialization / execution failures
+     */
+    protected final List<String> decryptIonicAttrs(final List<String> values, final String keyId,
+                                                   final byte[] key) throws IonicException {
+        // encrypted attributes are a single entry json array of encrypted values
+        SdkData.checkTrue(values.size() == 1, SdkError.ISAGENT_INVALIDVALUE, JsonArray.class.getName());
+        final String jsonStringArray = decryptIonicAttrs(values.get(0), keyId, key);
+        final List<String> valuesClear = IdcJsonCodec.readStringArray(jsonStringArray);
+        if (valuesClear != null) {
+            return valuesClear;
+        }
+        // not an array of strings; defer to javax.json
+        final List<String> valuesJson = new KeyAttributeValues();
+        for (final JsonValue jsonValue : JsonIO.readArray(jsonStringArray)) {
+            valuesJson.add(JsonSource.toString(jsonValue));
+        }
+        return valuesJson;
+    }
+
+    /**
+     * Decrypt the serialized attribute values described by the input parameters.
+     *
+     * @param value the base64, Ionic-protected representation of the attribute values
+     * @param keyId the key id used as AAD
+     * @param key   the key to decrypt with
+     * @return the json array serialization of the values of the attribute
+     * @throws IonicException on cryptography initialization / execution failures
+     */
+    private String decryptIonicAttrs(final String value, final String keyId, final byte[] key) throws IonicException {
         final AesGcmCipher cipher = new AesGcmCipher();
         cipher.setKey(key);
         cipher.setAuthData(Transcoder.utf8().decode(keyId));
-        final String jsonStringArray = cipher.decryptBase64ToString(value);
-        return JsonIO.readArray(jsonStringArray);
+        return cipher.decryptBase64ToString(value);
     }
 
     /**
@@ -5,6 +5,7 @@ import com.ionic.sdk.agent.request.base.AgentRequestBase;
 import com.ionic.sdk.agent.request.base.AgentResponseBase;
 import com.ionic.sdk.agent.request.base.AgentTransactionBase;
 import com.ionic.sdk.agent.service.IDC;
+import com.ionic.sdk.agent.transaction.AgentTransactionPhase;
 import com.ionic.sdk.agent.transaction.AgentTransactionUtil;
 import com.ionic.sdk.cipher.aes.AesCtrCipher;
 import com.ionic.sdk.cipher.aes.model.AesKeyGenerator;
@@ -24,15 +25,16 @@ import com.ionic.sdk.error.SdkError;
 import com.ionic.sdk.httpclient.Http;
 import com.ionic.sdk.httpclient.HttpRequest;
 import com.ionic.sdk.httpclient.HttpResponse;
+import com.ionic.sdk.json.JsonFactories;
 import com.ionic.sdk.json.JsonIO;
 import com.ionic.sdk.json.JsonSource;
 
-import javax.json.Json;
 import javax.json.JsonObject;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URL;
 import java.util.Properties;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -89,11 +91,12 @@ public class CreateDeviceTransaction extends AgentTransactionBase {
         final String authdata = Value.join(IDC.Signature.DELIMITER_COMMA, request.getToken(), request.getUidAuth());
         final String authdataB64 = CryptoUtils.binToBase64(Transcoder.utf8().decode(authdata));
         // build the JSON-serialized payload that will be encrypted and signed
-        final JsonObject jsonPayloadRoot = Json.createObjectBuilder()
+        final JsonObject jsonPayloadRoot = JsonFactories.createObjectBuilder()
                 .add(IDC.Payload.PUBKEYDERB64, pubkeySessionB64)
                 .add(IDC.Payload.AUTH, authdataB64)
                 .build();
         final String payloadPlainText = JsonIO.write(jsonPayloadRoot, false);
+        endPhase(AgentTransactionPhase.BUILD_MESSAGE);
 
         // ENCRYPT USING CLIENT SYMMETRIC KEY
         // encrypt payload with AES session key and encode with Base64
@@ -117,13 +120,13 @@ public class CreateDeviceTransaction extends AgentTransactionBase {
 
         // ASSEMBLE LINE REQUEST
         // build final JSON data
-        final JsonObject jsonRequestRoot = Json.createObjectBuilder()
+        final JsonObject jsonRequestRoot = JsonFactories.createObjectBuilder()
                 .add(IDC.Payload.G, signatureB64)
                 .add(IDC.Payload.K, request.getEtag())
                 .add(IDC.Payload.P, payloadSecureB64)
                 .add(IDC.Payload.S, aesSessionKeyB64)
                 .build();
-        logger.fine(JsonIO.write(jsonRequestRoot, false));
+        logJson(Level.FINE, jsonRequestRoot, false);
         // assemble the HTTP request to be sent to the server
         final URL url = AgentTransactionUtil.getProfileUrl(request.getServer());
         logger.fine(request.getServer());
@@ -173,4 +176,12 @@ public class CreateDeviceTransaction extends AgentTransactionBase {
             throw new IonicException(SdkError.ISAGENT_BADRESPONSE, e);
         }
     }
+
+    /**
+     * @return the number of keys in the server response to the client request (zero for non-key transactions)
+     */
+    @Override
+    protected final int getKeyCount() {
+        return 0;
+    }
 }
@@ -6,10 +6,9 @@ import com.ionic.sdk.agent.request.base.MessageBase;
 import com.ionic.sdk.agent.service.IDC;
 import com.ionic.sdk.agent.transaction.AgentTransactionUtil;
 import com.ionic.sdk.error.IonicException;
-import com.ionic.sdk.json.JsonIO;
+import com.ionic.sdk.json.JsonFactories;
 import com.ionic.sdk.json.JsonTarget;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
@@ -69,7 +68,7 @@ public class CreateKeysMessage extends MessageBase {
      */
     @Override
     protected final JsonObject getJsonData(final AgentRequestBase requestBase) throws IonicException {
-        return Json.createObjectBuilder()
+        return JsonFactories.createObjectBuilder()
                 .add(IDC.Payload.PROTECTION_KEYS, getJsonProtectionKeys((CreateKeysRequest) requestBase))
                 .build();
     }
@@ -85,16 +84,16 @@ public class CreateKeysMessage extends MessageBase {
             throws IonicException {
         final Collection<JsonObject> jsonProtectionKeys = new ArrayList<JsonObject>();
         for (CreateKeysRequest.Key key : createKeysRequest.getKeys()) {
-            final JsonObjectBuilder objectBuilder = Json.createObjectBuilder();
+            final JsonObjectBuilder objectBuilder = JsonFactories.createObjectBuilder();
             final String refId = key.getRefId();
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.REF, refId);
             JsonTarget.add(objectBuilder, IDC.Payload.QTY, key.getQuantity());
-            final String cattrs = JsonIO.write(super.generateJsonAttrs(key.getAttributesMap()), false);
+            final String cattrs = super.generateJsonAttrsString(key.getAttributesMap());
             final String csig = super.buildSignedAttributes(refId, null, cattrs, false);
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.CATTRS, cattrs);
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.CSIG, csig);
             csigs.put(refId, csig);
-            final String mattrs = JsonIO.write(super.generateJsonAttrs(key.getMutableAttributesMap()), false);
+            final String mattrs = super.generateJsonAttrsString(key.getMutableAttributesMap());
             final String msig = super.buildSignedAttributes(refId, null, mattrs, true);
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.MATTRS, mattrs);
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.MSIG, msig);
@@ -102,7 +101,7 @@ public class CreateKeysMessage extends MessageBase {
             final JsonObject jsonProtectionKey = objectBuilder.build();
             jsonProtectionKeys.add(jsonProtectionKey);
         }
-        final JsonArrayBuilder jsonArrayBuilder = Json.createArrayBuilder();
+        final JsonArrayBuilder jsonArrayBuilder = JsonFactories.createArrayBuilder();
         for (JsonObject jsonProtectionKey : jsonProtectionKeys) {
             JsonTarget.addNotNull(jsonArrayBuilder, jsonProtectionKey);
         }
@@ -2,8 +2,8 @@ package com.ionic.sdk.agent.request.createkey;
 
 import com.ionic.sdk.agent.key.KeyAttributesMap;
 import com.ionic.sdk.agent.request.base.AgentRequestBase;
+import com.ionic.sdk.core.datastructures.IndexedList;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -11,16 +11,28 @@ import java.util.List;
  */
 public class CreateKeysRequest extends AgentRequestBase {
 
+    /**
+     * Index {@link Key} records by client reference.
+     */
+    private static final IndexedList.Indexer<Key> INDEXER_KEY = new IndexedList.Indexer<Key>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getId(final Key element) {
+            return element.getRefId();
+        }
+    };
+
     /**
      * Represents a list of Key objects for an Agent.createKeys() request.
      */
-    private final List<Key> keyRequests;
+    private final IndexedList<Key> keyRequests;
 
     /**
      * Constructor.
      */
     public CreateKeysRequest() {
-        this.keyRequests = new ArrayList<Key>();
+        this.keyRequests = new IndexedList<Key>(INDEXER_KEY);
     }
 
     /**
@@ -46,14 +58,7 @@ public class CreateKeysRequest extends AgentRequestBase {
      * @return the matching key request
      */
     public final Key getKey(final String refId) {
-        Key key = null;
-        for (Key keyRequest : keyRequests) {
-            if (refId.equals(keyRequest.getRefId())) {
-                key = keyRequest;
-                break;
-            }
-        }
-        return key;
+        return keyRequests.find(refId);
     }
 
     /**
@@ -4,9 +4,9 @@ import com.ionic.sdk.agent.key.AgentKey;
 import com.ionic.sdk.agent.key.KeyAttributesMap;
 import com.ionic.sdk.agent.key.KeyObligationsMap;
 import com.ionic.sdk.agent.request.base.AgentResponseBase;
+import com.ionic.sdk.core.datastructures.IndexedList;
 import com.ionic.sdk.core.value.Value;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -14,17 +14,29 @@ import java.util.List;
  */
 public class CreateKeysResponse extends AgentResponseBase {
 
+    /**
+     * Index {@link Key} records by client reference.
+     */
+    private static final IndexedList.Indexer<Key> INDEXER_KEY = new IndexedList.Indexer<Key>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getId(final Key element) {
+            return element.getRefId();
+        }
+    };
+
     /**
      * Represents a list of Key objects for an Agent.createKeys() response.
      */
-    private final List<Key> keyResponses;
+    private final IndexedList<Key> keyResponses;
 
     /**
      * Constructor.
      */
     public CreateKeysResponse() {
         super();
-        this.keyResponses = new ArrayList<Key>();
+        this.keyResponses = new IndexedList<Key>(INDEXER_KEY);
     }
 
     /**
@@ -39,14 +51,7 @@ public class CreateKeysResponse extends AgentResponseBase {
      * @return the key record, if present, matching the specified key identifier
      */
     public final Key findKey(final String refId) {
-        Key key = null;
-        for (Key keyIt : keyResponses) {
-            if (refId.equals(keyIt.getRefId())) {
-                key = keyIt;
-                break;
-            }
-        }
-        return key;
+        return keyResponses.find(refId);
     }
 
     /**
@@ -85,6 +90,18 @@ public class CreateKeysResponse extends AgentResponseBase {
             this(null, "", new byte[0], null, null, null, null, null, null, null);
         }
 
+        /**
+         * Copy constructor.  The key bytes are copied into new storage, and the attribute maps are copied.
+         *
+         * @param key the key from which to copy
+         */
+        public Key(final Key key) {
+            super(key);
+            this.refId = key.refId;
+            this.deviceId = key.deviceId;
+            this.origin = key.origin;
+        }
+
         /**
          * Constructor.
          *
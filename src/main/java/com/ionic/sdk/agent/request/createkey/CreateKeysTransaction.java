@@ -6,6 +6,7 @@ import com.ionic.sdk.agent.request.base.AgentRequestBase;
 import com.ionic.sdk.agent.request.base.AgentResponseBase;
 import com.ionic.sdk.agent.request.base.AgentTransactionBase;
 import com.ionic.sdk.agent.service.IDC;
+import com.ionic.sdk.agent.transaction.AgentTransactionPhase;
 import com.ionic.sdk.agent.transaction.AgentTransactionUtil;
 import com.ionic.sdk.cipher.aes.AesGcmCipher;
 import com.ionic.sdk.core.codec.Transcoder;
@@ -15,15 +16,14 @@ import com.ionic.sdk.error.IonicException;
 import com.ionic.sdk.httpclient.Http;
 import com.ionic.sdk.httpclient.HttpRequest;
 import com.ionic.sdk.httpclient.HttpResponse;
-import com.ionic.sdk.json.JsonIO;
 import com.ionic.sdk.json.JsonSource;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonObject;
 import javax.json.JsonValue;
 import java.io.ByteArrayInputStream;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Properties;
 import java.util.logging.Logger;
 
@@ -69,23 +69,12 @@ public class CreateKeysTransaction extends AgentTransactionBase {
         final CreateKeysRequest request = (CreateKeysRequest) getRequestBase();
         final JsonObject jsonMessage = message.getJsonMessage(request, fingerprint);
         final String cid = message.getCid();
+        endPhase(AgentTransactionPhase.BUILD_MESSAGE);
         // assemble the secured (outer) HTTP payload
-        final String envelope = JsonIO.write(jsonMessage, false);
-        //logger.finest(envelope);  // plaintext json; IDC http entity (for debugging)
-        final AesGcmCipher cipher = new AesGcmCipher();
-        cipher.setKey(activeProfile.getAesCdIdcProfileKey());
-        cipher.setAuthData(Transcoder.utf8().decode(cid));
-        final String envelopeSecureBase64 = cipher.encryptToBase64(envelope);
-        final JsonObject payload = Json.createObjectBuilder()
-                .add(IDC.Payload.CID, cid)
-                .add(IDC.Payload.ENVELOPE, envelopeSecureBase64)
-                .build();
-        logger.fine(JsonIO.write(payload, true));
+        final ByteArrayInputStream bis = sealEnvelope(cid, jsonMessage);
         // assemble the HTTP request to be sent to the server
         final URL url = AgentTransactionUtil.getProfileUrl(activeProfile);
         final String resource = String.format(IDC.Resource.KEYS_CREATE, IDC.Resource.SERVER_API_V24);
-        final ByteArrayInputStream bis = new ByteArrayInputStream(
-                Transcoder.utf8().decode(JsonIO.write(payload, false)));
         return new HttpRequest(url, Http.Method.POST, resource, getHttpHeaders(), bis);
     }
 
@@ -123,12 +112,21 @@ public class CreateKeysTransaction extends AgentTransactionBase {
             final String msig = JsonSource.getString(jsonProtectionKey, IDC.Payload.MSIG);
             // verify each received response key
             final AesGcmCipher cipherEi = new AesGcmCipher();
-            cipherEi.setKey(activeProfile.getAesCdEiProfileKey());
+            cipherEi.setKeyMaterial(activeProfile.getAesCdEiProfileKeyMaterial());
             cipherEi.setAuthData(Transcoder.utf8().decode(authData));
             final byte[] clearBytesKey = cipherEi.decrypt(Transcoder.hex().decode(keyHex));
             response.add(new CreateKeysResponse.Key(ref, id, clearBytesKey, activeProfile.getDeviceId(),
                     keyRequest.getAttributesMap(), keyRequest.getMutableAttributesMap(), new KeyObligationsMap(),
                     IDC.Metadata.KEYORIGIN_IONIC, csig, msig));
+            Arrays.fill(clearBytesKey, (byte) 0);
         }
     }
+
+    /**
+     * @return the number of keys in the server response to the client request (zero for non-key transactions)
+     */
+    @Override
+    protected final int getKeyCount() {
+        return ((CreateKeysResponse) getResponseBase()).getKeys().size();
+    }
 }
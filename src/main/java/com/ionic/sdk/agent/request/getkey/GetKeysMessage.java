@@ -1,23 +1,24 @@
 package com.ionic.sdk.agent.request.getkey;
 
 import com.ionic.sdk.agent.Agent;
+import com.ionic.sdk.agent.key.KeyAttributeValues;
 import com.ionic.sdk.agent.key.KeyAttributesMap;
 import com.ionic.sdk.agent.request.base.AgentRequestBase;
+import com.ionic.sdk.agent.request.base.IdcJsonCodec;
 import com.ionic.sdk.agent.request.base.MessageBase;
 import com.ionic.sdk.agent.service.IDC;
 import com.ionic.sdk.agent.transaction.AgentTransactionUtil;
 import com.ionic.sdk.core.value.Value;
 import com.ionic.sdk.error.IonicException;
+import com.ionic.sdk.json.JsonFactories;
 import com.ionic.sdk.json.JsonIO;
 import com.ionic.sdk.json.JsonSource;
 import com.ionic.sdk.json.JsonTarget;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
 import javax.json.JsonValue;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -48,12 +49,12 @@ public class GetKeysMessage extends MessageBase {
     @Override
     protected final JsonObject getJsonData(final AgentRequestBase requestBase) throws IonicException {
         GetKeysRequest getKeysRequest = (GetKeysRequest) requestBase;
-        final JsonObjectBuilder objectBuilder = Json.createObjectBuilder();
+        final JsonObjectBuilder objectBuilder = JsonFactories.createObjectBuilder();
         JsonTarget.add(objectBuilder, IDC.Payload.PROTECTION_KEYS, JsonTarget.toJsonArray(getKeysRequest.getKeyIds()));
         // external-id
-        final JsonObjectBuilder protectionKeyQueries = Json.createObjectBuilder();
+        final JsonObjectBuilder protectionKeyQueries = JsonFactories.createObjectBuilder();
         for (final String id : getKeysRequest.getExternalIds()) {
-            final JsonObjectBuilder externalId = Json.createObjectBuilder();
+            final JsonObjectBuilder externalId = JsonFactories.createObjectBuilder();
             JsonTarget.addNotNull(externalId, IDC.Payload.IONIC_EXTERNAL_ID, id);
             JsonTarget.addNotNull(protectionKeyQueries, id, externalId.build());
         }
@@ -74,7 +75,15 @@ public class GetKeysMessage extends MessageBase {
     public final KeyAttributesMap getJsonAttrs(final String attrs, final String keyId,
                                                final byte[] keyBytes) throws IonicException {
         final KeyAttributesMap keyAttributes = new KeyAttributesMap();
-        if (!Value.isEmpty(attrs)) {
+        final Map<String, List<String>> attributes = (super.isIdcJsonCodec() && !Value.isEmpty(attrs))
+                ? IdcJsonCodec.readAttributes(attrs) : null;
+        if (attributes != null) {
+            for (final Map.Entry<String, List<String>> entry : attributes.entrySet()) {
+                final String key = entry.getKey();
+                keyAttributes.put(key, super.isIonicProtect(key)
+                        ? super.decryptIonicAttrs(entry.getValue(), keyId, keyBytes) : entry.getValue());
+            }
+        } else if (!Value.isEmpty(attrs)) {
             final JsonObject jsonObject = JsonIO.readObject(attrs);
             final Iterator<Map.Entry<String, JsonValue>> iterator = JsonSource.getIterator(jsonObject);
             while (iterator.hasNext()) {
@@ -83,7 +92,7 @@ public class GetKeysMessage extends MessageBase {
                 final JsonValue value = super.isIonicProtect(key)
                         ? super.decryptIonicAttrs(entry.getValue(), keyId, keyBytes) : entry.getValue();
                 final JsonArray jsonArray = JsonSource.toJsonArray(value, key);
-                final List<String> values = new ArrayList<String>();
+                final List<String> values = new KeyAttributeValues();
                 for (final JsonValue jsonValue : jsonArray) {
                     values.add(JsonSource.toString(jsonValue));
                 }
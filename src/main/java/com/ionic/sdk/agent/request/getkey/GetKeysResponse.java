@@ -4,6 +4,7 @@ import com.ionic.sdk.agent.key.AgentKey;
 import com.ionic.sdk.agent.key.KeyAttributesMap;
 import com.ionic.sdk.agent.key.KeyObligationsMap;
 import com.ionic.sdk.agent.request.base.AgentResponseBase;
+import com.ionic.sdk.core.datastructures.IndexedList;
 import com.ionic.sdk.core.value.Value;
 
 import java.util.ArrayList;
@@ -14,29 +15,65 @@ import java.util.List;
  */
 public class GetKeysResponse extends AgentResponseBase {
 
+    /**
+     * Index {@link Key} records by key id.
+     */
+    private static final IndexedList.Indexer<Key> INDEXER_KEY = new IndexedList.Indexer<Key>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getId(final Key element) {
+            return element.getId();
+        }
+    };
+
+    /**
+     * Index {@link IonicError} records by key id.
+     */
+    private static final IndexedList.Indexer<IonicError> INDEXER_IONIC_ERROR = new IndexedList.Indexer<IonicError>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getId(final IonicError element) {
+            return element.getKeyId();
+        }
+    };
+
+    /**
+     * Index {@link QueryResult} records by key id.
+     */
+    private static final IndexedList.Indexer<QueryResult> INDEXER_QUERY_RESULT = new IndexedList.Indexer<QueryResult>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getId(final QueryResult element) {
+            return element.getKeyId();
+        }
+    };
+
     /**
      * Represents a list of Key objects for an Agent.getKeys() response.
      */
-    private final List<Key> keys;
+    private final IndexedList<Key> keys;
 
     /**
      * Represents a list of IonicError objects for an Agent.getKeys() response.
      */
-    private final List<IonicError> errors;
+    private final IndexedList<IonicError> errors;
 
     /**
      * Represents a list of QueryResult objects for an Agent.getKeys() response.
      */
-    private final List<QueryResult> results;
+    private final IndexedList<QueryResult> results;
 
     /**
      * Constructor.
      */
     public GetKeysResponse() {
         super();
-        this.keys = new ArrayList<Key>();
-        this.errors = new ArrayList<IonicError>();
-        this.results = new ArrayList<QueryResult>();
+        this.keys = new IndexedList<Key>(INDEXER_KEY);
+        this.errors = new IndexedList<IonicError>(INDEXER_IONIC_ERROR);
+        this.results = new IndexedList<QueryResult>(INDEXER_QUERY_RESULT);
     }
 
     /**
@@ -65,14 +102,7 @@ public class GetKeysResponse extends AgentResponseBase {
      * @return the key, if present, matching the specified key identifier
      */
     public final GetKeysResponse.Key getKey(final String keyId) {
-        GetKeysResponse.Key key = null;
-        for (GetKeysResponse.Key keyIt : keys) {
-            if (keyId.equals(keyIt.getId())) {
-                key = keyIt;
-                break;
-            }
-        }
-        return key;
+        return keys.find(keyId);
     }
 
     /**
@@ -82,14 +112,7 @@ public class GetKeysResponse extends AgentResponseBase {
      * @return the matching error response
      */
     public final GetKeysResponse.IonicError getError(final String id) {
-        GetKeysResponse.IonicError error = null;
-        for (GetKeysResponse.IonicError errorIt : errors) {
-            if (id.equals(errorIt.getKeyId())) {
-                error = errorIt;
-                break;
-            }
-        }
-        return error;
+        return errors.find(id);
     }
 
     /**
@@ -99,14 +122,7 @@ public class GetKeysResponse extends AgentResponseBase {
      * @return the matching error response
      */
     public final GetKeysResponse.QueryResult getQueryResult(final String id) {
-        GetKeysResponse.QueryResult result = null;
-        for (GetKeysResponse.QueryResult resultIt : results) {
-            if (id.equals(resultIt.getKeyId())) {
-                result = resultIt;
-                break;
-            }
-        }
-        return result;
+        return results.find(id);
     }
 
     /**
@@ -159,6 +175,17 @@ public class GetKeysResponse extends AgentResponseBase {
                     new KeyObligationsMap(), "", "", "");
         }
 
+        /**
+         * Copy constructor.  The key bytes are copied into new storage, and the attribute maps are copied.
+         *
+         * @param key the key from which to copy
+         */
+        public Key(final Key key) {
+            super(key);
+            this.deviceId = key.deviceId;
+            this.origin = key.origin;
+        }
+
         /**
          * Constructor.
          *
@@ -7,6 +7,7 @@ import com.ionic.sdk.agent.request.base.AgentRequestBase;
 import com.ionic.sdk.agent.request.base.AgentResponseBase;
 import com.ionic.sdk.agent.request.base.AgentTransactionBase;
 import com.ionic.sdk.agent.service.IDC;
+import com.ionic.sdk.agent.transaction.AgentTransactionPhase;
 import com.ionic.sdk.agent.transaction.AgentTransactionUtil;
 import com.ionic.sdk.cipher.aes.AesGcmCipher;
 import com.ionic.sdk.core.codec.Transcoder;
@@ -18,16 +19,15 @@ import com.ionic.sdk.error.SdkError;
 import com.ionic.sdk.httpclient.Http;
 import com.ionic.sdk.httpclient.HttpRequest;
 import com.ionic.sdk.httpclient.HttpResponse;
-import com.ionic.sdk.json.JsonIO;
 import com.ionic.sdk.json.JsonSource;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonObject;
 import javax.json.JsonValue;
 import java.io.ByteArrayInputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -80,23 +80,12 @@ public class GetKeysTransaction extends AgentTransactionBase {
         }
         final JsonObject jsonMessage = message.getJsonMessage(request, fingerprint);
         final String cid = message.getCid();
+        endPhase(AgentTransactionPhase.BUILD_MESSAGE);
         // assemble the secured (outer) HTTP payload
-        final String envelope = JsonIO.write(jsonMessage, false);
-        //logger.finest(envelope);  // plaintext json; IDC http entity (for debugging)
-        final AesGcmCipher cipher = new AesGcmCipher();
-        cipher.setKey(activeProfile.getAesCdIdcProfileKey());
-        cipher.setAuthData(Transcoder.utf8().decode(cid));
-        final String envelopeSecureBase64 = cipher.encryptToBase64(envelope);
-        final JsonObject payload = Json.createObjectBuilder()
-                .add(IDC.Payload.CID, cid)
-                .add(IDC.Payload.ENVELOPE, envelopeSecureBase64)
-                .build();
-        logger.fine(JsonIO.write(payload, true));
+        final ByteArrayInputStream bis = sealEnvelope(cid, jsonMessage);
         // assemble the HTTP request to be sent to the server
         final URL url = AgentTransactionUtil.getProfileUrl(activeProfile);
         final String resource = String.format(IDC.Resource.KEYS_GET, IDC.Resource.SERVER_API_V24);
-        final ByteArrayInputStream bis = new ByteArrayInputStream(
-                Transcoder.utf8().decode(JsonIO.write(payload, false)));
         return new HttpRequest(url, Http.Method.POST, resource, getHttpHeaders(), bis);
     }
 
@@ -131,7 +120,7 @@ public class GetKeysTransaction extends AgentTransactionBase {
             final String authData = Value.join(IDC.Signature.DELIMITER, cid, id, csig, msig);
             // verify each received response key
             final AesGcmCipher cipherEi = new AesGcmCipher();
-            cipherEi.setKey(activeProfile.getAesCdEiProfileKey());
+            cipherEi.setKeyMaterial(activeProfile.getAesCdEiProfileKeyMaterial());
             cipherEi.setAuthData(Transcoder.utf8().decode(authData));
             final byte[] clearBytesKey = cipherEi.decrypt(CryptoUtils.hexToBin(keyHex));
             // verify each received response attributes
@@ -142,6 +131,7 @@ public class GetKeysTransaction extends AgentTransactionBase {
             final KeyAttributesMap mattrsKey = message.getJsonAttrs(mattrs, id, clearBytesKey);
             response.add(new GetKeysResponse.Key(id, clearBytesKey, deviceId, cattrsKey, mattrsKey,
                     new KeyObligationsMap(), IDC.Metadata.KEYORIGIN_IONIC, csig, msig));
+            Arrays.fill(clearBytesKey, (byte) 0);
         }
         // populate the errors into the response
         final JsonObject jsonErrors = JsonSource.getJsonObjectNullable(jsonData, IDC.Payload.ERROR_MAP);
@@ -185,4 +175,12 @@ public class GetKeysTransaction extends AgentTransactionBase {
             }
         }
     }
+
+    /**
+     * @return the number of keys in the server response to the client request (zero for non-key transactions)
+     */
+    @Override
+    protected final int getKeyCount() {
+        return ((GetKeysResponse) getResponseBase()).getKeys().size();
+    }
 }
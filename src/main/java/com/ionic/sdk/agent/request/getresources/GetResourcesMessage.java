@@ -6,9 +6,9 @@ import com.ionic.sdk.agent.request.base.MessageBase;
 import com.ionic.sdk.agent.service.IDC;
 import com.ionic.sdk.agent.transaction.AgentTransactionUtil;
 import com.ionic.sdk.error.IonicException;
+import com.ionic.sdk.json.JsonFactories;
 import com.ionic.sdk.json.JsonTarget;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
@@ -40,7 +40,7 @@ public class GetResourcesMessage extends MessageBase {
      */
     @Override
     protected final JsonObject getJsonData(final AgentRequestBase requestBase) {
-        return Json.createObjectBuilder()
+        return JsonFactories.createObjectBuilder()
                 .add(IDC.Payload.REQUESTS, getJsonRequests((GetResourcesRequest) requestBase))
                 .build();
     }
@@ -54,14 +54,14 @@ public class GetResourcesMessage extends MessageBase {
     private JsonArray getJsonRequests(final GetResourcesRequest getResourcesRequest) {
         final Collection<JsonObject> jsonRequests = new ArrayList<JsonObject>();
         for (GetResourcesRequest.Resource resource : getResourcesRequest.getResources()) {
-            final JsonObjectBuilder objectBuilder = Json.createObjectBuilder();
+            final JsonObjectBuilder objectBuilder = JsonFactories.createObjectBuilder();
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.ID, resource.getRefId());
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.RESOURCE, resource.getResourceId());
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.ARGS, resource.getArgs());
             final JsonObject jsonRequest = objectBuilder.build();
             jsonRequests.add(jsonRequest);
         }
-        final JsonArrayBuilder jsonArrayBuilder = Json.createArrayBuilder();
+        final JsonArrayBuilder jsonArrayBuilder = JsonFactories.createArrayBuilder();
         for (JsonObject jsonRequest : jsonRequests) {
             JsonTarget.addNotNull(jsonArrayBuilder, jsonRequest);
         }
@@ -7,10 +7,9 @@ import com.ionic.sdk.agent.request.base.MessageBase;
 import com.ionic.sdk.agent.service.IDC;
 import com.ionic.sdk.agent.transaction.AgentTransactionUtil;
 import com.ionic.sdk.error.IonicException;
-import com.ionic.sdk.json.JsonIO;
+import com.ionic.sdk.json.JsonFactories;
 import com.ionic.sdk.json.JsonTarget;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
@@ -60,7 +59,7 @@ public class UpdateKeysMessage extends MessageBase {
      */
     @Override
     protected final JsonObject getJsonData(final AgentRequestBase requestBase) throws IonicException {
-        return Json.createObjectBuilder()
+        return JsonFactories.createObjectBuilder()
                 .add(IDC.Payload.PROTECTION_KEYS, getJsonProtectionKeys((UpdateKeysRequest) requestBase))
                 .build();
     }
@@ -76,7 +75,7 @@ public class UpdateKeysMessage extends MessageBase {
             throws IonicException {
         final Collection<JsonObject> jsonProtectionKeys = new ArrayList<JsonObject>();
         for (UpdateKeysRequest.Key key : updateKeysRequest.getKeys()) {
-            final JsonObjectBuilder objectBuilder = Json.createObjectBuilder();
+            final JsonObjectBuilder objectBuilder = JsonFactories.createObjectBuilder();
             final String id = key.getId();
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.ID, id);
             JsonTarget.add(objectBuilder, IDC.Payload.FORCE, key.getForceUpdate());
@@ -88,7 +87,7 @@ public class UpdateKeysMessage extends MessageBase {
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.PREVCSIG, prevcsig);
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.PREVMSIG, prevmsig);
             final String extra = (key.getForceUpdate() ? IDC.Signature.FORCE : null);
-            final String mattrs = JsonIO.write(super.generateJsonAttrs(key.getMutableAttributesMap()), false);
+            final String mattrs = super.generateJsonAttrsString(key.getMutableAttributesMap());
             final String msig = super.buildSignedAttributes(id, extra, mattrs, true);
             msigs.put(id, msig);
             JsonTarget.addNotNull(objectBuilder, IDC.Payload.MATTRS, mattrs);
@@ -96,7 +95,7 @@ public class UpdateKeysMessage extends MessageBase {
             final JsonObject jsonProtectionKey = objectBuilder.build();
             jsonProtectionKeys.add(jsonProtectionKey);
         }
-        final JsonArrayBuilder jsonArrayBuilder = Json.createArrayBuilder();
+        final JsonArrayBuilder jsonArrayBuilder = JsonFactories.createArrayBuilder();
         for (JsonObject jsonProtectionKey : jsonProtectionKeys) {
             JsonTarget.addNotNull(jsonArrayBuilder, jsonProtectionKey);
         }
@@ -110,10 +109,10 @@ public class UpdateKeysMessage extends MessageBase {
      * @return a {@link JsonObject} to be incorporated into the request payload
      */
     private JsonObject getJsonAttrs(final KeyAttributesMap keyAttributes) {
-        final JsonObjectBuilder objectBuilder = Json.createObjectBuilder();
+        final JsonObjectBuilder objectBuilder = JsonFactories.createObjectBuilder();
         for (Map.Entry<String, List<String>> entry : keyAttributes.entrySet()) {
             final String key = entry.getKey();
-            final JsonArrayBuilder arrayBuilder = Json.createArrayBuilder();
+            final JsonArrayBuilder arrayBuilder = JsonFactories.createArrayBuilder();
             for (final String value : entry.getValue()) {
                 JsonTarget.addNotNull(arrayBuilder, value);
             }
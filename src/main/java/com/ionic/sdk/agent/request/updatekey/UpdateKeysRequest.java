@@ -1,9 +1,10 @@
 package com.ionic.sdk.agent.request.updatekey;
 
 import com.ionic.sdk.agent.key.AgentKey;
+import com.ionic.sdk.agent.key.merge.KeyAttributesMapMerger;
 import com.ionic.sdk.agent.request.base.AgentRequestBase;
+import com.ionic.sdk.core.datastructures.IndexedList;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -11,16 +12,40 @@ import java.util.List;
  */
 public class UpdateKeysRequest extends AgentRequestBase {
 
+    /**
+     * Index {@link Key} records by key id.
+     */
+    private static final IndexedList.Indexer<Key> INDEXER_KEY = new IndexedList.Indexer<Key>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getId(final Key element) {
+            return element.getId();
+        }
+    };
+
     /**
      * Represents a list of Key objects for an Agent.createKeys() request.
      */
-    private final List<Key> keyRequests;
+    private final IndexedList<Key> keyRequests;
+
+    /**
+     * The merge logic used to recover from stale attribute errors; null if recovery is not requested.
+     */
+    private KeyAttributesMapMerger attributesMerger;
+
+    /**
+     * The maximum number of follow-up update requests made to recover from stale attribute errors.
+     */
+    private int mergeRounds;
 
     /**
      * Constructor.
      */
     public UpdateKeysRequest() {
-        this.keyRequests = new ArrayList<Key>();
+        this.keyRequests = new IndexedList<Key>(INDEXER_KEY);
+        this.attributesMerger = null;
+        this.mergeRounds = MERGE_ROUNDS_DEFAULT;
     }
 
     /**
@@ -69,14 +94,7 @@ public class UpdateKeysRequest extends AgentRequestBase {
      * @return the matching key request
      */
     public final Key findKey(final String keyId) {
-        Key key = null;
-        for (Key keyRequest : keyRequests) {
-            if (keyId.equals(keyRequest.getId())) {
-                key = keyRequest;
-                break;
-            }
-        }
-        return key;
+        return keyRequests.find(keyId);
     }
 
     /**
@@ -86,16 +104,50 @@ public class UpdateKeysRequest extends AgentRequestBase {
      * @return the matching key request
      */
     public final Key getKey(final String keyId) {
-        Key key = null;
-        for (Key keyRequest : keyRequests) {
-            if (keyId.equals(keyRequest.getId())) {
-                key = keyRequest;
-                break;
-            }
-        }
-        return key;
+        return keyRequests.find(keyId);
+    }
+
+    /**
+     * @return the merge logic used to recover from stale attribute errors; null if recovery is not requested
+     */
+    public final KeyAttributesMapMerger getAttributesMerger() {
+        return attributesMerger;
     }
 
+    /**
+     * Request automatic recovery from stale attribute errors.  Keys rejected by the server because their mutable
+     * attributes have been changed by another client are fetched again, and the changes made by this client are
+     * merged into the current server attributes using the specified merge logic.  The merged keys are then
+     * submitted in a follow-up update request.
+     *
+     * @param attributesMerger the merge logic to be used; null to disable recovery
+     */
+    public final void setAttributesMerger(final KeyAttributesMapMerger attributesMerger) {
+        this.attributesMerger = attributesMerger;
+    }
+
+    /**
+     * @return the maximum number of follow-up update requests made to recover from stale attribute errors
+     */
+    public final int getMergeRounds() {
+        return mergeRounds;
+    }
+
+    /**
+     * Set the maximum number of follow-up update requests made to recover from stale attribute errors.  Keys which
+     * are still stale after the last round are reported as errors in the response.
+     *
+     * @param mergeRounds the maximum number of follow-up update requests
+     */
+    public final void setMergeRounds(final int mergeRounds) {
+        this.mergeRounds = mergeRounds;
+    }
+
+    /**
+     * Default maximum number of follow-up update requests made to recover from stale attribute errors.
+     */
+    public static final int MERGE_ROUNDS_DEFAULT = 3;
+
     /**
      * Represents a discrete key request object in the context of a {@link UpdateKeysRequest}.
      */
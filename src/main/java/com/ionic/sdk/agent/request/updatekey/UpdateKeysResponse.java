@@ -4,9 +4,9 @@ import com.ionic.sdk.agent.key.AgentKey;
 import com.ionic.sdk.agent.key.KeyAttributesMap;
 import com.ionic.sdk.agent.key.KeyObligationsMap;
 import com.ionic.sdk.agent.request.base.AgentResponseBase;
+import com.ionic.sdk.core.datastructures.IndexedList;
 import com.ionic.sdk.core.value.Value;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -14,23 +14,47 @@ import java.util.List;
  */
 public class UpdateKeysResponse extends AgentResponseBase {
 
+    /**
+     * Index {@link Key} records by key id.
+     */
+    private static final IndexedList.Indexer<Key> INDEXER_KEY = new IndexedList.Indexer<Key>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getId(final Key element) {
+            return element.getId();
+        }
+    };
+
+    /**
+     * Index {@link IonicError} records by key id.
+     */
+    private static final IndexedList.Indexer<IonicError> INDEXER_IONIC_ERROR = new IndexedList.Indexer<IonicError>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getId(final IonicError element) {
+            return element.getKeyId();
+        }
+    };
+
     /**
      * Represents a list of Key objects for an Agent.updateKeys() response.
      */
-    private final List<Key> keys;
+    private final IndexedList<Key> keys;
 
     /**
      * Represents a list of Key objects for an Agent.updateKeys() response.
      */
-    private final List<IonicError> errors;
+    private final IndexedList<IonicError> errors;
 
     /**
      * Constructor.
      */
     public UpdateKeysResponse() {
         super();
-        this.keys = new ArrayList<Key>();
-        this.errors = new ArrayList<IonicError>();
+        this.keys = new IndexedList<Key>(INDEXER_KEY);
+        this.errors = new IndexedList<IonicError>(INDEXER_IONIC_ERROR);
     }
 
     /**
@@ -72,14 +96,7 @@ public class UpdateKeysResponse extends AgentResponseBase {
      * @return the matching key response
      */
     public final UpdateKeysResponse.Key getKey(final String id) {
-        UpdateKeysResponse.Key key = null;
-        for (UpdateKeysResponse.Key keyIt : keys) {
-            if (id.equals(keyIt.getId())) {
-                key = keyIt;
-                break;
-            }
-        }
-        return key;
+        return keys.find(id);
     }
 
     /**
@@ -89,14 +106,7 @@ public class UpdateKeysResponse extends AgentResponseBase {
      * @return the matching error response
      */
     public final UpdateKeysResponse.IonicError getError(final String id) {
-        UpdateKeysResponse.IonicError error = null;
-        for (UpdateKeysResponse.IonicError errorIt : errors) {
-            if (id.equals(errorIt.getKeyId())) {
-                error = errorIt;
-                break;
-            }
-        }
-        return error;
+        return errors.find(id);
     }
 
     /**
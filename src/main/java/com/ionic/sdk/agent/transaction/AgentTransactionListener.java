@@ -0,0 +1,45 @@
+package com.ionic.sdk.agent.transaction;
+
+import com.ionic.sdk.agent.request.base.AgentRequestBase;
+import com.ionic.sdk.agent.request.base.AgentResponseBase;
+
+/**
+ * Callback interface, through which SDK consumers may observe the server transactions made by an
+ * {@link com.ionic.sdk.agent.Agent}.
+ * <p>
+ * Listeners are registered using {@link com.ionic.sdk.agent.Agent#addTransactionListener(AgentTransactionListener)}.
+ * Callbacks are made on the thread executing the transaction, so implementations should return quickly.  The request
+ * and response objects are unique to a transaction, and may be used to correlate the callbacks of concurrent
+ * transactions.
+ */
+public interface AgentTransactionListener {
+
+    /**
+     * Notification that a server transaction is about to begin.
+     *
+     * @param request  the client request
+     * @param response the (not yet populated) server response
+     */
+    void onTransactionStart(AgentRequestBase request, AgentResponseBase response);
+
+    /**
+     * Notification that a phase of a server transaction has completed.  A phase may be reported more than once, if
+     * the transaction is retried.
+     *
+     * @param request  the client request
+     * @param response the server response
+     * @param phase    the transaction phase which has completed
+     * @param nanos    the elapsed time of the phase, in nanoseconds
+     */
+    void onTransactionPhase(AgentRequestBase request, AgentResponseBase response,
+                            AgentTransactionPhase phase, long nanos);
+
+    /**
+     * Notification that a server transaction has completed.
+     *
+     * @param request   the client request
+     * @param response  the server response
+     * @param exception the exception which caused the transaction to fail, or null on success
+     */
+    void onTransactionEnd(AgentRequestBase request, AgentResponseBase response, Exception exception);
+}
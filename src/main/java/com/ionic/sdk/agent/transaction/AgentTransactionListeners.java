@@ -0,0 +1,104 @@
+package com.ionic.sdk.agent.transaction;
+
+import com.ionic.sdk.agent.request.base.AgentRequestBase;
+import com.ionic.sdk.agent.request.base.AgentResponseBase;
+
+import java.util.Arrays;
+
+/**
+ * The set of {@link AgentTransactionListener} objects registered with an {@link com.ionic.sdk.agent.Agent}.
+ * <p>
+ * Registered listeners are held in a copy-on-write array, so that dispatch does not need to synchronize, and so that
+ * dispatch to an empty set costs a single volatile read.
+ */
+public final class AgentTransactionListeners {
+
+    /**
+     * The currently registered listeners.  This array is replaced (never modified) on registration changes.
+     */
+    private volatile AgentTransactionListener[] listeners;
+
+    /**
+     * Constructor.
+     */
+    public AgentTransactionListeners() {
+        this.listeners = new AgentTransactionListener[0];
+    }
+
+    /**
+     * @return true iff no listeners are registered
+     */
+    public boolean isEmpty() {
+        return (listeners.length == 0);
+    }
+
+    /**
+     * Register a listener.
+     *
+     * @param listener the listener to be notified of transaction events
+     */
+    public synchronized void add(final AgentTransactionListener listener) {
+        if (listener != null) {
+            final AgentTransactionListener[] listenersAdd = Arrays.copyOf(listeners, listeners.length + 1);
+            listenersAdd[listeners.length] = listener;
+            this.listeners = listenersAdd;
+        }
+    }
+
+    /**
+     * Unregister a listener.
+     *
+     * @param listener the listener to be removed
+     * @return true iff the listener was registered
+     */
+    public synchronized boolean remove(final AgentTransactionListener listener) {
+        final int index = Arrays.asList(listeners).indexOf(listener);
+        if (index >= 0) {
+            final AgentTransactionListener[] listenersRemove = new AgentTransactionListener[listeners.length - 1];
+            System.arraycopy(listeners, 0, listenersRemove, 0, index);
+            System.arraycopy(listeners, index + 1, listenersRemove, index, listenersRemove.length - index);
+            this.listeners = listenersRemove;
+        }
+        return (index >= 0);
+    }
+
+    /**
+     * Notify registered listeners of the start of a transaction.
+     *
+     * @param request  the client request
+     * @param response the server response
+     */
+    public void fireStart(final AgentRequestBase request, final AgentResponseBase response) {
+        for (final AgentTransactionListener listener : listeners) {
+            listener.onTransactionStart(request, response);
+        }
+    }
+
+    /**
+     * Notify registered listeners of the completion of a transaction phase.
+     *
+     * @param request  the client request
+     * @param response the server response
+     * @param phase    the completed phase
+     * @param nanos    the elapsed time of the phase, in nanoseconds
+     */
+    public void firePhase(final AgentRequestBase request, final AgentResponseBase response,
+                          final AgentTransactionPhase phase, final long nanos) {
+        for (final AgentTransactionListener listener : listeners) {
+            listener.onTransactionPhase(request, response, phase, nanos);
+        }
+    }
+
+    /**
+     * Notify registered listeners of the end of a transaction.
+     *
+     * @param request   the client request
+     * @param response  the server response
+     * @param exception the exception which caused the transaction to fail, or null on success
+     */
+    public void fireEnd(final AgentRequestBase request, final AgentResponseBase response, final Exception exception) {
+        for (final AgentTransactionListener listener : listeners) {
+            listener.onTransactionEnd(request, response, exception);
+        }
+    }
+}
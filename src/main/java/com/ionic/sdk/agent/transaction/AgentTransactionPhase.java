@@ -0,0 +1,52 @@
+package com.ionic.sdk.agent.transaction;
+
+/**
+ * The distinct phases of an SDK server transaction, for which elapsed time is recorded in the transaction response.
+ * <p>
+ * Phase durations are accumulated across all attempts of a transaction (for example, a retry due to fingerprint
+ * hash rejection).
+ */
+public enum AgentTransactionPhase {
+
+    /**
+     * Assembly of the (inner) json request message, including any request attribute signatures.
+     */
+    BUILD_MESSAGE,
+
+    /**
+     * Serialization and AES-GCM encryption of the request message into the (outer) request envelope.
+     */
+    SEAL_ENVELOPE,
+
+    /**
+     * Establishment of the server connection, including any TLS handshake.
+     */
+    HTTP_CONNECT,
+
+    /**
+     * Transmission of the request entity to the server.
+     */
+    HTTP_SEND,
+
+    /**
+     * Wait for the server response.  The remainder of the http exchange (including instantiation of the http client,
+     * and preparation of the request) is attributed to this phase; if the http client implementation does not report
+     * a breakdown of its timings, the full duration of the http exchange is attributed to this phase.
+     */
+    HTTP_SERVER,
+
+    /**
+     * Receipt of the response headers and entity from the server.
+     */
+    HTTP_RECEIVE,
+
+    /**
+     * Deserialization and AES-GCM decryption of the (outer) response envelope.
+     */
+    OPEN_ENVELOPE,
+
+    /**
+     * Deserialization and verification of the (inner) json response message.
+     */
+    PARSE_RESPONSE
+}
@@ -11,9 +11,9 @@ import com.ionic.sdk.core.vm.VM;
 import com.ionic.sdk.device.profile.DeviceProfile;
 import com.ionic.sdk.error.IonicException;
 import com.ionic.sdk.error.SdkError;
+import com.ionic.sdk.json.JsonFactories;
 import com.ionic.sdk.json.JsonTarget;
 
-import javax.json.Json;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
 import java.io.IOException;
@@ -131,7 +131,7 @@ public final class AgentTransactionUtil {
      */
     public static JsonObject buildStandardJsonMeta(
             final Agent agent, final AgentRequestBase requestBase, final Properties fingerprint) {
-        final JsonObjectBuilder builderMeta = Json.createObjectBuilder();
+        final JsonObjectBuilder builderMeta = JsonFactories.createObjectBuilder();
         // apply metadata from agent
         for (Map.Entry<String, String> entry : agent.getMetadata().entrySet()) {
             JsonTarget.addNotNull(builderMeta, entry.getKey(), entry.getValue());
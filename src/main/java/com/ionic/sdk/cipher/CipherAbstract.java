@@ -1,12 +1,18 @@
 package com.ionic.sdk.cipher;
 
 import com.ionic.sdk.core.codec.Transcoder;
+import com.ionic.sdk.core.jfr.CipherEvent;
+import com.ionic.sdk.core.jfr.SdkEvents;
 import com.ionic.sdk.crypto.CryptoUtils;
 import com.ionic.sdk.error.IonicException;
 import com.ionic.sdk.error.SdkData;
 import com.ionic.sdk.error.SdkError;
 
 import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.spec.AlgorithmParameterSpec;
@@ -150,10 +156,14 @@ public abstract class CipherAbstract {
                                    final AlgorithmParameterSpec parameterSpec) throws IonicException {
         SdkData.checkNotNull(keyInstance, Key.class.getName());
         SdkData.checkNotNull(plainText, getClass().getSimpleName());
+        final CipherEvent event = SdkEvents.cipher();
+        event.begin();
         try {
             return encryptInner(plainText, authData, parameterSpec);
         } catch (GeneralSecurityException e) {
             throw new IonicException(SdkError.ISCRYPTO_ERROR, e);
+        } finally {
+            event.commit(getClass().getName(), true, plainText.length);
         }
     }
 
@@ -168,20 +178,101 @@ public abstract class CipherAbstract {
      */
     private byte[] encryptInner(final byte[] plainText, final byte[] authData,
                                 final AlgorithmParameterSpec parameterSpec) throws GeneralSecurityException {
-        // set cipher parameters
-        if (parameterSpec == null) {
-            cipherInstance.init(Cipher.ENCRYPT_MODE, keyInstance);
-        } else {
-            cipherInstance.init(Cipher.ENCRYPT_MODE, keyInstance, parameterSpec);
-        }
-        // set aad
-        if (authData != null) {
-            cipherInstance.updateAAD(authData);
-        }
+        initInner(Cipher.ENCRYPT_MODE, authData, parameterSpec);
         // encrypt
         return cipherInstance.doFinal(plainText);
     }
 
+    /**
+     * Encrypt the remaining bytes of a buffer into another buffer.
+     *
+     * @param plainText     the buffer holding the bytes to encrypt; its position is advanced to its limit
+     * @param cipherText    the buffer to receive the ciphertext; its position is advanced past the ciphertext
+     * @param authData      additional authenticated data used by some ciphers in crypto operations
+     * @param parameterSpec additional configuration specific to some ciphers
+     * @return the number of bytes written to the ciphertext buffer
+     * @throws IonicException on cryptography errors (including insufficient space in the ciphertext buffer), or
+     *                        invalid (null) parameters (key, plainText, cipherText)
+     */
+    protected final int encrypt(final ByteBuffer plainText, final ByteBuffer cipherText, final byte[] authData,
+                                final AlgorithmParameterSpec parameterSpec) throws IonicException {
+        SdkData.checkNotNull(keyInstance, Key.class.getName());
+        SdkData.checkNotNull(plainText, getClass().getSimpleName());
+        SdkData.checkNotNull(cipherText, getClass().getSimpleName());
+        final int length = plainText.remaining();
+        final CipherEvent event = SdkEvents.cipher();
+        event.begin();
+        try {
+            initInner(Cipher.ENCRYPT_MODE, authData, parameterSpec);
+            return cipherInstance.doFinal(plainText, cipherText);
+        } catch (GeneralSecurityException e) {
+            throw new IonicException(SdkError.ISCRYPTO_ERROR, e);
+        } finally {
+            event.commit(getClass().getName(), true, length);
+        }
+    }
+
+    /**
+     * Wrap an output stream, so that bytes written to the returned stream are encrypted into the wrapped stream.
+     * <p>
+     * Closing the returned stream completes the encryption (writing any final block and authentication tag), and
+     * closes the wrapped stream.  This cipher must not be used for other operations until the returned stream is
+     * closed.
+     *
+     * @param os            the stream to receive the ciphertext
+     * @param authData      additional authenticated data used by some ciphers in crypto operations
+     * @param parameterSpec additional configuration specific to some ciphers
+     * @return the stream to receive the plaintext
+     * @throws IonicException on cryptography errors, or invalid (null) parameters (key, os)
+     */
+    protected final OutputStream encryptStream(final OutputStream os, final byte[] authData,
+                                               final AlgorithmParameterSpec parameterSpec) throws IonicException {
+        SdkData.checkNotNull(keyInstance, Key.class.getName());
+        SdkData.checkNotNull(os, getClass().getSimpleName());
+        final CipherEvent event = SdkEvents.cipher();
+        event.begin();
+        try {
+            initInner(Cipher.ENCRYPT_MODE, authData, parameterSpec);
+        } catch (GeneralSecurityException e) {
+            throw new IonicException(SdkError.ISCRYPTO_ERROR, e);
+        }
+        final String cipherId = getClass().getName();
+        return new CipherOutputStream(os, cipherInstance) {
+            /**
+             * The count of plaintext bytes written to the stream.
+             */
+            private long count;
+
+            /**
+             * Encrypt a range of plaintext bytes.
+             *
+             * @param b   the plaintext bytes
+             * @param off the offset of the range
+             * @param len the length of the range
+             * @throws IOException on failure writing the ciphertext
+             */
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                super.write(b, off, len);
+                count += len;
+            }
+
+            /**
+             * Complete the encryption, and close the wrapped stream.
+             *
+             * @throws IOException on failure writing the ciphertext
+             */
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    event.commit(cipherId, true, count);
+                }
+            }
+        };
+    }
+
     /**
      * Decrypt a previously encrypted byte array and return the result as another byte array.
      *
@@ -195,35 +286,85 @@ public abstract class CipherAbstract {
                                    final AlgorithmParameterSpec parameterSpec) throws IonicException {
         SdkData.checkNotNull(keyInstance, Key.class.getName());
         SdkData.checkNotNull(cipherText, getClass().getSimpleName());
+        return decrypt(cipherText, 0, cipherText.length, authData, parameterSpec);
+    }
+
+    /**
+     * Decrypt a range of a previously encrypted byte array and return the result as another byte array.
+     *
+     * @param cipherText    array of bytes containing the ciphertext
+     * @param offset        the offset of the ciphertext in the array
+     * @param length        the length of the ciphertext
+     * @param authData      additional authenticated data used by some ciphers in crypto operations
+     * @param parameterSpec additional configuration specific to some ciphers
+     * @return array of bytes representing the decrypted plaintext
+     * @throws IonicException on cryptography errors, or invalid (null) parameters (key, cipherText)
+     */
+    protected final byte[] decrypt(final byte[] cipherText, final int offset, final int length,
+                                   final byte[] authData, final AlgorithmParameterSpec parameterSpec)
+            throws IonicException {
+        SdkData.checkNotNull(keyInstance, Key.class.getName());
+        SdkData.checkNotNull(cipherText, getClass().getSimpleName());
+        final CipherEvent event = SdkEvents.cipher();
+        event.begin();
         try {
-            return decryptInner(cipherText, authData, parameterSpec);
+            initInner(Cipher.DECRYPT_MODE, authData, parameterSpec);
+            return cipherInstance.doFinal(cipherText, offset, length);
         } catch (GeneralSecurityException e) {
             throw new IonicException(SdkError.ISCRYPTO_ERROR, e);
+        } finally {
+            event.commit(getClass().getName(), false, length);
         }
     }
 
     /**
-     * Decrypt a previously encrypted byte array and return the result as another byte array.
+     * Decrypt the remaining bytes of a buffer into another buffer.
      *
-     * @param cipherText    array of bytes to decrypt
+     * @param cipherText    the buffer holding the bytes to decrypt; its position is advanced to its limit
+     * @param plainText     the buffer to receive the plaintext; its position is advanced past the plaintext
+     * @param authData      additional authenticated data used by some ciphers in crypto operations
+     * @param parameterSpec additional configuration specific to some ciphers
+     * @return the number of bytes written to the plaintext buffer
+     * @throws IonicException on cryptography errors (including insufficient space in the plaintext buffer), or
+     *                        invalid (null) parameters (key, cipherText, plainText)
+     */
+    protected final int decrypt(final ByteBuffer cipherText, final ByteBuffer plainText, final byte[] authData,
+                                final AlgorithmParameterSpec parameterSpec) throws IonicException {
+        SdkData.checkNotNull(keyInstance, Key.class.getName());
+        SdkData.checkNotNull(cipherText, getClass().getSimpleName());
+        SdkData.checkNotNull(plainText, getClass().getSimpleName());
+        final int length = cipherText.remaining();
+        final CipherEvent event = SdkEvents.cipher();
+        event.begin();
+        try {
+            initInner(Cipher.DECRYPT_MODE, authData, parameterSpec);
+            return cipherInstance.doFinal(cipherText, plainText);
+        } catch (GeneralSecurityException e) {
+            throw new IonicException(SdkError.ISCRYPTO_ERROR, e);
+        } finally {
+            event.commit(getClass().getName(), false, length);
+        }
+    }
+
+    /**
+     * Prepare the wrapped cipher for an operation.
+     *
+     * @param mode          the cipher operation mode
      * @param authData      additional authenticated data used by some ciphers in crypto operations
      * @param parameterSpec additional configuration specific to some ciphers
-     * @return array of bytes representing the decrypted plaintext
      * @throws GeneralSecurityException on cryptography errors
      */
-    private byte[] decryptInner(final byte[] cipherText, final byte[] authData,
-                                final AlgorithmParameterSpec parameterSpec) throws GeneralSecurityException {
+    private void initInner(final int mode, final byte[] authData,
+                           final AlgorithmParameterSpec parameterSpec) throws GeneralSecurityException {
         // set cipher parameters
         if (parameterSpec == null) {
-            cipherInstance.init(Cipher.DECRYPT_MODE, keyInstance);
+            cipherInstance.init(mode, keyInstance);
         } else {
-            cipherInstance.init(Cipher.DECRYPT_MODE, keyInstance, parameterSpec);
+            cipherInstance.init(mode, keyInstance, parameterSpec);
         }
         // set aad
         if (authData != null) {
             cipherInstance.updateAAD(authData);
         }
-        // decrypt
-        return cipherInstance.doFinal(cipherText);
     }
 }
@@ -2,6 +2,7 @@ package com.ionic.sdk.cipher.aes;
 
 import com.ionic.sdk.cipher.CipherAbstract;
 import com.ionic.sdk.core.codec.Transcoder;
+import com.ionic.sdk.crypto.material.KeyMaterial;
 
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
@@ -31,6 +32,18 @@ public abstract class AesCipherAbstract extends CipherAbstract {
         }
     }
 
+    /**
+     * Set the key for this cipher.  The key bytes remain in off-heap storage; they are read from there by the cipher
+     * provider when the cipher is initialized.
+     *
+     * @param cipherKey a handle to the (off-heap) key bytes
+     */
+    public final void setKeyMaterial(final KeyMaterial cipherKey) {
+        if (cipherKey != null) {
+            setKeyNative(cipherKey.asSecretKey(AesCipher.ALGORITHM));
+        }
+    }
+
     /**
      * Set the key for this cipher.
      *
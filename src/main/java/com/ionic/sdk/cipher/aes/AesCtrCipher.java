@@ -104,4 +104,75 @@ public class AesCtrCipher extends AesCipherAbstract {
         // decrypt
         return super.decrypt(cipherTextIonic, null, parameterSpec);
     }
+
+    /**
+     * Decrypt a range of a previously encrypted byte array, without processing the bytes which precede it.
+     *
+     * @param cipherText array of bytes to decrypt (the IV, followed by the ciphertext)
+     * @param offset     the offset of the range within the plaintext
+     * @param length     the length of the range
+     * @return array of bytes representing the decrypted plaintext range
+     * @throws IonicException on cryptography errors, invalid (null) parameters (cipherText), or a range outside of
+     *                        the ciphertext
+     */
+    public final byte[] decrypt(final byte[] cipherText, final long offset, final int length) throws IonicException {
+        SdkData.checkNotNull(cipherText, getClass().getSimpleName());
+        final long plainLength = cipherText.length - AesCipher.SIZE_IV;
+        SdkData.checkTrue((offset >= 0) && (length >= 0) && (offset + length <= plainLength),
+                SdkError.ISCRYPTO_BAD_INPUT, getClass().getSimpleName());
+        final byte[] iv = Arrays.copyOfRange(cipherText, 0, AesCipher.SIZE_IV);
+        final int from = (int) (AesCipher.SIZE_IV + offset);
+        return decryptRange(iv, offset, Arrays.copyOfRange(cipherText, from, from + length));
+    }
+
+    /**
+     * Decrypt a range of ciphertext, given the IV of the (complete) ciphertext.  The counter block for the range is
+     * derived directly from the IV, so that the bytes preceding the range are not needed.
+     *
+     * @param iv              the IV used to encrypt the (complete) ciphertext
+     * @param offset          the offset of the range within the ciphertext (excluding the IV)
+     * @param cipherTextRange the ciphertext bytes of the range
+     * @return array of bytes representing the decrypted plaintext range
+     * @throws IonicException on cryptography errors, or invalid parameters
+     */
+    public final byte[] decryptRange(final byte[] iv, final long offset,
+                                     final byte[] cipherTextRange) throws IonicException {
+        SdkData.checkNotNull(cipherTextRange, getClass().getSimpleName());
+        SdkData.checkTrue((iv != null) && (iv.length == AesCipher.SIZE_IV) && (offset >= 0),
+                SdkError.ISCRYPTO_BAD_INPUT, getClass().getSimpleName());
+        final int skip = (int) (offset % AesCipher.SIZE_IV);
+        final IvParameterSpec parameterSpec = new IvParameterSpec(getCounterBlock(iv, offset / AesCipher.SIZE_IV));
+        if (skip == 0) {
+            return super.decrypt(cipherTextRange, null, parameterSpec);
+        }
+        // align to the start of the counter block, and discard the keystream bytes preceding the range
+        final byte[] aligned = new byte[skip + cipherTextRange.length];
+        System.arraycopy(cipherTextRange, 0, aligned, skip, cipherTextRange.length);
+        final byte[] plainText = super.decrypt(aligned, null, parameterSpec);
+        return Arrays.copyOfRange(plainText, skip, plainText.length);
+    }
+
+    /**
+     * Derive the counter block used to encrypt a block of the ciphertext, by adding the block index to the IV (as a
+     * 128-bit big-endian integer, as in NIST SP 800-38A).
+     *
+     * @param iv    the IV used to encrypt the (complete) ciphertext
+     * @param index the index of the ciphertext block
+     * @return the counter block
+     */
+    private static byte[] getCounterBlock(final byte[] iv, final long index) {
+        final byte[] counter = Arrays.copyOf(iv, iv.length);
+        long carry = index;
+        for (int i = counter.length - 1; (i >= 0) && (carry != 0); --i) {
+            final long sum = (counter[i] & BYTE_MASK) + (carry & BYTE_MASK);
+            counter[i] = (byte) sum;
+            carry = (carry >>> Byte.SIZE) + (sum >>> Byte.SIZE);
+        }
+        return counter;
+    }
+
+    /**
+     * Mask for the low order byte of an integer.
+     */
+    private static final int BYTE_MASK = 0xff;
 }
@@ -0,0 +1,185 @@
+package com.ionic.sdk.cipher.aes;
+
+import com.ionic.sdk.error.IonicException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Read-only view of the plaintext of AES CTR-mode ciphertext (as produced by {@link AesCtrCipher#encrypt(byte[])}:
+ * the IV, followed by the ciphertext), stored in an underlying channel (for example, a file).
+ * <p>
+ * Reads at any position decrypt only the bytes requested, so that a small read from a large object does not touch
+ * the rest of the object.  CTR mode provides no integrity protection; ciphertext stored in untrusted locations should
+ * be authenticated by other means.
+ */
+public final class AesCtrSeekableChannel implements SeekableByteChannel {
+
+    /**
+     * The cipher, initialized with the key used to encrypt the content.
+     */
+    private final AesCtrCipher cipher;
+
+    /**
+     * The underlying channel, containing the IV and ciphertext.
+     */
+    private final SeekableByteChannel channel;
+
+    /**
+     * The IV used to encrypt the content.
+     */
+    private final byte[] iv;
+
+    /**
+     * The current position within the plaintext.
+     */
+    private long position;
+
+    /**
+     * Constructor.
+     *
+     * @param cipher  the cipher, initialized with the key used to encrypt the content
+     * @param channel the underlying channel, containing the IV and ciphertext
+     * @throws IOException on failure reading the IV from the underlying channel
+     */
+    public AesCtrSeekableChannel(final AesCtrCipher cipher, final SeekableByteChannel channel) throws IOException {
+        this.cipher = cipher;
+        this.channel = channel;
+        final ByteBuffer buffer = ByteBuffer.allocate(AesCipher.SIZE_IV);
+        channel.position(0L);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("missing IV");
+            }
+        }
+        this.iv = buffer.array();
+        this.position = 0L;
+    }
+
+    /**
+     * Read plaintext bytes at the current position.
+     *
+     * @param dst the destination of the plaintext bytes
+     * @return the number of bytes read; or -1 if the position is at (or beyond) the end of the content
+     * @throws IOException on failure reading the underlying channel, or on cryptography errors
+     */
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= size()) {
+            return -1;
+        }
+        final int length = (int) Math.min(Math.min(dst.remaining(), READ_MAX), size() - position);
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.position(AesCipher.SIZE_IV + position);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        final byte[] cipherText = new byte[buffer.remaining()];
+        buffer.get(cipherText);
+        try {
+            final byte[] plainText = cipher.decryptRange(iv, position, cipherText);
+            dst.put(plainText);
+            position += plainText.length;
+            return plainText.length;
+        } catch (IonicException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Unsupported; the channel is read-only.
+     *
+     * @param src ignored
+     * @return never
+     */
+    @Override
+    public int write(final ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    /**
+     * @return the current position within the plaintext
+     * @throws IOException if the channel is closed
+     */
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    /**
+     * Set the position within the plaintext of the next read.
+     *
+     * @param newPosition the new position (a position beyond the end of the content causes reads to return -1)
+     * @return this channel
+     * @throws IOException if the channel is closed
+     */
+    @Override
+    public SeekableByteChannel position(final long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException(Long.toString(newPosition));
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    /**
+     * @return the length of the plaintext
+     * @throws IOException on failure querying the underlying channel
+     */
+    @Override
+    public long size() throws IOException {
+        return Math.max(0L, channel.size() - AesCipher.SIZE_IV);
+    }
+
+    /**
+     * Unsupported; the channel is read-only.
+     *
+     * @param size ignored
+     * @return never
+     */
+    @Override
+    public SeekableByteChannel truncate(final long size) {
+        throw new NonWritableChannelException();
+    }
+
+    /**
+     * @return true iff the underlying channel is open
+     */
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    /**
+     * Close the underlying channel.
+     *
+     * @throws IOException on failure closing the underlying channel
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @throws IOException if the channel is closed
+     */
+    private void ensureOpen() throws IOException {
+        if (!channel.isOpen()) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * The maximum number of bytes decrypted by a single read.
+     */
+    private static final int READ_MAX = 1024 * 1024;
+}
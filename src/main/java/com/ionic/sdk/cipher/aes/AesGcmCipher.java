@@ -10,6 +10,9 @@ import com.ionic.sdk.error.SdkError;
 
 import javax.crypto.Cipher;
 import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.util.Arrays;
 
@@ -114,12 +117,88 @@ public class AesGcmCipher extends AesCipherAbstract {
     public final byte[] decrypt(final byte[] cipherText) throws IonicException {
         SdkData.checkNotNull(cipherText, getClass().getSimpleName());
         SdkData.checkTrue(!Value.isEmpty(authData), SdkError.ISCRYPTO_BAD_INPUT, AAD);
+        SdkData.checkTrue(cipherText.length >= AesCipher.SIZE_IV, SdkError.ISCRYPTO_BAD_INPUT, IV);
+        // cipher configuration (the ciphertext follows the IV, and is decrypted in place)
+        final GCMParameterSpec parameterSpec = new GCMParameterSpec(
+                SIZE_AUTH_TAG * Byte.SIZE, cipherText, 0, AesCipher.SIZE_IV);
+        // decrypt
+        return super.decrypt(cipherText, AesCipher.SIZE_IV, cipherText.length - AesCipher.SIZE_IV,
+                authData, parameterSpec);
+    }
+
+    /**
+     * Encrypt the remaining bytes of a buffer into another buffer.
+     * <p>
+     * The output (the IV, followed by the ciphertext and authentication tag) is identical in form to that of
+     * {@link #encrypt(byte[])}, but no intermediate arrays are allocated.
+     *
+     * @param plainText  the buffer holding the bytes to encrypt; its position is advanced to its limit
+     * @param cipherText the buffer to receive the output; its position is advanced past the output
+     * @return the number of bytes written to the output buffer
+     * @throws IonicException on cryptography errors, insufficient space in the output buffer, or invalid (null)
+     *                        parameters (plainText, cipherText)
+     */
+    public final int encrypt(final ByteBuffer plainText, final ByteBuffer cipherText) throws IonicException {
+        SdkData.checkNotNull(plainText, getClass().getSimpleName());
+        SdkData.checkNotNull(cipherText, getClass().getSimpleName());
+        SdkData.checkTrue(!Value.isEmpty(authData), SdkError.ISCRYPTO_BAD_INPUT, AAD);
+        SdkData.checkTrue(cipherText.remaining() >= (plainText.remaining() + AesCipher.SIZE_IV + SIZE_AUTH_TAG),
+                SdkError.ISCRYPTO_BAD_INPUT, getClass().getSimpleName());
+        // cipher configuration
+        final byte[] iv = new CryptoRng().rand(new byte[AesCipher.SIZE_IV]);
+        final GCMParameterSpec parameterSpec = new GCMParameterSpec(SIZE_AUTH_TAG * Byte.SIZE, iv);
+        // encrypt
+        cipherText.put(iv);
+        return iv.length + super.encrypt(plainText, cipherText, authData, parameterSpec);
+    }
+
+    /**
+     * Decrypt the remaining bytes of a buffer (as produced by {@link #encrypt(ByteBuffer, ByteBuffer)}) into another
+     * buffer.  On authentication failure, the content of the plaintext buffer is undefined (depending on the
+     * provider, unauthenticated plaintext may have been written to it).
+     *
+     * @param cipherText the buffer holding the bytes to decrypt; its position is advanced to its limit
+     * @param plainText  the buffer to receive the plaintext; its position is advanced past the plaintext
+     * @return the number of bytes written to the plaintext buffer
+     * @throws IonicException on cryptography errors (including authentication failure), insufficient space in the
+     *                        plaintext buffer, or invalid (null) parameters (cipherText, plainText)
+     */
+    public final int decrypt(final ByteBuffer cipherText, final ByteBuffer plainText) throws IonicException {
+        SdkData.checkNotNull(cipherText, getClass().getSimpleName());
+        SdkData.checkNotNull(plainText, getClass().getSimpleName());
+        SdkData.checkTrue(!Value.isEmpty(authData), SdkError.ISCRYPTO_BAD_INPUT, AAD);
+        SdkData.checkTrue(cipherText.remaining() >= AesCipher.SIZE_IV, SdkError.ISCRYPTO_BAD_INPUT, IV);
         // cipher configuration
-        final byte[] iv = Arrays.copyOfRange(cipherText, 0, AesCipher.SIZE_IV);
-        final byte[] cipherTextIonic = Arrays.copyOfRange(cipherText, AesCipher.SIZE_IV, cipherText.length);
+        final byte[] iv = new byte[AesCipher.SIZE_IV];
+        cipherText.get(iv);
         final GCMParameterSpec parameterSpec = new GCMParameterSpec(SIZE_AUTH_TAG * Byte.SIZE, iv);
         // decrypt
-        return super.decrypt(cipherTextIonic, authData, parameterSpec);
+        return super.decrypt(cipherText, plainText, authData, parameterSpec);
+    }
+
+    /**
+     * Wrap an output stream, so that bytes written to the returned stream are encrypted into the wrapped stream.
+     * <p>
+     * The output (the IV, followed by the ciphertext and authentication tag) is identical in form to that of
+     * {@link #encrypt(byte[])}, but is produced incrementally, without holding the plaintext or ciphertext in memory.
+     * Closing the returned stream writes the authentication tag, and closes the wrapped stream.
+     *
+     * @param os the stream to receive the ciphertext
+     * @return the stream to receive the plaintext
+     * @throws IonicException on cryptography errors, invalid (null) parameters (os), or failure writing the IV
+     */
+    public final OutputStream encryptStream(final OutputStream os) throws IonicException {
+        SdkData.checkNotNull(os, getClass().getSimpleName());
+        SdkData.checkTrue(!Value.isEmpty(authData), SdkError.ISCRYPTO_BAD_INPUT, AAD);
+        // cipher configuration
+        final byte[] iv = new CryptoRng().rand(new byte[AesCipher.SIZE_IV]);
+        final GCMParameterSpec parameterSpec = new GCMParameterSpec(SIZE_AUTH_TAG * Byte.SIZE, iv);
+        try {
+            os.write(iv);
+        } catch (IOException e) {
+            throw new IonicException(SdkError.ISCRYPTO_ERROR, e);
+        }
+        return super.encryptStream(os, authData, parameterSpec);
     }
 
     /**
@@ -131,4 +210,9 @@ public class AesGcmCipher extends AesCipherAbstract {
      * Label for GCM Additional Authenticated Data (AAD).
      */
     private static final String AAD = "Additional Authenticated Data";
+
+    /**
+     * Label for GCM Initialization Vector (IV).
+     */
+    private static final String IV = "Initialization Vector";
 }
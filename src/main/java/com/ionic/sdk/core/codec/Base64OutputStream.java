@@ -0,0 +1,190 @@
+package com.ionic.sdk.core.codec;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream which writes the base64 (RFC 4648, with padding, without line breaks) encoding of the bytes written
+ * to it into an underlying output stream.
+ * <p>
+ * Closing this stream writes the final (padded) encoded block, and flushes the underlying stream, but leaves it open,
+ * so that further content may follow the encoded data.
+ */
+public final class Base64OutputStream extends FilterOutputStream {
+
+    /**
+     * The input bytes not yet encoded (fewer than one block).
+     */
+    private final byte[] pending = new byte[SIZE_BLOCK_IN];
+
+    /**
+     * The count of input bytes not yet encoded.
+     */
+    private int pendingCount;
+
+    /**
+     * The scratch buffer holding encoded output.
+     */
+    private final byte[] encoded = new byte[SIZE_BUFFER_OUT];
+
+    /**
+     * True iff this stream has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param os the underlying stream, to receive the encoded data
+     */
+    public Base64OutputStream(final OutputStream os) {
+        super(os);
+    }
+
+    /**
+     * Encode a single byte.
+     *
+     * @param b the byte to be encoded
+     * @throws IOException on failure writing to the underlying stream
+     */
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    /**
+     * Encode a range of bytes.
+     *
+     * @param bytes  the source bytes
+     * @param offset the offset in the source of the first byte to encode
+     * @param length the number of bytes to encode
+     * @throws IOException on failure writing to the underlying stream
+     */
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (closed) {
+            throw new IOException(getClass().getSimpleName());
+        }
+        int index = offset;
+        final int end = offset + length;
+        // complete any partial block from a previous write
+        while ((pendingCount > 0) && (pendingCount < SIZE_BLOCK_IN) && (index < end)) {
+            pending[pendingCount++] = bytes[index++];
+        }
+        int count = 0;
+        if (pendingCount == SIZE_BLOCK_IN) {
+            count = encodeBlock(pending, 0, SIZE_BLOCK_IN, count);
+            pendingCount = 0;
+        }
+        // encode whole blocks directly from the source
+        while (end - index >= SIZE_BLOCK_IN) {
+            if (count == encoded.length) {
+                out.write(encoded, 0, count);
+                count = 0;
+            }
+            count = encodeBlock(bytes, index, SIZE_BLOCK_IN, count);
+            index += SIZE_BLOCK_IN;
+        }
+        out.write(encoded, 0, count);
+        // retain trailing bytes for the next write
+        while (index < end) {
+            pending[pendingCount++] = bytes[index++];
+        }
+    }
+
+    /**
+     * Write the final (padded) encoded block, and flush the underlying stream.  The underlying stream is not closed.
+     *
+     * @throws IOException on failure writing to the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            if (pendingCount > 0) {
+                out.write(encoded, 0, encodeBlock(pending, 0, pendingCount, 0));
+                pendingCount = 0;
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Encode a block of up to three bytes into four base64 characters, padding as needed.
+     *
+     * @param bytes  the source bytes
+     * @param offset the offset in the source of the block
+     * @param length the length of the block (1 to 3)
+     * @param count  the position in the output buffer at which to write
+     * @return the position in the output buffer following the encoded block
+     */
+    private int encodeBlock(final byte[] bytes, final int offset, final int length, final int count) {
+        final int b0 = bytes[offset] & MASK_BYTE;
+        final int b1 = (length > 1) ? (bytes[offset + 1] & MASK_BYTE) : 0;
+        final int b2 = (length > 2) ? (bytes[offset + 2] & MASK_BYTE) : 0;
+        final int bits = (b0 << SHIFT_0) | (b1 << SHIFT_1) | b2;
+        int i = count;
+        encoded[i++] = ALPHABET[(bits >>> SHIFT_C0) & MASK_CHAR];
+        encoded[i++] = ALPHABET[(bits >>> SHIFT_C1) & MASK_CHAR];
+        encoded[i++] = (length > 1) ? ALPHABET[(bits >>> SHIFT_C2) & MASK_CHAR] : PAD;
+        encoded[i++] = (length > 2) ? ALPHABET[bits & MASK_CHAR] : PAD;
+        return i;
+    }
+
+    /**
+     * The base64 alphabet (RFC 4648, table 1).
+     */
+    private static final byte[] ALPHABET = Transcoder.utf8().decode(
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/");
+
+    /**
+     * The base64 padding character.
+     */
+    private static final byte PAD = (byte) Transcoder.BASE64_PAD.charAt(0);
+
+    /**
+     * The number of input bytes in a base64 block.
+     */
+    private static final int SIZE_BLOCK_IN = 3;
+
+    /**
+     * The size of the scratch buffer holding encoded output (a multiple of the base64 output block size).
+     */
+    private static final int SIZE_BUFFER_OUT = 4 * 1024;
+
+    /**
+     * Mask for the bits of a byte.
+     */
+    private static final int MASK_BYTE = 0xff;
+
+    /**
+     * Mask for the bits of a base64 character.
+     */
+    private static final int MASK_CHAR = 0x3f;
+
+    /**
+     * Bit position of the first byte of a block.
+     */
+    private static final int SHIFT_0 = 16;
+
+    /**
+     * Bit position of the second byte of a block.
+     */
+    private static final int SHIFT_1 = 8;
+
+    /**
+     * Bit position of the first character of a block.
+     */
+    private static final int SHIFT_C0 = 18;
+
+    /**
+     * Bit position of the second character of a block.
+     */
+    private static final int SHIFT_C1 = 12;
+
+    /**
+     * Bit position of the third character of a block.
+     */
+    private static final int SHIFT_C2 = 6;
+}
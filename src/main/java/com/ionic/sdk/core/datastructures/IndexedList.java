@@ -0,0 +1,148 @@
+package com.ionic.sdk.core.datastructures;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * List which maintains a hash index of its elements by a string identifier, for constant time lookup.
+ * <p>
+ * The index is built on first lookup, and rebuilt on the first lookup following any structural modification of the
+ * list (or replacement of an element).  Lookups of an identifier shared by several elements return the first such
+ * element, as a linear search would.
+ * <p>
+ * The identifier of an element may change after the element is added to the list.  A lookup checks the identifier of
+ * the indexed element it finds, and a lookup which finds no indexed element falls back to a linear search; either
+ * check detecting a changed identifier causes the index to be rebuilt.  Lookups of identifiers not in the list are
+ * therefore linear, as before indexing.  (If an element is given the identifier of another element, a lookup of that
+ * identifier may return either of them until the index is next rebuilt.)
+ * <p>
+ * As with {@link ArrayList}, concurrent lookups are safe, provided the list is not concurrently modified.  The index
+ * is published as an immutable snapshot through a volatile field, so a lookup never observes a partially built index.
+ *
+ * @param <T> the type of the list elements
+ */
+public final class IndexedList<T> extends ArrayList<T> {
+
+    /**
+     * The function used to obtain the identifier of an element.
+     */
+    private final Indexer<T> indexer;
+
+    /**
+     * The index of the list elements by identifier (transient; rebuilt on demand).
+     */
+    private transient volatile Index<T> index;
+
+    /**
+     * Constructor.
+     *
+     * @param indexer the function used to obtain the identifier of an element
+     */
+    public IndexedList(final Indexer<T> indexer) {
+        super();
+        this.indexer = indexer;
+        this.index = null;
+    }
+
+    /**
+     * Find the first element with the specified identifier.
+     *
+     * @param id the identifier to search for
+     * @return the first matching element, or null if no element matches
+     */
+    public T find(final String id) {
+        Index<T> indexFind = index;
+        if ((indexFind == null) || (indexFind.modCount != modCount)) {
+            indexFind = rebuild();
+        }
+        final T element = indexFind.elements.get(id);
+        if ((element != null) && id.equals(indexer.getId(element))) {
+            return element;
+        }
+        // no indexed element has the identifier (now); an element identifier may have changed since the index was built
+        for (int i = 0; (i < size()); ++i) {
+            final T elementScan = get(i);
+            if (id.equals(indexer.getId(elementScan))) {
+                rebuild();
+                return elementScan;
+            }
+        }
+        if (element != null) {
+            rebuild();
+        }
+        return null;
+    }
+
+    @Override
+    public T set(final int i, final T element) {
+        index = null;
+        return super.set(i, element);
+    }
+
+    /**
+     * Build the index of the list elements.
+     *
+     * @return the new index
+     */
+    private Index<T> rebuild() {
+        final int modCountBuild = modCount;
+        final Map<String, T> elements = new HashMap<String, T>();
+        for (int i = (size() - 1); (i >= 0); --i) {
+            final T element = get(i);
+            elements.put(indexer.getId(element), element);
+        }
+        final Index<T> indexBuild = new Index<T>(elements, modCountBuild);
+        this.index = indexBuild;
+        return indexBuild;
+    }
+
+    /**
+     * Immutable snapshot of the index of the list elements.
+     *
+     * @param <T> the type of the list elements
+     */
+    private static final class Index<T> {
+
+        /**
+         * The first list element having each identifier.
+         */
+        private final Map<String, T> elements;
+
+        /**
+         * The modification count of the list at the time the index was built.
+         */
+        private final int modCount;
+
+        /**
+         * Constructor.
+         *
+         * @param elements the first list element having each identifier
+         * @param modCount the modification count of the list at the time the index was built
+         */
+        private Index(final Map<String, T> elements, final int modCount) {
+            this.elements = elements;
+            this.modCount = modCount;
+        }
+    }
+
+    /**
+     * Function used to obtain the identifier of a list element.  Indexers are serialized with the list.
+     *
+     * @param <T> the type of the list elements
+     */
+    public interface Indexer<T> extends Serializable {
+
+        /**
+         * @param element a list element
+         * @return the identifier of the element
+         */
+        String getId(T element);
+    }
+
+    /**
+     * Class version, for serialization.
+     */
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,23 @@
+package com.ionic.sdk.core.exec;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Interface class used to abstract away the creation of executors for concurrent (blocking) SDK tasks.
+ */
+public abstract class TaskExecutorFactory {
+
+    /**
+     * Create an executor for concurrent SDK tasks.
+     *
+     * @param parallelism the maximum number of tasks to be run concurrently, where the executor implementation bounds
+     *                    its thread count
+     * @return a new executor, which should be shut down by the caller after use
+     */
+    public abstract ExecutorService newExecutor(int parallelism);
+
+    /**
+     * @return true iff the executors created by this factory run each task in its own virtual thread
+     */
+    public abstract boolean isVirtual();
+}
@@ -0,0 +1,56 @@
+package com.ionic.sdk.core.exec;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation used to abstract away the creation of executors for concurrent SDK tasks.
+ * <p>
+ * Tasks are run using a bounded pool of (daemon) platform threads.
+ */
+public class TaskExecutorFactoryDefault extends TaskExecutorFactory {
+
+    /**
+     * Create an executor for concurrent SDK tasks.
+     *
+     * @param parallelism the maximum number of tasks to be run concurrently
+     * @return a new executor, which should be shut down by the caller after use
+     */
+    @Override
+    public final ExecutorService newExecutor(final int parallelism) {
+        return Executors.newFixedThreadPool(Math.max(1, parallelism), new DaemonThreadFactory());
+    }
+
+    /**
+     * @return false; the executors created by this factory use platform threads
+     */
+    @Override
+    public final boolean isVirtual() {
+        return false;
+    }
+
+    /**
+     * Create named daemon threads, so that an executor which is not shut down does not prevent JVM exit.
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        /**
+         * The count of threads created by this factory.
+         */
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, THREAD_NAME + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * The name prefix of threads created by this factory.
+     */
+    private static final String THREAD_NAME = "ionic-sdk-task-";
+}
@@ -0,0 +1,70 @@
+package com.ionic.sdk.core.exec;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Interface class used to abstract away the creation of executors for concurrent (blocking) SDK tasks.
+ * <p>
+ * When the SDK is packaged as a multi-release jar and run on JRE 21+, each task is run in its own virtual thread.
+ * Server transactions block on network I/O, so virtual threads allow many concurrent transactions without a
+ * corresponding number of platform threads.  Otherwise, a bounded pool of platform threads is used.
+ */
+public final class TaskExecutors {
+
+    /**
+     * Constructor.
+     * http://checkstyle.sourceforge.net/config_design.html#FinalClass
+     */
+    private TaskExecutors() {
+    }
+
+    /**
+     * Create an executor for concurrent SDK tasks.
+     *
+     * @param parallelism the maximum number of tasks to be run concurrently, when a platform thread pool is used
+     * @return a new executor, which should be shut down by the caller after use
+     */
+    public static ExecutorService newExecutor(final int parallelism) {
+        return FACTORY.newExecutor(parallelism);
+    }
+
+    /**
+     * @return true iff the executors created by this class run each task in its own virtual thread
+     */
+    public static boolean isVirtual() {
+        return FACTORY.isVirtual();
+    }
+
+    /**
+     * A TaskExecutorFactory appropriate for the running JRE version.
+     */
+    private static final TaskExecutorFactory FACTORY = getFactory();
+
+    /**
+     * At application startup, this method will be called by the above static initializer.  The availability of the
+     * virtual thread API (and of the multi-release implementation class) determines which factory will be
+     * instantiated.
+     *
+     * @return a TaskExecutorFactory appropriate for the running JRE version
+     */
+    private static TaskExecutorFactory getFactory() {
+        try {
+            Class.forName(CLASS_VIRTUAL);
+            return (TaskExecutorFactory) Class.forName(IMPL_JRE21).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return new TaskExecutorFactoryDefault();
+        } catch (LinkageError e) {
+            return new TaskExecutorFactoryDefault();
+        }
+    }
+
+    /**
+     * Class which indicates the presence of the virtual thread API in the running JRE.
+     */
+    private static final String CLASS_VIRTUAL = "java.lang.Thread$Builder$OfVirtual";
+
+    /**
+     * Implementation class for use in JRE 21+ (packaged in the multi-release jar layer).
+     */
+    private static final String IMPL_JRE21 = "com.ionic.sdk.core.exec21.TaskExecutorFactory21";
+}
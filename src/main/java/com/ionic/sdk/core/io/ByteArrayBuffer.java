@@ -0,0 +1,29 @@
+package com.ionic.sdk.core.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Byte array output stream whose content may be read back without copying it.
+ */
+public final class ByteArrayBuffer extends ByteArrayOutputStream {
+
+    /**
+     * Constructor.
+     *
+     * @param size the initial capacity of the buffer
+     */
+    public ByteArrayBuffer(final int size) {
+        super(size);
+    }
+
+    /**
+     * Create a stream over the content written so far.  The stream shares the storage of this buffer, so the buffer
+     * should not be written to (or reset) while the stream is in use.
+     *
+     * @return a stream from which the content of the buffer may be read
+     */
+    public synchronized ByteArrayInputStream toInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+}
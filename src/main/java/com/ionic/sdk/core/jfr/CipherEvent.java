@@ -0,0 +1,21 @@
+package com.ionic.sdk.core.jfr;
+
+/**
+ * Diagnostic event describing a single cipher operation.
+ */
+public interface CipherEvent {
+
+    /**
+     * Mark the start of the event.
+     */
+    void begin();
+
+    /**
+     * Mark the end of the event, and record it (if diagnostic recording is active).
+     *
+     * @param cipherId     the id of the cipher performing the operation
+     * @param encrypt      true for an encrypt operation, false for a decrypt operation
+     * @param payloadBytes the size of the operation input
+     */
+    void commit(String cipherId, boolean encrypt, long payloadBytes);
+}
@@ -0,0 +1,21 @@
+package com.ionic.sdk.core.jfr;
+
+/**
+ * Diagnostic event describing a single device profile persistence operation.
+ */
+public interface ProfileEvent {
+
+    /**
+     * Mark the start of the event.
+     */
+    void begin();
+
+    /**
+     * Mark the end of the event, and record it (if diagnostic recording is active).
+     *
+     * @param persistor    the class of the device profile persistor
+     * @param save         true for a save operation, false for a load operation
+     * @param profileCount the number of device profiles loaded / saved
+     */
+    void commit(Class<?> persistor, boolean save, int profileCount);
+}
@@ -0,0 +1,29 @@
+package com.ionic.sdk.core.jfr;
+
+/**
+ * Factory class used to abstract away the creation of diagnostic event objects.
+ * <p>
+ * Package "jdk.jfr" (JDK Flight Recorder) is available in JRE 11+.
+ */
+public abstract class SdkEventFactory {
+
+    /**
+     * @return an event describing a single server transaction
+     */
+    public abstract TransactionEvent transaction();
+
+    /**
+     * @return an event describing a single chunk cipher encrypt / decrypt operation
+     */
+    public abstract CipherEvent chunkCipher();
+
+    /**
+     * @return an event describing a single (block) cipher encrypt / decrypt operation
+     */
+    public abstract CipherEvent cipher();
+
+    /**
+     * @return an event describing a single device profile load / save operation
+     */
+    public abstract ProfileEvent profile();
+}
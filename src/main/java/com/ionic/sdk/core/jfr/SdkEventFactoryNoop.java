@@ -0,0 +1,39 @@
+package com.ionic.sdk.core.jfr;
+
+/**
+ * Implementation used when no diagnostic recording facility is available in the running JRE.
+ */
+public class SdkEventFactoryNoop extends SdkEventFactory {
+
+    /**
+     * @return the shared no-op event
+     */
+    @Override
+    public final TransactionEvent transaction() {
+        return SdkEventNoop.INSTANCE;
+    }
+
+    /**
+     * @return the shared no-op event
+     */
+    @Override
+    public final CipherEvent chunkCipher() {
+        return SdkEventNoop.INSTANCE;
+    }
+
+    /**
+     * @return the shared no-op event
+     */
+    @Override
+    public final CipherEvent cipher() {
+        return SdkEventNoop.INSTANCE;
+    }
+
+    /**
+     * @return the shared no-op event
+     */
+    @Override
+    public final ProfileEvent profile() {
+        return SdkEventNoop.INSTANCE;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ionic.sdk.core.jfr;
+
+/**
+ * Diagnostic event implementation used when no diagnostic recording facility is available.  A single stateless
+ * instance is shared, so that instrumented code paths incur no allocation.
+ */
+public final class SdkEventNoop implements TransactionEvent, CipherEvent, ProfileEvent {
+
+    /**
+     * The shared instance of this class.
+     */
+    public static final SdkEventNoop INSTANCE = new SdkEventNoop();
+
+    /**
+     * Constructor.
+     * http://checkstyle.sourceforge.net/config_design.html#FinalClass
+     */
+    private SdkEventNoop() {
+    }
+
+    /**
+     * Mark the start of the event.
+     */
+    @Override
+    public void begin() {
+    }
+
+    /**
+     * Discard the event.
+     *
+     * @param type            the class of the server transaction
+     * @param cid             the conversation id of the transaction
+     * @param keyCount        the number of keys in the server response
+     * @param requestBytes    the number of request entity bytes sent to the server
+     * @param responseBytes   the number of response entity bytes received from the server
+     * @param serverErrorCode the Ionic server error code (if any) from the response
+     */
+    @Override
+    public void commit(final Class<?> type, final String cid, final int keyCount,
+                       final long requestBytes, final long responseBytes, final int serverErrorCode) {
+    }
+
+    /**
+     * Discard the event.
+     *
+     * @param cipherId     the id of the cipher performing the operation
+     * @param encrypt      true for an encrypt operation, false for a decrypt operation
+     * @param payloadBytes the size of the operation input
+     */
+    @Override
+    public void commit(final String cipherId, final boolean encrypt, final long payloadBytes) {
+    }
+
+    /**
+     * Discard the event.
+     *
+     * @param persistor    the class of the device profile persistor
+     * @param save         true for a save operation, false for a load operation
+     * @param profileCount the number of device profiles loaded / saved
+     */
+    @Override
+    public void commit(final Class<?> persistor, final boolean save, final int profileCount) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.ionic.sdk.core.jfr;
+
+/**
+ * Interface class used to abstract away the creation of diagnostic event objects.
+ * <p>
+ * When the SDK is packaged as a multi-release jar and run on JRE 11+, events are emitted to JDK Flight Recorder.
+ * Otherwise, a no-op implementation is used.  Event objects are only allocated while a recording which enables the
+ * corresponding event type is active.
+ */
+public final class SdkEvents {
+
+    /**
+     * Constructor.
+     * http://checkstyle.sourceforge.net/config_design.html#FinalClass
+     */
+    private SdkEvents() {
+    }
+
+    /**
+     * @return an event describing a single server transaction
+     */
+    public static TransactionEvent transaction() {
+        return FACTORY.transaction();
+    }
+
+    /**
+     * @return an event describing a single chunk cipher encrypt / decrypt operation
+     */
+    public static CipherEvent chunkCipher() {
+        return FACTORY.chunkCipher();
+    }
+
+    /**
+     * @return an event describing a single (block) cipher encrypt / decrypt operation
+     */
+    public static CipherEvent cipher() {
+        return FACTORY.cipher();
+    }
+
+    /**
+     * @return an event describing a single device profile load / save operation
+     */
+    public static ProfileEvent profile() {
+        return FACTORY.profile();
+    }
+
+    /**
+     * A SdkEventFactory appropriate for the running JRE version.
+     */
+    private static final SdkEventFactory FACTORY = getFactory();
+
+    /**
+     * At application startup, this method will be called by the above static initializer.  The availability of the
+     * JDK Flight Recorder API (and of the multi-release implementation class) determines which factory will be
+     * instantiated.
+     * <p>
+     * Diagnostics are optional, so any failure to instantiate the Flight Recorder implementation results in the
+     * no-op implementation being used.
+     *
+     * @return a SdkEventFactory appropriate for the running JRE version
+     */
+    private static SdkEventFactory getFactory() {
+        try {
+            Class.forName(CLASS_JFR);
+            return (SdkEventFactory) Class.forName(IMPL_JRE11).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return new SdkEventFactoryNoop();
+        } catch (LinkageError e) {
+            return new SdkEventFactoryNoop();
+        }
+    }
+
+    /**
+     * Class which indicates the presence of the JDK Flight Recorder API in the running JRE.
+     */
+    private static final String CLASS_JFR = "jdk.jfr.FlightRecorder";
+
+    /**
+     * Implementation class for use in JRE 11+ (packaged in the multi-release jar layer).
+     */
+    private static final String IMPL_JRE11 = "com.ionic.sdk.core.jfr11.SdkEventFactory11";
+}
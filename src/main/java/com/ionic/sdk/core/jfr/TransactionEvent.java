@@ -0,0 +1,25 @@
+package com.ionic.sdk.core.jfr;
+
+/**
+ * Diagnostic event describing a single server transaction.
+ */
+public interface TransactionEvent {
+
+    /**
+     * Mark the start of the event.
+     */
+    void begin();
+
+    /**
+     * Mark the end of the event, and record it (if diagnostic recording is active).
+     *
+     * @param type            the class of the server transaction
+     * @param cid             the conversation id of the transaction
+     * @param keyCount        the number of keys in the server response
+     * @param requestBytes    the number of request entity bytes sent to the server
+     * @param responseBytes   the number of response entity bytes received from the server
+     * @param serverErrorCode the Ionic server error code (if any) from the response
+     */
+    void commit(Class<?> type, String cid, int keyCount,
+                long requestBytes, long responseBytes, int serverErrorCode);
+}
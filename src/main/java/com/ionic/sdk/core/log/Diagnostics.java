@@ -0,0 +1,108 @@
+package com.ionic.sdk.core.log;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Utility methods for the production of SDK diagnostic log messages.
+ * <p>
+ * Log messages are only assembled after the logger has been checked for the requested level, so that disabled
+ * diagnostics incur no formatting or allocation cost.  Message text is redacted before being logged, so that secret
+ * values (key material, authentication data, request envelopes) do not appear in log output.
+ */
+public final class Diagnostics {
+
+    /**
+     * Constructor.
+     * http://checkstyle.sourceforge.net/config_design.html#FinalClass
+     */
+    private Diagnostics() {
+    }
+
+    /**
+     * The {@link com.ionic.sdk.agent.config.AgentConfig} property (or system property) specifying the sampling
+     * interval for server transaction diagnostics.  A value of N causes one in every N transactions to be logged.
+     */
+    public static final String SAMPLE_RATE = "ionic-diagnostics-sample-rate";
+
+    /**
+     * Log a formatted message, if the logger is enabled for the specified level.
+     *
+     * @param logger the logger to which the message should be sent
+     * @param level  the level of the message
+     * @param format the format string of the message
+     * @param arg    the format argument, converted to text only if the message is to be logged
+     */
+    public static void log(final Logger logger, final Level level, final String format, final Object arg) {
+        if (logger.isLoggable(level)) {
+            logger.log(level, redact(String.format(format, arg)));
+        }
+    }
+
+    /**
+     * Log a formatted message, if the logger is enabled for the specified level.
+     *
+     * @param logger the logger to which the message should be sent
+     * @param level  the level of the message
+     * @param format the format string of the message
+     * @param arg1   the first format argument, converted to text only if the message is to be logged
+     * @param arg2   the second format argument, converted to text only if the message is to be logged
+     */
+    public static void log(final Logger logger, final Level level, final String format,
+                           final Object arg1, final Object arg2) {
+        if (logger.isLoggable(level)) {
+            logger.log(level, redact(String.format(format, arg1, arg2)));
+        }
+    }
+
+    /**
+     * Mask the values of secret fields in the (json) text of a message.
+     *
+     * @param text the message text
+     * @return the message text, with the value of any secret field replaced by a placeholder
+     */
+    public static String redact(final String text) {
+        if (text == null) {
+            return null;
+        }
+        final Matcher matcher = PATTERN_SECRET.matcher(text);
+        return matcher.find() ? matcher.replaceAll(REPLACEMENT_SECRET) : text;
+    }
+
+    /**
+     * Mask the value of an http header which carries credentials.
+     *
+     * @param name  the http header name
+     * @param value the http header value
+     * @return the header value, or a placeholder if the header carries credentials
+     */
+    public static String redactHeader(final String name, final String value) {
+        final boolean isSecret = (name != null) && PATTERN_SECRET_HEADER.matcher(name).matches();
+        return isSecret ? REDACTED : value;
+    }
+
+    /**
+     * Placeholder text for secret values.
+     */
+    private static final String REDACTED = "[REDACTED]";
+
+    /**
+     * Json fields of SDK server messages which carry secret (or encrypted) values.  The field name is captured as
+     * group 1; the field value (string, or array of strings) is captured as group 2.
+     */
+    private static final Pattern PATTERN_SECRET = Pattern.compile(
+            "(\"(?:key|envelope|AUTH|SEPAESK|SEPAESK-IDC|hfp|s|p|g|k)\"\\s*:\\s*)(\"[^\"]*\"|\\[[^\\]]*\\])");
+
+    /**
+     * Replacement expression for matches of {@link #PATTERN_SECRET}.
+     */
+    private static final String REPLACEMENT_SECRET = "$1\"" + REDACTED + "\"";
+
+    /**
+     * Http headers which carry credentials.
+     */
+    private static final Pattern PATTERN_SECRET_HEADER = Pattern.compile(
+            "(?i)authorization|proxy-authorization|cookie|set-cookie");
+}
@@ -0,0 +1,48 @@
+package com.ionic.sdk.core.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Selects one in every N units of work (for example, server transactions) for diagnostic logging.
+ * <p>
+ * When diagnostic logging is enabled for a high volume workload, sampling limits the log output (and the cost of
+ * producing it) while still providing representative examples.
+ */
+public final class LogSampler {
+
+    /**
+     * The sampling interval; one in every <code>rate</code> calls to {@link #sample()} is selected.
+     */
+    private final int rate;
+
+    /**
+     * The number of calls made to {@link #sample()}.
+     */
+    private final AtomicLong counter;
+
+    /**
+     * Constructor.
+     *
+     * @param rate the sampling interval; values less than one are treated as one (log every unit of work)
+     */
+    public LogSampler(final int rate) {
+        this.rate = Math.max(1, rate);
+        this.counter = new AtomicLong();
+    }
+
+    /**
+     * @return the sampling interval
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * Decide whether the next unit of work should be logged.
+     *
+     * @return true iff the next unit of work is selected for diagnostic logging
+     */
+    public boolean sample() {
+        return (rate == 1) || ((counter.getAndIncrement() % rate) == 0);
+    }
+}
@@ -0,0 +1,297 @@
+package com.ionic.sdk.crypto.material;
+
+import javax.crypto.SecretKey;
+import javax.security.auth.Destroyable;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Handle to secret key bytes held outside of the Java heap, in a {@link KeyMaterialStore}.
+ * <p>
+ * Consumers may copy the key bytes, or use the handle as a {@link SecretKey}, whose encoded form is copied from the
+ * store on each request.  Each read of the key bytes pins the handle for its duration.  Destroying the handle zeroes
+ * the key bytes and returns their storage to the store, once any read in progress has completed; subsequent reads
+ * fail.  If a handle is not explicitly destroyed, its storage is zeroed and reclaimed after the handle becomes
+ * unreachable.
+ */
+public final class KeyMaterial implements Destroyable {
+
+    /**
+     * The storage of the key bytes (position zero, limit equal to the key length).
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The store from which the storage of this handle was allocated (null for a zero-length key).
+     */
+    private KeyMaterialStore store;
+
+    /**
+     * The reference used by the store to track the reachability of this handle (null for a zero-length key).  It is
+     * written after {@link #store}, and read before it.
+     */
+    private volatile Object tracker;
+
+    /**
+     * The state of this handle: the count of reads in progress (in units of {@link #PIN}), combined with the flag
+     * {@link #DESTROYED}.
+     */
+    private volatile int state;
+
+    /**
+     * The cached {@link SecretKey} view of this handle.
+     */
+    private volatile MaterialSecretKey secretKey;
+
+    /**
+     * Constructor.
+     *
+     * @param buffer the storage of the key bytes
+     */
+    KeyMaterial(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.state = 0;
+    }
+
+    /**
+     * Associate this handle with its store (for use by the store, before the handle is published).
+     *
+     * @param store   the store from which the storage of this handle was allocated
+     * @param tracker the reference used by the store to track the reachability of this handle
+     */
+    void setTracker(final KeyMaterialStore store, final Object tracker) {
+        this.store = store;
+        this.tracker = tracker;
+    }
+
+    /**
+     * @return the length of the key, in bytes
+     */
+    public int length() {
+        return buffer.limit();
+    }
+
+    /**
+     * Copy the key bytes into the specified array.
+     *
+     * @param bytes  the destination array
+     * @param offset the position in the destination array at which to copy the key bytes
+     * @throws IllegalStateException if this handle has been destroyed
+     */
+    public void copyTo(final byte[] bytes, final int offset) {
+        pin();
+        try {
+            buffer.duplicate().get(bytes, offset, buffer.limit());
+        } finally {
+            unpin();
+        }
+    }
+
+    /**
+     * Copy the key bytes into the specified buffer (for use by the store).
+     *
+     * @param target the destination buffer, whose position is advanced by the key length
+     * @throws IllegalStateException if this handle has been destroyed
+     */
+    void copyTo(final ByteBuffer target) {
+        pin();
+        try {
+            target.put(buffer.duplicate());
+        } finally {
+            unpin();
+        }
+    }
+
+    /**
+     * Copy the key bytes onto the Java heap.  The caller is responsible for zeroing the returned array after use.
+     *
+     * @return a new array containing the key bytes
+     * @throws IllegalStateException if this handle has been destroyed
+     */
+    public byte[] toBytes() {
+        final byte[] bytes = new byte[length()];
+        copyTo(bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Get a {@link SecretKey} backed by this handle, for use in initializing a {@link javax.crypto.Cipher}.  The key
+     * holds no copy of the key bytes; its encoded form is copied from the store each time it is requested (which a
+     * cipher provider does once per initialization).  The key object is cached, so repeated calls with the same
+     * algorithm do not allocate.
+     *
+     * @param algorithm the name of the algorithm associated with the key
+     * @return a key backed by this handle
+     */
+    public SecretKey asSecretKey(final String algorithm) {
+        MaterialSecretKey key = secretKey;
+        if ((key == null) || (!key.algorithm.equals(algorithm))) {
+            key = new MaterialSecretKey(this, algorithm);
+            secretKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Zero the key bytes, and release their storage.  If a read of the key bytes is in progress, this happens when
+     * the read completes.  Subsequent attempts to read the key bytes will fail.
+     */
+    @Override
+    public void destroy() {
+        int s = state;
+        while ((s & DESTROYED) == 0) {
+            if (STATE.compareAndSet(this, s, s | DESTROYED)) {
+                if (s == 0) {
+                    reclaim();
+                }
+                break;
+            }
+            s = state;
+        }
+    }
+
+    /**
+     * @return true iff the key bytes have been (or are about to be) zeroed and released
+     */
+    @Override
+    public boolean isDestroyed() {
+        return ((state & DESTROYED) != 0);
+    }
+
+    /**
+     * Register the start of a read of the key bytes.
+     *
+     * @throws IllegalStateException if this handle has been destroyed
+     */
+    private void pin() {
+        int s = state;
+        while (true) {
+            if ((s & DESTROYED) != 0) {
+                throw new IllegalStateException(KeyMaterial.class.getSimpleName());
+            }
+            if (STATE.compareAndSet(this, s, s + PIN)) {
+                break;
+            }
+            s = state;
+        }
+    }
+
+    /**
+     * Register the end of a read of the key bytes, completing any destruction deferred by the read.  (The update
+     * of {@link #state} also keeps this handle reachable until the read is complete.)
+     */
+    private void unpin() {
+        if (STATE.addAndGet(this, -PIN) == DESTROYED) {
+            reclaim();
+        }
+    }
+
+    /**
+     * Return the storage of this handle to its store.
+     */
+    private void reclaim() {
+        final Object trackerRelease = tracker;
+        if (trackerRelease != null) {
+            store.release(trackerRelease);
+        }
+    }
+
+    /**
+     * {@link SecretKey} view of a {@link KeyMaterial} handle.  Instances are not serializable, as the key bytes are
+     * not to leave the store.
+     */
+    private static final class MaterialSecretKey implements SecretKey {
+
+        /**
+         * Class version, for serialization.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The handle to the key bytes.
+         */
+        private final transient KeyMaterial keyMaterial;
+
+        /**
+         * The name of the algorithm associated with the key.
+         */
+        private final String algorithm;
+
+        /**
+         * Constructor.
+         *
+         * @param keyMaterial the handle to the key bytes
+         * @param algorithm   the name of the algorithm associated with the key
+         */
+        private MaterialSecretKey(final KeyMaterial keyMaterial, final String algorithm) {
+            this.keyMaterial = keyMaterial;
+            this.algorithm = algorithm;
+        }
+
+        /**
+         * @return the name of the algorithm associated with the key
+         */
+        @Override
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        /**
+         * @return the name of the encoding format of the key
+         */
+        @Override
+        public String getFormat() {
+            return FORMAT_RAW;
+        }
+
+        /**
+         * @return a new array containing the key bytes
+         * @throws IllegalStateException if the handle has been destroyed
+         */
+        @Override
+        public byte[] getEncoded() {
+            return keyMaterial.toBytes();
+        }
+
+        /**
+         * @return true iff the key bytes have been zeroed and released
+         */
+        @Override
+        public boolean isDestroyed() {
+            return keyMaterial.isDestroyed();
+        }
+
+        /**
+         * Prevent serialization of the key.
+         *
+         * @param out the serialization stream
+         * @throws NotSerializableException always
+         */
+        private void writeObject(final ObjectOutputStream out) throws NotSerializableException {
+            throw new NotSerializableException(getClass().getName());
+        }
+    }
+
+    /**
+     * The {@link #state} increment registering a read in progress.
+     */
+    private static final int PIN = 2;
+
+    /**
+     * The {@link #state} flag marking the handle as destroyed.
+     */
+    private static final int DESTROYED = 1;
+
+    /**
+     * The name of the encoding format of raw key bytes.
+     */
+    private static final String FORMAT_RAW = "RAW";
+
+    /**
+     * Atomic access to {@link #state}.
+     */
+    private static final AtomicIntegerFieldUpdater<KeyMaterial> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(KeyMaterial.class, "state");
+}
@@ -0,0 +1,347 @@
+package com.ionic.sdk.crypto.material;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Slab of direct (off-heap) memory, used to hold secret key bytes.
+ * <p>
+ * Keys are stored in fixed size slots within slab segments, which are allocated as needed and retained for reuse.
+ * Keys larger than the slot size are held in dedicated direct buffers.  Holding keys off-heap means that the garbage
+ * collector does not copy key bytes as it compacts the heap, and that large key caches do not add to heap pressure.
+ * <p>
+ * The slab is divided into stripes, each guarded by its own lock, so that concurrent allocations from different
+ * threads seldom contend.  Zero-length keys use no storage.
+ * <p>
+ * The storage of a {@link KeyMaterial} handle is zeroed and returned for reuse when the handle is destroyed and no
+ * read of its key bytes is in progress, or after the handle itself becomes unreachable.  A slot is therefore never
+ * reused while it may still be read through the handle that was allocated it.
+ */
+public final class KeyMaterialStore {
+
+    /**
+     * The stripes from which storage is allocated.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * The number of handles currently holding storage from this store.
+     */
+    private final AtomicInteger allocatedCount;
+
+    /**
+     * Queue notified when an allocated handle becomes unreachable.
+     */
+    private final ReferenceQueue<KeyMaterial> queue;
+
+    /**
+     * Constructor.
+     */
+    public KeyMaterialStore() {
+        int count = 1;
+        while ((count < Runtime.getRuntime().availableProcessors()) && (count < MAX_STRIPES)) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; (i < count); ++i) {
+            stripes[i] = new Stripe();
+        }
+        this.allocatedCount = new AtomicInteger();
+        this.queue = new ReferenceQueue<KeyMaterial>();
+    }
+
+    /**
+     * @return the store used by default to hold SDK key material
+     */
+    public static KeyMaterialStore getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the number of handles currently holding storage from this store
+     */
+    public int getAllocatedCount() {
+        return allocatedCount.get();
+    }
+
+    /**
+     * Copy key bytes into the store.
+     *
+     * @param bytes the key bytes
+     * @return a handle to the stored copy of the key bytes
+     */
+    public KeyMaterial allocate(final byte[] bytes) {
+        return allocate(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Copy key bytes into the store.
+     *
+     * @param source the handle to the key bytes to be copied
+     * @return a handle to the stored copy of the key bytes
+     * @throws IllegalStateException if the source handle has been destroyed
+     */
+    public KeyMaterial allocate(final KeyMaterial source) {
+        final int length = source.length();
+        if (length == 0) {
+            return new KeyMaterial(EMPTY);
+        }
+        final Storage storage = allocateStorage(length);
+        try {
+            source.copyTo(storage.buffer.duplicate());
+        } catch (IllegalStateException e) {
+            storage.stripe.free(storage);
+            throw e;
+        }
+        return register(storage);
+    }
+
+    /**
+     * Copy key bytes into the store.
+     *
+     * @param source the key bytes (from position to limit); the position of the buffer is not modified
+     * @return a handle to the stored copy of the key bytes
+     */
+    public KeyMaterial allocate(final ByteBuffer source) {
+        final int length = source.remaining();
+        if (length == 0) {
+            return new KeyMaterial(EMPTY);
+        }
+        final Storage storage = allocateStorage(length);
+        storage.buffer.duplicate().put(source.duplicate());
+        return register(storage);
+    }
+
+    /**
+     * Reserve storage for key bytes, first reclaiming the storage of any unreachable handles.
+     *
+     * @param length the length of the key bytes
+     * @return the reserved storage, not yet associated with a handle
+     */
+    private Storage allocateStorage(final int length) {
+        expunge();
+        final Stripe stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        return stripe.allocate(length);
+    }
+
+    /**
+     * Associate reserved storage with a new handle, and begin tracking the reachability of the handle.
+     *
+     * @param storage the reserved storage, holding the key bytes
+     * @return the new handle
+     */
+    private KeyMaterial register(final Storage storage) {
+        final KeyMaterial keyMaterial = new KeyMaterial(storage.buffer);
+        final Tracker tracker = new Tracker(keyMaterial, storage, queue);
+        keyMaterial.setTracker(this, tracker);
+        storage.stripe.track(tracker);
+        allocatedCount.incrementAndGet();
+        return keyMaterial;
+    }
+
+    /**
+     * Zero the key bytes tracked by the specified reference, and return their storage for reuse.  Releasing storage
+     * more than once has no effect.
+     *
+     * @param tracker the reference tracking the storage to be released
+     */
+    void release(final Object tracker) {
+        final Tracker trackerRelease = (Tracker) tracker;
+        trackerRelease.clear();
+        if (trackerRelease.storage.stripe.untrack(trackerRelease)) {
+            allocatedCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Release the storage of handles which have become unreachable.
+     */
+    private void expunge() {
+        Reference<?> reference = queue.poll();
+        while (reference != null) {
+            release(reference);
+            reference = queue.poll();
+        }
+    }
+
+    /**
+     * A unit of storage holding the key bytes of one handle.
+     */
+    private static final class Storage {
+
+        /**
+         * The stripe from which the storage was allocated.
+         */
+        private final Stripe stripe;
+
+        /**
+         * The key bytes (position zero, limit equal to the key length).
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The index (within the stripe) of the slot holding the key bytes, or -1 for a dedicated buffer.
+         */
+        private final int slot;
+
+        /**
+         * Constructor.
+         *
+         * @param stripe the stripe from which the storage was allocated
+         * @param buffer the key bytes
+         * @param slot   the index of the slot holding the key bytes, or -1 for a dedicated buffer
+         */
+        private Storage(final Stripe stripe, final ByteBuffer buffer, final int slot) {
+            this.stripe = stripe;
+            this.buffer = buffer;
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * Tracks the reachability of a handle, so that its storage may be reclaimed.  The reference holds the storage
+     * (but not the handle), so that the storage can be zeroed after the handle has been collected.
+     */
+    private static final class Tracker extends PhantomReference<KeyMaterial> {
+
+        /**
+         * The storage of the tracked handle.
+         */
+        private final Storage storage;
+
+        /**
+         * Constructor.
+         *
+         * @param keyMaterial the handle to be tracked
+         * @param storage     the storage of the handle
+         * @param queue       the queue to be notified when the handle becomes unreachable
+         */
+        private Tracker(final KeyMaterial keyMaterial, final Storage storage,
+                        final ReferenceQueue<KeyMaterial> queue) {
+            super(keyMaterial, queue);
+            this.storage = storage;
+        }
+    }
+
+    /**
+     * A partition of the slab, guarded by its own lock.
+     */
+    private static final class Stripe {
+
+        /**
+         * The slab segments from which slots are allocated.
+         */
+        private final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+
+        /**
+         * The indices of the unallocated slots (used as a stack).
+         */
+        private int[] freeSlots = new int[0];
+
+        /**
+         * The number of valid entries in {@link #freeSlots}.
+         */
+        private int freeCount = 0;
+
+        /**
+         * The (strongly held) references tracking the handles holding storage from this stripe.
+         */
+        private final Set<Tracker> trackers = new HashSet<Tracker>();
+
+        /**
+         * Reserve storage for key bytes.
+         *
+         * @param length the length of the key bytes
+         * @return the reserved storage
+         */
+        private synchronized Storage allocate(final int length) {
+            if (length > SLOT_SIZE) {
+                return new Storage(this, ByteBuffer.allocateDirect(length), -1);
+            }
+            if (freeCount == 0) {
+                final int base = segments.size() * SEGMENT_SLOTS;
+                segments.add(ByteBuffer.allocateDirect(SEGMENT_SLOTS * SLOT_SIZE));
+                freeSlots = Arrays.copyOf(freeSlots, base + SEGMENT_SLOTS);
+                for (int i = (SEGMENT_SLOTS - 1); (i >= 0); --i) {
+                    freeSlots[freeCount++] = base + i;
+                }
+            }
+            final int slot = freeSlots[--freeCount];
+            final ByteBuffer segment = segments.get(slot / SEGMENT_SLOTS).duplicate();
+            final int offset = (slot % SEGMENT_SLOTS) * SLOT_SIZE;
+            segment.limit(offset + length).position(offset);
+            return new Storage(this, segment.slice(), slot);
+        }
+
+        /**
+         * Begin tracking a handle holding storage from this stripe.
+         *
+         * @param tracker the reference tracking the handle
+         */
+        private synchronized void track(final Tracker tracker) {
+            trackers.add(tracker);
+        }
+
+        /**
+         * Stop tracking a handle, zeroing and freeing its storage.
+         *
+         * @param tracker the reference tracking the handle
+         * @return true iff the storage was released by this call
+         */
+        private synchronized boolean untrack(final Tracker tracker) {
+            final boolean removed = trackers.remove(tracker);
+            if (removed) {
+                free(tracker.storage);
+            }
+            return removed;
+        }
+
+        /**
+         * Zero storage, and return its slot (if any) for reuse.
+         *
+         * @param storage the storage to be freed
+         */
+        private synchronized void free(final Storage storage) {
+            final ByteBuffer buffer = storage.buffer;
+            for (int i = 0; (i < buffer.capacity()); ++i) {
+                buffer.put(i, (byte) 0);
+            }
+            if (storage.slot >= 0) {
+                freeSlots[freeCount++] = storage.slot;
+            }
+        }
+    }
+
+    /**
+     * The size of a slab slot, in bytes.  (AES-256 keys are 32 bytes.)
+     */
+    private static final int SLOT_SIZE = 64;
+
+    /**
+     * The number of slots in each slab segment.
+     */
+    private static final int SEGMENT_SLOTS = 256;
+
+    /**
+     * The maximum number of stripes in a store.
+     */
+    private static final int MAX_STRIPES = 16;
+
+    /**
+     * The (shared, immutable) storage of zero-length keys.
+     */
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    /**
+     * The store used by default to hold SDK key material.
+     */
+    private static final KeyMaterialStore DEFAULT = new KeyMaterialStore();
+}
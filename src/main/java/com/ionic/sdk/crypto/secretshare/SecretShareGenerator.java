@@ -10,11 +10,11 @@ import com.ionic.sdk.crypto.CryptoUtils;
 import com.ionic.sdk.crypto.shamir.Scheme;
 import com.ionic.sdk.error.IonicException;
 import com.ionic.sdk.error.SdkError;
+import com.ionic.sdk.json.JsonFactories;
 import com.ionic.sdk.json.JsonIO;
 import com.ionic.sdk.json.JsonSource;
 import com.ionic.sdk.json.JsonTarget;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
@@ -94,13 +94,13 @@ public final class SecretShareGenerator {
             //logger.finest(String.format("BUCKET, SECRET AFTER=[%s]", Transcoder.hex().encode(secret)));
         }
         //logger.finest("GENERATE, AFTER BUCKETS");
-        final JsonArrayBuilder jsonArrayBuilder = Json.createArrayBuilder();
+        final JsonArrayBuilder jsonArrayBuilder = JsonFactories.createArrayBuilder();
         for (final byte[] share : shares) {
             JsonTarget.addNotNull(jsonArrayBuilder, CryptoUtils.binToBase64(share));
         }
         final byte[] salt = new CryptoRng().rand(new byte[SALT_BITS / Byte.SIZE]);
         final byte[] secretFinal = CryptoUtils.pbkdf2ToBytes(secret, salt, PBKDF_ITERATIONS, secret.length);
-        final JsonObject jsonPersist = Json.createObjectBuilder()
+        final JsonObject jsonPersist = JsonFactories.createObjectBuilder()
                 .add(IDC.SSKP.SHARES, jsonArrayBuilder.build())
                 .add(IDC.SSKP.SALT, CryptoUtils.binToBase64(salt))
                 .build();
@@ -1,5 +1,8 @@
 package com.ionic.sdk.device.profile;
 
+import com.ionic.sdk.crypto.material.KeyMaterial;
+import com.ionic.sdk.crypto.material.KeyMaterialStore;
+
 /**
  * This class represents the device profile of the machine we are on.
  */
@@ -26,14 +29,14 @@ public class DeviceProfile {
     private long timestamp;
 
     /**
-     * The raw AES key bytes.
+     * The raw AES key bytes (held off-heap).
      */
-    private byte[] aesCdIdcProfileKey;
+    private volatile KeyMaterial aesCdIdcProfileKey;
 
     /**
-     * The private AES key shared between client and EI.
+     * The private AES key shared between client and EI (held off-heap).
      */
-    private byte[] aesCdEiProfileKey;
+    private volatile KeyMaterial aesCdEiProfileKey;
 
     /**
      * Initializes the object to be empty. Creation time in seconds is initialized
@@ -41,6 +44,8 @@ public class DeviceProfile {
      */
     public DeviceProfile() {
         timestamp = 0;
+        aesCdIdcProfileKey = KeyMaterialStore.getDefault().allocate(new byte[0]);
+        aesCdEiProfileKey = KeyMaterialStore.getDefault().allocate(new byte[0]);
     }
 
     /**
@@ -49,8 +54,12 @@ public class DeviceProfile {
      * @param profile the existing DeviceProfile to replicate
      */
     public DeviceProfile(final DeviceProfile profile) {
-        this(profile.getName(), profile.getCreationTimestampSecs(), profile.getDeviceId(),
-                profile.getServer(), profile.getAesCdIdcProfileKey(), profile.getAesCdEiProfileKey());
+        this.deviceName = profile.getName();
+        this.timestamp = profile.getCreationTimestampSecs();
+        this.deviceProfileId = profile.getDeviceId();
+        this.serverName = profile.getServer();
+        this.aesCdIdcProfileKey = KeyMaterialStore.getDefault().allocate(profile.aesCdIdcProfileKey);
+        this.aesCdEiProfileKey = KeyMaterialStore.getDefault().allocate(profile.aesCdEiProfileKey);
     }
 
     /**
@@ -69,8 +78,8 @@ public class DeviceProfile {
         this.timestamp = creationTimestamp;
         this.deviceProfileId = deviceId;
         this.serverName = server;
-        this.aesCdIdcProfileKey = aesCdIdcKey.clone();
-        this.aesCdEiProfileKey = aesCdEiKey.clone();
+        this.aesCdIdcProfileKey = KeyMaterialStore.getDefault().allocate(aesCdIdcKey);
+        this.aesCdEiProfileKey = KeyMaterialStore.getDefault().allocate(aesCdEiKey);
     }
 
     /**
@@ -79,7 +88,7 @@ public class DeviceProfile {
      * @return the status of loaded keys
      */
     public final boolean isLoaded() {
-        return !deviceProfileId.isEmpty() && aesCdIdcProfileKey.length != 0 && aesCdEiProfileKey.length != 0;
+        return !deviceProfileId.isEmpty() && aesCdIdcProfileKey.length() != 0 && aesCdEiProfileKey.length() != 0;
     }
 
     /**
@@ -165,16 +174,27 @@ public class DeviceProfile {
      * @return The private AES key shared between client and Ionic.com.
      */
     public final byte[] getAesCdIdcProfileKey() {
-        return aesCdIdcProfileKey.clone();
+        return aesCdIdcProfileKey.toBytes();
+    }
+
+    /**
+     * Borrow the (off-heap) private AES key shared between client and Ionic.com, avoiding a heap copy.  The returned
+     * handle remains readable after the key is replaced.
+     *
+     * @return a handle to the private AES key shared between client and Ionic.com
+     */
+    public final KeyMaterial getAesCdIdcProfileKeyMaterial() {
+        return aesCdIdcProfileKey;
     }
 
     /**
-     * Set the private AES key shared between client and Ionic.com.
+     * Set the private AES key shared between client and Ionic.com.  The previous key bytes are zeroed once no longer
+     * in use.
      *
      * @param keyBytes The raw AES key bytes.
      */
     public final void setAesCdIdcProfileKey(final byte[] keyBytes) {
-        aesCdIdcProfileKey = keyBytes.clone();
+        aesCdIdcProfileKey = KeyMaterialStore.getDefault().allocate(keyBytes);
     }
 
     /**
@@ -185,17 +205,27 @@ public class DeviceProfile {
      * Infrastructure).
      */
     public final byte[] getAesCdEiProfileKey() {
-        return aesCdEiProfileKey.clone();
+        return aesCdEiProfileKey.toBytes();
+    }
+
+    /**
+     * Borrow the (off-heap) private AES key shared between client and EI, avoiding a heap copy.  The returned handle
+     * remains readable after the key is replaced.
+     *
+     * @return a handle to the private AES key shared between client and EI (Enterprise Infrastructure)
+     */
+    public final KeyMaterial getAesCdEiProfileKeyMaterial() {
+        return aesCdEiProfileKey;
     }
 
     /**
      * Set the private AES key shared between client and EI (Enterprise
-     * Infrastructure).
+     * Infrastructure).  The previous key bytes are zeroed once no longer in use.
      *
      * @param keyBytes The raw AES key bytes.
      */
     public final void setAesCdEiProfileKey(final byte[] keyBytes) {
-        aesCdEiProfileKey = keyBytes.clone();
+        aesCdEiProfileKey = KeyMaterialStore.getDefault().allocate(keyBytes);
     }
 
     /**
@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
@@ -16,12 +15,15 @@ import javax.json.JsonValue;
 import com.ionic.sdk.cipher.CipherAbstract;
 import com.ionic.sdk.core.codec.Transcoder;
 import com.ionic.sdk.core.datastructures.Tuple;
+import com.ionic.sdk.core.jfr.ProfileEvent;
+import com.ionic.sdk.core.jfr.SdkEvents;
 import com.ionic.sdk.core.io.Stream;
 import com.ionic.sdk.crypto.CryptoUtils;
 import com.ionic.sdk.device.profile.DeviceFields;
 import com.ionic.sdk.device.profile.DeviceProfile;
 import com.ionic.sdk.error.IonicException;
 import com.ionic.sdk.error.SdkError;
+import com.ionic.sdk.json.JsonFactories;
 import com.ionic.sdk.json.JsonIO;
 import com.ionic.sdk.json.JsonSource;
 import com.ionic.sdk.json.JsonTarget;
@@ -141,12 +143,15 @@ public abstract class DeviceProfilePersistorBase implements ProfilePersistor {
             throw new IonicException(SdkError.ISAGENT_RESOURCE_NOT_FOUND);
         }
         if (shouldUpdateProfiles) {
+            final ProfileEvent event = SdkEvents.profile();
+            event.begin();
             final Tuple<List<DeviceProfile>, String> profiles = loadAllProfilesFromFile(mFilePath);
             if (profiles != null) {
                 mProfiles = new ArrayList<DeviceProfile>(profiles.first());
                 activeDeviceProfileId = profiles.second();
             }
             shouldUpdateProfiles = false;
+            event.commit(getClass(), false, (mProfiles == null) ? 0 : mProfiles.size());
         }
         if (activeProfile != null && activeProfile.length >= 1) {
             activeProfile[0] = activeDeviceProfileId;
@@ -169,10 +174,13 @@ public abstract class DeviceProfilePersistorBase implements ProfilePersistor {
     @Override
     @SuppressWarnings({"checkstyle:designforextension"})  // extended in Ionic/addon/dpapi
     public void saveAllProfiles(final List<DeviceProfile> profiles, final String activeProfile) throws IonicException {
+        final ProfileEvent event = SdkEvents.profile();
+        event.begin();
         mProfiles = new ArrayList<DeviceProfile>(profiles);
         activeDeviceProfileId = activeProfile;
 
         saveAllProfilesToFile(mProfiles, activeDeviceProfileId, mFilePath, mCipher);
+        event.commit(getClass(), true, mProfiles.size());
     }
 
     /**
@@ -215,14 +223,14 @@ public abstract class DeviceProfilePersistorBase implements ProfilePersistor {
     protected static byte[] saveAllProfilesToJson(final List<DeviceProfile> profiles, final String activeProfile,
             final CipherAbstract cipher) throws IonicException {
 
-        final JsonObjectBuilder devicePersistor = Json.createObjectBuilder();
+        final JsonObjectBuilder devicePersistor = JsonFactories.createObjectBuilder();
         JsonTarget.addNotNull(devicePersistor, DeviceFields.FIELD_ACTIVE_DEVICE_ID, activeProfile);
-        final JsonArrayBuilder deviceProfiles = Json.createArrayBuilder();
+        final JsonArrayBuilder deviceProfiles = JsonFactories.createArrayBuilder();
 
         for (final DeviceProfile profile : profiles) {
             final String keyHexIDC = CryptoUtils.binToHex(profile.getAesCdIdcProfileKey());
             final String keyHexEI = CryptoUtils.binToHex(profile.getAesCdEiProfileKey());
-            final JsonObjectBuilder objectBuilder = Json.createObjectBuilder();
+            final JsonObjectBuilder objectBuilder = JsonFactories.createObjectBuilder();
             JsonTarget.addNotNull(objectBuilder, DeviceFields.FIELD_NAME, profile.getName());
             JsonTarget.addNotNull(objectBuilder, DeviceFields.FIELD_DEVICE_ID, profile.getDeviceId());
             JsonTarget.addNotNull(objectBuilder, DeviceFields.FIELD_SERVER, profile.getServer());
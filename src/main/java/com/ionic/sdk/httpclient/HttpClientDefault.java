@@ -3,6 +3,7 @@ package com.ionic.sdk.httpclient;
 import com.ionic.sdk.agent.config.AgentConfig;
 import com.ionic.sdk.core.date.DateTime;
 import com.ionic.sdk.core.io.Stream;
+import com.ionic.sdk.core.log.Diagnostics;
 import com.ionic.sdk.httpclient.proxy.ProxyManager;
 
 import java.io.ByteArrayInputStream;
@@ -13,6 +14,7 @@ import java.net.Proxy;
 import java.net.URL;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -61,11 +63,11 @@ public final class HttpClientDefault implements HttpClient {
         final URL url = httpRequest.getUrl();
         final String resource = httpRequest.getResource();
         final URL urlRequest = new URL(url.getProtocol(), url.getHost(), url.getPort(), resource);
-        logger.finest(String.format("URL = %s", urlRequest.toExternalForm()));
+        Diagnostics.log(logger, Level.FINEST, "URL = %s", urlRequest);
         final HttpURLConnection connection = (HttpURLConnection) urlRequest.openConnection(proxy);
         connection.setConnectTimeout(httpTimeoutSecs * (int) DateTime.ONE_SECOND_MILLIS);
         connection.setReadTimeout(httpTimeoutSecs * (int) DateTime.ONE_SECOND_MILLIS);
-        logger.finest(String.format("HttpURLConnection = %s", connection.toString()));
+        Diagnostics.log(logger, Level.FINEST, "HttpURLConnection = %s", connection);
         return executeInternal(connection, httpRequest);
     }
 
@@ -83,14 +85,21 @@ public final class HttpClientDefault implements HttpClient {
         connection.setRequestMethod(httpRequest.getMethod());
         connection.setDoInput(true);
         connection.setDoOutput(entity != null);
+        final boolean isTrace = logger.isLoggable(Level.FINEST);
         for (final HttpHeader httpHeader : httpRequest.getHttpHeaders()) {
-            logger.finest(String.format("request header: [%s]=[%s]", httpHeader.getName(), httpHeader.getValue()));
+            if (isTrace) {
+                Diagnostics.log(logger, Level.FINEST, "request header: [%s]=[%s]", httpHeader.getName(),
+                        Diagnostics.redactHeader(httpHeader.getName(), httpHeader.getValue()));
+            }
             connection.setRequestProperty(httpHeader.getName(), httpHeader.getValue());
         }
-        logger.finest(String.format("ready to connect, HttpURLConnection = %s", connection));
+        Diagnostics.log(logger, Level.FINEST, "ready to connect, HttpURLConnection = %s", connection);
+        final HttpTimings timings = httpRequest.getTimings();
+        final long nanosConnect = System.nanoTime();
         connection.connect();
-        logger.finest(String.format("connected, HttpURLConnection = %s", connection));
-        return executeConnected(connection, entity);
+        timings.addConnectNanos(System.nanoTime() - nanosConnect);
+        Diagnostics.log(logger, Level.FINEST, "connected, HttpURLConnection = %s", connection);
+        return executeConnected(connection, entity, timings);
     }
 
     /**
@@ -98,35 +107,51 @@ public final class HttpClientDefault implements HttpClient {
      *
      * @param connection the open connection associated with the client request
      * @param entity     the request data (if any) associated with the client request
+     * @param timings    the container for elapsed time measurements of the request
      * @return the response received from the server
      * @throws IOException if an I/O error occurs
      */
-    private HttpResponse executeConnected(
-            final HttpURLConnection connection, final ByteArrayInputStream entity) throws IOException {
-        logger.finest(String.format("ready to write, HttpURLConnection = %s", connection));
+    private HttpResponse executeConnected(final HttpURLConnection connection, final ByteArrayInputStream entity,
+                                          final HttpTimings timings) throws IOException {
+        final boolean isTrace = logger.isLoggable(Level.FINEST);
+        Diagnostics.log(logger, Level.FINEST, "ready to write, HttpURLConnection = %s", connection);
+        final long nanosSend = System.nanoTime();
         if (entity != null) {
             Stream.write(connection.getOutputStream(), entity);
         }
-        logger.finest(String.format("ready to read, HttpURLConnection = %s", connection));
+        timings.addSendNanos(System.nanoTime() - nanosSend);
+        Diagnostics.log(logger, Level.FINEST, "ready to read, HttpURLConnection = %s", connection);
         final int statusCode = connection.getResponseCode();
-        logger.finest(String.format("statusCode = %d, HttpURLConnection = %s", statusCode, connection));
+        final long nanosReceive = System.nanoTime();
+        if (isTrace) {
+            Diagnostics.log(logger, Level.FINEST, "statusCode = %d, HttpURLConnection = %s", statusCode, connection);
+        }
         final HttpHeaders httpHeadersResponse = new HttpHeaders();
         final Map<String, List<String>> headerFields = connection.getHeaderFields();
         for (final Map.Entry<String, List<String>> entry : headerFields.entrySet()) {
             final String name = entry.getKey();
             for (final String value : entry.getValue()) {
-                logger.finest(String.format("response header: [%s]=[%s]", name, value));
+                if (isTrace) {
+                    Diagnostics.log(logger, Level.FINEST,
+                            "response header: [%s]=[%s]", name, Diagnostics.redactHeader(name, value));
+                }
                 httpHeadersResponse.add(new HttpHeader(name, value));
             }
         }
-        logger.finest(String.format("#headers = %d, HttpURLConnection = %s", httpHeadersResponse.size(), connection));
+        if (isTrace) {
+            Diagnostics.log(logger, Level.FINEST,
+                    "#headers = %d, HttpURLConnection = %s", httpHeadersResponse.size(), connection);
+        }
         final ByteArrayOutputStream os = new ByteArrayOutputStream();
         try {
             Stream.write(os, connection.getInputStream());
         } catch (IOException e) {
             Stream.write(os, connection.getErrorStream());
         }
-        logger.finest(String.format("#entity = %d, HttpURLConnection = %s", os.size(), connection));
+        timings.addReceiveNanos(System.nanoTime() - nanosReceive);
+        if (isTrace) {
+            Diagnostics.log(logger, Level.FINEST, "#entity = %d, HttpURLConnection = %s", os.size(), connection);
+        }
         return new HttpResponse(statusCode, httpHeadersResponse, new ByteArrayInputStream(os.toByteArray()));
     }
 }
@@ -20,6 +20,13 @@ public final class HttpClientFactory {
     private HttpClientFactory() {
     }
 
+    /**
+     * The name of the HTTP/2 capable HttpClient implementation, for use with
+     * {@link AgentConfig#setHttpImpl(String)}.  This implementation is packaged in the multi-release jar layer, and is
+     * available in JRE 11+.  Concurrent requests to a server are multiplexed over a single (shared) connection.
+     */
+    public static final String IMPL_HTTP2 = "com.ionic.sdk.httpclient11.HttpClientHttp2";
+
     /**
      * Create a new http client for use in making key services requests.
      *
@@ -32,6 +32,11 @@ public final class HttpRequest {
      */
     private final ByteArrayInputStream entity;
 
+    /**
+     * The elapsed time measurements (if reported by the http client) associated with the request.
+     */
+    private final HttpTimings timings;
+
     /**
      * Assemble an HTTP request, to be sent to an HTTP server.
      *
@@ -59,6 +64,7 @@ public final class HttpRequest {
         this.resource = resourceIn;
         this.httpHeaders = httpHeadersIn;
         this.entity = entityIn;
+        this.timings = new HttpTimings();
     }
 
     /**
@@ -95,4 +101,11 @@ public final class HttpRequest {
     public ByteArrayInputStream getEntity() {
         return entity;
     }
+
+    /**
+     * @return the elapsed time measurements (if reported by the http client) associated with the request
+     */
+    public HttpTimings getTimings() {
+        return timings;
+    }
 }
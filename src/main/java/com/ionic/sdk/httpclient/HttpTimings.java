@@ -0,0 +1,74 @@
+package com.ionic.sdk.httpclient;
+
+/**
+ * Elapsed time measurements of the constituent steps of an HTTP exchange, as reported by an {@link HttpClient}
+ * implementation.
+ * <p>
+ * Reporting is optional for HttpClient implementations.  Any time not accounted for by these measurements is
+ * attributed by the caller to the wait for the server response.
+ */
+public final class HttpTimings {
+
+    /**
+     * The time spent establishing the server connection (including any TLS handshake), in nanoseconds.
+     */
+    private long connectNanos;
+
+    /**
+     * The time spent transmitting the request entity, in nanoseconds.
+     */
+    private long sendNanos;
+
+    /**
+     * The time spent receiving the response headers and entity, in nanoseconds.
+     */
+    private long receiveNanos;
+
+    /**
+     * @return the time spent establishing the server connection, in nanoseconds
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * Record time spent establishing the server connection.
+     *
+     * @param nanos the elapsed time, in nanoseconds
+     */
+    public void addConnectNanos(final long nanos) {
+        this.connectNanos += nanos;
+    }
+
+    /**
+     * @return the time spent transmitting the request entity, in nanoseconds
+     */
+    public long getSendNanos() {
+        return sendNanos;
+    }
+
+    /**
+     * Record time spent transmitting the request entity.
+     *
+     * @param nanos the elapsed time, in nanoseconds
+     */
+    public void addSendNanos(final long nanos) {
+        this.sendNanos += nanos;
+    }
+
+    /**
+     * @return the time spent receiving the response headers and entity, in nanoseconds
+     */
+    public long getReceiveNanos() {
+        return receiveNanos;
+    }
+
+    /**
+     * Record time spent receiving the response headers and entity.
+     *
+     * @param nanos the elapsed time, in nanoseconds
+     */
+    public void addReceiveNanos(final long nanos) {
+        this.receiveNanos += nanos;
+    }
+}
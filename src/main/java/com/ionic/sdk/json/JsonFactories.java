@@ -0,0 +1,149 @@
+package com.ionic.sdk.json;
+
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonReaderFactory;
+import javax.json.JsonWriter;
+import javax.json.JsonWriterFactory;
+import javax.json.spi.JsonProvider;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParserFactory;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Cached javax.json factories, used for all SDK json processing.
+ * <p>
+ * The static methods of {@link javax.json.Json} look up the {@link JsonProvider} implementation (using
+ * {@link java.util.ServiceLoader}) on each call.  The provider and factories here are looked up once, and are safe
+ * for concurrent use.
+ */
+public final class JsonFactories {
+
+    /**
+     * Constructor.
+     * http://checkstyle.sourceforge.net/config_design.html#FinalClass
+     */
+    private JsonFactories() {
+    }
+
+    /**
+     * @return a new builder for a json object
+     */
+    public static JsonObjectBuilder createObjectBuilder() {
+        return BUILDER_FACTORY.createObjectBuilder();
+    }
+
+    /**
+     * @return a new builder for a json array
+     */
+    public static JsonArrayBuilder createArrayBuilder() {
+        return BUILDER_FACTORY.createArrayBuilder();
+    }
+
+    /**
+     * @param is the source of the json (the character encoding is detected as described in RFC 7159)
+     * @return a new reader for the json
+     */
+    public static JsonReader createReader(final InputStream is) {
+        return READER_FACTORY.createReader(is);
+    }
+
+    /**
+     * @param reader the source of the json
+     * @return a new reader for the json
+     */
+    public static JsonReader createReader(final Reader reader) {
+        return READER_FACTORY.createReader(reader);
+    }
+
+    /**
+     * @param os     the destination of the json (UTF-8 encoded)
+     * @param pretty a flag indicating whether the json should be emitted in a human-readable format
+     * @return a new writer for the json
+     */
+    public static JsonWriter createWriter(final OutputStream os, final boolean pretty) {
+        return (pretty ? WRITER_FACTORY_PRETTY : WRITER_FACTORY).createWriter(os);
+    }
+
+    /**
+     * @param is the source of the json (the character encoding is detected as described in RFC 7159)
+     * @return a new streaming parser for the json
+     */
+    public static JsonParser createParser(final InputStream is) {
+        return PARSER_FACTORY.createParser(is);
+    }
+
+    /**
+     * @param reader the source of the json
+     * @return a new streaming parser for the json
+     */
+    public static JsonParser createParser(final Reader reader) {
+        return PARSER_FACTORY.createParser(reader);
+    }
+
+    /**
+     * @param os the destination of the json (UTF-8 encoded)
+     * @return a new streaming generator for the json
+     */
+    public static JsonGenerator createGenerator(final OutputStream os) {
+        return GENERATOR_FACTORY.createGenerator(os);
+    }
+
+    /**
+     * @param writer the destination of the json
+     * @return a new streaming generator for the json
+     */
+    public static JsonGenerator createGenerator(final Writer writer) {
+        return GENERATOR_FACTORY.createGenerator(writer);
+    }
+
+    /**
+     * The javax.json implementation.
+     */
+    private static final JsonProvider PROVIDER = JsonProvider.provider();
+
+    /**
+     * The default (empty) factory configuration.
+     */
+    private static final Map<String, ?> CONFIG = Collections.emptyMap();
+
+    /**
+     * Factory for json object and array builders.
+     */
+    private static final JsonBuilderFactory BUILDER_FACTORY = PROVIDER.createBuilderFactory(CONFIG);
+
+    /**
+     * Factory for json readers.
+     */
+    private static final JsonReaderFactory READER_FACTORY = PROVIDER.createReaderFactory(CONFIG);
+
+    /**
+     * Factory for json writers (compact output).
+     */
+    private static final JsonWriterFactory WRITER_FACTORY = PROVIDER.createWriterFactory(CONFIG);
+
+    /**
+     * Factory for json writers (human-readable output).
+     */
+    private static final JsonWriterFactory WRITER_FACTORY_PRETTY = PROVIDER.createWriterFactory(
+            Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, Boolean.TRUE));
+
+    /**
+     * Factory for streaming json parsers.
+     */
+    private static final JsonParserFactory PARSER_FACTORY = PROVIDER.createParserFactory(CONFIG);
+
+    /**
+     * Factory for streaming json generators.
+     */
+    private static final JsonGeneratorFactory GENERATOR_FACTORY = PROVIDER.createGeneratorFactory(CONFIG);
+}
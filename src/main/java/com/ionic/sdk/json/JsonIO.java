@@ -4,20 +4,16 @@ import com.ionic.sdk.core.codec.Transcoder;
 import com.ionic.sdk.error.IonicException;
 import com.ionic.sdk.error.SdkError;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonException;
 import javax.json.JsonObject;
 import javax.json.JsonReader;
 import javax.json.JsonWriter;
-import javax.json.JsonWriterFactory;
-import javax.json.stream.JsonGenerator;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
-import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * Utility methods for serialization / deserialization of json messages using the javax.json library.
@@ -40,7 +36,7 @@ public final class JsonIO {
      * @throws IonicException on failure parsing the input json
      */
     public static JsonObject readObject(final InputStream jsonStream) throws IonicException {
-        try (JsonReader jsonReader = Json.createReader(jsonStream)) {
+        try (JsonReader jsonReader = JsonFactories.createReader(jsonStream)) {
             return jsonReader.readObject();
         } catch (JsonException e) {
             throw new IonicException(SdkError.ISAGENT_PARSEFAILED, e);
@@ -56,7 +52,7 @@ public final class JsonIO {
      * @throws IonicException on failure parsing the input json
      */
     public static JsonObject readObject(final byte[] jsonBytes) throws IonicException {
-        try (JsonReader jsonReader = Json.createReader(new ByteArrayInputStream(jsonBytes))) {
+        try (JsonReader jsonReader = JsonFactories.createReader(new ByteArrayInputStream(jsonBytes))) {
             return jsonReader.readObject();
         } catch (JsonException e) {
             throw new IonicException(SdkError.ISAGENT_PARSEFAILED, e);
@@ -71,7 +67,7 @@ public final class JsonIO {
      * @throws IonicException on failure parsing the input json
      */
     public static JsonObject readObject(final String jsonString) throws IonicException {
-        try (JsonReader jsonReader = Json.createReader(new StringReader(jsonString))) {
+        try (JsonReader jsonReader = JsonFactories.createReader(new StringReader(jsonString))) {
             return jsonReader.readObject();
         } catch (JsonException e) {
             throw new IonicException(SdkError.ISAGENT_PARSEFAILED, e);
@@ -86,7 +82,7 @@ public final class JsonIO {
      * @throws IonicException on failure parsing the input json
      */
     public static JsonArray readArray(final String jsonString) throws IonicException {
-        try (JsonReader jsonReader = Json.createReader(new StringReader(jsonString))) {
+        try (JsonReader jsonReader = JsonFactories.createReader(new StringReader(jsonString))) {
             return jsonReader.readArray();
         } catch (JsonException e) {
             throw new IonicException(SdkError.ISAGENT_PARSEFAILED, e);
@@ -102,17 +98,25 @@ public final class JsonIO {
      */
     public static String write(final JsonObject jsonObject, final boolean pretty) {
         final ByteArrayOutputStream os = new ByteArrayOutputStream();
-        final Map<String, Boolean> config = new TreeMap<String, Boolean>();
-        if (pretty) {
-            config.put(JsonGenerator.PRETTY_PRINTING, Boolean.TRUE);
-        }
-        final JsonWriterFactory writerFactory = javax.json.Json.createWriterFactory(config);
-        try (final JsonWriter writer = writerFactory.createWriter(os)) {
+        try (final JsonWriter writer = JsonFactories.createWriter(os, pretty)) {
             writer.writeObject(jsonObject);
         }
         return Transcoder.utf8().encode(os.toByteArray());
     }
 
+    /**
+     * Serialize a javax.json object (in compact form, encoded as UTF-8) directly to an output stream.  The stream is
+     * closed on completion.
+     *
+     * @param jsonObject the container for the source json data
+     * @param os         the stream to receive the serialized json
+     */
+    public static void write(final JsonObject jsonObject, final OutputStream os) {
+        try (final JsonWriter writer = JsonFactories.createWriter(os, false)) {
+            writer.writeObject(jsonObject);
+        }
+    }
+
     /**
      * This is how we can serialize javax.json objects.
      *
@@ -122,12 +126,7 @@ public final class JsonIO {
      */
     public static String write(final JsonArray jsonArray, final boolean pretty) {
         final ByteArrayOutputStream os = new ByteArrayOutputStream();
-        final Map<String, Boolean> config = new TreeMap<String, Boolean>();
-        if (pretty) {
-            config.put(JsonGenerator.PRETTY_PRINTING, Boolean.TRUE);
-        }
-        final JsonWriterFactory writerFactory = javax.json.Json.createWriterFactory(config);
-        try (final JsonWriter writer = writerFactory.createWriter(os)) {
+        try (final JsonWriter writer = JsonFactories.createWriter(os, pretty)) {
             writer.writeArray(jsonArray);
         }
         return Transcoder.utf8().encode(os.toByteArray());
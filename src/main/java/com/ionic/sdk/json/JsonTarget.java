@@ -1,6 +1,5 @@
 package com.ionic.sdk.json;
 
-import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
@@ -121,7 +120,7 @@ public final class JsonTarget {
      * @return a {@link JsonArray} containing the inputted items
      */
     public static JsonArray toJsonArray(final Collection<String> items) {
-        final JsonArrayBuilder jsonArrayBuilder = Json.createArrayBuilder();
+        final JsonArrayBuilder jsonArrayBuilder = JsonFactories.createArrayBuilder();
         for (String item : items) {
             jsonArrayBuilder.add(item);
         }
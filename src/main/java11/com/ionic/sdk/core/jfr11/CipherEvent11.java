@@ -0,0 +1,56 @@
+package com.ionic.sdk.core.jfr11;
+
+import com.ionic.sdk.core.jfr.CipherEvent;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event describing a single (block) cipher operation.
+ */
+@Name("com.ionic.sdk.Cipher")
+@Label("Ionic Cipher")
+@Category({"Ionic SDK", "Cipher"})
+@Description("A bulk cipher encrypt or decrypt operation on an in-memory buffer")
+final class CipherEvent11 extends Event implements CipherEvent {
+
+    /**
+     * The id of the cipher performing the operation.
+     */
+    @Label("Cipher")
+    private String cipherId;
+
+    /**
+     * True for an encrypt operation, false for a decrypt operation.
+     */
+    @Label("Encrypt")
+    private boolean encrypt;
+
+    /**
+     * The size of the operation input.
+     */
+    @Label("Payload Size")
+    @DataAmount
+    private long payloadBytes;
+
+    /**
+     * Mark the end of the event, and record it (if diagnostic recording is active).
+     *
+     * @param cipherIdIn     the id of the cipher performing the operation
+     * @param encryptIn      true for an encrypt operation, false for a decrypt operation
+     * @param payloadBytesIn the size of the operation input
+     */
+    @Override
+    public void commit(final String cipherIdIn, final boolean encryptIn, final long payloadBytesIn) {
+        end();
+        if (shouldCommit()) {
+            this.cipherId = cipherIdIn;
+            this.encrypt = encryptIn;
+            this.payloadBytes = payloadBytesIn;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ionic.sdk.core.jfr11;
+
+import com.ionic.sdk.core.jfr.ProfileEvent;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event describing a single device profile persistence operation.
+ */
+@Name("com.ionic.sdk.Profile")
+@Label("Ionic Device Profile")
+@Category({"Ionic SDK", "Device Profile"})
+@Description("A device profile load or save operation")
+final class ProfileEvent11 extends Event implements ProfileEvent {
+
+    /**
+     * The type of the device profile persistor.
+     */
+    @Label("Persistor")
+    private String persistor;
+
+    /**
+     * True for a save operation, false for a load operation.
+     */
+    @Label("Save")
+    private boolean save;
+
+    /**
+     * The number of device profiles loaded / saved.
+     */
+    @Label("Profile Count")
+    private int profileCount;
+
+    /**
+     * Mark the end of the event, and record it (if diagnostic recording is active).
+     *
+     * @param persistorIn    the class of the device profile persistor
+     * @param saveIn         true for a save operation, false for a load operation
+     * @param profileCountIn the number of device profiles loaded / saved
+     */
+    @Override
+    public void commit(final Class<?> persistorIn, final boolean saveIn, final int profileCountIn) {
+        end();
+        if (shouldCommit()) {
+            this.persistor = persistorIn.getSimpleName();
+            this.save = saveIn;
+            this.profileCount = profileCountIn;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ionic.sdk.core.jfr11;
+
+import com.ionic.sdk.core.jfr.CipherEvent;
+import com.ionic.sdk.core.jfr.ProfileEvent;
+import com.ionic.sdk.core.jfr.SdkEventFactory;
+import com.ionic.sdk.core.jfr.SdkEventNoop;
+import com.ionic.sdk.core.jfr.TransactionEvent;
+import jdk.jfr.EventType;
+
+/**
+ * Implementation used to abstract away the creation of diagnostic event objects.
+ * <p>
+ * Package "jdk.jfr" (JDK Flight Recorder) is available in JRE 11+.  Events are only allocated while an active
+ * recording enables the corresponding event type.
+ */
+public class SdkEventFactory11 extends SdkEventFactory {
+
+    /**
+     * The Flight Recorder metadata for server transaction events.
+     */
+    private final EventType typeTransaction = EventType.getEventType(TransactionEvent11.class);
+
+    /**
+     * The Flight Recorder metadata for chunk cipher events.
+     */
+    private final EventType typeChunkCipher = EventType.getEventType(ChunkCipherEvent11.class);
+
+    /**
+     * The Flight Recorder metadata for (block) cipher events.
+     */
+    private final EventType typeCipher = EventType.getEventType(CipherEvent11.class);
+
+    /**
+     * The Flight Recorder metadata for device profile events.
+     */
+    private final EventType typeProfile = EventType.getEventType(ProfileEvent11.class);
+
+    /**
+     * @return an event describing a single server transaction
+     */
+    @Override
+    public final TransactionEvent transaction() {
+        return typeTransaction.isEnabled() ? new TransactionEvent11() : SdkEventNoop.INSTANCE;
+    }
+
+    /**
+     * @return an event describing a single chunk cipher encrypt / decrypt operation
+     */
+    @Override
+    public final CipherEvent chunkCipher() {
+        return typeChunkCipher.isEnabled() ? new ChunkCipherEvent11() : SdkEventNoop.INSTANCE;
+    }
+
+    /**
+     * @return an event describing a single (block) cipher encrypt / decrypt operation
+     */
+    @Override
+    public final CipherEvent cipher() {
+        return typeCipher.isEnabled() ? new CipherEvent11() : SdkEventNoop.INSTANCE;
+    }
+
+    /**
+     * @return an event describing a single device profile load / save operation
+     */
+    @Override
+    public final ProfileEvent profile() {
+        return typeProfile.isEnabled() ? new ProfileEvent11() : SdkEventNoop.INSTANCE;
+    }
+}
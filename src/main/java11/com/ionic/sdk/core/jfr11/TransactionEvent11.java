@@ -0,0 +1,82 @@
+package com.ionic.sdk.core.jfr11;
+
+import com.ionic.sdk.core.jfr.TransactionEvent;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event describing a single server transaction.
+ */
+@Name("com.ionic.sdk.Transaction")
+@Label("Ionic Transaction")
+@Category({"Ionic SDK", "Key Services"})
+@Description("A request made by an Ionic SDK agent to the Ionic server infrastructure")
+final class TransactionEvent11 extends Event implements TransactionEvent {
+
+    /**
+     * The type of the server transaction.
+     */
+    @Label("Type")
+    private String type;
+
+    /**
+     * The conversation id of the transaction.
+     */
+    @Label("Conversation ID")
+    private String cid;
+
+    /**
+     * The number of keys in the server response.
+     */
+    @Label("Key Count")
+    private int keyCount;
+
+    /**
+     * The number of request entity bytes sent to the server.
+     */
+    @Label("Request Size")
+    @DataAmount
+    private long requestBytes;
+
+    /**
+     * The number of response entity bytes received from the server.
+     */
+    @Label("Response Size")
+    @DataAmount
+    private long responseBytes;
+
+    /**
+     * The Ionic server error code (if any) from the response.
+     */
+    @Label("Server Error Code")
+    private int serverErrorCode;
+
+    /**
+     * Mark the end of the event, and record it (if diagnostic recording is active).
+     *
+     * @param typeIn            the class of the server transaction
+     * @param cidIn             the conversation id of the transaction
+     * @param keyCountIn        the number of keys in the server response
+     * @param requestBytesIn    the number of request entity bytes sent to the server
+     * @param responseBytesIn   the number of response entity bytes received from the server
+     * @param serverErrorCodeIn the Ionic server error code (if any) from the response
+     */
+    @Override
+    public void commit(final Class<?> typeIn, final String cidIn, final int keyCountIn,
+                       final long requestBytesIn, final long responseBytesIn, final int serverErrorCodeIn) {
+        end();
+        if (shouldCommit()) {
+            this.type = typeIn.getSimpleName();
+            this.cid = cidIn;
+            this.keyCount = keyCountIn;
+            this.requestBytes = requestBytesIn;
+            this.responseBytes = responseBytesIn;
+            this.serverErrorCode = serverErrorCodeIn;
+            commit();
+        }
+    }
+}
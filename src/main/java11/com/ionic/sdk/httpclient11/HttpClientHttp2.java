@@ -0,0 +1,296 @@
+package com.ionic.sdk.httpclient11;
+
+import com.ionic.sdk.agent.config.AgentConfig;
+import com.ionic.sdk.core.date.DateTime;
+import com.ionic.sdk.core.io.Stream;
+import com.ionic.sdk.core.log.Diagnostics;
+import com.ionic.sdk.httpclient.HttpClient;
+import com.ionic.sdk.httpclient.HttpClientDefault;
+import com.ionic.sdk.httpclient.HttpHeader;
+import com.ionic.sdk.httpclient.HttpHeaders;
+import com.ionic.sdk.httpclient.HttpRequest;
+import com.ionic.sdk.httpclient.HttpResponse;
+import com.ionic.sdk.httpclient.HttpTimings;
+import com.ionic.sdk.httpclient.proxy.ProxyManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The object that provides the ability to communicate with an HTTP server, using HTTP/2 where the server supports it.
+ * <p>
+ * Package "java.net.http" is available in JRE 11+.  Instances of this class share an underlying
+ * {@link java.net.http.HttpClient} (one per distinct configuration), which keeps a single connection open to each
+ * server.  Concurrent requests (from any number of threads) are multiplexed as HTTP/2 streams over that connection.
+ * Servers which do not negotiate HTTP/2 are served using HTTP/1.1.
+ * <p>
+ * The java.net.http client supports only HTTP proxies.  When a SOCKS proxy is configured for the protocol, requests
+ * are instead serviced by {@link HttpClientDefault} (HTTP/1.1), which routes them through the SOCKS proxy.
+ * <p>
+ * Select this implementation using {@link AgentConfig#setHttpImpl(String)}, with the value
+ * {@link com.ionic.sdk.httpclient.HttpClientFactory#IMPL_HTTP2}.
+ */
+public final class HttpClientHttp2 implements HttpClient {
+
+    /**
+     * The configuration settings associated with the agent instance in use.
+     */
+    private final AgentConfig agentConfig;
+
+    /**
+     * The shared, connection-pooling client used to service requests (null if requests are serviced by
+     * {@link #fallback}).
+     */
+    private final java.net.http.HttpClient httpClient;
+
+    /**
+     * The HTTP/1.1 client used to service requests, when the configured proxy is not supported by java.net.http.
+     */
+    private final HttpClient fallback;
+
+    /**
+     * Class scoped logger.
+     */
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    /**
+     * Constructor.
+     *
+     * @param agentConfig the configuration settings associated with the agent instance in use
+     * @param protocol    the protocol to be checked for proxy configuration (e.g. "http", "https")
+     */
+    public HttpClientHttp2(final AgentConfig agentConfig, final String protocol) {
+        this.agentConfig = agentConfig;
+        final Proxy proxy = ProxyManager.getProxy(protocol);
+        if (proxy.type() == Proxy.Type.SOCKS) {
+            Diagnostics.log(logger, Level.FINE, "SOCKS proxy %s not supported by java.net.http, using HTTP/1.1", proxy);
+            this.httpClient = null;
+            this.fallback = new HttpClientDefault(agentConfig, protocol);
+        } else {
+            this.httpClient = getClient(proxy, agentConfig.getHttpTimeoutSecs());
+            this.fallback = null;
+        }
+    }
+
+    /**
+     * Send a request to the specified HTTP server.
+     *
+     * @param httpRequest the data associated with the client request
+     * @return the response received from the server
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public HttpResponse execute(final HttpRequest httpRequest) throws IOException {
+        if (fallback != null) {
+            return fallback.execute(httpRequest);
+        }
+        final URL url = httpRequest.getUrl();
+        final URL urlRequest = new URL(url.getProtocol(), url.getHost(), url.getPort(), httpRequest.getResource());
+        Diagnostics.log(logger, Level.FINEST, "URL = %s", urlRequest);
+        final ByteArrayInputStream entity = httpRequest.getEntity();
+        final java.net.http.HttpRequest.Builder builder;
+        try {
+            builder = java.net.http.HttpRequest.newBuilder(urlRequest.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        builder.timeout(Duration.ofSeconds(agentConfig.getHttpTimeoutSecs()));
+        final Stopwatch stopwatch = new Stopwatch();
+        builder.method(httpRequest.getMethod(), new TimedPublisher((entity == null)
+                ? BodyPublishers.noBody() : BodyPublishers.ofByteArray(Stream.read(entity)), stopwatch));
+        for (final HttpHeader httpHeader : httpRequest.getHttpHeaders()) {
+            builder.header(httpHeader.getName(), httpHeader.getValue());
+        }
+        final java.net.http.HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(builder.build(), responseInfo -> {
+                stopwatch.nanosHeaders = System.nanoTime();
+                return BodySubscribers.ofByteArray();
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } finally {
+            stopwatch.report(httpRequest.getTimings());
+        }
+        Diagnostics.log(logger, Level.FINEST, "version = %s, response = %s", response.version(), response);
+        final HttpHeaders httpHeadersResponse = new HttpHeaders();
+        for (final Map.Entry<String, List<String>> entry : response.headers().map().entrySet()) {
+            for (final String value : entry.getValue()) {
+                httpHeadersResponse.add(new HttpHeader(entry.getKey(), value));
+            }
+        }
+        return new HttpResponse(response.statusCode(), httpHeadersResponse, new ByteArrayInputStream(response.body()));
+    }
+
+    /**
+     * Get the shared client for the specified configuration, creating it on first use.
+     *
+     * @param proxy       the proxy through which requests should be routed (or {@link Proxy#NO_PROXY})
+     * @param timeoutSecs the timeout to be applied when establishing server connections
+     * @return the shared client instance
+     */
+    private static java.net.http.HttpClient getClient(final Proxy proxy, final int timeoutSecs) {
+        return CLIENTS.computeIfAbsent(proxy.toString() + "|" + timeoutSecs, k -> createClient(proxy, timeoutSecs));
+    }
+
+    /**
+     * Create a client for the specified configuration.
+     *
+     * @param proxy       the proxy through which requests should be routed (or {@link Proxy#NO_PROXY})
+     * @param timeoutSecs the timeout to be applied when establishing server connections
+     * @return a new client instance
+     */
+    private static java.net.http.HttpClient createClient(final Proxy proxy, final int timeoutSecs) {
+        final java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder()
+                .version(java.net.http.HttpClient.Version.HTTP_2)
+                .followRedirects(java.net.http.HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(timeoutSecs * DateTime.ONE_SECOND_MILLIS));
+        if (proxy.type() == Proxy.Type.HTTP) {
+            builder.proxy(ProxySelector.of((InetSocketAddress) proxy.address()));
+        } else {
+            builder.proxy(java.net.http.HttpClient.Builder.NO_PROXY);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Timestamps of the steps of a single request, as observed through the request and response body callbacks.
+     * <p>
+     * The java.net.http client does not report connection establishment directly.  The request body is subscribed
+     * once the (possibly pooled) connection is ready to carry it, so the time until then is reported as connect time.
+     * Values of zero indicate that the step was not observed (for example, on failure).
+     */
+    private static final class Stopwatch {
+
+        /**
+         * The time at which the request was submitted.
+         */
+        private final long nanosStart = System.nanoTime();
+
+        /**
+         * The time at which transmission of the request body began.
+         */
+        private volatile long nanosSendStart;
+
+        /**
+         * The time at which transmission of the request body completed.
+         */
+        private volatile long nanosSendEnd;
+
+        /**
+         * The time at which the response headers were received.
+         */
+        private volatile long nanosHeaders;
+
+        /**
+         * Record the observed step durations into the timings of the request.
+         *
+         * @param timings the container for elapsed time measurements of the request
+         */
+        private void report(final HttpTimings timings) {
+            final long nanosEnd = System.nanoTime();
+            final long sendStart = nanosSendStart;
+            final long sendEnd = nanosSendEnd;
+            final long headers = nanosHeaders;
+            if (sendStart != 0L) {
+                timings.addConnectNanos(sendStart - nanosStart);
+                if (sendEnd != 0L) {
+                    timings.addSendNanos(sendEnd - sendStart);
+                }
+            }
+            if (headers != 0L) {
+                timings.addReceiveNanos(nanosEnd - headers);
+            }
+        }
+    }
+
+    /**
+     * Request body publisher which records the start and end of body transmission.
+     */
+    private static final class TimedPublisher implements java.net.http.HttpRequest.BodyPublisher {
+
+        /**
+         * The publisher of the request body.
+         */
+        private final java.net.http.HttpRequest.BodyPublisher publisher;
+
+        /**
+         * The recipient of the timestamps.
+         */
+        private final Stopwatch stopwatch;
+
+        /**
+         * Constructor.
+         *
+         * @param publisher the publisher of the request body
+         * @param stopwatch the recipient of the timestamps
+         */
+        private TimedPublisher(final java.net.http.HttpRequest.BodyPublisher publisher, final Stopwatch stopwatch) {
+            this.publisher = publisher;
+            this.stopwatch = stopwatch;
+        }
+
+        /**
+         * @return the length of the request body, or -1 if unknown
+         */
+        @Override
+        public long contentLength() {
+            return publisher.contentLength();
+        }
+
+        /**
+         * Subscribe to the request body, recording the start and end of its transmission.
+         *
+         * @param subscriber the recipient of the request body
+         */
+        @Override
+        public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+            publisher.subscribe(new Flow.Subscriber<ByteBuffer>() {
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription) {
+                    stopwatch.nanosSendStart = System.nanoTime();
+                    subscriber.onSubscribe(subscription);
+                }
+
+                @Override
+                public void onNext(final ByteBuffer item) {
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    stopwatch.nanosSendEnd = System.nanoTime();
+                    subscriber.onComplete();
+                }
+            });
+        }
+    }
+
+    /**
+     * The shared client instances, keyed by configuration.
+     */
+    private static final ConcurrentMap<String, java.net.http.HttpClient> CLIENTS = new ConcurrentHashMap<>();
+}
@@ -0,0 +1,39 @@
+package com.ionic.sdk.core.exec21;
+
+import com.ionic.sdk.core.exec.TaskExecutorFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Implementation used to abstract away the creation of executors for concurrent SDK tasks.
+ * <p>
+ * Virtual threads are available in JRE 21+.  Each task is run in its own virtual thread, so the requested parallelism
+ * is not used to bound the thread count; a task blocked on network I/O releases its carrier thread.
+ */
+public class TaskExecutorFactory21 extends TaskExecutorFactory {
+
+    /**
+     * Create an executor for concurrent SDK tasks.
+     *
+     * @param parallelism (unused) the maximum number of tasks to be run concurrently
+     * @return a new executor, which should be shut down by the caller after use
+     */
+    @Override
+    public final ExecutorService newExecutor(final int parallelism) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(THREAD_NAME, 1).factory());
+    }
+
+    /**
+     * @return true; the executors created by this factory use virtual threads
+     */
+    @Override
+    public final boolean isVirtual() {
+        return true;
+    }
+
+    /**
+     * The name prefix of threads created by this factory.
+     */
+    private static final String THREAD_NAME = "ionic-sdk-vtask-";
+}